@@ -1,6 +1,7 @@
 package com.openisle.config;
 
 import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -20,4 +21,33 @@ public class AsyncConfig {
     executor.initialize();
     return executor;
   }
+
+  /**
+   * 邮件 / 推送等外部投递使用的线程池，线程数即最大并发数。
+   * 队列不设上限，避免大批量投递（例如抽奖开奖）时任务被拒绝。
+   */
+  @Bean(name = "notificationDeliveryExecutor")
+  public Executor notificationDeliveryExecutor(
+    @Value("${app.notification.delivery.concurrency:8}") int concurrency
+  ) {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(concurrency);
+    executor.setMaxPoolSize(concurrency);
+    executor.setThreadNamePrefix("delivery-");
+    executor.initialize();
+    return executor;
+  }
+
+  /**
+   * 事务提交后唤醒发件箱中继的单线程池，保证同一实例内按 id 顺序发布。
+   */
+  @Bean(name = "outboxRelayExecutor")
+  public Executor outboxRelayExecutor() {
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setThreadNamePrefix("outbox-");
+    executor.initialize();
+    return executor;
+  }
 }
@@ -41,8 +41,8 @@ public class CachingConfig {
   public static final String ONLINE_CACHE_NAME = "openisle_online";
   // 注册验证码
   public static final String VERIFY_CACHE_NAME = "openisle_verify";
-  // 发帖频率限制
-  public static final String LIMIT_CACHE_NAME = "openisle_limit";
+  // 频率限制计数；旧版 openisle_limit 下是字符串键，换前缀避免滚动发布时 WRONGTYPE
+  public static final String RATE_LIMIT_CACHE_NAME = "openisle_ratelimit";
   // 用户访问统计
   public static final String VISIT_CACHE_NAME = "openisle_visit";
   // 文章缓存
@@ -112,6 +112,8 @@ public class CachingConfig {
     return RedisCacheManager.builder(connectionFactory)
       .cacheDefaults(config)
       .withInitialCacheConfigurations(cacheConfigs)
+      // 统计命中 / 未命中，启动时已存在的缓存会注册 cache.gets 等指标
+      .enableStatistics()
       .build();
   }
 
@@ -0,0 +1,81 @@
+package com.openisle.config;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.jackson2.JacksonFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.time.Duration;
+import java.util.Collections;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Clients for third-party APIs (OAuth providers, captcha, email, AI, GitHub). All RestTemplate
+ * calls share one connection pool, so connections are kept alive and reused, each host gets a
+ * bounded number of them and every call has timeouts. The pool is exposed as
+ * {@code httpcomponents.httpclient.pool.*} metrics named {@code outbound}.
+ */
+@Configuration
+public class HttpClientConfig {
+
+  @Bean(destroyMethod = "close")
+  public CloseableHttpClient outboundHttpClient(
+    @Value("${app.http.max-connections:100}") int maxConnections,
+    @Value("${app.http.max-connections-per-host:20}") int maxConnectionsPerHost,
+    @Value("${app.http.connect-timeout:PT5S}") Duration connectTimeout,
+    @Value("${app.http.read-timeout:PT30S}") Duration readTimeout,
+    MeterRegistry meterRegistry
+  ) {
+    PoolingHttpClientConnectionManager connectionManager =
+      PoolingHttpClientConnectionManagerBuilder.create()
+        .setMaxConnTotal(maxConnections)
+        .setMaxConnPerRoute(maxConnectionsPerHost)
+        .setDefaultConnectionConfig(
+          ConnectionConfig.custom()
+            .setConnectTimeout(Timeout.of(connectTimeout))
+            .setSocketTimeout(Timeout.of(readTimeout))
+            // 定期重建连接，跟上对端 DNS 的变化
+            .setTimeToLive(TimeValue.ofMinutes(5))
+            .build()
+        )
+        .build();
+    new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "outbound").bindTo(
+      meterRegistry
+    );
+    return HttpClients.custom()
+      .setConnectionManager(connectionManager)
+      .setDefaultRequestConfig(
+        // 连接池占满时最多等一个连接超时
+        RequestConfig.custom().setConnectionRequestTimeout(Timeout.of(connectTimeout)).build()
+      )
+      .evictIdleConnections(TimeValue.ofSeconds(30))
+      .build();
+  }
+
+  @Bean
+  public RestTemplate restTemplate(CloseableHttpClient outboundHttpClient) {
+    return new RestTemplate(new HttpComponentsClientHttpRequestFactory(outboundHttpClient));
+  }
+
+  /** Shared so Google's signing keys are fetched once and cached, not on every login. */
+  @Bean
+  public GoogleIdTokenVerifier googleIdTokenVerifier(
+    @Value("${google.client-id:}") String clientId
+  ) {
+    return new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), new JacksonFactory())
+      .setAudience(Collections.singletonList(clientId))
+      .build();
+  }
+}
@@ -0,0 +1,78 @@
+package com.openisle.config;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * MurmurHash3 x64 128 位版本，只返回前 64 位（与 Guava {@code murmur3_128().asLong()} 一致）。
+ * 用于分片：分布均匀且与 JVM 的 {@link String#hashCode()} 无关，结果跨服务、跨版本稳定。
+ */
+final class Murmur3 {
+
+  private static final long C1 = 0x87c37b91114253d5L;
+  private static final long C2 = 0x4cf5ad432745937fL;
+
+  private Murmur3() {}
+
+  static long hash64(String value) {
+    return hash64(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  static long hash64(byte[] data) {
+    ByteBuffer buf = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    long h1 = 0;
+    long h2 = 0;
+    while (buf.remaining() >= 16) {
+      long k1 = buf.getLong();
+      long k2 = buf.getLong();
+      h1 ^= mixK1(k1);
+      h1 = Long.rotateLeft(h1, 27) + h2;
+      h1 = h1 * 5 + 0x52dce729;
+      h2 ^= mixK2(k2);
+      h2 = Long.rotateLeft(h2, 31) + h1;
+      h2 = h2 * 5 + 0x38495ab5;
+    }
+    int tail = buf.position();
+    int rest = buf.remaining();
+    long k1 = 0;
+    long k2 = 0;
+    for (int i = rest - 1; i >= 8; i--) {
+      k2 ^= (data[tail + i] & 0xffL) << ((i - 8) * 8);
+    }
+    for (int i = Math.min(rest, 8) - 1; i >= 0; i--) {
+      k1 ^= (data[tail + i] & 0xffL) << (i * 8);
+    }
+    h1 ^= mixK1(k1);
+    h2 ^= mixK2(k2);
+
+    h1 ^= data.length;
+    h2 ^= data.length;
+    h1 += h2;
+    h2 += h1;
+    h1 = fmix64(h1);
+    h2 = fmix64(h2);
+    return h1 + h2;
+  }
+
+  static long fmix64(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb9fe1a85ec53L;
+    k ^= k >>> 33;
+    return k;
+  }
+
+  private static long mixK1(long k1) {
+    k1 *= C1;
+    k1 = Long.rotateLeft(k1, 31);
+    return k1 * C2;
+  }
+
+  private static long mixK2(long k2) {
+    k2 *= C2;
+    k2 = Long.rotateLeft(k2, 33);
+    return k2 * C1;
+  }
+}
@@ -0,0 +1,44 @@
+package com.openisle.config;
+
+import com.openisle.service.PostRevisionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts content change logs that still hold full old and new texts into revisions, a few
+ * posts per transaction, in the background after startup. The conversion is deterministic, so
+ * nodes starting together at worst write the same values twice.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PostRevisionMigrationInitializer implements CommandLineRunner {
+
+  private static final int POSTS_PER_BATCH = 50;
+
+  private final PostRevisionService revisionService;
+
+  @Override
+  public void run(String... args) {
+    Thread thread = new Thread(this::migrate, "post-revision-migration");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  void migrate() {
+    try {
+      int total = 0;
+      int converted;
+      while ((converted = revisionService.migrateLegacy(POSTS_PER_BATCH)) > 0) {
+        total += converted;
+      }
+      if (total > 0) {
+        log.info("Converted content history of {} posts to revisions", total);
+      }
+    } catch (Exception e) {
+      log.error("Failed to convert post content history to revisions", e);
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package com.openisle.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openisle.realtime.RealtimeMessageConverter;
 import jakarta.annotation.PostConstruct;
 import java.util.ArrayList;
 import java.util.List;
@@ -31,15 +32,19 @@ public class RabbitMQConfig {
   public static final String QUEUE_NAME = "notifications-queue";
   public static final String ROUTING_KEY = "notifications.routingkey";
 
-  // 硬编码为16以匹配ShardingStrategy中的十六进制分片逻辑
-  private final int queueCount = 16;
+  private final ShardingStrategy shardingStrategy;
 
   @Value("${rabbitmq.queue.durable}")
   private boolean queueDurable;
 
   @PostConstruct
   public void init() {
-    log.info("RabbitMQ配置初始化: 队列数量={}, 持久化={}", queueCount, queueDurable);
+    log.info(
+      "RabbitMQ配置初始化: 队列数量={}, 分片算法={}, 持久化={}",
+      shardingStrategy.getShardCount(),
+      shardingStrategy.getAlgorithm(),
+      queueDurable
+    );
   }
 
   @Bean
@@ -48,18 +53,15 @@ public class RabbitMQConfig {
   }
 
   /**
-   * 创建所有分片队列, 使用十六进制后缀 (0-f)
+   * 创建所有分片队列 (notifications-shard-0 .. notifications-shard-{n-1})
    */
   @Bean
   public List<Queue> shardedQueues() {
     log.info("开始创建分片队列 Bean...");
 
     List<Queue> queues = new ArrayList<>();
-    for (int i = 0; i < queueCount; i++) {
-      String shardKey = Integer.toHexString(i);
-      String queueName = "notifications-queue-" + shardKey;
-      Queue queue = new Queue(queueName, queueDurable);
-      queues.add(queue);
+    for (int i = 0; i < shardingStrategy.getShardCount(); i++) {
+      queues.add(new Queue(ShardingStrategy.queueName(i), queueDurable));
     }
 
     log.info("分片队列 Bean 创建完成，总数: {}", queues.size());
@@ -67,7 +69,7 @@ public class RabbitMQConfig {
   }
 
   /**
-   * 创建所有分片绑定, 使用十六进制路由键 (notifications.shard.0 - notifications.shard.f)
+   * 创建所有分片绑定 (notifications.shards.0 .. notifications.shards.{n-1})
    */
   @Bean
   public List<Binding> shardedBindings(
@@ -77,12 +79,9 @@ public class RabbitMQConfig {
     log.info("开始创建分片绑定 Bean...");
     List<Binding> bindings = new ArrayList<>();
     if (shardedQueues != null) {
-      for (Queue queue : shardedQueues) {
-        String queueName = queue.getName();
-        String shardKey = queueName.substring("notifications-queue-".length());
-        String routingKey = "notifications.shard." + shardKey;
-        Binding binding = BindingBuilder.bind(queue).to(exchange).with(routingKey);
-        bindings.add(binding);
+      for (int i = 0; i < shardedQueues.size(); i++) {
+        Queue queue = shardedQueues.get(i);
+        bindings.add(BindingBuilder.bind(queue).to(exchange).with(ShardingStrategy.routingKey(i)));
       }
     }
 
@@ -106,14 +105,17 @@ public class RabbitMQConfig {
     return BindingBuilder.bind(legacyQueue).to(exchange).with(ROUTING_KEY);
   }
 
+  /**
+   * 实时事件信封用 Smile 编码，其余对象仍为 JSON
+   */
   @Bean
-  public Jackson2JsonMessageConverter messageConverter() {
+  public RealtimeMessageConverter messageConverter() {
     ObjectMapper objectMapper = new ObjectMapper();
     objectMapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
     objectMapper.disable(
       com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS
     );
-    return new Jackson2JsonMessageConverter(objectMapper);
+    return new RealtimeMessageConverter(new Jackson2JsonMessageConverter(objectMapper));
   }
 
   @Bean
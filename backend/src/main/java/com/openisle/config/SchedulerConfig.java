@@ -1,5 +1,6 @@
 package com.openisle.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.TaskScheduler;
@@ -10,11 +11,15 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 @EnableScheduling
 public class SchedulerConfig {
 
+  /**
+   * 所有 @Scheduled 任务（索引刷新、发件箱、清理、归档等）与抽奖 / 投票开奖共用的线程池。
+   * 线程不足时慢任务会推迟秒级任务，任务增多时应同步调大。
+   */
   @Bean
-  public TaskScheduler taskScheduler() {
+  public TaskScheduler taskScheduler(@Value("${app.scheduler.pool-size:8}") int poolSize) {
     ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
-    scheduler.setPoolSize(2);
-    scheduler.setThreadNamePrefix("lottery-");
+    scheduler.setPoolSize(poolSize);
+    scheduler.setThreadNamePrefix("scheduler-");
     scheduler.initialize();
     return scheduler;
   }
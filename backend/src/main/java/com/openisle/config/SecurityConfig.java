@@ -8,6 +8,8 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.LocalDate;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +20,7 @@ import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -47,6 +50,9 @@ public class SecurityConfig {
   @Value("${app.website-url}")
   private String websiteUrl;
 
+  @Value("${app.metrics.token:}")
+  private String metricsToken;
+
   private final RedisTemplate redisTemplate;
 
   @Bean
@@ -179,8 +185,15 @@ public class SecurityConfig {
           .permitAll()
           .requestMatchers(HttpMethod.POST, "/api/point-goods")
           .permitAll()
-          .requestMatchers("/actuator/**")
+          .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/health/**")
           .permitAll()
+          // Prometheus 抓取带配置的静态 token，未配置时一律拒绝
+          .requestMatchers("/actuator/prometheus")
+          .access((authentication, context) ->
+            new AuthorizationDecision(hasMetricsToken(context.getRequest()))
+          )
+          .requestMatchers("/actuator/**")
+          .hasAuthority("ADMIN")
           .requestMatchers(HttpMethod.POST, "/api/categories/**")
           .hasAuthority("ADMIN")
           .requestMatchers(HttpMethod.POST, "/api/tags/**")
@@ -217,6 +230,11 @@ public class SecurityConfig {
         }
         String authHeader = request.getHeader("Authorization");
         String uri = request.getRequestURI();
+        // 指标 token 不是 JWT，交给授权规则校验
+        if (uri.startsWith("/actuator/prometheus") && hasMetricsToken(request)) {
+          filterChain.doFilter(request, response);
+          return;
+        }
 
         boolean publicGet =
           "GET".equalsIgnoreCase(request.getMethod()) &&
@@ -234,7 +252,7 @@ public class SecurityConfig {
             uri.startsWith("/api/channels") ||
             uri.startsWith("/api/sitemap.xml") ||
             uri.startsWith("/api/medals") ||
-            uri.startsWith("/actuator") ||
+            uri.startsWith("/actuator/health") ||
             uri.startsWith("/api/rss"));
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
@@ -275,6 +293,17 @@ public class SecurityConfig {
     };
   }
 
+  private boolean hasMetricsToken(HttpServletRequest request) {
+    String header = request.getHeader("Authorization");
+    if (metricsToken.isEmpty() || header == null || !header.startsWith("Bearer ")) {
+      return false;
+    }
+    return MessageDigest.isEqual(
+      metricsToken.getBytes(StandardCharsets.UTF_8),
+      header.substring(7).getBytes(StandardCharsets.UTF_8)
+    );
+  }
+
   @Bean
   public OncePerRequestFilter userVisitFilter() {
     return new OncePerRequestFilter() {
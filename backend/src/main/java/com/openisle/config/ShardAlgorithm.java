@@ -0,0 +1,48 @@
+package com.openisle.config;
+
+/**
+ * 把用户名的 64 位 murmur3 哈希映射到 {@code [0, shards)} 的算法。
+ * 两者都均匀分布，并且在分片数变化时只迁移约 1/n 的用户。
+ */
+public enum ShardAlgorithm {
+  /**
+   * Jump consistent hash（Lamping &amp; Veach）：O(log n)、无内存开销，
+   * 扩容时只有被分到新分片的用户会迁移。
+   */
+  JUMP {
+    @Override
+    int shard(long hash, int shards) {
+      long key = hash;
+      long b = -1;
+      long j = 0;
+      while (j < shards) {
+        b = j;
+        key = key * 2862933555777941757L + 1;
+        j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+      }
+      return (int) b;
+    }
+  },
+
+  /**
+   * Rendezvous（最高随机权重）哈希：对每个分片打分取最大，O(n)。
+   * 任意分片增减都只影响原本落在它上面的用户。
+   */
+  RENDEZVOUS {
+    @Override
+    int shard(long hash, int shards) {
+      int best = 0;
+      long bestScore = Long.MIN_VALUE;
+      for (int i = 0; i < shards; i++) {
+        long score = Murmur3.fmix64(hash ^ (0x9e3779b97f4a7c15L * (i + 1)));
+        if (score > bestScore) {
+          bestScore = score;
+          best = i;
+        }
+      }
+      return best;
+    }
+  };
+
+  abstract int shard(long hash, int shards);
+}
@@ -1,87 +1,63 @@
 package com.openisle.config;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * 按用户名把实时通知分配到 {@code shardCount} 个队列，同一用户总是落在同一个队列上以保证顺序。
+ *
+ * <p>分片由用户名的 murmur3 哈希经 {@link ShardAlgorithm} 计算。队列与路由键使用十进制编号
+ * （{@code notifications-shard-N} / {@code notifications.shards.N}），与旧的十六进制首字符分片
+ * （{@code notifications-queue-0..f}）不重名，旧队列由 websocket 服务在迁移期间继续消费直到排空。
+ */
 @Component
 @Slf4j
 public class ShardingStrategy {
 
-  // 固定为16以匹配RabbitMQConfig中的十六进制分片逻辑
-  private static final int QUEUE_COUNT = 16;
+  public static final String QUEUE_PREFIX = "notifications-shard-";
+  public static final String ROUTING_KEY_PREFIX = "notifications.shards.";
 
-  // 分片分布统计
-  private final Map<Integer, AtomicLong> shardCounts = new ConcurrentHashMap<>();
+  @Getter
+  private final int shardCount;
+
+  @Getter
+  private final ShardAlgorithm algorithm;
+
+  public ShardingStrategy(
+    @Value("${rabbitmq.sharding.shard-count:16}") int shardCount,
+    @Value("${rabbitmq.sharding.algorithm:JUMP}") ShardAlgorithm algorithm
+  ) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("rabbitmq.sharding.shard-count must be positive");
+    }
+    this.shardCount = shardCount;
+    this.algorithm = algorithm;
+  }
 
   /**
-   * 根据用户名获取分片信息（基于哈希值首字符）
+   * 根据用户名获取分片信息
    */
   public ShardInfo getShardInfo(String username) {
     if (username == null || username.isEmpty()) {
       // 空用户名默认分到第0个分片
-      return getShardInfoByIndex(0);
+      return shardInfo(0);
     }
-
-    // 计算用户名的哈希值并转为十六进制字符串
-    String hash = Integer.toHexString(Math.abs(username.hashCode()));
-
-    // 取哈希值的第一个字符 (0-9, a-f)
-    char firstChar = hash.charAt(0);
-
-    // 十六进制字符映射到队列
-    int shard = getShardFromHexChar(firstChar);
-    recordShardUsage(shard);
-
-    log.debug(
-      "Username '{}' -> hash '{}' -> firstChar '{}' -> shard {}",
-      username,
-      hash,
-      firstChar,
-      shard
-    );
-
-    return getShardInfoByIndex(shard);
+    int shard = algorithm.shard(Murmur3.hash64(username), shardCount);
+    log.debug("Username '{}' -> shard {} ({})", username, shard, algorithm);
+    return shardInfo(shard);
   }
 
-  /**
-   * 将十六进制字符映射到分片索引
-   */
-  private int getShardFromHexChar(char hexChar) {
-    int charValue;
-    if (hexChar >= '0' && hexChar <= '9') {
-      charValue = hexChar - '0'; // 0-9
-    } else if (hexChar >= 'a' && hexChar <= 'f') {
-      charValue = hexChar - 'a' + 10; // 10-15
-    } else {
-      // 异常情况，默认为0
-      charValue = 0;
-    }
-
-    // 映射到队列数量范围内
-    return charValue % QUEUE_COUNT;
+  public static String queueName(int shard) {
+    return QUEUE_PREFIX + shard;
   }
 
-  /**
-   * 根据分片索引获取分片信息
-   */
-  private ShardInfo getShardInfoByIndex(int shard) {
-    String shardKey = Integer.toHexString(shard);
-    return new ShardInfo(
-      shard,
-      "notifications-queue-" + shardKey,
-      "notifications.shard." + shardKey
-    );
+  public static String routingKey(int shard) {
+    return ROUTING_KEY_PREFIX + shard;
   }
 
-  /**
-   * 记录分片使用统计
-   */
-  private void recordShardUsage(int shard) {
-    shardCounts.computeIfAbsent(shard, k -> new AtomicLong(0)).incrementAndGet();
+  static ShardInfo shardInfo(int shard) {
+    return new ShardInfo(shard, queueName(shard), routingKey(shard));
   }
 }
@@ -3,6 +3,7 @@ package com.openisle.controller;
 import com.openisle.model.Notification;
 import com.openisle.model.NotificationType;
 import com.openisle.model.User;
+import com.openisle.notification.NotificationUnreadCounter;
 import com.openisle.repository.NotificationRepository;
 import com.openisle.repository.UserRepository;
 import com.openisle.service.EmailSender;
@@ -25,6 +26,7 @@ public class AdminUserController {
   private final UserRepository userRepository;
   private final NotificationRepository notificationRepository;
   private final EmailSender emailSender;
+  private final NotificationUnreadCounter unreadCounter;
 
   @Value("${app.website-url}")
   private String websiteUrl;
@@ -76,9 +78,11 @@ public class AdminUserController {
       NotificationType.REGISTER_REQUEST,
       applicant
     );
+    java.util.List<Notification> changed = notifs.stream().filter(n -> !n.isRead()).toList();
     for (Notification n : notifs) {
       n.setRead(true);
     }
     notificationRepository.saveAll(notifs);
+    unreadCounter.markedRead(changed);
   }
 }
@@ -1,5 +1,7 @@
 package com.openisle.controller;
 
+import com.openisle.ratelimit.RateLimitAction;
+import com.openisle.ratelimit.RateLimitService;
 import com.openisle.service.AiUsageService;
 import com.openisle.service.OpenAiService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -23,6 +25,7 @@ public class AiController {
 
   private final OpenAiService openAiService;
   private final AiUsageService aiUsageService;
+  private final RateLimitService rateLimitService;
 
   @PostMapping("/format")
   @Operation(summary = "Format markdown", description = "Format text via AI")
@@ -40,6 +43,7 @@ public class AiController {
     if (text == null) {
       return ResponseEntity.badRequest().build();
     }
+    rateLimitService.check(RateLimitAction.AI_FORMAT, auth.getName());
     int limit = aiUsageService.getFormatLimit();
     int used = aiUsageService.getCount(auth.getName());
     if (limit > 0 && used >= limit) {
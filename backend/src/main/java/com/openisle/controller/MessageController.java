@@ -2,12 +2,18 @@ package com.openisle.controller;
 
 import com.openisle.dto.ConversationDetailDto;
 import com.openisle.dto.ConversationDto;
+import com.openisle.dto.ConversationPageDto;
 import com.openisle.dto.CreateConversationRequest;
 import com.openisle.dto.CreateConversationResponse;
 import com.openisle.dto.MessageDto;
+import com.openisle.dto.MessagePageDto;
+import com.openisle.message.ConversationCursor;
+import com.openisle.message.MessageCursor;
 import com.openisle.model.Message;
 import com.openisle.model.MessageConversation;
 import com.openisle.model.User;
+import com.openisle.ratelimit.RateLimitAction;
+import com.openisle.ratelimit.RateLimitService;
 import com.openisle.repository.UserRepository;
 import com.openisle.service.MessageService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -33,6 +39,7 @@ public class MessageController {
 
   private final MessageService messageService;
   private final UserRepository userRepository;
+  private final RateLimitService rateLimitService;
 
   // This is a placeholder for getting the current user's ID
   private Long getCurrentUserId(Authentication auth) {
@@ -58,6 +65,33 @@ public class MessageController {
     return ResponseEntity.ok(conversations);
   }
 
+  @GetMapping("/conversations/page")
+  @Operation(
+    summary = "Page conversations",
+    description = "Get conversations of current user with a keyset cursor"
+  )
+  @ApiResponse(
+    responseCode = "200",
+    description = "Conversation page",
+    content = @Content(schema = @Schema(implementation = ConversationPageDto.class))
+  )
+  @SecurityRequirement(name = "JWT")
+  public ConversationPageDto getConversationPage(
+    @RequestParam(value = "cursor", required = false) String cursor,
+    @RequestParam(value = "size", defaultValue = "30") int size,
+    Authentication auth
+  ) {
+    MessageService.ConversationPage page = messageService.getConversations(
+      getCurrentUserId(auth),
+      ConversationCursor.decode(cursor),
+      size
+    );
+    ConversationPageDto dto = new ConversationPageDto();
+    dto.setItems(page.items());
+    dto.setNextCursor(page.next() != null ? page.next().encode() : null);
+    return dto;
+  }
+
   @GetMapping("/conversations/{conversationId}")
   @Operation(summary = "Get conversation", description = "Get messages of a conversation")
   @ApiResponse(
@@ -81,6 +115,40 @@ public class MessageController {
     return ResponseEntity.ok(conversationDetails);
   }
 
+  @GetMapping("/conversations/{conversationId}/messages")
+  @Operation(
+    summary = "Message history",
+    description = "Get messages of a conversation before or after a cursor, or around a message"
+  )
+  @ApiResponse(
+    responseCode = "200",
+    description = "Message page",
+    content = @Content(schema = @Schema(implementation = MessagePageDto.class))
+  )
+  @SecurityRequirement(name = "JWT")
+  public MessagePageDto getMessageHistory(
+    @PathVariable Long conversationId,
+    @RequestParam(value = "before", required = false) String before,
+    @RequestParam(value = "after", required = false) String after,
+    @RequestParam(value = "around", required = false) Long around,
+    @RequestParam(value = "size", defaultValue = "30") int size,
+    Authentication auth
+  ) {
+    MessageService.MessagePage page = messageService.getMessages(
+      conversationId,
+      getCurrentUserId(auth),
+      MessageCursor.decode(before),
+      MessageCursor.decode(after),
+      around,
+      size
+    );
+    MessagePageDto dto = new MessagePageDto();
+    dto.setItems(page.items());
+    dto.setBeforeCursor(page.before() != null ? page.before().encode() : null);
+    dto.setAfterCursor(page.after() != null ? page.after().encode() : null);
+    return dto;
+  }
+
   @PostMapping
   @Operation(summary = "Send message", description = "Send a direct message to a user")
   @ApiResponse(
@@ -93,6 +161,7 @@ public class MessageController {
     @RequestBody MessageRequest req,
     Authentication auth
   ) {
+    rateLimitService.check(RateLimitAction.MESSAGE, auth.getName());
     Message message = messageService.sendMessage(
       getCurrentUserId(auth),
       req.getRecipientId(),
@@ -115,6 +184,7 @@ public class MessageController {
     @RequestBody ChannelMessageRequest req,
     Authentication auth
   ) {
+    rateLimitService.check(RateLimitAction.MESSAGE, auth.getName());
     Message message = messageService.sendMessageToConversation(
       getCurrentUserId(auth),
       conversationId,
@@ -2,10 +2,12 @@ package com.openisle.controller;
 
 import com.openisle.dto.NotificationDto;
 import com.openisle.dto.NotificationMarkReadRequest;
+import com.openisle.dto.NotificationPageDto;
 import com.openisle.dto.NotificationPreferenceDto;
 import com.openisle.dto.NotificationPreferenceUpdateRequest;
 import com.openisle.dto.NotificationUnreadCountDto;
 import com.openisle.mapper.NotificationMapper;
+import com.openisle.notification.NotificationCursor;
 import com.openisle.service.NotificationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -53,6 +55,35 @@ public class NotificationController {
       .collect(Collectors.toList());
   }
 
+  @GetMapping("/page")
+  @Operation(
+    summary = "Page notifications",
+    description = "Retrieve notifications for the current user with a keyset cursor"
+  )
+  @ApiResponse(
+    responseCode = "200",
+    description = "Notification page",
+    content = @Content(schema = @Schema(implementation = NotificationPageDto.class))
+  )
+  @SecurityRequirement(name = "JWT")
+  public NotificationPageDto page(
+    @RequestParam(value = "unread", defaultValue = "false") boolean unread,
+    @RequestParam(value = "cursor", required = false) String cursor,
+    @RequestParam(value = "size", defaultValue = "30") int size,
+    Authentication auth
+  ) {
+    NotificationService.NotificationPage page = notificationService.listNotifications(
+      auth.getName(),
+      unread,
+      NotificationCursor.decode(cursor),
+      size
+    );
+    NotificationPageDto dto = new NotificationPageDto();
+    dto.setItems(page.items().stream().map(notificationMapper::toDto).toList());
+    dto.setNextCursor(page.next() != null ? page.next().encode() : null);
+    return dto;
+  }
+
   @GetMapping("/unread")
   @Operation(
     summary = "List unread notifications",
@@ -101,6 +132,14 @@ public class NotificationController {
     notificationService.markRead(auth.getName(), req.getIds());
   }
 
+  @PostMapping("/read-all")
+  @Operation(summary = "Mark all read", description = "Mark all current notifications as read")
+  @ApiResponse(responseCode = "200", description = "Marked read")
+  @SecurityRequirement(name = "JWT")
+  public void markAllRead(Authentication auth) {
+    notificationService.markAllRead(auth.getName());
+  }
+
   @GetMapping("/prefs")
   @Operation(summary = "List preferences", description = "List notification preferences")
   @ApiResponse(
@@ -1,6 +1,8 @@
 package com.openisle.controller;
 
 import com.openisle.dto.PostChangeLogDto;
+import com.openisle.dto.PostContentDiffDto;
+import com.openisle.dto.PostRevisionDto;
 import com.openisle.mapper.PostChangeLogMapper;
 import com.openisle.service.PostChangeLogService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -33,4 +35,33 @@ public class PostChangeLogController {
   public List<PostChangeLogDto> listLogs(@PathVariable Long id) {
     return changeLogService.listLogs(id).stream().map(mapper::toDto).collect(Collectors.toList());
   }
+
+  @GetMapping("/{id}/change-logs/{logId}/diff")
+  @Operation(summary = "Content change diff", description = "Unified diff of a content change")
+  @ApiResponse(
+    responseCode = "200",
+    description = "Unified diff",
+    content = @Content(schema = @Schema(implementation = PostContentDiffDto.class))
+  )
+  public PostContentDiffDto contentDiff(@PathVariable Long id, @PathVariable Long logId) {
+    PostContentDiffDto dto = new PostContentDiffDto();
+    dto.setId(logId);
+    dto.setDiff(changeLogService.contentDiff(id, logId));
+    return dto;
+  }
+
+  @GetMapping("/{id}/revisions/{revision}")
+  @Operation(summary = "Post revision", description = "Post content as of a revision")
+  @ApiResponse(
+    responseCode = "200",
+    description = "Revision content",
+    content = @Content(schema = @Schema(implementation = PostRevisionDto.class))
+  )
+  public PostRevisionDto revision(@PathVariable Long id, @PathVariable int revision) {
+    PostRevisionDto dto = new PostRevisionDto();
+    dto.setPostId(id);
+    dto.setRevision(revision);
+    dto.setContent(changeLogService.contentAt(id, revision));
+    return dto;
+  }
 }
@@ -5,6 +5,8 @@ import com.openisle.dto.ReactionRequest;
 import com.openisle.mapper.ReactionMapper;
 import com.openisle.model.Reaction;
 import com.openisle.model.ReactionType;
+import com.openisle.ratelimit.RateLimitAction;
+import com.openisle.ratelimit.RateLimitService;
 import com.openisle.service.LevelService;
 import com.openisle.service.PointService;
 import com.openisle.service.ReactionService;
@@ -27,6 +29,7 @@ public class ReactionController {
   private final LevelService levelService;
   private final ReactionMapper reactionMapper;
   private final PointService pointService;
+  private final RateLimitService rateLimitService;
 
   /**
    * Get all available reaction types.
@@ -55,6 +58,7 @@ public class ReactionController {
     @RequestBody ReactionRequest req,
     Authentication auth
   ) {
+    rateLimitService.check(RateLimitAction.REACTION, auth.getName());
     Reaction reaction = reactionService.reactToPost(auth.getName(), postId, req.getType());
     if (reaction == null) {
       pointService.deductForReactionOfPost(auth.getName(), postId);
@@ -79,6 +83,7 @@ public class ReactionController {
     @RequestBody ReactionRequest req,
     Authentication auth
   ) {
+    rateLimitService.check(RateLimitAction.REACTION, auth.getName());
     Reaction reaction = reactionService.reactToComment(auth.getName(), commentId, req.getType());
     if (reaction == null) {
       pointService.deductForReactionOfComment(auth.getName(), commentId);
@@ -103,6 +108,7 @@ public class ReactionController {
     @RequestBody ReactionRequest req,
     Authentication auth
   ) {
+    rateLimitService.check(RateLimitAction.REACTION, auth.getName());
     Reaction reaction = reactionService.reactToMessage(auth.getName(), messageId, req.getType());
     if (reaction == null) {
       return ResponseEntity.noContent().build();
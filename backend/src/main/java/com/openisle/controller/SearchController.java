@@ -1,17 +1,23 @@
 package com.openisle.controller;
 
 import com.openisle.dto.PostSummaryDto;
+import com.openisle.dto.SearchPageDto;
 import com.openisle.dto.SearchResultDto;
+import com.openisle.dto.SuggestionDto;
 import com.openisle.dto.UserDto;
+import com.openisle.exception.FieldException;
 import com.openisle.mapper.PostMapper;
 import com.openisle.mapper.UserMapper;
 import com.openisle.service.SearchService;
+import com.openisle.suggest.SuggestKind;
+import com.openisle.suggest.TypeaheadService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -25,6 +31,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class SearchController {
 
   private final SearchService searchService;
+  private final TypeaheadService typeaheadService;
   private final UserMapper userMapper;
   private final PostMapper postMapper;
 
@@ -107,19 +114,86 @@ public class SearchController {
     return searchService
       .globalSearch(keyword)
       .stream()
-      .map(r -> {
-        SearchResultDto dto = new SearchResultDto();
-        dto.setType(r.type());
-        dto.setId(r.id());
-        dto.setText(r.text());
-        dto.setSubText(r.subText());
-        dto.setExtra(r.extra());
-        dto.setPostId(r.postId());
-        dto.setHighlightedText(r.highlightedText());
-        dto.setHighlightedSubText(r.highlightedSubText());
-        dto.setHighlightedExtra(r.highlightedExtra());
+      .map(this::toDto)
+      .collect(Collectors.toList());
+  }
+
+  @GetMapping("/page")
+  @Operation(
+    summary = "Paginated search",
+    description = "Search one type of result page by page using the returned cursor"
+  )
+  @ApiResponse(
+    responseCode = "200",
+    description = "Search results page",
+    content = @Content(schema = @Schema(implementation = SearchPageDto.class))
+  )
+  public SearchPageDto page(
+    @RequestParam String type,
+    @RequestParam String keyword,
+    @RequestParam(value = "cursor", required = false) String cursor,
+    @RequestParam(value = "size", defaultValue = "20") int size,
+    @RequestParam(value = "trackTotalHits", defaultValue = "false") boolean trackTotalHits,
+    @RequestParam(value = "highlight", defaultValue = "true") boolean highlight
+  ) {
+    SearchService.SearchPage page = searchService.searchPage(
+      new SearchService.SearchQuery(type, keyword, cursor, size, trackTotalHits, highlight)
+    );
+    SearchPageDto dto = new SearchPageDto();
+    dto.setItems(page.items().stream().map(this::toDto).collect(Collectors.toList()));
+    dto.setNextCursor(page.nextCursor());
+    dto.setTotal(page.total());
+    return dto;
+  }
+
+  @GetMapping("/suggest")
+  @Operation(
+    summary = "Typeahead suggestions",
+    description = "Users, tags or categories whose name or pinyin starts with the prefix"
+  )
+  @ApiResponse(
+    responseCode = "200",
+    description = "Suggestions",
+    content = @Content(
+      array = @ArraySchema(schema = @Schema(implementation = SuggestionDto.class))
+    )
+  )
+  public List<SuggestionDto> suggest(
+    @RequestParam String type,
+    @RequestParam String prefix,
+    @RequestParam(value = "limit", defaultValue = "10") int limit
+  ) {
+    SuggestKind kind;
+    try {
+      kind = SuggestKind.valueOf(type.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new FieldException("type", "Unsupported suggestion type: " + type);
+    }
+    return typeaheadService
+      .suggest(kind, prefix, limit)
+      .stream()
+      .map(s -> {
+        SuggestionDto dto = new SuggestionDto();
+        dto.setType(type.toLowerCase(Locale.ROOT));
+        dto.setId(s.id());
+        dto.setName(s.name());
+        dto.setIcon(s.icon());
         return dto;
       })
       .collect(Collectors.toList());
   }
+
+  private SearchResultDto toDto(SearchService.SearchResult r) {
+    SearchResultDto dto = new SearchResultDto();
+    dto.setType(r.type());
+    dto.setId(r.id());
+    dto.setText(r.text());
+    dto.setSubText(r.subText());
+    dto.setExtra(r.extra());
+    dto.setPostId(r.postId());
+    dto.setHighlightedText(r.highlightedText());
+    dto.setHighlightedSubText(r.highlightedSubText());
+    dto.setHighlightedExtra(r.highlightedExtra());
+    return dto;
+  }
 }
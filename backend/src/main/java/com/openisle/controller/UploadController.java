@@ -1,5 +1,7 @@
 package com.openisle.controller;
 
+import com.openisle.ratelimit.RateLimitAction;
+import com.openisle.ratelimit.RateLimitService;
 import com.openisle.service.ImageUploader;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,6 +16,7 @@ import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -23,6 +26,7 @@ import org.springframework.web.multipart.MultipartFile;
 public class UploadController {
 
   private final ImageUploader imageUploader;
+  private final RateLimitService rateLimitService;
 
   @Value("${app.upload.check-type:true}")
   private boolean checkImageType;
@@ -37,7 +41,7 @@ public class UploadController {
     description = "Upload result",
     content = @Content(schema = @Schema(implementation = java.util.Map.class))
   )
-  public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file) {
+  public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file, Authentication auth) {
     if (
       checkImageType &&
       (file.getContentType() == null || !file.getContentType().startsWith("image/"))
@@ -47,6 +51,7 @@ public class UploadController {
     if (file.getSize() > maxUploadSize) {
       return ResponseEntity.badRequest().body(Map.of("code", 2, "msg", "File too large"));
     }
+    rateLimitService.check(RateLimitAction.UPLOAD, auth.getName());
     String url;
     try {
       url = imageUploader.upload(file.getBytes(), file.getOriginalFilename()).join();
@@ -63,11 +68,12 @@ public class UploadController {
     description = "Upload result",
     content = @Content(schema = @Schema(implementation = java.util.Map.class))
   )
-  public ResponseEntity<?> uploadUrl(@RequestBody Map<String, String> body) {
+  public ResponseEntity<?> uploadUrl(@RequestBody Map<String, String> body, Authentication auth) {
     String link = body.get("url");
     if (link == null || link.isBlank()) {
       return ResponseEntity.badRequest().body(Map.of("code", 1, "msg", "Missing url"));
     }
+    rateLimitService.check(RateLimitAction.UPLOAD, auth.getName());
     try {
       URL u = URI.create(link).toURL();
       byte[] data = u.openStream().readAllBytes();
@@ -93,7 +99,11 @@ public class UploadController {
     description = "Presigned URL",
     content = @Content(schema = @Schema(implementation = java.util.Map.class))
   )
-  public java.util.Map<String, String> presign(@RequestParam("filename") String filename) {
+  public java.util.Map<String, String> presign(
+    @RequestParam("filename") String filename,
+    Authentication auth
+  ) {
+    rateLimitService.check(RateLimitAction.UPLOAD, auth.getName());
     return imageUploader.presignUpload(filename);
   }
 }
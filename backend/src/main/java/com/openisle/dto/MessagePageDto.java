@@ -0,0 +1,15 @@
+package com.openisle.dto;
+
+import java.util.List;
+import lombok.Data;
+
+/** DTO representing a slice of a conversation's history, oldest message first. */
+@Data
+public class MessagePageDto {
+
+  private List<MessageDto> items;
+  /** Cursor for older messages, null when the slice starts at the first message. */
+  private String beforeCursor;
+  /** Cursor for newer messages, null when the slice ends at the latest message. */
+  private String afterCursor;
+}
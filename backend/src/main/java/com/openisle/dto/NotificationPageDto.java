@@ -0,0 +1,13 @@
+package com.openisle.dto;
+
+import java.util.List;
+import lombok.Data;
+
+/** DTO representing one keyset page of notifications. */
+@Data
+public class NotificationPageDto {
+
+  private List<NotificationDto> items;
+  /** Cursor of the following page, null on the last page. */
+  private String nextCursor;
+}
@@ -18,8 +18,9 @@ public class PostChangeLogDto {
   private LocalDateTime time;
   private String oldTitle;
   private String newTitle;
-  private String oldContent;
-  private String newContent;
+  private Integer revision;
+  private Integer linesAdded;
+  private Integer linesRemoved;
   private CategoryDto oldCategory;
   private CategoryDto newCategory;
   private List<TagDto> oldTags;
@@ -0,0 +1,11 @@
+package com.openisle.dto;
+
+import lombok.Data;
+
+/** DTO carrying the unified diff of one content edit. */
+@Data
+public class PostContentDiffDto {
+
+  private Long id;
+  private String diff;
+}
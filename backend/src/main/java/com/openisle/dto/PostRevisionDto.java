@@ -0,0 +1,12 @@
+package com.openisle.dto;
+
+import lombok.Data;
+
+/** DTO representing a post's content as of one revision. */
+@Data
+public class PostRevisionDto {
+
+  private Long postId;
+  private int revision;
+  private String content;
+}
@@ -0,0 +1,15 @@
+package com.openisle.dto;
+
+import java.util.List;
+import lombok.Data;
+
+/** DTO representing one page of typed search results. */
+@Data
+public class SearchPageDto {
+
+  private List<SearchResultDto> items;
+  /** Cursor of the following page, null on the last page. */
+  private String nextCursor;
+  /** Total number of matches, null unless requested and supported by the engine. */
+  private Long total;
+}
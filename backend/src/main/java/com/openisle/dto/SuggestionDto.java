@@ -0,0 +1,14 @@
+package com.openisle.dto;
+
+import lombok.Data;
+
+/** DTO representing one typeahead suggestion. */
+@Data
+public class SuggestionDto {
+
+  private String type;
+  private Long id;
+  private String name;
+  /** Avatar of a user, icon of a tag or category. */
+  private String icon;
+}
@@ -4,6 +4,7 @@ import com.openisle.dto.CommentDto;
 import com.openisle.model.Comment;
 import com.openisle.service.CommentService;
 import com.openisle.service.ReactionService;
+import io.micrometer.core.annotation.Timed;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -29,6 +30,7 @@ public class CommentMapper {
     return dto;
   }
 
+  @Timed(value = "comment.mapper.tree", description = "Map a comment and its reply tree")
   public CommentDto toDtoWithReplies(Comment comment) {
     CommentDto dto = toDto(comment);
     dto.setReplies(
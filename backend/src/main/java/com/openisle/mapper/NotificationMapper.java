@@ -40,7 +40,7 @@ public class NotificationMapper {
     }
     dto.setApproved(n.getApproved());
     dto.setContent(n.getContent());
-    dto.setRead(n.isRead());
+    dto.setRead(n.effectivelyRead());
     dto.setCreatedAt(n.getCreatedAt());
     return dto;
   }
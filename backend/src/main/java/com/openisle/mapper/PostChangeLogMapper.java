@@ -35,8 +35,10 @@ public class PostChangeLogMapper {
       dto.setOldTitle(t.getOldTitle());
       dto.setNewTitle(t.getNewTitle());
     } else if (log instanceof PostContentChangeLog c) {
-      dto.setOldContent(c.getOldContent());
-      dto.setNewContent(c.getNewContent());
+      // 正文差异按需通过 /change-logs/{id}/diff 获取，时间线只带摘要
+      dto.setRevision(c.getRevision());
+      dto.setLinesAdded(c.getLinesAdded());
+      dto.setLinesRemoved(c.getLinesRemoved());
     } else if (log instanceof PostCategoryChangeLog cat) {
       dto.setOldCategory(mapCategory(cat.getOldCategory()));
       dto.setNewCategory(mapCategory(cat.getNewCategory()));
@@ -19,6 +19,7 @@ import com.openisle.repository.PollVoteRepository;
 import com.openisle.service.CommentService;
 import com.openisle.service.ReactionService;
 import com.openisle.service.SubscriptionService;
+import io.micrometer.core.annotation.Timed;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +49,7 @@ public class PostMapper {
     return dto;
   }
 
+  @Timed(value = "post.mapper.list", description = "Map a page of posts to list DTOs")
   public List<PostSummaryDto> toListDtos(List<Post> posts) {
     if (posts == null || posts.isEmpty()) {
       return List.of();
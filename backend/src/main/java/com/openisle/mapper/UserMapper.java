@@ -27,6 +27,7 @@ public class UserMapper {
   private final MedalService medalService;
   private final CategoryMapper categoryMapper;
   private final TagMapper tagMapper;
+  private final ContentProcessingService contentProcessingService;
 
   @Value("${app.snippet-length}")
   private int snippetLength;
@@ -82,17 +83,7 @@ public class UserMapper {
     PostMetaDto dto = new PostMetaDto();
     dto.setId(post.getId());
     dto.setTitle(post.getTitle());
-    String content = post.getContent();
-    if (content == null) {
-      content = "";
-    }
-    if (snippetLength >= 0) {
-      dto.setSnippet(
-        content.length() > snippetLength ? content.substring(0, snippetLength) : content
-      );
-    } else {
-      dto.setSnippet(content);
-    }
+    dto.setSnippet(contentProcessingService.process(post.getContent()).excerpt(snippetLength));
     dto.setCreatedAt(post.getCreatedAt());
     dto.setCategory(categoryMapper.toDto(post.getCategory()));
     dto.setTags(post.getTags().stream().map(tagMapper::toDto).collect(Collectors.toList()));
@@ -0,0 +1,44 @@
+package com.openisle.message;
+
+import com.openisle.exception.FieldException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a user's conversation list, handed to clients as a URL-safe token. Pages are
+ * ordered by {@code (lastMessageAt, id)} descending and continue strictly after this position.
+ */
+public record ConversationCursor(LocalDateTime lastMessageAt, Long id) {
+  /** Before every conversation: the first page. */
+  public static final ConversationCursor START = new ConversationCursor(
+    LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+    Long.MAX_VALUE
+  );
+
+  public String encode() {
+    byte[] raw = (lastMessageAt + "|" + id).getBytes(StandardCharsets.UTF_8);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+  }
+
+  /** Decode a token from {@link #encode()}; a blank token is the first page. */
+  public static ConversationCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return START;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int sep = raw.indexOf('|');
+      if (sep < 0) {
+        throw new FieldException("cursor", "Invalid conversation cursor");
+      }
+      return new ConversationCursor(
+        LocalDateTime.parse(raw.substring(0, sep)),
+        Long.parseLong(raw.substring(sep + 1))
+      );
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new FieldException("cursor", "Invalid conversation cursor");
+    }
+  }
+}
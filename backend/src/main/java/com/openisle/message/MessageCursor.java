@@ -0,0 +1,50 @@
+package com.openisle.message;
+
+import com.openisle.exception.FieldException;
+import com.openisle.model.Message;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a conversation's history, handed to clients as a URL-safe token. Messages are
+ * ordered by {@code (createdAt, id)}; pages continue strictly before or after this position, so
+ * messages inserted meanwhile never shift a page.
+ */
+public record MessageCursor(LocalDateTime createdAt, Long id) {
+  /** After every message: paging back from here starts at the latest message. */
+  public static final MessageCursor LATEST = new MessageCursor(
+    LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+    Long.MAX_VALUE
+  );
+
+  public static MessageCursor of(Message message) {
+    return new MessageCursor(message.getCreatedAt(), message.getId());
+  }
+
+  public String encode() {
+    byte[] raw = (createdAt + "|" + id).getBytes(StandardCharsets.UTF_8);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+  }
+
+  /** Decode a token from {@link #encode()}; a blank token means no cursor. */
+  public static MessageCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return null;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int sep = raw.indexOf('|');
+      if (sep < 0) {
+        throw new FieldException("cursor", "Invalid message cursor");
+      }
+      return new MessageCursor(
+        LocalDateTime.parse(raw.substring(0, sep)),
+        Long.parseLong(raw.substring(sep + 1))
+      );
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new FieldException("cursor", "Invalid message cursor");
+    }
+  }
+}
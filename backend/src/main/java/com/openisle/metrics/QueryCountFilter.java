@@ -0,0 +1,62 @@
+package com.openisle.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Records how many SQL statements each request issued as {@code http.server.requests.queries},
+ * tagged like {@code http.server.requests} with the method and URI template so N+1 patterns
+ * show up per endpoint.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+  // WebMvcTest 等切片测试中没有 MeterRegistry，此时只计数不上报
+  private final ObjectProvider<MeterRegistry> meterRegistry;
+
+  @Override
+  protected void doFilterInternal(
+    HttpServletRequest request,
+    HttpServletResponse response,
+    FilterChain chain
+  ) throws ServletException, IOException {
+    QueryCountInspector.start();
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      record(request, QueryCountInspector.stop());
+    }
+  }
+
+  private void record(HttpServletRequest request, long queries) {
+    MeterRegistry registry = meterRegistry.getIfAvailable();
+    if (registry == null) {
+      return;
+    }
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    // 未匹配到处理器的请求（404、静态资源）合并成一个 uri，避免标签爆炸
+    String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+    DistributionSummary.builder("http.server.requests.queries")
+      .description("SQL statements issued per request")
+      .baseUnit("statements")
+      .tag("method", request.getMethod())
+      .tag("uri", uri)
+      .publishPercentileHistogram()
+      .register(registry)
+      .record(queries);
+  }
+}
@@ -0,0 +1,42 @@
+package com.openisle.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread.
+ *
+ * <p>Registered through {@code hibernate.session_factory.statement_inspector}, so Hibernate
+ * creates the instance itself and the count lives in a static thread local. Counting is off
+ * unless {@link #start()} was called on the thread.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+  private static final ThreadLocal<long[]> COUNT = new ThreadLocal<>();
+
+  @Override
+  public String inspect(String sql) {
+    long[] count = COUNT.get();
+    if (count != null) {
+      count[0]++;
+    }
+    return sql;
+  }
+
+  /** Start counting on the current thread from zero. */
+  public static void start() {
+    COUNT.set(new long[1]);
+  }
+
+  /** Statements counted since {@link #start()}; counting continues. */
+  public static long current() {
+    long[] count = COUNT.get();
+    return count != null ? count[0] : 0;
+  }
+
+  /** Stop counting on the current thread and return the total. */
+  public static long stop() {
+    long total = current();
+    COUNT.remove();
+    return total;
+  }
+}
@@ -1,9 +1,11 @@
 package com.openisle.model;
 
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
 @Getter
@@ -27,4 +29,9 @@ public class Category {
 
   @Column(name = "description", nullable = false)
   private String description;
+
+  /** Bumped on every entity update; drives incremental search catch-up. */
+  @UpdateTimestamp
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
 }
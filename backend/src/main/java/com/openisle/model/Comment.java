@@ -7,14 +7,21 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.Where;
 
 @Entity
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "comments")
-@SQLDelete(sql = "UPDATE comments SET deleted_at = CURRENT_TIMESTAMP(6) WHERE id = ?")
+@Table(
+  name = "comments",
+  indexes = { @Index(name = "idx_comments_updated_at", columnList = "updated_at") }
+)
+@SQLDelete(
+  sql = "UPDATE comments SET deleted_at = CURRENT_TIMESTAMP(6), " +
+  "updated_at = CURRENT_TIMESTAMP(6) WHERE id = ?"
+)
 @Where(clause = "deleted_at IS NULL")
 public class Comment {
 
@@ -33,6 +40,11 @@ public class Comment {
   )
   private LocalDateTime createdAt;
 
+  /** Bumped on every entity update; drives incremental search catch-up. */
+  @UpdateTimestamp
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+
   @ManyToOne(fetch = FetchType.LAZY, optional = false)
   @JoinColumn(name = "author_id")
   private User author;
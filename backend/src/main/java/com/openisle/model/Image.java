@@ -1,6 +1,7 @@
 package com.openisle.model;
 
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -12,7 +13,10 @@ import lombok.Setter;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "images")
+@Table(
+  name = "images",
+  indexes = { @Index(name = "idx_images_zero_ref_at", columnList = "zero_ref_at") }
+)
 public class Image {
 
   @Id
@@ -24,4 +28,8 @@ public class Image {
 
   @Column(nullable = false)
   private long refCount = 0;
+
+  /** When the reference count dropped to zero; the image is purged after a grace period. */
+  @Column(name = "zero_ref_at")
+  private LocalDateTime zeroRefAt;
 }
@@ -12,7 +12,15 @@ import org.hibernate.annotations.CreationTimestamp;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "messages")
+@Table(
+  name = "messages",
+  indexes = {
+    @Index(
+      name = "idx_messages_conversation_created",
+      columnList = "conversation_id, created_at, id"
+    )
+  }
+)
 public class Message {
 
   @Id
@@ -36,6 +44,6 @@ public class Message {
   private Message replyTo;
 
   @CreationTimestamp
-  @Column(nullable = false, updatable = false)
+  @Column(name = "created_at", nullable = false, updatable = false)
   private LocalDateTime createdAt;
 }
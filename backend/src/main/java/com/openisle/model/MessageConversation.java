@@ -15,7 +15,12 @@ import org.hibernate.annotations.CreationTimestamp;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "message_conversations")
+@Table(
+  name = "message_conversations",
+  indexes = {
+    @Index(name = "idx_message_conversations_last_message", columnList = "last_message_at, id")
+  }
+)
 public class MessageConversation {
 
   @Id
@@ -34,6 +39,10 @@ public class MessageConversation {
 
   private String avatar;
 
+  // 成员数：只在插入时写入，之后由 MessageConversationRepository.incrementMemberCount 原子更新
+  @Column(nullable = false, updatable = false)
+  private int memberCount = 0;
+
   @CreationTimestamp
   @Column(nullable = false, updatable = false)
   private LocalDateTime createdAt;
@@ -42,6 +51,11 @@ public class MessageConversation {
   @JoinColumn(name = "last_message_id")
   private Message lastMessage;
 
+  // 最后一条消息的时间，没有消息时为创建时间；会话列表按 (lastMessageAt, id) 分页
+  @CreationTimestamp
+  @Column(name = "last_message_at", nullable = false)
+  private LocalDateTime lastMessageAt;
+
   @OneToMany(mappedBy = "conversation", cascade = CascadeType.ALL, orphanRemoval = true)
   @JsonBackReference
   private Set<MessageParticipant> participants = new HashSet<>();
@@ -11,7 +11,15 @@ import lombok.Setter;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "message_participants")
+@Table(
+  name = "message_participants",
+  indexes = {
+    @Index(
+      name = "idx_message_participants_user_conversation",
+      columnList = "user_id, conversation_id"
+    )
+  }
+)
 public class MessageParticipant {
 
   @Id
@@ -2,6 +2,8 @@ package com.openisle.model;
 
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -14,9 +16,19 @@ import org.hibernate.annotations.CreationTimestamp;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "notifications")
+@Table(
+  name = "notifications",
+  indexes = {
+    @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at, id")
+  }
+)
 public class Notification {
 
+  /** Types that "mark all read" leaves unread because an admin still has to act on them. */
+  public static final Set<NotificationType> READ_ALL_EXEMPT_TYPES = EnumSet.of(
+    NotificationType.REGISTER_REQUEST
+  );
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -56,9 +68,24 @@ public class Notification {
 
   @CreationTimestamp
   @Column(
+    name = "created_at",
     nullable = false,
     updatable = false,
     columnDefinition = "DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6)"
   )
   private LocalDateTime createdAt;
+
+  /** Read explicitly, or created before the recipient last marked everything read. */
+  public boolean effectivelyRead() {
+    if (read) {
+      return true;
+    }
+    LocalDateTime readBefore = user != null ? user.getNotificationsReadBefore() : null;
+    return (
+      readBefore != null &&
+      createdAt != null &&
+      !createdAt.isAfter(readBefore) &&
+      !READ_ALL_EXEMPT_TYPES.contains(type)
+    );
+  }
 }
@@ -0,0 +1,61 @@
+package com.openisle.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Notification moved out of {@code notifications} by the retention job. Related rows are
+ * kept as plain ids without foreign keys, so archived rows never block deleting posts,
+ * comments or users.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(
+  name = "notification_archive",
+  indexes = {
+    @Index(name = "idx_notification_archive_user_created", columnList = "user_id, created_at")
+  }
+)
+public class NotificationArchive {
+
+  /** Id of the original notification. */
+  @Id
+  private Long id;
+
+  @Column(name = "user_id", nullable = false)
+  private Long userId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 50)
+  private NotificationType type;
+
+  @Column(name = "post_id")
+  private Long postId;
+
+  @Column(name = "comment_id")
+  private Long commentId;
+
+  @Column(name = "from_user_id")
+  private Long fromUserId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "reaction_type")
+  private ReactionType reactionType;
+
+  @Column(length = 1000)
+  private String content;
+
+  @Column(name = "is_read", nullable = false)
+  private boolean read;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "archived_at", nullable = false)
+  private LocalDateTime archivedAt;
+}
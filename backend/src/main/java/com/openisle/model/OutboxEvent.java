@@ -0,0 +1,70 @@
+package com.openisle.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * A RabbitMQ message written in the same transaction as the change it announces. The
+ * payload is the body the message converter produced, with its content type (JSON when
+ * null); {@code sentAt} is set once the broker has confirmed the publish. Rows are
+ * published roughly in id order; {@link com.openisle.outbox.OutboxRelay} describes what
+ * that guarantees.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(
+  name = "outbox_events",
+  indexes = { @Index(name = "idx_outbox_events_pending", columnList = "sent_at, id") }
+)
+public class OutboxEvent {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private String exchange;
+
+  @Column(name = "routing_key", nullable = false)
+  private String routingKey;
+
+  @Column(nullable = false, columnDefinition = "LONGBLOB")
+  private byte[] payload;
+
+  @Column(name = "content_type", length = 100)
+  private String contentType;
+
+  /** The converter's {@code __TypeId__} header, if any. */
+  @Column(name = "payload_type")
+  private String payloadType;
+
+  @Column(nullable = false)
+  private int attempts = 0;
+
+  @CreationTimestamp
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "sent_at")
+  private LocalDateTime sentAt;
+
+  public OutboxEvent(
+    String exchange,
+    String routingKey,
+    byte[] payload,
+    String contentType,
+    String payloadType
+  ) {
+    this.exchange = exchange;
+    this.routingKey = routingKey;
+    this.payload = payload;
+    this.contentType = contentType;
+    this.payloadType = payloadType;
+  }
+}
@@ -17,7 +17,10 @@ import org.hibernate.annotations.CreationTimestamp;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "posts")
+@Table(
+  name = "posts",
+  indexes = { @Index(name = "idx_posts_updated_at", columnList = "updated_at") }
+)
 @Inheritance(strategy = InheritanceType.JOINED)
 public class Post {
 
@@ -39,6 +42,14 @@ public class Post {
   )
   private LocalDateTime createdAt;
 
+  /**
+   * Set on insert and bumped explicitly when the title, content, category, tags or status changes;
+   * drives incremental search catch-up. Counter updates leave it alone.
+   */
+  @CreationTimestamp
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+
   @ManyToOne(optional = false, fetch = FetchType.EAGER)
   @JoinColumn(name = "author_id")
   private User author;
@@ -3,20 +3,52 @@ package com.openisle.model;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+/**
+ * A content edit stored as a revision: a deflated unified diff from the previous content and,
+ * on every few revisions, a deflated snapshot of the full new content.
+ */
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "post_content_change_logs")
+@Table(
+  name = "post_content_change_logs",
+  uniqueConstraints = @UniqueConstraint(
+    name = "uk_post_content_revision",
+    columnNames = { "post_id", "revision" }
+  )
+)
 public class PostContentChangeLog extends PostChangeLog {
 
+  /** Copy of the parent row's post id, so revision numbers can be unique per post. */
+  @Column(name = "post_id")
+  private Long revisionPostId;
+
+  /** Content version this edit produced, counted from 1 per post; null until migrated. */
+  @Column(name = "revision")
+  private Integer revision;
+
+  @Column(name = "snapshot", columnDefinition = "LONGBLOB")
+  private byte[] snapshot;
+
+  @Column(name = "patch", columnDefinition = "LONGBLOB")
+  private byte[] patch;
+
+  @Column(name = "lines_added", nullable = false)
+  private int linesAdded;
+
+  @Column(name = "lines_removed", nullable = false)
+  private int linesRemoved;
+
+  /** Full texts written before revisions were diffed; cleared once the row is migrated. */
   @Column(name = "old_content", columnDefinition = "LONGTEXT")
-  private String oldContent;
+  private String legacyOldContent;
 
   @Column(name = "new_content", columnDefinition = "LONGTEXT")
-  private String newContent;
+  private String legacyNewContent;
 }
@@ -7,4 +7,6 @@ public enum PostStatus {
   PUBLISHED,
   PENDING,
   REJECTED,
+  /** Deleted; hidden everywhere until the background purge removes the row. */
+  DELETED,
 }
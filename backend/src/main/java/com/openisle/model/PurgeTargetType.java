@@ -0,0 +1,9 @@
+package com.openisle.model;
+
+/**
+ * Kind of content whose related rows are purged in the background.
+ */
+public enum PurgeTargetType {
+  POST,
+  COMMENT,
+}
@@ -0,0 +1,41 @@
+package com.openisle.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * Pending cleanup of a deleted post or comment. The content itself is hidden in the request
+ * that deletes it; reactions, subscriptions, notifications, point history and images are
+ * removed later by {@link com.openisle.service.ContentPurgeService}.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "purge_tasks")
+public class PurgeTask {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "target_type", nullable = false, length = 16)
+  private PurgeTargetType targetType;
+
+  @Column(name = "target_id", nullable = false)
+  private Long targetId;
+
+  @CreationTimestamp
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  public PurgeTask(PurgeTargetType targetType, Long targetId) {
+    this.targetType = targetType;
+    this.targetId = targetId;
+  }
+}
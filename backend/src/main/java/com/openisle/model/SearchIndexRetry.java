@@ -0,0 +1,54 @@
+package com.openisle.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+/**
+ * A search index write that failed and is retried with backoff. Only the target is stored;
+ * the document is rebuilt from the database on every attempt, so the retry always applies
+ * the latest state (or a delete when the entity is gone).
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(
+  name = "search_index_retries",
+  uniqueConstraints = @UniqueConstraint(
+    name = "uk_search_index_retries_target",
+    columnNames = { "index_name", "entity_id" }
+  ),
+  indexes = { @Index(name = "idx_search_index_retries_next", columnList = "next_attempt_at") }
+)
+public class SearchIndexRetry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(name = "index_name", nullable = false, length = 128)
+  private String indexName;
+
+  @Column(name = "entity_id", nullable = false)
+  private Long entityId;
+
+  @Column(nullable = false)
+  private int attempts = 0;
+
+  @Column(name = "next_attempt_at", nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  @CreationTimestamp
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private LocalDateTime createdAt;
+
+  public SearchIndexRetry(String indexName, Long entityId, LocalDateTime nextAttemptAt) {
+    this.indexName = indexName;
+    this.entityId = entityId;
+    this.nextAttemptAt = nextAttemptAt;
+  }
+}
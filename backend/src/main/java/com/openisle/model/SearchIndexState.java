@@ -0,0 +1,34 @@
+package com.openisle.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Synchronization progress of one logical search index: every entity updated before
+ * {@code watermark} is known to be indexed.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "search_index_state")
+public class SearchIndexState {
+
+  @Id
+  @Column(name = "index_name", length = 128)
+  private String indexName;
+
+  /** Physical OpenSearch index the alias pointed at after the last run. */
+  @Column(name = "physical_index", length = 160)
+  private String physicalIndex;
+
+  @Column(name = "watermark")
+  private LocalDateTime watermark;
+
+  public SearchIndexState(String indexName) {
+    this.indexName = indexName;
+  }
+}
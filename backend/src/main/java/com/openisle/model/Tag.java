@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 @Entity
 @Getter
@@ -41,6 +42,11 @@ public class Tag {
   )
   private LocalDateTime createdAt;
 
+  /** Bumped on every entity update; drives incremental search catch-up. */
+  @UpdateTimestamp
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
+
   // 改用redis缓存之后选择立即加载策略
   @ManyToOne(fetch = FetchType.EAGER)
   @JoinColumn(name = "creator_id")
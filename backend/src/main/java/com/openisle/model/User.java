@@ -18,7 +18,10 @@ import org.hibernate.annotations.CreationTimestamp;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "users")
+@Table(
+  name = "users",
+  indexes = { @Index(name = "idx_users_updated_at", columnList = "updated_at") }
+)
 public class User {
 
   @Id
@@ -91,6 +94,10 @@ public class User {
     NotificationType.class
   );
 
+  /** Notifications created up to this time count as read ("mark all read"). */
+  @Column(name = "notifications_read_before")
+  private LocalDateTime notificationsReadBefore;
+
   @CreationTimestamp
   @Column(
     nullable = false,
@@ -98,4 +105,12 @@ public class User {
     columnDefinition = "DATETIME(6) DEFAULT CURRENT_TIMESTAMP(6)"
   )
   private LocalDateTime createdAt;
+
+  /**
+   * Set on insert and bumped explicitly when the username or introduction changes; drives
+   * incremental search catch-up. Counter updates leave it alone.
+   */
+  @CreationTimestamp
+  @Column(name = "updated_at")
+  private LocalDateTime updatedAt;
 }
@@ -0,0 +1,49 @@
+package com.openisle.notification;
+
+import com.openisle.exception.FieldException;
+import com.openisle.model.Notification;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a user's notification list, handed to clients as a URL-safe token. Pages are
+ * ordered by {@code (createdAt, id)} descending and continue strictly after this position.
+ */
+public record NotificationCursor(LocalDateTime createdAt, Long id) {
+  /** Before every notification: the first page. */
+  public static final NotificationCursor START = new NotificationCursor(
+    LocalDateTime.of(9999, 12, 31, 23, 59, 59),
+    Long.MAX_VALUE
+  );
+
+  public static NotificationCursor after(Notification n) {
+    return new NotificationCursor(n.getCreatedAt(), n.getId());
+  }
+
+  public String encode() {
+    byte[] raw = (createdAt + "|" + id).getBytes(StandardCharsets.UTF_8);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+  }
+
+  /** Decode a token from {@link #encode()}; a blank token is the first page. */
+  public static NotificationCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return START;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int sep = raw.indexOf('|');
+      if (sep < 0) {
+        throw new FieldException("cursor", "Invalid notification cursor");
+      }
+      return new NotificationCursor(
+        LocalDateTime.parse(raw.substring(0, sep)),
+        Long.parseLong(raw.substring(sep + 1))
+      );
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new FieldException("cursor", "Invalid notification cursor");
+    }
+  }
+}
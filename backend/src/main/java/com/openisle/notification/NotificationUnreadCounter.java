@@ -0,0 +1,394 @@
+package com.openisle.notification;
+
+import com.openisle.model.Notification;
+import com.openisle.model.NotificationType;
+import com.openisle.model.User;
+import com.openisle.realtime.RealtimeEvent;
+import com.openisle.repository.NotificationRepository;
+import com.openisle.repository.UserRepository;
+import com.openisle.service.NotificationProducer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Unread notification counts per user and {@link NotificationType}, kept in a Redis hash.
+ *
+ * <p>A user's hash is loaded from the database with one grouped query the first time it is
+ * read and from then on maintained incrementally: creating, reading and deleting
+ * notifications publish an {@link UnreadCountChangedEvent}, which is applied after commit and
+ * pushes the new total to the user over the websocket. Deltas for users whose hash is not
+ * loaded are dropped, bulk deletes simply evict the hash, and {@link #reconcile()} evicts
+ * hashes that drifted from the database so they are reloaded on the next read.
+ *
+ * <p>A loaded hash is only written if no other reader stored one in the meantime, so deltas
+ * already applied to a live hash are never overwritten. A delta committed after the grouped
+ * query but applied before the loaded hash is stored is still lost; that drift is bounded by
+ * the load round trip and repaired by {@link #reconcile()}.
+ */
+@Slf4j
+@Component
+public class NotificationUnreadCounter {
+
+  static final String KEY_PREFIX = "notifications:unread:";
+  /** Marks a loaded hash, so users without unread notifications are cached as well. */
+  static final String LOADED = "_";
+  private static final Duration TTL = Duration.ofDays(7);
+
+  private static final RedisScript<Long> APPLY = RedisScript.of(
+    "if redis.call('exists', KEYS[1]) == 0 then return 0 end " +
+    "for i = 1, #ARGV, 2 do redis.call('hincrby', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+    "return 1",
+    Long.class
+  );
+
+  /** ARGV: ttl seconds, then field/value pairs including the loaded marker. */
+  private static final RedisScript<Long> STORE = RedisScript.of(
+    "if redis.call('hexists', KEYS[1], '" + LOADED + "') == 1 then return 0 end " +
+    "redis.call('del', KEYS[1]) " +
+    "for i = 2, #ARGV, 2 do redis.call('hset', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+    "redis.call('expire', KEYS[1], ARGV[1]) " +
+    "return 1",
+    Long.class
+  );
+
+  private final StringRedisTemplate redisTemplate;
+  private final NotificationRepository notificationRepository;
+  private final UserRepository userRepository;
+  private final NotificationProducer notificationProducer;
+  private final ApplicationEventPublisher publisher;
+  private final Counter drift;
+  private final int reconcileBatchSize;
+
+  public NotificationUnreadCounter(
+    StringRedisTemplate redisTemplate,
+    NotificationRepository notificationRepository,
+    UserRepository userRepository,
+    NotificationProducer notificationProducer,
+    ApplicationEventPublisher publisher,
+    MeterRegistry meterRegistry,
+    @Value("${app.notification.unread-reconcile-batch-size:500}") int reconcileBatchSize
+  ) {
+    this.redisTemplate = redisTemplate;
+    this.notificationRepository = notificationRepository;
+    this.userRepository = userRepository;
+    this.notificationProducer = notificationProducer;
+    this.publisher = publisher;
+    this.reconcileBatchSize = Math.max(1, reconcileBatchSize);
+    this.drift = Counter.builder("notifications.unread.drift")
+      .description("Cached unread counters evicted because they differed from the database")
+      .register(meterRegistry);
+  }
+
+  /** Count newly saved notifications that are still unread. */
+  public void created(Collection<Notification> notifications) {
+    publishDeltas(notifications, 1L);
+  }
+
+  /** Count notifications that were deleted while unread. */
+  public void removed(Collection<Notification> notifications) {
+    publishDeltas(notifications, -1L);
+  }
+
+  /** Count notifications that have just been switched from unread to read. */
+  public void markedRead(Collection<Notification> notifications) {
+    Map<Long, Map<NotificationType, Long>> deltas = new HashMap<>();
+    for (Notification n : notifications) {
+      addDelta(deltas, n, -1L);
+    }
+    publish(deltas, Set.of());
+  }
+
+  /** Count notifications of one user, per type, that have just been marked read in bulk. */
+  public void markedRead(Long userId, Map<NotificationType, Long> counts) {
+    if (userId == null || counts.isEmpty()) {
+      return;
+    }
+    Map<NotificationType, Long> deltas = new EnumMap<>(NotificationType.class);
+    counts.forEach((type, count) -> deltas.put(type, -count));
+    publish(Map.of(userId, deltas), Set.of());
+  }
+
+  /** Reload the counts of these users after rows were deleted in bulk. */
+  public void invalidate(Collection<Long> userIds) {
+    if (userIds == null || userIds.isEmpty()) {
+      return;
+    }
+    publish(Map.of(), new HashSet<>(userIds));
+  }
+
+  /** Unread notifications of the user, leaving out the types they disabled. */
+  public long countUnread(User user) {
+    return total(counts(user.getId()), user.getDisabledNotificationTypes());
+  }
+
+  /** Unread notifications of the user per type. */
+  public Map<NotificationType, Long> counts(Long userId) {
+    String key = KEY_PREFIX + userId;
+    try {
+      Map<Object, Object> cached = redisTemplate.<Object, Object>opsForHash().entries(key);
+      if (cached.containsKey(LOADED)) {
+        Map<NotificationType, Long> counts = parse(cached);
+        // 删除与创建交错时计数可能短暂为负，由 reconcile 修正
+        counts.replaceAll((type, count) -> Math.max(0L, count));
+        return counts;
+      }
+    } catch (RuntimeException e) {
+      log.warn("Could not read unread notification counts of user {}", userId, e);
+      return load(userId);
+    }
+    Map<NotificationType, Long> counts = load(userId);
+    store(key, counts);
+    return counts;
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onChange(UnreadCountChangedEvent event) {
+    Set<Long> affected = new LinkedHashSet<>();
+    for (Map.Entry<Long, Map<NotificationType, Long>> entry : event.deltas().entrySet()) {
+      List<String> args = new ArrayList<>();
+      entry
+        .getValue()
+        .forEach((type, delta) -> {
+          if (delta != 0) {
+            args.add(type.name());
+            args.add(String.valueOf(delta));
+          }
+        });
+      if (args.isEmpty()) {
+        continue;
+      }
+      String key = KEY_PREFIX + entry.getKey();
+      try {
+        redisTemplate.execute(APPLY, List.of(key), args.toArray());
+      } catch (RuntimeException e) {
+        log.warn("Could not update unread notification counts of user {}", entry.getKey(), e);
+        evict(key);
+      }
+      affected.add(entry.getKey());
+    }
+    for (Long userId : event.staleUserIds()) {
+      evict(KEY_PREFIX + userId);
+      affected.add(userId);
+    }
+    for (Long userId : affected) {
+      push(userId);
+    }
+  }
+
+  /**
+   * Compare every cached hash with the database and evict the ones that drifted, e.g.
+   * because a delta was lost while Redis was unavailable.
+   */
+  @Scheduled(
+    initialDelayString = "${app.notification.unread-reconcile-interval:PT1H}",
+    fixedDelayString = "${app.notification.unread-reconcile-interval:PT1H}"
+  )
+  public void reconcile() {
+    ScanOptions options = ScanOptions.scanOptions()
+      .match(KEY_PREFIX + "*")
+      .count(reconcileBatchSize)
+      .build();
+    int checked = 0;
+    int drifted = 0;
+    try (Cursor<String> cursor = redisTemplate.scan(options)) {
+      List<Long> batch = new ArrayList<>(reconcileBatchSize);
+      while (cursor.hasNext()) {
+        Long userId = parseUserId(cursor.next());
+        if (userId != null) {
+          batch.add(userId);
+        }
+        if (batch.size() >= reconcileBatchSize) {
+          checked += batch.size();
+          drifted += reconcile(batch);
+          batch.clear();
+        }
+      }
+      if (!batch.isEmpty()) {
+        checked += batch.size();
+        drifted += reconcile(batch);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Failed to reconcile unread notification counts", e);
+      return;
+    }
+    if (drifted > 0) {
+      log.info("Evicted {} of {} drifted unread notification counters", drifted, checked);
+    }
+  }
+
+  private int reconcile(List<Long> userIds) {
+    Map<Long, Map<NotificationType, Long>> actual = new HashMap<>();
+    List<Object[]> rows = notificationRepository.countUnreadByUserAndType(
+      userIds,
+      Notification.READ_ALL_EXEMPT_TYPES
+    );
+    for (Object[] row : rows) {
+      actual
+        .computeIfAbsent((Long) row[0], id -> new EnumMap<>(NotificationType.class))
+        .put((NotificationType) row[1], ((Number) row[2]).longValue());
+    }
+    int drifted = 0;
+    for (Long userId : userIds) {
+      String key = KEY_PREFIX + userId;
+      Map<Object, Object> cached = redisTemplate.<Object, Object>opsForHash().entries(key);
+      if (!cached.containsKey(LOADED)) {
+        continue;
+      }
+      Map<NotificationType, Long> expected = actual.getOrDefault(userId, Map.of());
+      if (!parse(cached).equals(expected)) {
+        evict(key);
+        drift.increment();
+        drifted++;
+      }
+    }
+    return drifted;
+  }
+
+  private void push(Long userId) {
+    try {
+      String username = userRepository.findUsernameById(userId).orElse(null);
+      if (username == null) {
+        return;
+      }
+      Map<NotificationType, Long> counts = counts(userId);
+      Set<NotificationType> disabled = new HashSet<>(
+        userRepository.findDisabledNotificationTypes(userId)
+      );
+      Map<String, Long> byType = new HashMap<>();
+      counts.forEach((type, count) -> byType.put(type.name(), count));
+      // 在提交后的回调里运行，原事务已无法写入 outbox
+      notificationProducer.sendEventInNewTransaction(
+        username,
+        new RealtimeEvent.NotificationUnread(total(counts, disabled), byType)
+      );
+    } catch (RuntimeException e) {
+      log.warn("Failed to push unread notification count of user {}", userId, e);
+    }
+  }
+
+  private static long total(Map<NotificationType, Long> counts, Set<NotificationType> disabled) {
+    long total = 0;
+    for (Map.Entry<NotificationType, Long> entry : counts.entrySet()) {
+      if (!disabled.contains(entry.getKey())) {
+        total += entry.getValue();
+      }
+    }
+    return total;
+  }
+
+  private void publishDeltas(Collection<Notification> notifications, long sign) {
+    if (notifications == null || notifications.isEmpty()) {
+      return;
+    }
+    Map<Long, Map<NotificationType, Long>> deltas = new HashMap<>();
+    for (Notification n : notifications) {
+      if (!n.effectivelyRead()) {
+        addDelta(deltas, n, sign);
+      }
+    }
+    publish(deltas, Set.of());
+  }
+
+  private static void addDelta(
+    Map<Long, Map<NotificationType, Long>> deltas,
+    Notification n,
+    long delta
+  ) {
+    if (n.getUser() == null || n.getUser().getId() == null || n.getType() == null) {
+      return;
+    }
+    deltas
+      .computeIfAbsent(n.getUser().getId(), id -> new EnumMap<>(NotificationType.class))
+      .merge(n.getType(), delta, Long::sum);
+  }
+
+  private void publish(Map<Long, Map<NotificationType, Long>> deltas, Set<Long> stale) {
+    if (!deltas.isEmpty() || !stale.isEmpty()) {
+      publisher.publishEvent(new UnreadCountChangedEvent(deltas, stale));
+    }
+  }
+
+  private void store(String key, Map<NotificationType, Long> counts) {
+    List<String> args = new ArrayList<>();
+    args.add(String.valueOf(TTL.toSeconds()));
+    args.add(LOADED);
+    args.add("1");
+    counts.forEach((type, count) -> {
+      args.add(type.name());
+      args.add(String.valueOf(count));
+    });
+    try {
+      // 别的读者已先写入并开始累加增量时保留它的结果
+      redisTemplate.execute(STORE, List.of(key), args.toArray());
+    } catch (RuntimeException e) {
+      log.warn("Could not cache unread notification counts under {}", key, e);
+    }
+  }
+
+  private void evict(String key) {
+    try {
+      redisTemplate.delete(key);
+    } catch (RuntimeException e) {
+      log.warn("Could not evict unread notification counts under {}", key, e);
+    }
+  }
+
+  private Map<NotificationType, Long> load(Long userId) {
+    Map<NotificationType, Long> counts = new EnumMap<>(NotificationType.class);
+    List<Object[]> rows = notificationRepository.countUnreadByType(
+      userId,
+      Notification.READ_ALL_EXEMPT_TYPES
+    );
+    for (Object[] row : rows) {
+      counts.put((NotificationType) row[0], ((Number) row[1]).longValue());
+    }
+    return counts;
+  }
+
+  private static Map<NotificationType, Long> parse(Map<Object, Object> hash) {
+    Map<NotificationType, Long> counts = new EnumMap<>(NotificationType.class);
+    hash.forEach((field, value) -> {
+      if (LOADED.equals(field)) {
+        return;
+      }
+      try {
+        long count = Long.parseLong(value.toString());
+        if (count != 0) {
+          counts.put(NotificationType.valueOf(field.toString()), count);
+        }
+      } catch (IllegalArgumentException e) {
+        log.debug("Ignoring unread counter field {}={}", field, value);
+      }
+    });
+    return counts;
+  }
+
+  private static Long parseUserId(String key) {
+    try {
+      return Long.parseLong(key.substring(KEY_PREFIX.length()));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package com.openisle.notification;
+
+import com.openisle.model.NotificationType;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Published when notifications were created, marked read or deleted.
+ *
+ * @param deltas change of each user's unread count, per notification type
+ * @param staleUserIds users whose counts changed by an unknown amount (bulk deletes)
+ */
+public record UnreadCountChangedEvent(
+  Map<Long, Map<NotificationType, Long>> deltas,
+  Set<Long> staleUserIds
+) {}
@@ -0,0 +1,293 @@
+package com.openisle.outbox;
+
+import com.openisle.config.ShardingStrategy;
+import com.openisle.model.OutboxEvent;
+import com.openisle.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Publishes {@code outbox_events} rows to RabbitMQ.
+ *
+ * <p>A batch of the oldest unsent rows is locked, published with one {@link CorrelationData}
+ * per row and then the relay waits for the publisher confirms; acked rows are marked sent in
+ * the same transaction, nacked or unconfirmed rows stay pending and are retried. Delivery is
+ * at least once: a crash between the confirm and the commit publishes the rows again with the
+ * same {@code messageId} ({@code outbox-<id>}), so consumers can drop duplicates.
+ *
+ * <p>Ordering is best effort only. Each run publishes its batch in id order, but relays on
+ * different instances lock disjoint batches (SKIP LOCKED) and publish them concurrently, and a
+ * nacked or unconfirmed row is retried after later rows were already confirmed. Messages of
+ * one user can therefore reach the queue out of order, and consumers must tolerate that as
+ * well as duplicates.
+ *
+ * <p>The relay runs right after each committing transaction that wrote an event
+ * ({@link #wakeUpAfterCommit()}) and every {@code app.outbox.poll-interval} to pick up rows
+ * left behind by a crash or an unavailable broker.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+  public static final String MESSAGE_ID_PREFIX = "outbox-";
+
+  private final OutboxEventRepository repository;
+  private final RabbitTemplate rabbitTemplate;
+  private final TransactionOperations transactions;
+  private final MeterRegistry meterRegistry;
+  private final Executor executor;
+  private final int batchSize;
+  private final Duration confirmTimeout;
+  private final Duration retention;
+  private final LongSupplier clock;
+  /** Without confirms enabled on the connection factory, a send that did not throw counts. */
+  private final boolean publisherConfirms;
+  private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+  @Autowired
+  public OutboxRelay(
+    OutboxEventRepository repository,
+    RabbitTemplate rabbitTemplate,
+    TransactionOperations transactionTemplate,
+    MeterRegistry meterRegistry,
+    @Qualifier("outboxRelayExecutor") Executor executor,
+    @Value("${app.outbox.batch-size:200}") int batchSize,
+    @Value("${app.outbox.confirm-timeout:PT5S}") Duration confirmTimeout,
+    @Value("${app.outbox.retention:P1D}") Duration retention
+  ) {
+    this(
+      repository,
+      rabbitTemplate,
+      transactionTemplate,
+      meterRegistry,
+      executor,
+      batchSize,
+      confirmTimeout,
+      retention,
+      System::currentTimeMillis
+    );
+  }
+
+  OutboxRelay(
+    OutboxEventRepository repository,
+    RabbitTemplate rabbitTemplate,
+    TransactionOperations transactions,
+    MeterRegistry meterRegistry,
+    Executor executor,
+    int batchSize,
+    Duration confirmTimeout,
+    Duration retention,
+    LongSupplier clock
+  ) {
+    this.repository = repository;
+    this.rabbitTemplate = rabbitTemplate;
+    this.transactions = transactions;
+    this.meterRegistry = meterRegistry;
+    this.executor = executor;
+    this.batchSize = Math.max(1, batchSize);
+    this.confirmTimeout = confirmTimeout;
+    this.retention = retention;
+    this.clock = clock;
+    ConnectionFactory connectionFactory = rabbitTemplate.getConnectionFactory();
+    this.publisherConfirms = connectionFactory != null && connectionFactory.isPublisherConfirms();
+    if (!publisherConfirms) {
+      log.warn("Publisher confirms are disabled; outbox events are marked sent without a confirm");
+    }
+  }
+
+  /**
+   * Run the relay once the current transaction has committed, or right away when no
+   * transaction is active. Wake-ups that arrive while one is queued are coalesced.
+   */
+  public void wakeUpAfterCommit() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            wakeUp();
+          }
+        }
+      );
+    } else {
+      wakeUp();
+    }
+  }
+
+  private void wakeUp() {
+    if (wakeUpPending.compareAndSet(false, true)) {
+      executor.execute(() -> {
+        wakeUpPending.set(false);
+        drain();
+      });
+    }
+  }
+
+  @Scheduled(
+    initialDelayString = "${app.outbox.poll-interval:PT5S}",
+    fixedDelayString = "${app.outbox.poll-interval:PT5S}"
+  )
+  public void poll() {
+    drain();
+  }
+
+  /** Publish batches until the backlog is empty or a batch could not be fully sent. */
+  public synchronized void drain() {
+    try {
+      int sent;
+      do {
+        sent = publishBatch();
+      } while (sent == batchSize);
+    } catch (DataAccessException e) {
+      log.warn("Outbox relay run failed", e);
+    }
+  }
+
+  /**
+   * Publish one batch in its own transaction.
+   *
+   * @return the number of rows confirmed by the broker
+   */
+  int publishBatch() {
+    Integer sent = transactions.execute(status -> {
+      List<OutboxEvent> batch = repository.lockPending(PageRequest.of(0, batchSize));
+      if (batch.isEmpty()) {
+        return 0;
+      }
+      List<CorrelationData> confirms = new ArrayList<>(batch.size());
+      for (OutboxEvent event : batch) {
+        CorrelationData correlation = new CorrelationData(String.valueOf(event.getId()));
+        try {
+          rabbitTemplate.send(
+            event.getExchange(),
+            event.getRoutingKey(),
+            toMessage(event),
+            correlation
+          );
+        } catch (AmqpException e) {
+          // broker 不可用：后面的行保持待发送，已发出的照常等待确认
+          log.warn("Outbox publish of event {} failed: {}", event.getId(), e.getMessage());
+          break;
+        }
+        confirms.add(correlation);
+      }
+      List<Long> acked = new ArrayList<>(confirms.size());
+      List<Long> failed = new ArrayList<>();
+      long deadline = System.nanoTime() + confirmTimeout.toNanos();
+      for (int i = 0; i < batch.size(); i++) {
+        OutboxEvent event = batch.get(i);
+        boolean published = i < confirms.size();
+        if (published && (!publisherConfirms || awaitAck(confirms.get(i), deadline))) {
+          acked.add(event.getId());
+          count(event, "success");
+        } else {
+          failed.add(event.getId());
+          count(event, "failure");
+        }
+      }
+      if (!acked.isEmpty()) {
+        repository.markSent(acked, now());
+      }
+      if (!failed.isEmpty()) {
+        repository.incrementAttempts(failed);
+      }
+      return acked.size();
+    });
+    return sent == null ? 0 : sent;
+  }
+
+  @Scheduled(fixedDelayString = "${app.outbox.purge-interval:PT1H}")
+  public void purgeSent() {
+    try {
+      // 批量删除必须在事务中执行
+      Integer deleted = transactions.execute(status ->
+        repository.deleteSentBefore(now().minus(retention))
+      );
+      if (deleted != null && deleted > 0) {
+        log.info("Purged {} sent outbox events", deleted);
+      }
+    } catch (DataAccessException e) {
+      log.warn("Outbox purge failed", e);
+    }
+  }
+
+  static Message toMessage(OutboxEvent event) {
+    MessageProperties properties = new MessageProperties();
+    if (event.getContentType() == null) {
+      properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+      properties.setContentEncoding(StandardCharsets.UTF_8.name());
+    } else {
+      properties.setContentType(event.getContentType());
+    }
+    properties.setMessageId(MESSAGE_ID_PREFIX + event.getId());
+    if (event.getPayloadType() != null) {
+      properties.setHeader(
+        AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME,
+        event.getPayloadType()
+      );
+    }
+    return new Message(event.getPayload(), properties);
+  }
+
+  private static boolean awaitAck(CorrelationData correlation, long deadline) {
+    try {
+      long remaining = Math.max(0, deadline - System.nanoTime());
+      return correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS).isAck();
+    } catch (TimeoutException | ExecutionException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private void count(OutboxEvent event, String result) {
+    Counter.builder("notifications.published")
+      .description("Realtime notifications published to RabbitMQ from the outbox")
+      .tag("shard", shardTag(event.getRoutingKey()))
+      .tag("result", result)
+      .register(meterRegistry)
+      .increment();
+  }
+
+  private static String shardTag(String routingKey) {
+    return routingKey.startsWith(ShardingStrategy.ROUTING_KEY_PREFIX)
+      ? routingKey.substring(ShardingStrategy.ROUTING_KEY_PREFIX.length())
+      : "legacy";
+  }
+
+  private LocalDateTime now() {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(clock.getAsLong()), ZoneId.systemDefault());
+  }
+}
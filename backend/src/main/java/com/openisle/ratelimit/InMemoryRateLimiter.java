@@ -0,0 +1,81 @@
+package com.openisle.ratelimit;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-node rate limiter used when Redis is unavailable. Counters are not shared
+ * between nodes, so the effective limit is multiplied by the number of nodes.
+ */
+public class InMemoryRateLimiter implements RateLimiter {
+
+  private static final int MAX_KEYS = 10_000;
+
+  private final Map<String, State> states = new ConcurrentHashMap<>();
+  private final LongSupplier clock;
+
+  public InMemoryRateLimiter() {
+    this(System::currentTimeMillis);
+  }
+
+  InMemoryRateLimiter(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  @Override
+  public boolean tryAcquire(String key, RateLimitProperties.Policy policy) {
+    long now = clock.getAsLong();
+    long window = policy.getWindow().toMillis();
+    if (states.size() > MAX_KEYS) {
+      states.values().removeIf(s -> s.expired(now));
+    }
+    State state = states.computeIfAbsent(key, k -> new State());
+    synchronized (state) {
+      state.expiresAt = now + window;
+      if (policy.getAlgorithm() == RateLimitAlgorithm.TOKEN_BUCKET) {
+        return state.takeToken(now, policy.getLimit(), window);
+      }
+      return state.record(now, policy.getLimit(), window);
+    }
+  }
+
+  private static final class State {
+
+    private final ArrayDeque<Long> timestamps = new ArrayDeque<>();
+    private double tokens = -1;
+    private long refilledAt;
+    private volatile long expiresAt;
+
+    boolean expired(long now) {
+      return expiresAt <= now;
+    }
+
+    boolean record(long now, int limit, long window) {
+      while (!timestamps.isEmpty() && timestamps.peekFirst() <= now - window) {
+        timestamps.pollFirst();
+      }
+      if (timestamps.size() >= limit) {
+        return false;
+      }
+      timestamps.addLast(now);
+      return true;
+    }
+
+    boolean takeToken(long now, int capacity, long window) {
+      if (tokens < 0) {
+        tokens = capacity;
+        refilledAt = now;
+      }
+      long elapsed = Math.max(0, now - refilledAt);
+      tokens = Math.min(capacity, tokens + ((double) elapsed * capacity) / window);
+      refilledAt = now;
+      if (tokens < 1) {
+        return false;
+      }
+      tokens -= 1;
+      return true;
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.openisle.ratelimit;
+
+import lombok.Getter;
+
+/** User actions that are subject to rate limiting. */
+@Getter
+public enum RateLimitAction {
+  POST("posts", "Too many posts"),
+  COMMENT("comments", "Too many comments"),
+  REPLY("replies", "Too many comments"),
+  REACTION("reactions", "Too many reactions"),
+  UPLOAD("uploads", "Too many uploads"),
+  AI_FORMAT("ai-format", "Too many format requests"),
+  MESSAGE("messages", "Too many messages");
+
+  /** Segment used in the limiter key and as the metric tag. */
+  private final String key;
+  /** Error message returned to the client when the action is rejected. */
+  private final String message;
+
+  RateLimitAction(String key, String message) {
+    this.key = key;
+    this.message = message;
+  }
+}
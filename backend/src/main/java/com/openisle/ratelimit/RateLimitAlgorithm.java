@@ -0,0 +1,8 @@
+package com.openisle.ratelimit;
+
+public enum RateLimitAlgorithm {
+  /** At most {@code limit} actions within any {@code window}. */
+  SLIDING_WINDOW,
+  /** Bursts of up to {@code limit} actions, refilled evenly over {@code window}. */
+  TOKEN_BUCKET,
+}
@@ -0,0 +1,28 @@
+package com.openisle.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+  @Bean
+  public RateLimitService rateLimitService(
+    RateLimitProperties properties,
+    StringRedisTemplate stringRedisTemplate,
+    ObjectProvider<MeterRegistry> meterRegistry
+  ) {
+    return new RateLimitService(
+      properties,
+      new RedisRateLimiter(stringRedisTemplate),
+      new InMemoryRateLimiter(),
+      meterRegistry.getIfAvailable(SimpleMeterRegistry::new)
+    );
+  }
+}
@@ -0,0 +1,69 @@
+package com.openisle.ratelimit;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+  private boolean enabled = true;
+
+  private Map<RateLimitAction, Policy> policies = defaultPolicies();
+
+  public Policy policy(RateLimitAction action) {
+    return policies.get(action);
+  }
+
+  private static Map<RateLimitAction, Policy> defaultPolicies() {
+    Map<RateLimitAction, Policy> map = new EnumMap<>(RateLimitAction.class);
+    map.put(
+      RateLimitAction.POST,
+      new Policy(RateLimitAlgorithm.SLIDING_WINDOW, 1, Duration.ofMinutes(5))
+    );
+    map.put(
+      RateLimitAction.COMMENT,
+      new Policy(RateLimitAlgorithm.SLIDING_WINDOW, 3, Duration.ofMinutes(1))
+    );
+    map.put(
+      RateLimitAction.REPLY,
+      new Policy(RateLimitAlgorithm.SLIDING_WINDOW, 3, Duration.ofMinutes(1))
+    );
+    map.put(
+      RateLimitAction.REACTION,
+      new Policy(RateLimitAlgorithm.TOKEN_BUCKET, 30, Duration.ofMinutes(1))
+    );
+    map.put(
+      RateLimitAction.UPLOAD,
+      new Policy(RateLimitAlgorithm.SLIDING_WINDOW, 20, Duration.ofMinutes(1))
+    );
+    map.put(
+      RateLimitAction.AI_FORMAT,
+      new Policy(RateLimitAlgorithm.SLIDING_WINDOW, 5, Duration.ofMinutes(1))
+    );
+    map.put(
+      RateLimitAction.MESSAGE,
+      new Policy(RateLimitAlgorithm.TOKEN_BUCKET, 30, Duration.ofMinutes(1))
+    );
+    return map;
+  }
+
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Policy {
+
+    private RateLimitAlgorithm algorithm = RateLimitAlgorithm.SLIDING_WINDOW;
+    /** Maximum actions per window (bucket capacity for token buckets); 0 or less disables. */
+    private int limit = 10;
+    private Duration window = Duration.ofMinutes(1);
+  }
+}
@@ -0,0 +1,81 @@
+package com.openisle.ratelimit;
+
+import com.openisle.config.CachingConfig;
+import com.openisle.exception.RateLimitException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Entry point for per-user rate limits. Decisions are made in Redis and fall back
+ * to an in-process limiter while Redis cannot be reached; MySQL is never queried.
+ */
+@Slf4j
+public class RateLimitService {
+
+  private static final long FALLBACK_WARN_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+  private final RateLimitProperties properties;
+  private final RateLimiter primary;
+  private final RateLimiter fallback;
+  private final Map<RateLimitAction, Counter> rejected = new EnumMap<>(RateLimitAction.class);
+  private volatile long lastFallbackWarnAt;
+
+  public RateLimitService(
+    RateLimitProperties properties,
+    RateLimiter primary,
+    RateLimiter fallback,
+    MeterRegistry meterRegistry
+  ) {
+    this.properties = properties;
+    this.primary = primary;
+    this.fallback = fallback;
+    for (RateLimitAction action : RateLimitAction.values()) {
+      rejected.put(
+        action,
+        Counter.builder("openisle.ratelimit.rejected")
+          .description("Actions rejected by the rate limiter")
+          .tag("action", action.getKey())
+          .register(meterRegistry)
+      );
+    }
+  }
+
+  /**
+   * Count an action for the subject (usually the username). The action is counted as soon as
+   * it is allowed, so it stays used up even if the surrounding transaction rolls back.
+   * @throws RateLimitException if the policy for the action is exceeded
+   */
+  public void check(RateLimitAction action, String subject) {
+    if (!tryAcquire(action, subject)) {
+      throw new RateLimitException(action.getMessage());
+    }
+  }
+
+  public boolean tryAcquire(RateLimitAction action, String subject) {
+    RateLimitProperties.Policy policy = properties.policy(action);
+    if (!properties.isEnabled() || subject == null || policy == null || policy.getLimit() <= 0) {
+      return true;
+    }
+    String key = CachingConfig.RATE_LIMIT_CACHE_NAME + ":" + action.getKey() + ":" + subject;
+    boolean allowed;
+    try {
+      allowed = primary.tryAcquire(key, policy);
+    } catch (RuntimeException e) {
+      long now = System.currentTimeMillis();
+      if (now - lastFallbackWarnAt > FALLBACK_WARN_INTERVAL) {
+        lastFallbackWarnAt = now;
+        log.warn("Rate limiter falling back to in-memory counters: {}", e.getMessage());
+      }
+      allowed = fallback.tryAcquire(key, policy);
+    }
+    if (!allowed) {
+      log.debug("Rate limit exceeded for {} on {}", subject, action);
+      rejected.get(action).increment();
+    }
+    return allowed;
+  }
+}
@@ -0,0 +1,9 @@
+package com.openisle.ratelimit;
+
+/** Backend that records an attempt under a key and decides whether it is allowed. */
+public interface RateLimiter {
+  /**
+   * @return true if the action is allowed and has been counted, false if it is rejected
+   */
+  boolean tryAcquire(String key, RateLimitProperties.Policy policy);
+}
@@ -0,0 +1,56 @@
+package com.openisle.ratelimit;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Rate limiter evaluated atomically inside Redis with Lua scripts, so every node
+ * shares the same counters and a decision costs a single round-trip.
+ */
+public class RedisRateLimiter implements RateLimiter {
+
+  private static final RedisScript<Long> SLIDING_WINDOW = RedisScript.of(
+    new ClassPathResource("ratelimit/sliding_window.lua"),
+    Long.class
+  );
+  private static final RedisScript<Long> TOKEN_BUCKET = RedisScript.of(
+    new ClassPathResource("ratelimit/token_bucket.lua"),
+    Long.class
+  );
+
+  private final StringRedisTemplate redisTemplate;
+
+  public RedisRateLimiter(StringRedisTemplate redisTemplate) {
+    this.redisTemplate = redisTemplate;
+  }
+
+  @Override
+  public boolean tryAcquire(String key, RateLimitProperties.Policy policy) {
+    long now = System.currentTimeMillis();
+    long window = policy.getWindow().toMillis();
+    Long result;
+    if (policy.getAlgorithm() == RateLimitAlgorithm.TOKEN_BUCKET) {
+      result = redisTemplate.execute(
+        TOKEN_BUCKET,
+        List.of(key),
+        String.valueOf(now),
+        String.valueOf(policy.getLimit()),
+        String.valueOf(window)
+      );
+    } else {
+      String member = now + "-" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+      result = redisTemplate.execute(
+        SLIDING_WINDOW,
+        List.of(key),
+        String.valueOf(now),
+        String.valueOf(window),
+        String.valueOf(policy.getLimit()),
+        member
+      );
+    }
+    return result != null && result == 1L;
+  }
+}
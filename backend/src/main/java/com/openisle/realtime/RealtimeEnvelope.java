@@ -0,0 +1,23 @@
+package com.openisle.realtime;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A realtime event sent to websocket_service over RabbitMQ.
+ *
+ * <p>Encoded with {@link RealtimeMessageConverter} as Smile with one- and two-letter field
+ * names. {@code username} only selects the shard and, for per-user events, the recipient.
+ *
+ * @param version bumped on incompatible changes; consumers ignore unknown fields
+ */
+public record RealtimeEnvelope(
+  @JsonProperty("v") int version,
+  @JsonProperty("u") String username,
+  @JsonProperty("e") RealtimeEvent event
+) {
+  public static final int VERSION = 1;
+
+  public static RealtimeEnvelope of(String username, RealtimeEvent event) {
+    return new RealtimeEnvelope(VERSION, username, event);
+  }
+}
@@ -0,0 +1,120 @@
+package com.openisle.realtime;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.openisle.dto.MessageDto;
+import com.openisle.dto.ReactionDto;
+import com.openisle.dto.UserSummaryDto;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed payloads of {@link RealtimeEnvelope}. Field names are short on purpose: websocket_service
+ * expands them back into the STOMP payloads the frontend already consumes.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "t")
+@JsonSubTypes(
+  {
+    @JsonSubTypes.Type(value = RealtimeEvent.ConversationMessage.class, name = "m"),
+    @JsonSubTypes.Type(value = RealtimeEvent.MessageReaction.class, name = "r"),
+    @JsonSubTypes.Type(value = RealtimeEvent.NotificationUnread.class, name = "n"),
+  }
+)
+public sealed interface RealtimeEvent {
+  /** A user as shown next to a message. */
+  record UserRef(
+    @JsonProperty("i") Long id,
+    @JsonProperty("n") String username,
+    @JsonProperty("a") String avatar,
+    @JsonProperty("b") boolean bot
+  ) {
+    static UserRef of(UserSummaryDto dto) {
+      return new UserRef(dto.getId(), dto.getUsername(), dto.getAvatar(), dto.isBot());
+    }
+  }
+
+  /** A reaction on a message; the message id is implied by the event. */
+  record ReactionRef(
+    @JsonProperty("i") Long id,
+    @JsonProperty("k") String type,
+    @JsonProperty("u") String username,
+    @JsonProperty("w") int reward
+  ) {
+    static ReactionRef of(ReactionDto dto) {
+      return new ReactionRef(dto.getId(), dto.getType().name(), dto.getUser(), dto.getReward());
+    }
+  }
+
+  /** The message replied to: id, content and sender only. */
+  record Reply(
+    @JsonProperty("i") Long id,
+    @JsonProperty("b") String content,
+    @JsonProperty("s") UserRef sender
+  ) {}
+
+  /**
+   * A recipient of a message with the unread counts to push to them; null counts are not
+   * pushed.
+   */
+  record Recipient(
+    @JsonProperty("i") Long id,
+    @JsonProperty("n") String username,
+    @JsonProperty("u") Long unreadCount,
+    @JsonProperty("cu") Long channelUnread
+  ) {}
+
+  /** A new message in a conversation, broadcast to the conversation and every recipient. */
+  record ConversationMessage(
+    @JsonProperty("c") Long conversationId,
+    @JsonProperty("i") Long messageId,
+    @JsonProperty("b") String content,
+    @JsonProperty("at") LocalDateTime createdAt,
+    @JsonProperty("s") UserRef sender,
+    @JsonProperty("rp") Reply replyTo,
+    @JsonProperty("rx") List<ReactionRef> reactions,
+    @JsonProperty("p") List<Recipient> recipients
+  ) implements RealtimeEvent {
+    public static ConversationMessage of(MessageDto message, List<Recipient> recipients) {
+      MessageDto reply = message.getReplyTo();
+      return new ConversationMessage(
+        message.getConversationId(),
+        message.getId(),
+        message.getContent(),
+        message.getCreatedAt(),
+        UserRef.of(message.getSender()),
+        reply == null
+          ? null
+          : new Reply(reply.getId(), reply.getContent(), UserRef.of(reply.getSender())),
+        message.getReactions() == null
+          ? List.of()
+          : message.getReactions().stream().map(ReactionRef::of).toList(),
+        recipients
+      );
+    }
+  }
+
+  /** A reaction added to or removed from a message. */
+  record MessageReaction(
+    @JsonProperty("c") Long conversationId,
+    @JsonProperty("i") Long messageId,
+    @JsonProperty("a") boolean added,
+    @JsonProperty("rx") ReactionRef reaction
+  ) implements RealtimeEvent {
+    public static MessageReaction of(Long conversationId, ReactionDto reaction, boolean added) {
+      return new MessageReaction(
+        conversationId,
+        reaction.getMessageId(),
+        added,
+        ReactionRef.of(reaction)
+      );
+    }
+  }
+
+  /** The unread notification count of the envelope's user, in total and per type. */
+  record NotificationUnread(
+    @JsonProperty("n") long count,
+    @JsonProperty("bt") Map<String, Long> byType
+  ) implements RealtimeEvent {}
+}
@@ -0,0 +1,62 @@
+package com.openisle.realtime;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * Encodes {@link RealtimeEnvelope}s as Smile (binary JSON) and everything else as JSON.
+ * Decoding picks the format from the content type, so JSON messages published before the
+ * envelope existed can still be read while a rollout is in progress.
+ */
+public class RealtimeMessageConverter implements MessageConverter {
+
+  public static final String CONTENT_TYPE_SMILE = "application/x-jackson-smile";
+
+  private final ObjectMapper smile;
+  private final Jackson2JsonMessageConverter json;
+
+  public RealtimeMessageConverter(Jackson2JsonMessageConverter json) {
+    this.json = json;
+    this.smile = SmileMapper.builder()
+      .addModule(new JavaTimeModule())
+      .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+      .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+      .build();
+  }
+
+  @Override
+  public Message toMessage(Object object, MessageProperties properties) {
+    if (!(object instanceof RealtimeEnvelope envelope)) {
+      return json.toMessage(object, properties);
+    }
+    try {
+      properties.setContentType(CONTENT_TYPE_SMILE);
+      byte[] body = smile.writeValueAsBytes(envelope);
+      properties.setContentLength(body.length);
+      return new Message(body, properties);
+    } catch (IOException e) {
+      throw new MessageConversionException("Failed to encode realtime envelope", e);
+    }
+  }
+
+  @Override
+  public Object fromMessage(Message message) {
+    if (!CONTENT_TYPE_SMILE.equals(message.getMessageProperties().getContentType())) {
+      return json.fromMessage(message);
+    }
+    try {
+      return smile.readValue(message.getBody(), RealtimeEnvelope.class);
+    } catch (IOException e) {
+      throw new MessageConversionException("Failed to decode realtime envelope", e);
+    }
+  }
+}
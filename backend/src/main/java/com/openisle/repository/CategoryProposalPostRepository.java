@@ -2,11 +2,14 @@ package com.openisle.repository;
 
 import com.openisle.model.CategoryProposalPost;
 import com.openisle.model.CategoryProposalStatus;
+import com.openisle.model.PostStatus;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface CategoryProposalPostRepository extends JpaRepository<CategoryProposalPost, Long> {
+  Optional<CategoryProposalPost> findByIdAndStatusNot(Long id, PostStatus status);
   List<CategoryProposalPost> findByEndTimeAfterAndProposalStatus(
     LocalDateTime now,
     CategoryProposalStatus status
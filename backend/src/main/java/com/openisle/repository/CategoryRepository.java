@@ -1,12 +1,20 @@
 package com.openisle.repository;
 
 import com.openisle.model.Category;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
   List<Category> findByNameContainingIgnoreCase(String keyword);
+  List<Category> findByNameContainingIgnoreCase(String keyword, Pageable pageable);
 
   Optional<Category> findByName(String name);
+
+  @Query("SELECT c.id FROM Category c WHERE c.updatedAt >= :since")
+  List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
 }
@@ -4,9 +4,13 @@ import com.openisle.model.Comment;
 import com.openisle.model.Post;
 import com.openisle.model.User;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
   List<Comment> findByPostAndParentIsNullOrderByCreatedAtAsc(Post post);
@@ -17,6 +21,7 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
   );
   List<Comment> findByAuthorOrderByCreatedAtDesc(User author, Pageable pageable);
   List<Comment> findByContentContainingIgnoreCase(String keyword);
+  List<Comment> findByContentContainingIgnoreCase(String keyword, Pageable pageable);
 
   @org.springframework.data.jpa.repository.Query(
     "SELECT DISTINCT c.author FROM Comment c WHERE c.post = :post"
@@ -69,4 +74,36 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     @org.springframework.data.repository.query.Param("start") java.time.LocalDateTime start,
     @org.springframework.data.repository.query.Param("end") java.time.LocalDateTime end
   );
+
+  @Query("SELECT c.id FROM Comment c WHERE c.parent.id IN :parentIds")
+  List<Long> findIdsByParentIds(@Param("parentIds") Collection<Long> parentIds);
+
+  @Query("SELECT c.id FROM Comment c WHERE c.post.id = :postId ORDER BY c.id")
+  List<Long> findIdsByPostId(@Param("postId") Long postId, Pageable pageable);
+
+  /** Contents of the given comments, including logically deleted ones. */
+  @Query(value = "SELECT content FROM comments WHERE id IN (:ids)", nativeQuery = true)
+  List<String> findContentsByIds(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Query(
+    "UPDATE Comment c SET c.deletedAt = :deletedAt, c.updatedAt = :deletedAt WHERE c.id IN :ids"
+  )
+  int softDeleteByIds(
+    @Param("ids") Collection<Long> ids,
+    @Param("deletedAt") LocalDateTime deletedAt
+  );
+
+  /** Physically remove all comments of a post, including logically deleted ones. */
+  @Modifying
+  @Query(value = "UPDATE comments SET parent_id = NULL WHERE post_id = :postId", nativeQuery = true)
+  int clearParentsByPostId(@Param("postId") Long postId);
+
+  @Modifying
+  @Query(value = "DELETE FROM comments WHERE post_id = :postId", nativeQuery = true)
+  int hardDeleteByPostId(@Param("postId") Long postId);
+
+  /** Ids of comments changed since the given time, including logically deleted ones. */
+  @Query(value = "SELECT id FROM comments WHERE updated_at >= :since", nativeQuery = true)
+  List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
 }
@@ -3,12 +3,20 @@ package com.openisle.repository;
 import com.openisle.model.Comment;
 import com.openisle.model.CommentSubscription;
 import com.openisle.model.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CommentSubscriptionRepository extends JpaRepository<CommentSubscription, Long> {
   List<CommentSubscription> findByComment(Comment comment);
   List<CommentSubscription> findByUser(User user);
   Optional<CommentSubscription> findByUserAndComment(User user, Comment comment);
+
+  @Modifying
+  @Query("DELETE FROM CommentSubscription s WHERE s.comment.id IN :commentIds")
+  int deleteByCommentIds(@Param("commentIds") Collection<Long> commentIds);
 }
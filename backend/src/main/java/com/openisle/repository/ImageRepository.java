@@ -1,12 +1,62 @@
 package com.openisle.repository;
 
 import com.openisle.model.Image;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Repository for images stored on COS.
  */
-public interface ImageRepository extends JpaRepository<Image, Long> {
+public interface ImageRepository extends JpaRepository<Image, Long>, ImageRepositoryCustom {
   Optional<Image> findByUrl(String url);
+
+  /**
+   * Atomically add {@code delta} to the reference count of every given image, never going
+   * below zero. Images dropping to zero get {@code zeroRefAt} stamped, re-referenced ones
+   * have it cleared. {@code zeroRefAt} is assigned first because MySQL evaluates
+   * assignments left to right.
+   */
+  @Transactional
+  @Modifying(flushAutomatically = true)
+  @Query(
+    "UPDATE Image i SET " +
+    "i.zeroRefAt = CASE WHEN i.refCount + :delta <= 0 THEN COALESCE(i.zeroRefAt, :now) ELSE NULL END, " +
+    "i.refCount = CASE WHEN i.refCount + :delta < 0 THEN 0 ELSE i.refCount + :delta END " +
+    "WHERE i.url IN :urls"
+  )
+  int adjustRefCounts(
+    @Param("urls") Collection<String> urls,
+    @Param("delta") long delta,
+    @Param("now") LocalDateTime now
+  );
+
+  /**
+   * Unreferenced images past the grace period, locked so that a concurrent reference either
+   * lands first and the image no longer matches, or waits until the row is deleted.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(
+    "SELECT i FROM Image i WHERE i.refCount <= 0 AND i.zeroRefAt < :before ORDER BY i.zeroRefAt"
+  )
+  List<Image> findUnreferencedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+  /** Urls among {@code urls} that currently have an image row. */
+  @Query("SELECT i.url FROM Image i WHERE i.url IN :urls")
+  List<String> findExistingUrls(@Param("urls") Collection<String> urls);
+
+  /** Delete the given images unless they were referenced again in the meantime. */
+  @Transactional
+  @Modifying(flushAutomatically = true)
+  @Query("DELETE FROM Image i WHERE i.id IN :ids AND i.refCount <= 0")
+  int deleteUnreferenced(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,12 @@
+package com.openisle.repository;
+
+import java.util.Collection;
+
+/** Image reference updates that need SQL built at runtime. */
+public interface ImageRepositoryCustom {
+  /**
+   * Add {@code delta} references to each image, creating rows on first use. Rows are written in
+   * the iteration order of {@code urls}, a few hundred per statement.
+   */
+  int addRefCounts(Collection<String> urls, long delta);
+}
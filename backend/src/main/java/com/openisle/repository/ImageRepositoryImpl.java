@@ -0,0 +1,54 @@
+package com.openisle.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Multi-row upsert for {@link ImageRepository}. One statement per chunk, so concurrent first
+ * references cannot collide on the unique url and the GC cannot run between an update and an
+ * insert.
+ */
+public class ImageRepositoryImpl implements ImageRepositoryCustom {
+
+  private static final int CHUNK_SIZE = 500;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional
+  public int addRefCounts(Collection<String> urls, long delta) {
+    List<String> all = new ArrayList<>(urls);
+    int updated = 0;
+    for (int from = 0; from < all.size(); from += CHUNK_SIZE) {
+      List<String> chunk = all.subList(from, Math.min(from + CHUNK_SIZE, all.size()));
+      updated += upsert(chunk, delta);
+    }
+    return updated;
+  }
+
+  private int upsert(List<String> urls, long delta) {
+    StringBuilder sql = new StringBuilder(
+      "INSERT INTO images (url, ref_count, zero_ref_at) VALUES "
+    );
+    for (int i = 0; i < urls.size(); i++) {
+      if (i > 0) sql.append(',');
+      sql.append("(?,?,NULL)");
+    }
+    sql.append(
+      " ON DUPLICATE KEY UPDATE ref_count = ref_count + VALUES(ref_count), zero_ref_at = NULL"
+    );
+    Query query = entityManager.createNativeQuery(sql.toString());
+    int position = 1;
+    for (String url : urls) {
+      query.setParameter(position++, url);
+      query.setParameter(position++, delta);
+    }
+    return query.executeUpdate();
+  }
+}
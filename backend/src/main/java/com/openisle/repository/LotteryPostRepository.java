@@ -1,11 +1,22 @@
 package com.openisle.repository;
 
 import com.openisle.model.LotteryPost;
+import com.openisle.model.PostStatus;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface LotteryPostRepository extends JpaRepository<LotteryPost, Long> {
+  Optional<LotteryPost> findByIdAndStatusNot(Long id, PostStatus status);
+
+  /** Same as {@link PostRepository#findActivePost(Long)}. */
+  default LotteryPost findActivePost(Long id) {
+    return findByIdAndStatusNot(id, PostStatus.DELETED).orElseThrow(() ->
+      new com.openisle.exception.NotFoundException("Post not found")
+    );
+  }
+
   List<LotteryPost> findByEndTimeAfterAndWinnersIsEmpty(LocalDateTime now);
 
   List<LotteryPost> findByEndTimeBeforeAndWinnersIsEmpty(LocalDateTime now);
@@ -2,8 +2,11 @@ package com.openisle.repository;
 
 import com.openisle.model.MessageConversation;
 import com.openisle.model.User;
+import java.time.LocalDateTime;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -27,21 +30,49 @@ public interface MessageConversationRepository extends JpaRepository<MessageConv
     @Param("user2") User user2
   );
 
+  /**
+   * One page of a user's direct conversations, newest activity first, strictly after the
+   * {@code (lastMessageAt, id)} position. Rows of (id, name, avatar, createdAt, lastMessageAt,
+   * last message id, content, createdAt, last sender id, username, avatar, bot, viewer id,
+   * username, avatar, bot, counterpart id, username, avatar, bot, unread count); the last
+   * message and counterpart columns are null when missing.
+   */
   @Query(
-    "SELECT DISTINCT c FROM MessageConversation c " +
-      "JOIN c.participants p " +
-      "LEFT JOIN FETCH c.lastMessage lm " +
-      "LEFT JOIN FETCH lm.sender " +
-      "LEFT JOIN FETCH c.participants cp " +
-      "LEFT JOIN FETCH cp.user " +
-      "WHERE p.user.id = :userId " +
-      "ORDER BY COALESCE(lm.createdAt, c.createdAt) DESC"
+    "SELECT c.id, c.name, c.avatar, c.createdAt, c.lastMessageAt, " +
+      "lm.id, lm.content, lm.createdAt, s.id, s.username, s.avatar, s.bot, " +
+      "me.id, me.username, me.avatar, me.bot, " +
+      "o.id, o.username, o.avatar, o.bot, " +
+      "(SELECT COUNT(m) FROM Message m WHERE m.conversation = c AND m.sender.id <> :userId " +
+      "AND (p.lastReadAt IS NULL OR m.createdAt > p.lastReadAt)) " +
+      "FROM MessageParticipant p JOIN p.conversation c JOIN p.user me " +
+      "LEFT JOIN c.lastMessage lm LEFT JOIN lm.sender s " +
+      "LEFT JOIN MessageParticipant op ON op.conversation = c AND op.user.id <> :userId " +
+      "LEFT JOIN op.user o " +
+      "WHERE me.id = :userId AND c.channel = false " +
+      "AND (c.lastMessageAt < :lastMessageAt " +
+      "OR (c.lastMessageAt = :lastMessageAt AND c.id < :id)) " +
+      "ORDER BY c.lastMessageAt DESC, c.id DESC"
   )
-  List<MessageConversation> findConversationsByUserIdOrderByLastMessageDesc(
-    @Param("userId") Long userId
+  List<Object[]> findInboxPage(
+    @Param("userId") Long userId,
+    @Param("lastMessageAt") LocalDateTime lastMessageAt,
+    @Param("id") Long id,
+    Pageable pageable
   );
 
   List<MessageConversation> findByChannelTrue();
 
+  @Query(
+    "SELECT c FROM MessageConversation c " +
+      "LEFT JOIN FETCH c.lastMessage lm " +
+      "LEFT JOIN FETCH lm.sender " +
+      "WHERE c.channel = true"
+  )
+  List<MessageConversation> findChannelsWithLastMessage();
+
+  @Modifying
+  @Query("UPDATE MessageConversation c SET c.memberCount = c.memberCount + 1 WHERE c.id = :id")
+  int incrementMemberCount(@Param("id") Long id);
+
   long countByChannelTrue();
 }
@@ -1,6 +1,7 @@
 package com.openisle.repository;
 
 import com.openisle.model.MessageParticipant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,4 +11,8 @@ import org.springframework.stereotype.Repository;
 public interface MessageParticipantRepository extends JpaRepository<MessageParticipant, Long> {
   Optional<MessageParticipant> findByConversationIdAndUserId(Long conversationId, Long userId);
   List<MessageParticipant> findByUserId(Long userId);
+  List<MessageParticipant> findByUserIdAndConversationIdIn(
+    Long userId,
+    Collection<Long> conversationIds
+  );
 }
@@ -1,18 +1,60 @@
 package com.openisle.repository;
 
 import com.openisle.model.Message;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
   List<Message> findByConversationIdOrderByCreatedAtAsc(Long conversationId);
 
+  @EntityGraph(attributePaths = { "sender", "replyTo", "replyTo.sender" })
   Page<Message> findByConversationId(Long conversationId, Pageable pageable);
 
+  /**
+   * Messages of a conversation strictly older than {@code (createdAt, id)}, newest first, with
+   * sender and reply summary fetched.
+   */
+  @Query(
+    "SELECT m FROM Message m JOIN FETCH m.sender " +
+      "LEFT JOIN FETCH m.replyTo r LEFT JOIN FETCH r.sender " +
+      "WHERE m.conversation.id = :conversationId " +
+      "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+      "ORDER BY m.createdAt DESC, m.id DESC"
+  )
+  List<Message> findBefore(
+    @Param("conversationId") Long conversationId,
+    @Param("createdAt") LocalDateTime createdAt,
+    @Param("id") Long id,
+    Pageable pageable
+  );
+
+  /**
+   * Messages of a conversation strictly newer than {@code (createdAt, id)}, oldest first, with
+   * sender and reply summary fetched.
+   */
+  @Query(
+    "SELECT m FROM Message m JOIN FETCH m.sender " +
+      "LEFT JOIN FETCH m.replyTo r LEFT JOIN FETCH r.sender " +
+      "WHERE m.conversation.id = :conversationId " +
+      "AND (m.createdAt > :createdAt OR (m.createdAt = :createdAt AND m.id > :id)) " +
+      "ORDER BY m.createdAt ASC, m.id ASC"
+  )
+  List<Message> findAfter(
+    @Param("conversationId") Long conversationId,
+    @Param("createdAt") LocalDateTime createdAt,
+    @Param("id") Long id,
+    Pageable pageable
+  );
+
   long countByConversationIdAndCreatedAtAfter(
     Long conversationId,
     java.time.LocalDateTime createdAt
@@ -24,4 +66,20 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     java.time.LocalDateTime createdAt,
     Long senderId
   );
+
+  /**
+   * Unread messages of a user in each of the given conversations, as
+   * {@code [conversationId, count]} rows; conversations without unread messages are missing.
+   */
+  @Query(
+    "SELECT m.conversation.id, COUNT(m) FROM Message m, MessageParticipant p " +
+      "WHERE p.user.id = :userId AND p.conversation.id IN :conversationIds " +
+      "AND m.conversation = p.conversation AND m.sender.id <> :userId " +
+      "AND (p.lastReadAt IS NULL OR m.createdAt > p.lastReadAt) " +
+      "GROUP BY m.conversation.id"
+  )
+  List<Object[]> countUnreadByConversation(
+    @Param("userId") Long userId,
+    @Param("conversationIds") Collection<Long> conversationIds
+  );
 }
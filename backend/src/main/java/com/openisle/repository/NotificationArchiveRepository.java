@@ -0,0 +1,25 @@
+package com.openisle.repository;
+
+import com.openisle.model.NotificationArchive;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface NotificationArchiveRepository extends JpaRepository<NotificationArchive, Long> {
+  /** Copy the given notifications into the archive with one statement. */
+  @Modifying
+  @Query(
+    value = "INSERT INTO notification_archive (id, user_id, type, post_id, comment_id, " +
+    "from_user_id, reaction_type, content, is_read, created_at, archived_at) " +
+    "SELECT id, user_id, type, post_id, comment_id, from_user_id, reaction_type, content, " +
+    "is_read, created_at, :archivedAt FROM notifications WHERE id IN (:ids)",
+    nativeQuery = true
+  )
+  int copyFromNotifications(
+    @Param("ids") Collection<Long> ids,
+    @Param("archivedAt") LocalDateTime archivedAt
+  );
+}
@@ -6,13 +6,26 @@ import com.openisle.model.NotificationType;
 import com.openisle.model.Post;
 import com.openisle.model.ReactionType;
 import com.openisle.model.User;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /** Repository for Notification entities. */
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
+  /**
+   * JPQL condition for an unread notification {@code n} of user {@code u}: not read and not
+   * covered by the user's "mark all read" watermark, unless its type is in {@code :exempt}.
+   */
+  String UNREAD =
+    "n.read = false AND (u.notificationsReadBefore IS NULL " +
+    "OR n.createdAt > u.notificationsReadBefore OR n.type IN :exempt)";
+
   List<Notification> findByUserOrderByCreatedAtDesc(User user);
   List<Notification> findByUserAndReadOrderByCreatedAtDesc(User user, boolean read);
   Page<Notification> findByUserOrderByCreatedAtDesc(User user, Pageable pageable);
@@ -41,23 +54,126 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
   List<Notification> findByPost(Post post);
   List<Notification> findByComment(Comment comment);
 
-  void deleteByTypeAndFromUser(NotificationType type, User fromUser);
+  List<Notification> deleteByTypeAndFromUser(NotificationType type, User fromUser);
 
   List<Notification> findByTypeAndFromUser(NotificationType type, User fromUser);
 
-  void deleteByTypeAndFromUserAndPost(NotificationType type, User fromUser, Post post);
+  List<Notification> deleteByTypeAndFromUserAndPost(
+    NotificationType type,
+    User fromUser,
+    Post post
+  );
 
-  void deleteByTypeAndFromUserAndPostAndReactionType(
+  List<Notification> deleteByTypeAndFromUserAndPostAndReactionType(
     NotificationType type,
     User fromUser,
     Post post,
     ReactionType reactionType
   );
 
-  void deleteByTypeAndFromUserAndCommentAndReactionType(
+  List<Notification> deleteByTypeAndFromUserAndCommentAndReactionType(
     NotificationType type,
     User fromUser,
     Comment comment,
     ReactionType reactionType
   );
+
+  @Modifying
+  @Query("DELETE FROM Notification n WHERE n.comment.id IN :commentIds")
+  int deleteByCommentIds(@Param("commentIds") Collection<Long> commentIds);
+
+  @Modifying
+  @Query("DELETE FROM Notification n WHERE n.post.id = :postId")
+  int deleteByPostId(@Param("postId") Long postId);
+
+  @Query(
+    "SELECT n.type, COUNT(n) FROM Notification n JOIN n.user u " +
+    "WHERE u.id = :userId AND " +
+    UNREAD +
+    " GROUP BY n.type"
+  )
+  List<Object[]> countUnreadByType(
+    @Param("userId") Long userId,
+    @Param("exempt") Collection<NotificationType> exempt
+  );
+
+  @Query(
+    "SELECT u.id, n.type, COUNT(n) FROM Notification n JOIN n.user u " +
+    "WHERE u.id IN :userIds AND " +
+    UNREAD +
+    " GROUP BY u.id, n.type"
+  )
+  List<Object[]> countUnreadByUserAndType(
+    @Param("userIds") Collection<Long> userIds,
+    @Param("exempt") Collection<NotificationType> exempt
+  );
+
+  @Query(
+    "SELECT DISTINCT n.user.id FROM Notification n WHERE n.post.id = :postId AND n.read = false"
+  )
+  List<Long> findUnreadUserIdsByPostId(@Param("postId") Long postId);
+
+  @Query(
+    "SELECT DISTINCT n.user.id FROM Notification n " +
+    "WHERE n.comment.id IN :commentIds AND n.read = false"
+  )
+  List<Long> findUnreadUserIdsByCommentIds(@Param("commentIds") Collection<Long> commentIds);
+
+  /**
+   * One page of a user's notifications, newest first, strictly after the
+   * {@code (createdAt, id)} position. Types in {@code hidden} are skipped when
+   * {@code hideTypes} is set (an empty {@code IN} list would match nothing).
+   */
+  @Query(
+    "SELECT n FROM Notification n JOIN n.user u WHERE u.id = :userId " +
+    "AND (:hideTypes = false OR n.type NOT IN :hidden) " +
+    "AND (:unreadOnly = false OR (" +
+    UNREAD +
+    ")) " +
+    "AND (:readOnly = false OR NOT (" +
+    UNREAD +
+    ")) " +
+    "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+    "ORDER BY n.createdAt DESC, n.id DESC"
+  )
+  List<Notification> findPage(
+    @Param("userId") Long userId,
+    @Param("hideTypes") boolean hideTypes,
+    @Param("hidden") Collection<NotificationType> hidden,
+    @Param("unreadOnly") boolean unreadOnly,
+    @Param("readOnly") boolean readOnly,
+    @Param("exempt") Collection<NotificationType> exempt,
+    @Param("createdAt") LocalDateTime createdAt,
+    @Param("id") Long id,
+    Pageable pageable
+  );
+
+  @Query(
+    "SELECT n.type, COUNT(n) FROM Notification n JOIN n.user u " +
+    "WHERE u.id = :userId AND n.id IN :ids AND " +
+    UNREAD +
+    " GROUP BY n.type"
+  )
+  List<Object[]> countUnreadByTypeIn(
+    @Param("userId") Long userId,
+    @Param("ids") Collection<Long> ids,
+    @Param("exempt") Collection<NotificationType> exempt
+  );
+
+  @Modifying
+  @Query(
+    "UPDATE Notification n SET n.read = true " +
+    "WHERE n.user.id = :userId AND n.id IN :ids AND n.read = false"
+  )
+  int markRead(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+  @Query("SELECT n.id FROM Notification n WHERE n.createdAt < :cutoff ORDER BY n.id")
+  List<Long> findIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+  @Query("SELECT DISTINCT n.user.id FROM Notification n WHERE n.id IN :ids AND n.read = false")
+  List<Long> findUnreadUserIdsByIds(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+  int deleteByIds(@Param("ids") Collection<Long> ids);
 }
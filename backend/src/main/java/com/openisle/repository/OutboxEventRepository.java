@@ -0,0 +1,37 @@
+package com.openisle.repository;
+
+import com.openisle.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+  /**
+   * 锁定最早的未发送事件；SKIP LOCKED（lock.timeout = -2）让多个实例各取一批互不阻塞
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query("SELECT e FROM OutboxEvent e WHERE e.sentAt IS NULL ORDER BY e.id")
+  List<OutboxEvent> lockPending(Pageable pageable);
+
+  @Modifying
+  @Query("UPDATE OutboxEvent e SET e.sentAt = :sentAt WHERE e.id IN :ids")
+  int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+  @Modifying
+  @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+  int incrementAttempts(@Param("ids") Collection<Long> ids);
+
+  @Modifying
+  @Query("DELETE FROM OutboxEvent e WHERE e.sentAt < :cutoff")
+  int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -6,8 +6,10 @@ import com.openisle.model.PointHistoryType;
 import com.openisle.model.Post;
 import com.openisle.model.User;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -31,4 +33,46 @@ public interface PointHistoryRepository extends JpaRepository<PointHistory, Long
     "SELECT COALESCE(SUM(ph.amount), 0) FROM PointHistory ph WHERE ph.post = :post AND ph.type = :type"
   )
   Long sumAmountByPostAndType(@Param("post") Post post, @Param("type") PointHistoryType type);
+
+  /** Sum of live point amounts per user for the given comments, as (userId, sum) rows. */
+  @Query(
+    "SELECT ph.user.id, SUM(ph.amount) FROM PointHistory ph " +
+    "WHERE ph.comment.id IN :commentIds AND ph.deletedAt IS NULL GROUP BY ph.user.id"
+  )
+  List<Object[]> sumAmountByUserForComments(@Param("commentIds") Collection<Long> commentIds);
+
+  /** Sum of live point amounts per user for the given post, as (userId, sum) rows. */
+  @Query(
+    "SELECT ph.user.id, SUM(ph.amount) FROM PointHistory ph " +
+    "WHERE ph.post.id = :postId AND ph.deletedAt IS NULL GROUP BY ph.user.id"
+  )
+  List<Object[]> sumAmountByUserForPost(@Param("postId") Long postId);
+
+  @Modifying
+  @Query(
+    "UPDATE PointHistory ph SET ph.deletedAt = :deletedAt " +
+    "WHERE ph.comment.id IN :commentIds AND ph.deletedAt IS NULL"
+  )
+  int softDeleteByCommentIds(
+    @Param("commentIds") Collection<Long> commentIds,
+    @Param("deletedAt") LocalDateTime deletedAt
+  );
+
+  /** Logically delete the post's history and unlink it so the post row can be removed. */
+  @Modifying
+  @Query(
+    value = "UPDATE point_histories " +
+    "SET deleted_at = COALESCE(deleted_at, :deletedAt), post_id = NULL WHERE post_id = :postId",
+    nativeQuery = true
+  )
+  int softDeleteByPostId(@Param("postId") Long postId, @Param("deletedAt") LocalDateTime deletedAt);
+
+  /** Unlink history rows from all comments (including logically deleted ones) of a post. */
+  @Modifying
+  @Query(
+    value = "UPDATE point_histories SET comment_id = NULL " +
+    "WHERE comment_id IN (SELECT c.id FROM comments c WHERE c.post_id = :postId)",
+    nativeQuery = true
+  )
+  int detachCommentsOfPost(@Param("postId") Long postId);
 }
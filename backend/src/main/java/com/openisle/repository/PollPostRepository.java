@@ -1,11 +1,22 @@
 package com.openisle.repository;
 
 import com.openisle.model.PollPost;
+import com.openisle.model.PostStatus;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface PollPostRepository extends JpaRepository<PollPost, Long> {
+  Optional<PollPost> findByIdAndStatusNot(Long id, PostStatus status);
+
+  /** Same as {@link PostRepository#findActivePost(Long)}. */
+  default PollPost findActivePost(Long id) {
+    return findByIdAndStatusNot(id, PostStatus.DELETED).orElseThrow(() ->
+      new com.openisle.exception.NotFoundException("Post not found")
+    );
+  }
+
   List<PollPost> findByEndTimeAfterAndResultAnnouncedFalse(LocalDateTime now);
 
   List<PollPost> findByEndTimeBeforeAndResultAnnouncedFalse(LocalDateTime now);
@@ -3,7 +3,14 @@ package com.openisle.repository;
 import com.openisle.model.PollVote;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface PollVoteRepository extends JpaRepository<PollVote, Long> {
   List<PollVote> findByPostId(Long postId);
+
+  @Modifying
+  @Query("DELETE FROM PollVote v WHERE v.post.id = :postId")
+  int deleteByPostId(@Param("postId") Long postId);
 }
@@ -2,11 +2,12 @@ package com.openisle.repository;
 
 import com.openisle.model.Post;
 import com.openisle.model.PostChangeLog;
+import com.openisle.model.PostChangeType;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface PostChangeLogRepository extends JpaRepository<PostChangeLog, Long> {
-  List<PostChangeLog> findByPostOrderByCreatedAtAsc(Post post);
+  List<PostChangeLog> findByPostAndTypeNotOrderByCreatedAtAsc(Post post, PostChangeType type);
 
   void deleteByPost(Post post);
 }
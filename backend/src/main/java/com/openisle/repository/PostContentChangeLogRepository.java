@@ -0,0 +1,59 @@
+package com.openisle.repository;
+
+import com.openisle.model.PostContentChangeLog;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/** Revision lookups go through {@code revisionPostId} and the unique (post_id, revision) index. */
+public interface PostContentChangeLogRepository extends JpaRepository<PostContentChangeLog, Long> {
+  @Query("SELECT MAX(l.revision) FROM PostContentChangeLog l WHERE l.revisionPostId = :postId")
+  Integer findLatestRevision(@Param("postId") Long postId);
+
+  /** The newest revision up to {@code revision} that carries a full snapshot. */
+  @Query(
+    "SELECT MAX(l.revision) FROM PostContentChangeLog l " +
+    "WHERE l.revisionPostId = :postId AND l.revision <= :revision AND l.snapshot IS NOT NULL"
+  )
+  Integer findSnapshotRevision(@Param("postId") Long postId, @Param("revision") int revision);
+
+  @Query(
+    "SELECT l FROM PostContentChangeLog l WHERE l.revisionPostId = :postId " +
+    "AND l.revision BETWEEN :from AND :to ORDER BY l.revision"
+  )
+  List<PostContentChangeLog> findRevisions(
+    @Param("postId") Long postId,
+    @Param("from") int from,
+    @Param("to") int to
+  );
+
+  @Query(
+    "SELECT l FROM PostContentChangeLog l WHERE l.revisionPostId = :postId " +
+    "AND l.revision = :revision"
+  )
+  Optional<PostContentChangeLog> findRevision(
+    @Param("postId") Long postId,
+    @Param("revision") int revision
+  );
+
+  boolean existsByPostIdAndPatchIsNull(Long postId);
+
+  /** Timeline fields of a post's edits: id, user, createdAt, revision, lines added/removed. */
+  @Query(
+    "SELECT l.id, u, l.createdAt, l.revision, l.linesAdded, l.linesRemoved " +
+    "FROM PostContentChangeLog l LEFT JOIN l.user u WHERE l.post.id = :postId"
+  )
+  List<Object[]> findSummariesByPostId(@Param("postId") Long postId);
+
+  /** Posts that still have edits stored as full old and new texts. */
+  @Query(
+    "SELECT DISTINCT l.post.id FROM PostContentChangeLog l WHERE l.patch IS NULL " +
+    "ORDER BY l.post.id"
+  )
+  List<Long> findPostIdsWithLegacyLogs(Pageable pageable);
+
+  List<PostContentChangeLog> findByPostIdOrderByIdAsc(Long postId);
+}
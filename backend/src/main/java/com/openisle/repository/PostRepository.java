@@ -5,14 +5,26 @@ import com.openisle.model.Post;
 import com.openisle.model.PostStatus;
 import com.openisle.model.Tag;
 import com.openisle.model.User;
+import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
+  Optional<Post> findByIdAndStatusNot(Long id, PostStatus status);
+
+  /** Loads a post for user-facing reads and writes; soft-deleted tombstones count as missing. */
+  default Post findActivePost(Long id) {
+    return findByIdAndStatusNot(id, PostStatus.DELETED).orElseThrow(() ->
+      new com.openisle.exception.NotFoundException("Post not found")
+    );
+  }
+
   List<Post> findByStatus(PostStatus status);
   List<Post> findByStatus(PostStatus status, Pageable pageable);
   List<Post> findByStatusOrderByCreatedAtDesc(PostStatus status);
@@ -280,8 +292,24 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     String contentKeyword,
     PostStatus status
   );
+  List<Post> findByTitleContainingIgnoreCaseOrContentContainingIgnoreCaseAndStatus(
+    String titleKeyword,
+    String contentKeyword,
+    PostStatus status,
+    Pageable pageable
+  );
   List<Post> findByContentContainingIgnoreCaseAndStatus(String keyword, PostStatus status);
+  List<Post> findByContentContainingIgnoreCaseAndStatus(
+    String keyword,
+    PostStatus status,
+    Pageable pageable
+  );
   List<Post> findByTitleContainingIgnoreCaseAndStatus(String keyword, PostStatus status);
+  List<Post> findByTitleContainingIgnoreCaseAndStatus(
+    String keyword,
+    PostStatus status,
+    Pageable pageable
+  );
 
   @Query(
     "SELECT MAX(p.createdAt) FROM Post p WHERE p.author.username = :username AND p.status = com.openisle.model.PostStatus.PUBLISHED"
@@ -301,23 +329,29 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     @Param("start") java.time.LocalDateTime start
   );
 
-  long countByCategory_Id(Long categoryId);
+  long countByCategory_IdAndStatusNot(Long categoryId, PostStatus status);
 
   @Query(
-    "SELECT c.id, COUNT(p) FROM Post p JOIN p.category c WHERE c.id IN :categoryIds GROUP BY c.id"
+    "SELECT c.id, COUNT(p) FROM Post p JOIN p.category c WHERE c.id IN :categoryIds " +
+    "AND p.status <> com.openisle.model.PostStatus.DELETED GROUP BY c.id"
   )
   List<Object[]> countPostsByCategoryIds(@Param("categoryIds") List<Long> categoryIds);
 
   long countDistinctByTags_Id(Long tagId);
 
+  long countDistinctByTags_IdAndStatusNot(Long tagId, PostStatus status);
+
   long countByAuthor_IdAndRssExcludedFalse(Long userId);
 
   @Query(
-    "SELECT t.id, COUNT(DISTINCT p) FROM Post p JOIN p.tags t WHERE t.id IN :tagIds GROUP BY t.id"
+    "SELECT t.id, COUNT(DISTINCT p) FROM Post p JOIN p.tags t WHERE t.id IN :tagIds " +
+    "AND p.status <> com.openisle.model.PostStatus.DELETED GROUP BY t.id"
   )
   List<Object[]> countPostsByTagIds(@Param("tagIds") List<Long> tagIds);
 
-  long countByAuthor_Id(Long userId);
+  long countByAuthor_IdAndStatusNot(Long userId, PostStatus status);
+
+  List<Post> findByIdInAndStatusNot(List<Long> ids, PostStatus status);
 
   @Query(
     "SELECT FUNCTION('date', p.createdAt) AS d, COUNT(p) AS c FROM Post p " +
@@ -332,4 +366,14 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     PostStatus status,
     Pageable pageable
   );
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT p FROM Post p WHERE p.id = :id")
+  Optional<Post> findByIdForUpdate(@Param("id") Long id);
+
+  @Query("SELECT p.id FROM Post p WHERE p.updatedAt >= :since")
+  List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
+
+  @Query("SELECT t.id, COUNT(DISTINCT p) FROM Post p JOIN p.tags t GROUP BY t.id")
+  List<Object[]> countPostsGroupByTag();
 }
@@ -6,9 +6,16 @@ import com.openisle.model.User;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface PostSubscriptionRepository extends JpaRepository<PostSubscription, Long> {
   List<PostSubscription> findByPost(Post post);
   List<PostSubscription> findByUser(User user);
   Optional<PostSubscription> findByUserAndPost(User user, Post post);
+
+  @Modifying
+  @Query("DELETE FROM PostSubscription s WHERE s.post.id = :postId")
+  int deleteByPostId(@Param("postId") Long postId);
 }
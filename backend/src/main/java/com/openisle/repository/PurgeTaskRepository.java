@@ -0,0 +1,10 @@
+package com.openisle.repository;
+
+import com.openisle.model.PurgeTask;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PurgeTaskRepository extends JpaRepository<PurgeTask, Long> {
+  List<PurgeTask> findAllByOrderByIdAsc(Pageable pageable);
+}
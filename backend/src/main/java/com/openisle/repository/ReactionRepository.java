@@ -5,10 +5,12 @@ import com.openisle.model.Message;
 import com.openisle.model.Post;
 import com.openisle.model.Reaction;
 import com.openisle.model.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -32,6 +34,13 @@ public interface ReactionRepository extends JpaRepository<Reaction, Long> {
   List<Reaction> findByComment(Comment comment);
   List<Reaction> findByMessage(Message message);
 
+  /** Reactions on any of the given messages with their users, in creation order. */
+  @Query(
+    "SELECT r FROM Reaction r JOIN FETCH r.user " +
+      "WHERE r.message.id IN :messageIds ORDER BY r.id"
+  )
+  List<Reaction> findByMessageIds(@Param("messageIds") Collection<Long> messageIds);
+
   @Query(
     "SELECT r.post.id FROM Reaction r WHERE r.post IS NOT NULL AND r.post.author.username = :username AND r.type = com.openisle.model.ReactionType.LIKE GROUP BY r.post.id ORDER BY COUNT(r.id) DESC"
   )
@@ -82,4 +91,12 @@ public interface ReactionRepository extends JpaRepository<Reaction, Long> {
     """
   )
   long countReceived(@Param("username") String username);
+
+  @Modifying
+  @Query("DELETE FROM Reaction r WHERE r.comment.id IN :commentIds")
+  int deleteByCommentIds(@Param("commentIds") Collection<Long> commentIds);
+
+  @Modifying
+  @Query("DELETE FROM Reaction r WHERE r.post.id = :postId")
+  int deleteByPostId(@Param("postId") Long postId);
 }
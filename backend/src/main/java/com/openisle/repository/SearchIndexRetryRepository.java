@@ -0,0 +1,21 @@
+package com.openisle.repository;
+
+import com.openisle.model.SearchIndexRetry;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface SearchIndexRetryRepository extends JpaRepository<SearchIndexRetry, Long> {
+  Optional<SearchIndexRetry> findByIndexNameAndEntityId(String indexName, Long entityId);
+
+  List<SearchIndexRetry> findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+    LocalDateTime now,
+    Pageable pageable
+  );
+
+  @Query("SELECT MIN(r.createdAt) FROM SearchIndexRetry r")
+  LocalDateTime findOldestCreatedAt();
+}
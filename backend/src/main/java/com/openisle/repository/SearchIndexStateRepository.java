@@ -0,0 +1,6 @@
+package com.openisle.repository;
+
+import com.openisle.model.SearchIndexState;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SearchIndexStateRepository extends JpaRepository<SearchIndexState, String> {}
@@ -2,19 +2,30 @@ package com.openisle.repository;
 
 import com.openisle.model.Tag;
 import com.openisle.model.User;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface TagRepository extends JpaRepository<Tag, Long> {
   List<Tag> findByNameContainingIgnoreCase(String keyword);
   List<Tag> findByApproved(boolean approved);
   List<Tag> findByApprovedTrue();
   List<Tag> findByNameContainingIgnoreCaseAndApprovedTrue(String keyword);
+  List<Tag> findByNameContainingIgnoreCaseAndApprovedTrue(String keyword, Pageable pageable);
 
   List<Tag> findByCreatorOrderByCreatedAtDesc(User creator, Pageable pageable);
   List<Tag> findByCreator(User creator);
 
   Optional<Tag> findByName(String name);
+
+  @Query("SELECT t.id FROM Tag t WHERE t.updatedAt >= :since")
+  List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
+
+  /** Rows of (id, name, icon) of approved tags for the typeahead index. */
+  @Query("SELECT t.id, t.name, t.icon FROM Tag t WHERE t.approved = true")
+  List<Object[]> findApprovedSuggestRows();
 }
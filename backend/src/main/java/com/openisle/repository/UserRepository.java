@@ -1,9 +1,13 @@
 package com.openisle.repository;
 
+import com.openisle.model.NotificationType;
 import com.openisle.model.User;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -11,6 +15,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByUsername(String username);
   Optional<User> findByEmail(String email);
   java.util.List<User> findByUsernameContainingIgnoreCase(String keyword);
+  List<User> findByUsernameContainingIgnoreCase(String keyword, Pageable pageable);
   java.util.List<User> findByRole(com.openisle.model.Role role);
   long countByExperienceGreaterThanEqual(int experience);
   long countByCreatedAtBefore(LocalDateTime createdAt);
@@ -23,4 +28,31 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Param("start") LocalDateTime start,
     @Param("end") LocalDateTime end
   );
+
+  @Modifying
+  @Query("UPDATE User u SET u.point = u.point + :delta WHERE u.id = :userId")
+  int addPoint(@Param("userId") Long userId, @Param("delta") int delta);
+
+  @Query("SELECT u.id FROM User u WHERE u.updatedAt >= :since")
+  List<Long> findIdsUpdatedSince(@Param("since") LocalDateTime since);
+
+  /** Rows of (id, username, avatar, experience) for the typeahead index. */
+  @Query("SELECT u.id, u.username, u.avatar, u.experience FROM User u")
+  List<Object[]> findSuggestRows();
+
+  @Query("SELECT u.username FROM User u WHERE u.id = :id")
+  Optional<String> findUsernameById(@Param("id") Long id);
+
+  @Query("SELECT t FROM User u JOIN u.disabledNotificationTypes t WHERE u.id = :id")
+  List<NotificationType> findDisabledNotificationTypes(@Param("id") Long id);
+
+  @Modifying
+  @Query(
+    "UPDATE User u SET u.notificationsReadBefore = :readBefore WHERE u.id = :id " +
+    "AND (u.notificationsReadBefore IS NULL OR u.notificationsReadBefore < :readBefore)"
+  )
+  int markNotificationsReadBefore(
+    @Param("id") Long id,
+    @Param("readBefore") LocalDateTime readBefore
+  );
 }
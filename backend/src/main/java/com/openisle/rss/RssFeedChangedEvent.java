@@ -0,0 +1,9 @@
+package com.openisle.rss;
+
+/**
+ * Published when a post may need to be re-rendered in the RSS feed.
+ *
+ * @param postId the affected post
+ * @param membershipChanged true when the post entered or left the featured set
+ */
+public record RssFeedChangedEvent(Long postId, boolean membershipChanged) {}
@@ -0,0 +1,460 @@
+package com.openisle.rss;
+
+import com.openisle.model.Comment;
+import com.openisle.model.CommentSort;
+import com.openisle.model.Post;
+import com.openisle.service.CommentService;
+import com.openisle.service.ContentProcessingService;
+import com.openisle.service.PostService;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.safety.Safelist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Builds the RSS document and keeps it pre-rendered.
+ *
+ * <p>Rendered item bodies are cached per post revision (id + content hash), the whole
+ * document is cached together with its ETag / Last-Modified. The document is rebuilt only
+ * after a {@link RssFeedChangedEvent} (a post entered / left the featured set or a featured
+ * post was edited) or once {@code app.rss.max-age} has passed, so that new top comments in
+ * the footer eventually show up.
+ */
+@Slf4j
+@Service
+public class RssFeedService {
+
+  /** A rendered feed document. {@code etag} is already quoted. */
+  public record RssFeed(String xml, String etag, Instant lastModified) {}
+
+  /** Rendered, sanitized and absolutified body of one post revision. */
+  private record RenderedItem(String revision, String html, String summary, String enclosure) {}
+
+  private final PostService postService;
+  private final CommentService commentService;
+  private final ContentProcessingService contentProcessingService;
+  private final String websiteUrl;
+  private final int feedSize;
+  private final long maxAgeMillis;
+  private final LongSupplier clock;
+
+  private final ConcurrentMap<Long, RenderedItem> itemCache = new ConcurrentHashMap<>();
+  private final AtomicLong generation = new AtomicLong();
+  private volatile CachedFeed cached;
+
+  private record CachedFeed(RssFeed feed, long generation, long builtAt) {}
+
+  private static final DateTimeFormatter RFC1123 = DateTimeFormatter.RFC_1123_DATE_TIME;
+  private static final int SUMMARY_LENGTH = 180;
+
+  @Autowired
+  public RssFeedService(
+    PostService postService,
+    CommentService commentService,
+    ContentProcessingService contentProcessingService,
+    @Value("${app.website-url:https://www.open-isle.com}") String websiteUrl,
+    @Value("${app.rss.size:10}") int feedSize,
+    @Value("${app.rss.max-age:PT10M}") Duration maxAge
+  ) {
+    this(
+      postService,
+      commentService,
+      contentProcessingService,
+      websiteUrl,
+      feedSize,
+      maxAge,
+      System::currentTimeMillis
+    );
+  }
+
+  RssFeedService(
+    PostService postService,
+    CommentService commentService,
+    ContentProcessingService contentProcessingService,
+    String websiteUrl,
+    int feedSize,
+    Duration maxAge,
+    LongSupplier clock
+  ) {
+    this.postService = postService;
+    this.commentService = commentService;
+    this.contentProcessingService = contentProcessingService;
+    this.websiteUrl = websiteUrl;
+    this.feedSize = feedSize;
+    this.maxAgeMillis = maxAge.toMillis();
+    this.clock = clock;
+  }
+
+  /** Return the cached document, rebuilding it when it was invalidated or has expired. */
+  public RssFeed getFeed() {
+    CachedFeed current = cached;
+    if (isFresh(current)) {
+      return current.feed();
+    }
+    synchronized (this) {
+      current = cached;
+      if (isFresh(current)) {
+        return current.feed();
+      }
+      long gen = generation.get();
+      long now = clock.getAsLong();
+      String xml = buildXml();
+      String etag = "\"" + DigestUtils.md5DigestAsHex(xml.getBytes(StandardCharsets.UTF_8)) + "\"";
+      Instant lastModified = current != null && current.feed().etag().equals(etag)
+        ? current.feed().lastModified()
+        : Instant.ofEpochMilli(now).truncatedTo(ChronoUnit.SECONDS);
+      RssFeed feed = new RssFeed(xml, etag, lastModified);
+      cached = new CachedFeed(feed, gen, now);
+      return feed;
+    }
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onFeedChanged(RssFeedChangedEvent event) {
+    // 编辑了不在 feed 中的帖子，无需重建
+    if (!event.membershipChanged() && !itemCache.containsKey(event.postId())) {
+      return;
+    }
+    generation.incrementAndGet();
+  }
+
+  private boolean isFresh(CachedFeed current) {
+    return (
+      current != null &&
+      current.generation() == generation.get() &&
+      clock.getAsLong() - current.builtAt() < maxAgeMillis
+    );
+  }
+
+  private String buildXml() {
+    List<Post> posts = postService.listLatestRssPosts(feedSize);
+    String base = trimTrailingSlash(websiteUrl);
+
+    StringBuilder sb = new StringBuilder(4096);
+    sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>");
+    sb.append("<rss version=\"2.0\" xmlns:content=\"http://purl.org/rss/1.0/modules/content/\">");
+    sb.append("<channel>");
+    elem(sb, "title", cdata("OpenIsle RSS"));
+    elem(sb, "link", base + "/");
+    elem(sb, "description", cdata("Latest posts"));
+    ZonedDateTime updated = posts
+      .stream()
+      .map(p -> p.getCreatedAt().atZone(ZoneId.systemDefault()))
+      .max(Comparator.naturalOrder())
+      .orElse(ZonedDateTime.now());
+    // channel lastBuildDate（GMT）
+    elem(sb, "lastBuildDate", toRfc1123Gmt(updated));
+
+    Set<Long> ids = new HashSet<>();
+    for (Post p : posts) {
+      ids.add(p.getId());
+      String link = base + "/posts/" + p.getId();
+      RenderedItem item = renderItem(p, base);
+
+      // 附加区块（原文链接 + 精选评论），编入 <content:encoded>
+      List<Comment> topComments = commentService.getCommentsForPost(
+        p.getId(),
+        CommentSort.MOST_INTERACTIONS
+      );
+      topComments = topComments.subList(0, Math.min(10, topComments.size()));
+      String footerHtml = buildFooterHtml(base, link, topComments);
+
+      sb.append("<item>");
+      elem(sb, "title", cdata(nullSafe(p.getTitle())));
+      elem(sb, "link", link);
+      sb.append("<guid isPermaLink=\"true\">").append(link).append("</guid>");
+      elem(sb, "pubDate", toRfc1123Gmt(p.getCreatedAt().atZone(ZoneId.systemDefault())));
+      // 摘要
+      elem(sb, "description", cdata(item.summary()));
+      // 全文（HTML）：正文 + 优雅的 Markdown 区块（已转 HTML）
+      sb
+        .append("<content:encoded><![CDATA[")
+        .append(item.html())
+        .append(footerHtml)
+        .append("]]></content:encoded>");
+      // 首图 enclosure（图片类型）
+      if (item.enclosure() != null) {
+        sb
+          .append("<enclosure url=\"")
+          .append(escapeXml(item.enclosure()))
+          .append("\" type=\"")
+          .append(getMimeType(item.enclosure()))
+          .append("\" />");
+      }
+      sb.append("</item>");
+    }
+    // 只保留当前 feed 中帖子的渲染结果
+    itemCache.keySet().retainAll(ids);
+
+    sb.append("</channel></rss>");
+    return sb.toString();
+  }
+
+  /** Render a post body, reusing the cached result while its content is unchanged. */
+  private RenderedItem renderItem(Post p, String base) {
+    String content = nullSafe(p.getContent());
+    String revision = DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8));
+    RenderedItem cachedItem = itemCache.get(p.getId());
+    if (cachedItem != null && cachedItem.revision().equals(revision)) {
+      return cachedItem;
+    }
+
+    ContentProcessingService.ProcessedContent processed = contentProcessingService.process(
+      content
+    );
+
+    // 1) Markdown -> HTML  2) Sanitize  3) 绝对化 href/src + 强制 rel/target
+    String absHtml = absolutifyHtml(sanitizeHtml(processed.html()), base);
+
+    // 4) 纯文本摘要（用于 <description>）
+    String plain = processed.excerpt(SUMMARY_LENGTH);
+    if (plain.length() < processed.plainText().length()) {
+      plain += "…";
+    }
+
+    // 5) enclosure（首图，已绝对化）
+    String enclosure = processed.firstImage();
+    if (enclosure != null) {
+      enclosure = absolutifyUrl(enclosure, base);
+    }
+
+    RenderedItem item = new RenderedItem(revision, absHtml, plain, enclosure);
+    itemCache.put(p.getId(), item);
+    return item;
+  }
+
+  /* ===================== Sanitize & 绝对化 ===================== */
+
+  static String sanitizeHtml(String html) {
+    if (html == null) return "";
+    Safelist wl = Safelist.relaxed()
+      .addTags(
+        "pre",
+        "code",
+        "figure",
+        "figcaption",
+        "picture",
+        "source",
+        "table",
+        "thead",
+        "tbody",
+        "tr",
+        "th",
+        "td",
+        "h1",
+        "h2",
+        "h3",
+        "h4",
+        "h5",
+        "h6",
+        "hr",
+        "blockquote"
+      )
+      .addAttributes("a", "href", "title", "target", "rel")
+      .addAttributes("img", "src", "alt", "title", "width", "height")
+      .addAttributes("source", "srcset", "type", "media")
+      .addAttributes("code", "class")
+      .addAttributes("pre", "class")
+      .addProtocols("a", "href", "http", "https", "mailto")
+      .addProtocols("img", "src", "http", "https", "data")
+      .addProtocols("source", "srcset", "http", "https");
+    // 清除所有 on* 事件、style（避免阅读器环境差异）
+    return Jsoup.clean(html, wl);
+  }
+
+  static String absolutifyHtml(String html, String baseUrl) {
+    if (html == null || html.isEmpty()) return "";
+    Document doc = Jsoup.parseBodyFragment(html, baseUrl);
+    // a[href]
+    for (Element a : doc.select("a[href]")) {
+      String href = a.attr("href");
+      String abs = absolutifyUrl(href, baseUrl);
+      a.attr("href", abs);
+      // 强制外链安全属性
+      a.attr("rel", "noopener noreferrer nofollow");
+      a.attr("target", "_blank");
+    }
+    // img[src]
+    for (Element img : doc.select("img[src]")) {
+      String src = img.attr("src");
+      String abs = absolutifyUrl(src, baseUrl);
+      img.attr("src", abs);
+    }
+    // source[srcset] （picture/webp）
+    for (Element s : doc.select("source[srcset]")) {
+      String srcset = s.attr("srcset");
+      s.attr("srcset", absolutifySrcset(srcset, baseUrl));
+    }
+    return doc.body().html();
+  }
+
+  private static String absolutifyUrl(String url, String baseUrl) {
+    if (url == null || url.isEmpty()) return url;
+    String u = url.trim();
+    if (u.startsWith("//")) {
+      return "https:" + u;
+    }
+    if (u.startsWith("#")) {
+      // 保留页面内锚点：拼接到首页（也可拼接到当前帖子的 link，但此处无上下文）
+      return baseUrl + "/" + u;
+    }
+    try {
+      URI base = URI.create(ensureTrailingSlash(baseUrl));
+      URI abs = base.resolve(u);
+      return abs.toString();
+    } catch (Exception e) {
+      return url;
+    }
+  }
+
+  private static String absolutifySrcset(String srcset, String baseUrl) {
+    if (srcset == null || srcset.isEmpty()) return srcset;
+    String[] parts = srcset.split(",");
+    List<String> out = new ArrayList<>(parts.length);
+    for (String part : parts) {
+      String p = part.trim();
+      if (p.isEmpty()) continue;
+      String[] seg = p.split("\\s+");
+      String url = seg[0];
+      String size = seg.length > 1 ? seg[1] : "";
+      out.add(absolutifyUrl(url, baseUrl) + (size.isEmpty() ? "" : " " + size));
+    }
+    return String.join(", ", out);
+  }
+
+  /* ===================== enclosure ===================== */
+
+  private static String getMimeType(String url) {
+    String lower = url == null ? "" : url.toLowerCase(Locale.ROOT);
+    if (lower.endsWith(".png")) return "image/png";
+    if (lower.endsWith(".gif")) return "image/gif";
+    if (lower.endsWith(".webp")) return "image/webp";
+    if (lower.endsWith(".svg")) return "image/svg+xml";
+    if (lower.endsWith(".avif")) return "image/avif";
+    if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) return "image/jpeg";
+    // 默认兜底
+    return "image/jpeg";
+  }
+
+  /* ===================== 附加区块（原文链接 + 精选评论） ===================== */
+
+  /**
+   * 将“原文链接 + 精选评论（最多 10 条）”以优雅的 Markdown 形式渲染为 HTML，
+   * 并做 sanitize + 绝对化，然后拼入 content:encoded 尾部。
+   */
+  private String buildFooterHtml(
+    String baseUrl,
+    String originalLink,
+    List<Comment> topComments
+  ) {
+    StringBuilder md = new StringBuilder(256);
+
+    // 分割线
+    md.append("\n\n---\n\n");
+
+    // 原文链接（强调 + 可点击）
+    md
+      .append("**原文链接：** ")
+      .append("[")
+      .append(originalLink)
+      .append("](")
+      .append(originalLink)
+      .append(")")
+      .append("\n\n");
+
+    // 精选评论（仅当有评论时展示）
+    if (topComments != null && !topComments.isEmpty()) {
+      md.append("### 精选评论（Top ").append(Math.min(10, topComments.size())).append("）\n\n");
+      for (Comment c : topComments) {
+        String author = usernameOf(c);
+        String content = nullSafe(c.getContent()).replace("\r", "");
+        // 使用引用样式展示，提升可读性
+        md.append("> @").append(author).append(": ").append(content).append("\n\n");
+      }
+    }
+
+    // 渲染为 HTML，并保持和正文一致的处理流程
+    String html = contentProcessingService.renderHtml(md.toString());
+    String safe = sanitizeHtml(html);
+    return absolutifyHtml(safe, baseUrl);
+  }
+
+  private static String usernameOf(Comment c) {
+    if (c == null) return "匿名";
+    try {
+      Object authorObj = c.getAuthor();
+      if (authorObj == null) return "匿名";
+      // 反射避免直接依赖实体字段名变化（也可直接强转到具体类型）
+      String username;
+      try {
+        username = (String) authorObj.getClass().getMethod("getUsername").invoke(authorObj);
+      } catch (Exception e) {
+        username = null;
+      }
+      if (username == null || username.isEmpty()) return "匿名";
+      return username;
+    } catch (Exception ignored) {
+      return "匿名";
+    }
+  }
+
+  /* ===================== 时间/字符串/XML ===================== */
+
+  private static String toRfc1123Gmt(ZonedDateTime zdt) {
+    return zdt.withZoneSameInstant(ZoneId.of("GMT")).format(RFC1123);
+  }
+
+  private static String cdata(String s) {
+    if (s == null) return "<![CDATA[]]>";
+    // 防止出现 "]]>" 终止标记破坏 CDATA
+    return "<![CDATA[" + s.replace("]]>", "]]]]><![CDATA[>") + "]]>";
+  }
+
+  private static void elem(StringBuilder sb, String name, String value) {
+    sb.append('<').append(name).append('>').append(value).append("</").append(name).append('>');
+  }
+
+  private static String escapeXml(String s) {
+    if (s == null) return "";
+    return s
+      .replace("&", "&amp;")
+      .replace("<", "&lt;")
+      .replace(">", "&gt;")
+      .replace("\"", "&quot;")
+      .replace("'", "&apos;");
+  }
+
+  private static String trimTrailingSlash(String s) {
+    if (s == null) return "";
+    return s.endsWith("/") ? s.substring(0, s.length() - 1) : s;
+  }
+
+  private static String ensureTrailingSlash(String s) {
+    if (s == null || s.isEmpty()) return "/";
+    return s.endsWith("/") ? s : s + "/";
+  }
+
+  private static String nullSafe(String s) {
+    return s == null ? "" : s;
+  }
+}
@@ -0,0 +1,67 @@
+package com.openisle.scheduler;
+
+import com.openisle.model.PurgeTargetType;
+import com.openisle.model.PurgeTask;
+import com.openisle.service.ContentPurgeService;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 后台清理已删除的帖子和评论。任务按入队顺序处理，连续的评论任务合并为一批，
+ * 帖子的评论按 chunk-size 分批清理，每批一个事务；失败的任务保留到下一轮重试。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ContentPurgeScheduler {
+
+  private final ContentPurgeService contentPurgeService;
+
+  @Value("${app.purge.batch-size:200}")
+  private int batchSize;
+
+  @Value("${app.purge.chunk-size:500}")
+  private int chunkSize;
+
+  @Scheduled(fixedDelayString = "${app.purge.interval:PT30S}")
+  public void purge() {
+    List<PurgeTask> comments = new ArrayList<>();
+    for (PurgeTask task : contentPurgeService.pendingTasks(batchSize)) {
+      if (task.getTargetType() == PurgeTargetType.COMMENT) {
+        comments.add(task);
+        continue;
+      }
+      purgeComments(comments);
+      comments.clear();
+      purgePost(task);
+    }
+    purgeComments(comments);
+  }
+
+  private void purgeComments(List<PurgeTask> tasks) {
+    if (tasks.isEmpty()) {
+      return;
+    }
+    try {
+      contentPurgeService.purgeComments(tasks);
+    } catch (RuntimeException e) {
+      log.warn("Failed to purge {} comments", tasks.size(), e);
+    }
+  }
+
+  private void purgePost(PurgeTask task) {
+    try {
+      while (contentPurgeService.purgePostComments(task.getTargetId(), chunkSize)) {
+        // 逐批清理评论，避免单个大事务
+      }
+      contentPurgeService.purgePost(task);
+    } catch (RuntimeException e) {
+      log.warn("Failed to purge post {}", task.getTargetId(), e);
+    }
+  }
+}
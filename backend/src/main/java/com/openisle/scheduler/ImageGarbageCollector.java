@@ -0,0 +1,42 @@
+package com.openisle.scheduler;
+
+import com.openisle.service.ImageUploader;
+import java.time.Duration;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定期清理引用数为 0 且超过宽限期的图片：先删除数据库记录，再异步批量删除 COS 对象。
+ * 宽限期内重新被引用的图片会保留；删除提交后才重新插入的图片也不会删除 COS 对象。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImageGarbageCollector {
+
+  private final ImageUploader imageUploader;
+
+  @Value("${app.image.gc.grace-period:PT24H}")
+  private Duration gracePeriod;
+
+  @Value("${app.image.gc.batch-size:1000}")
+  private int batchSize;
+
+  @Scheduled(
+    initialDelayString = "${app.image.gc.interval:PT10M}",
+    fixedDelayString = "${app.image.gc.interval:PT10M}"
+  )
+  public void collect() {
+    List<String> keys = imageUploader.withoutReferencedAgain(
+      imageUploader.purgeUnreferenced(gracePeriod, batchSize)
+    );
+    if (!keys.isEmpty()) {
+      log.info("Purging {} unreferenced images", keys.size());
+      imageUploader.deleteFromStoreAsync(keys);
+    }
+  }
+}
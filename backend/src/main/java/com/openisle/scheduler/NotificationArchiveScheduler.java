@@ -0,0 +1,48 @@
+package com.openisle.scheduler;
+
+import com.openisle.service.NotificationArchiveService;
+import java.time.LocalDateTime;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 定期把超过保留期的通知移到归档表。每批一个事务，直到某批不满为止；
+ * retention-days 小于等于 0 时不归档。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NotificationArchiveScheduler {
+
+  private final NotificationArchiveService notificationArchiveService;
+
+  @Value("${app.notification.retention-days:180}")
+  private int retentionDays;
+
+  @Value("${app.notification.archive.batch-size:1000}")
+  private int batchSize;
+
+  @Scheduled(fixedDelayString = "${app.notification.archive.interval:PT6H}")
+  public void archive() {
+    if (retentionDays <= 0) {
+      return;
+    }
+    LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+    long total = 0;
+    try {
+      int archived;
+      do {
+        archived = notificationArchiveService.archiveBatch(cutoff, batchSize);
+        total += archived;
+      } while (archived == batchSize);
+    } catch (RuntimeException e) {
+      log.warn("Failed to archive notifications created before {}", cutoff, e);
+    }
+    if (total > 0) {
+      log.info("Archived {} notifications created before {}", total, cutoff);
+    }
+  }
+}
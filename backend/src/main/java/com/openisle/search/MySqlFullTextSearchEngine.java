@@ -0,0 +1,195 @@
+package com.openisle.search;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+/**
+ * Search engine backed by the {@code search_documents} table and its InnoDB FULLTEXT indexes
+ * (ngram parser, so CJK text is tokenized into bigrams).
+ *
+ * <p>It receives the same documents as OpenSearch through {@link SearchIndexer} and answers
+ * ranked, paginated queries when OpenSearch is disabled or unavailable. Matching uses a
+ * boolean-mode phrase query; title matches weigh three times as much as matches elsewhere.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MySqlFullTextSearchEngine implements SearchIndexer {
+
+  /** A matched document and its relevance score. */
+  public record Hit(String index, SearchDocument document, double score) {}
+
+  private static final String TAG_SEPARATOR = "\n";
+
+  private static final String UPSERT_SQL =
+    "INSERT INTO search_documents " +
+    "(index_name, entity_id, type, title, content, author, category, tags, post_id, created_at) " +
+    "VALUES (:index, :id, :type, :title, :content, :author, :category, :tags, :postId, " +
+    ":createdAt) " +
+    "ON DUPLICATE KEY UPDATE type = VALUES(type), title = VALUES(title), " +
+    "content = VALUES(content), author = VALUES(author), category = VALUES(category), " +
+    "tags = VALUES(tags), post_id = VALUES(post_id), created_at = VALUES(created_at)";
+
+  private static final String DELETE_SQL =
+    "DELETE FROM search_documents WHERE index_name = :index AND entity_id = :id";
+
+  private static final String SEARCH_SQL =
+    "SELECT index_name, entity_id, type, title, content, author, category, tags, post_id, " +
+    "created_at, MATCH(title) AGAINST(:q IN BOOLEAN MODE) * 3 + " +
+    "MATCH(title, content, author, category, tags) AGAINST(:q IN BOOLEAN MODE) AS score " +
+    "FROM search_documents " +
+    "WHERE index_name IN (:indices) " +
+    "AND MATCH(title, content, author, category, tags) AGAINST(:q IN BOOLEAN MODE) " +
+    "ORDER BY score DESC, created_at DESC, entity_id DESC " +
+    "LIMIT :limit OFFSET :offset";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final int minTokenSize;
+
+  @Override
+  public void indexDocument(String index, SearchDocument document) {
+    if (document == null || document.entityId() == null) {
+      return;
+    }
+    try {
+      upsert(index, document);
+    } catch (DataAccessException e) {
+      log.warn(
+        "Failed to index document {} into full-text table {}",
+        document.entityId(),
+        index,
+        e
+      );
+    }
+  }
+
+  @Override
+  public void deleteDocument(String index, Long id) {
+    if (id == null) {
+      return;
+    }
+    try {
+      remove(index, id);
+    } catch (DataAccessException e) {
+      log.warn("Failed to delete document {} from full-text table {}", id, index, e);
+    }
+  }
+
+  @Override
+  public List<SearchIndexOperation> bulk(List<SearchIndexOperation> operations) {
+    List<SearchIndexOperation> failed = new ArrayList<>();
+    for (SearchIndexOperation operation : operations) {
+      try {
+        if (operation.isDelete()) {
+          remove(operation.index(), operation.id());
+        } else {
+          upsert(operation.index(), operation.document());
+        }
+      } catch (DataAccessException e) {
+        log.warn("Full-text write of {}/{} failed", operation.index(), operation.id(), e);
+        failed.add(operation);
+      }
+    }
+    return failed;
+  }
+
+  private void upsert(String index, SearchDocument document) {
+    MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("index", index)
+      .addValue("id", document.entityId())
+      .addValue("type", document.type())
+      .addValue("title", document.title())
+      .addValue("content", document.content())
+      .addValue("author", document.author())
+      .addValue("category", document.category())
+      .addValue("tags", joinTags(document.tags()))
+      .addValue("postId", document.postId())
+      .addValue("createdAt", document.createdAt());
+    jdbcTemplate.update(UPSERT_SQL, params);
+  }
+
+  private void remove(String index, Long id) {
+    jdbcTemplate.update(
+      DELETE_SQL,
+      new MapSqlParameterSource().addValue("index", index).addValue("id", id)
+    );
+  }
+
+  /**
+   * Whether the keyword is long enough to produce at least one ngram token; shorter keywords
+   * never match a FULLTEXT index and should use the LIKE path instead.
+   */
+  public boolean canSearch(String keyword) {
+    String phrase = toPhrase(keyword);
+    return phrase != null && phrase.codePointCount(0, phrase.length()) - 2 >= minTokenSize;
+  }
+
+  /**
+   * Ranked search over the given indices.
+   *
+   * @param page zero-based page number
+   * @param size page size
+   */
+  public List<Hit> search(String keyword, Collection<String> indices, int page, int size) {
+    return searchFrom(keyword, indices, (long) Math.max(0, page) * size, size);
+  }
+
+  /**
+   * Ranked search over the given indices starting at an arbitrary offset.
+   *
+   * @param offset number of hits to skip
+   * @param limit maximum number of hits to return
+   */
+  public List<Hit> searchFrom(String keyword, Collection<String> indices, long offset, int limit) {
+    String phrase = toPhrase(keyword);
+    if (phrase == null || indices == null || indices.isEmpty() || limit <= 0) {
+      return List.of();
+    }
+    MapSqlParameterSource params = new MapSqlParameterSource()
+      .addValue("q", phrase)
+      .addValue("indices", indices)
+      .addValue("limit", limit)
+      .addValue("offset", Math.max(0, offset));
+    return jdbcTemplate.query(SEARCH_SQL, params, (rs, rowNum) -> mapRow(rs));
+  }
+
+  /** Quote the keyword as one boolean-mode phrase so operators in user input are inert. */
+  static String toPhrase(String keyword) {
+    if (keyword == null) {
+      return null;
+    }
+    String cleaned = keyword.replace('"', ' ').replaceAll("\\s+", " ").trim();
+    if (cleaned.isEmpty()) {
+      return null;
+    }
+    return "\"" + cleaned + "\"";
+  }
+
+  private static String joinTags(List<String> tags) {
+    return tags == null || tags.isEmpty() ? null : String.join(TAG_SEPARATOR, tags);
+  }
+
+  private static Hit mapRow(ResultSet rs) throws SQLException {
+    String tags = rs.getString("tags");
+    SearchDocument document = new SearchDocument(
+      rs.getString("type"),
+      rs.getLong("entity_id"),
+      rs.getString("title"),
+      rs.getString("content"),
+      rs.getString("author"),
+      rs.getString("category"),
+      tags == null || tags.isBlank() ? List.of() : Arrays.asList(tags.split(TAG_SEPARATOR)),
+      rs.getObject("post_id", Long.class),
+      rs.getObject("created_at", Long.class)
+    );
+    return new Hit(rs.getString("index_name"), document, rs.getDouble("score"));
+  }
+}
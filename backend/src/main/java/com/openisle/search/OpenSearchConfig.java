@@ -15,6 +15,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.util.StringUtils;
 
 @Configuration
@@ -66,10 +67,22 @@ public class OpenSearchConfig {
 
   @Bean
   @ConditionalOnBean(OpenSearchClient.class)
-  public SearchIndexer openSearchIndexer(OpenSearchClient client, OpenSearchProperties properties) {
+  public OpenSearchIndexer openSearchIndexer(
+    OpenSearchClient client,
+    OpenSearchProperties properties
+  ) {
     return new OpenSearchIndexer(client);
   }
 
+  @Bean
+  @ConditionalOnProperty(prefix = "app.search.fulltext", name = "enabled", havingValue = "true")
+  public MySqlFullTextSearchEngine mySqlFullTextSearchEngine(
+    NamedParameterJdbcTemplate jdbcTemplate,
+    OpenSearchProperties properties
+  ) {
+    return new MySqlFullTextSearchEngine(jdbcTemplate, properties.getFulltext().getMinTokenSize());
+  }
+
   @Bean
   @ConditionalOnMissingBean(SearchIndexer.class)
   public SearchIndexer noopSearchIndexer() {
@@ -1,12 +1,17 @@
 package com.openisle.search;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch.core.BulkRequest;
+import org.opensearch.client.opensearch.core.BulkResponse;
 import org.opensearch.client.opensearch.core.DeleteRequest;
 import org.opensearch.client.opensearch.core.IndexRequest;
 import org.opensearch.client.opensearch.core.IndexResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
 
 @Slf4j
 @RequiredArgsConstructor
@@ -46,4 +51,51 @@ public class OpenSearchIndexer implements SearchIndexer {
       log.warn("Failed to delete document {} from {}", id, index, e);
     }
   }
+
+  @Override
+  public List<SearchIndexOperation> bulk(List<SearchIndexOperation> operations) {
+    if (operations.isEmpty()) {
+      return List.of();
+    }
+    BulkRequest.Builder builder = new BulkRequest.Builder();
+    for (SearchIndexOperation operation : operations) {
+      String id = operation.id().toString();
+      if (operation.isDelete()) {
+        builder.operations(op -> op.delete(d -> d.index(operation.index()).id(id)));
+      } else {
+        builder.operations(op ->
+          op.index(i -> i.index(operation.index()).id(id).document(operation.document()))
+        );
+      }
+    }
+    BulkResponse response;
+    try {
+      response = client.bulk(builder.build());
+    } catch (IOException | RuntimeException e) {
+      log.warn("Bulk request of {} operations failed", operations.size(), e);
+      return operations;
+    }
+    if (!response.errors()) {
+      return List.of();
+    }
+    // 响应条目与请求顺序一一对应
+    List<SearchIndexOperation> failed = new ArrayList<>();
+    List<BulkResponseItem> items = response.items();
+    for (int i = 0; i < items.size() && i < operations.size(); i++) {
+      BulkResponseItem item = items.get(i);
+      // 删除不存在的文档会返回 404，视为成功
+      if (item.error() == null || item.status() == 404) {
+        continue;
+      }
+      log.warn(
+        "Bulk {} of {}/{} failed: {}",
+        item.operationType(),
+        item.index(),
+        item.id(),
+        item.error().reason()
+      );
+      failed.add(operations.get(i));
+    }
+    return failed;
+  }
 }
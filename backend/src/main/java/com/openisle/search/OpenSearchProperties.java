@@ -1,5 +1,6 @@
 package com.openisle.search;
 
+import java.util.List;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -20,8 +21,11 @@ public class OpenSearchProperties {
   private int highlightFragmentSize = 200;
   private boolean reindexOnStartup = false;
   private int reindexBatchSize = 500;
+  /** Mapping version; bumping it rebuilds every index into {@code <alias>-v<version>}. */
+  private int indexVersion = 1;
 
   private Indices indices = new Indices();
+  private FullText fulltext = new FullText();
 
   public String postsIndex() {
     return indexName(indices.posts);
@@ -43,6 +47,16 @@ public class OpenSearchProperties {
     return indexName(indices.tags);
   }
 
+  /** Logical index names, which are aliases in OpenSearch. */
+  public List<String> indexNames() {
+    return List.of(postsIndex(), commentsIndex(), usersIndex(), categoriesIndex(), tagsIndex());
+  }
+
+  /** Physical index behind {@code alias} for the configured {@link #indexVersion}. */
+  public String physicalIndex(String alias) {
+    return alias + "-v" + indexVersion;
+  }
+
   private String indexName(String suffix) {
     if (indexPrefix == null || indexPrefix.isBlank()) {
       return suffix;
@@ -60,4 +74,14 @@ public class OpenSearchProperties {
     private String categories = "categories";
     private String tags = "tags";
   }
+
+  /** MySQL FULLTEXT engine used when OpenSearch is disabled or unavailable. */
+  @Getter
+  @Setter
+  public static class FullText {
+
+    private boolean enabled = false;
+    /** Must match the server's {@code ngram_token_size}. */
+    private int minTokenSize = 2;
+  }
 }
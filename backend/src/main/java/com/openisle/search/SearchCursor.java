@@ -0,0 +1,89 @@
+package com.openisle.search;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openisle.exception.FieldException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.opensearch.client.opensearch._types.FieldValue;
+
+/**
+ * Opaque position inside a paginated search, handed to clients as a URL-safe token.
+ *
+ * <p>It carries the sort values of the last returned OpenSearch hit for {@code search_after},
+ * plus the number of results already served so the MySQL fallbacks (and OpenSearch, when a
+ * page was served by a fallback) can continue by offset.
+ *
+ * @param offset results served before this position
+ * @param after sort values of the last hit, or null when the page did not come from OpenSearch
+ */
+public record SearchCursor(int offset, List<Object> after) {
+  public static final SearchCursor START = new SearchCursor(0, null);
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  public static SearchCursor afterHit(int offset, List<FieldValue> sortValues) {
+    List<Object> after = new ArrayList<>(sortValues.size());
+    for (FieldValue value : sortValues) {
+      after.add(value.isNull() ? null : value._get());
+    }
+    return new SearchCursor(offset, after);
+  }
+
+  public static SearchCursor atOffset(int offset) {
+    return new SearchCursor(offset, null);
+  }
+
+  /** Sort values for {@code search_after}, or null when only the offset is known. */
+  public List<FieldValue> searchAfter() {
+    if (after == null || after.isEmpty()) {
+      return null;
+    }
+    List<FieldValue> values = new ArrayList<>(after.size());
+    for (Object value : after) {
+      if (value == null) {
+        values.add(FieldValue.NULL);
+      } else if (value instanceof Double || value instanceof Float) {
+        values.add(FieldValue.of(((Number) value).doubleValue()));
+      } else if (value instanceof Number number) {
+        values.add(FieldValue.of(number.longValue()));
+      } else if (value instanceof Boolean bool) {
+        values.add(FieldValue.of(bool));
+      } else {
+        values.add(FieldValue.of(value.toString()));
+      }
+    }
+    return values;
+  }
+
+  public String encode() {
+    try {
+      byte[] json = MAPPER.writeValueAsBytes(this);
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to encode search cursor", e);
+    }
+  }
+
+  /** Decode a token from {@link #encode()}; a blank token is the first page. */
+  public static SearchCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return START;
+    }
+    try {
+      byte[] json = Base64.getUrlDecoder().decode(token);
+      SearchCursor cursor = MAPPER.readValue(
+        new String(json, StandardCharsets.UTF_8),
+        SearchCursor.class
+      );
+      if (cursor.offset() < 0) {
+        throw new FieldException("cursor", "Invalid search cursor");
+      }
+      return cursor;
+    } catch (IllegalArgumentException | JsonProcessingException e) {
+      throw new FieldException("cursor", "Invalid search cursor");
+    }
+  }
+}
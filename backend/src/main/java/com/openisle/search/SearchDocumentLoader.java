@@ -0,0 +1,61 @@
+package com.openisle.search;
+
+import com.openisle.model.PostStatus;
+import com.openisle.model.Tag;
+import com.openisle.repository.CategoryRepository;
+import com.openisle.repository.CommentRepository;
+import com.openisle.repository.PostRepository;
+import com.openisle.repository.TagRepository;
+import com.openisle.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Rebuilds the current index operation for one entity from the database: an index when the
+ * entity exists and is searchable, otherwise a delete.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchDocumentLoader {
+
+  private final OpenSearchProperties properties;
+  private final PostRepository postRepository;
+  private final CommentRepository commentRepository;
+  private final UserRepository userRepository;
+  private final CategoryRepository categoryRepository;
+  private final TagRepository tagRepository;
+
+  @Transactional(readOnly = true)
+  public SearchIndexOperation load(String index, Long id) {
+    SearchDocument document = null;
+    if (index.equals(properties.postsIndex())) {
+      document = postRepository
+        .findById(id)
+        .filter(p -> p.getStatus() == PostStatus.PUBLISHED)
+        .map(SearchDocumentFactory::fromPost)
+        .orElse(null);
+    } else if (index.equals(properties.commentsIndex())) {
+      document = commentRepository
+        .findById(id)
+        .map(SearchDocumentFactory::fromComment)
+        .orElse(null);
+    } else if (index.equals(properties.usersIndex())) {
+      document = userRepository.findById(id).map(SearchDocumentFactory::fromUser).orElse(null);
+    } else if (index.equals(properties.categoriesIndex())) {
+      document = categoryRepository
+        .findById(id)
+        .map(SearchDocumentFactory::fromCategory)
+        .orElse(null);
+    } else if (index.equals(properties.tagsIndex())) {
+      document = tagRepository
+        .findById(id)
+        .filter(Tag::isApproved)
+        .map(SearchDocumentFactory::fromTag)
+        .orElse(null);
+    }
+    return document != null
+      ? SearchIndexOperation.index(index, document)
+      : SearchIndexOperation.delete(index, id);
+  }
+}
@@ -13,14 +13,14 @@ import org.springframework.transaction.event.TransactionalEventListener;
 @RequiredArgsConstructor
 public class SearchIndexEventListener {
 
-  private final SearchIndexer searchIndexer;
+  private final SearchIndexQueue searchIndexQueue;
 
   @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
   public void handleIndex(IndexDocumentEvent event) {
     if (event == null || event.document() == null) {
       return;
     }
-    searchIndexer.indexDocument(event.index(), event.document());
+    searchIndexQueue.enqueue(SearchIndexOperation.index(event.index(), event.document()));
   }
 
   @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
@@ -28,6 +28,6 @@ public class SearchIndexEventListener {
     if (event == null) {
       return;
     }
-    searchIndexer.deleteDocument(event.index(), event.id());
+    searchIndexQueue.enqueue(SearchIndexOperation.delete(event.index(), event.id()));
   }
 }
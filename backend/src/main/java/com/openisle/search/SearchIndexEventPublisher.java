@@ -8,6 +8,8 @@ import com.openisle.model.Tag;
 import com.openisle.model.User;
 import com.openisle.search.event.DeleteDocumentEvent;
 import com.openisle.search.event.IndexDocumentEvent;
+import com.openisle.suggest.SuggestChangedEvent;
+import com.openisle.suggest.SuggestKind;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
@@ -20,7 +22,7 @@ public class SearchIndexEventPublisher {
   private final OpenSearchProperties properties;
 
   public void publishPostSaved(Post post) {
-    if (!properties.isEnabled() || post == null || post.getStatus() != PostStatus.PUBLISHED) {
+    if (!indexingEnabled() || post == null || post.getStatus() != PostStatus.PUBLISHED) {
       return;
     }
     SearchDocument document = SearchDocumentFactory.fromPost(post);
@@ -30,14 +32,14 @@ public class SearchIndexEventPublisher {
   }
 
   public void publishPostDeleted(Long postId) {
-    if (!properties.isEnabled() || postId == null) {
+    if (!indexingEnabled() || postId == null) {
       return;
     }
     publisher.publishEvent(new DeleteDocumentEvent(properties.postsIndex(), postId));
   }
 
   public void publishCommentSaved(Comment comment) {
-    if (!properties.isEnabled() || comment == null) {
+    if (!indexingEnabled() || comment == null) {
       return;
     }
     SearchDocument document = SearchDocumentFactory.fromComment(comment);
@@ -47,14 +49,26 @@ public class SearchIndexEventPublisher {
   }
 
   public void publishCommentDeleted(Long commentId) {
-    if (!properties.isEnabled() || commentId == null) {
+    if (!indexingEnabled() || commentId == null) {
       return;
     }
     publisher.publishEvent(new DeleteDocumentEvent(properties.commentsIndex(), commentId));
   }
 
   public void publishUserSaved(User user) {
-    if (!properties.isEnabled() || user == null) {
+    if (user == null) {
+      return;
+    }
+    publisher.publishEvent(
+      SuggestChangedEvent.saved(
+        SuggestKind.USER,
+        user.getId(),
+        user.getUsername(),
+        user.getAvatar(),
+        (long) user.getExperience()
+      )
+    );
+    if (!indexingEnabled()) {
       return;
     }
     SearchDocument document = SearchDocumentFactory.fromUser(user);
@@ -64,7 +78,19 @@ public class SearchIndexEventPublisher {
   }
 
   public void publishCategorySaved(Category category) {
-    if (!properties.isEnabled() || category == null) {
+    if (category == null) {
+      return;
+    }
+    publisher.publishEvent(
+      SuggestChangedEvent.saved(
+        SuggestKind.CATEGORY,
+        category.getId(),
+        category.getName(),
+        category.getIcon(),
+        0L
+      )
+    );
+    if (!indexingEnabled()) {
       return;
     }
     SearchDocument document = SearchDocumentFactory.fromCategory(category);
@@ -74,14 +100,33 @@ public class SearchIndexEventPublisher {
   }
 
   public void publishCategoryDeleted(Long categoryId) {
-    if (!properties.isEnabled() || categoryId == null) {
+    if (categoryId == null) {
+      return;
+    }
+    publisher.publishEvent(SuggestChangedEvent.removed(SuggestKind.CATEGORY, categoryId));
+    if (!indexingEnabled()) {
       return;
     }
     publisher.publishEvent(new DeleteDocumentEvent(properties.categoriesIndex(), categoryId));
   }
 
   public void publishTagSaved(Tag tag) {
-    if (!properties.isEnabled() || tag == null || !tag.isApproved()) {
+    if (tag == null) {
+      return;
+    }
+    // 帖子数不在实体上，沿用联想索引中已有的权重
+    publisher.publishEvent(
+      tag.isApproved()
+        ? SuggestChangedEvent.saved(
+          SuggestKind.TAG,
+          tag.getId(),
+          tag.getName(),
+          tag.getIcon(),
+          null
+        )
+        : SuggestChangedEvent.removed(SuggestKind.TAG, tag.getId())
+    );
+    if (!indexingEnabled() || !tag.isApproved()) {
       return;
     }
     SearchDocument document = SearchDocumentFactory.fromTag(tag);
@@ -91,9 +136,17 @@ public class SearchIndexEventPublisher {
   }
 
   public void publishTagDeleted(Long tagId) {
-    if (!properties.isEnabled() || tagId == null) {
+    if (tagId == null) {
+      return;
+    }
+    publisher.publishEvent(SuggestChangedEvent.removed(SuggestKind.TAG, tagId));
+    if (!indexingEnabled()) {
       return;
     }
     publisher.publishEvent(new DeleteDocumentEvent(properties.tagsIndex(), tagId));
   }
+
+  private boolean indexingEnabled() {
+    return properties.isEnabled() || properties.getFulltext().isEnabled();
+  }
 }
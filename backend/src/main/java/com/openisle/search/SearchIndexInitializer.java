@@ -2,17 +2,26 @@ package com.openisle.search;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.opensearch.client.json.JsonData;
 import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.OpenSearchException;
 import org.opensearch.client.opensearch._types.mapping.Property;
 import org.opensearch.client.opensearch._types.mapping.TypeMapping;
 import org.opensearch.client.opensearch.indices.IndexSettings;
+import org.opensearch.client.opensearch.indices.update_aliases.Action;
 
+/**
+ * Creates the search indices. Each logical index name (e.g. {@code openisle-posts}) is an
+ * alias pointing at a versioned physical index ({@code openisle-posts-v1}); a rebuild creates
+ * the next version next to it and swaps the alias atomically, see {@link SearchReindexService}.
+ */
 @Slf4j
 @RequiredArgsConstructor
 public class SearchIndexInitializer {
@@ -25,31 +34,123 @@ public class SearchIndexInitializer {
     if (!properties.isEnabled() || !properties.isInitialize()) {
       return;
     }
-    ensureIndex(properties.postsIndex(), this::postMapping);
-    ensureIndex(properties.commentsIndex(), this::commentMapping);
-    ensureIndex(properties.usersIndex(), this::userMapping);
-    ensureIndex(properties.categoriesIndex(), this::categoryMapping);
-    ensureIndex(properties.tagsIndex(), this::tagMapping);
+    for (String alias : properties.indexNames()) {
+      ensureIndex(alias);
+    }
   }
 
-  private void ensureIndex(String index, java.util.function.Supplier<TypeMapping> mappingSupplier) {
+  /**
+   * Create the current physical index behind {@code alias} unless the alias (or a legacy
+   * index with the same name, which the next rebuild migrates) already exists.
+   */
+  private void ensureIndex(String alias) {
     try {
       boolean exists = client
         .indices()
-        .exists(builder -> builder.index(index))
+        .exists(builder -> builder.index(alias))
         .value();
       if (exists) {
         return;
       }
+      String physical = properties.physicalIndex(alias);
       client
         .indices()
         .create(builder ->
-          builder.index(index).settings(this::applyPinyinAnalysis).mappings(mappingSupplier.get())
+          builder
+            .index(physical)
+            .aliases(alias, a -> a)
+            .settings(this::applyPinyinAnalysis)
+            .mappings(mappingFor(alias))
         );
-      log.info("Created OpenSearch index {}", index);
-    } catch (IOException e) {
-      log.warn("Failed to initialize OpenSearch index {}", index, e);
+      log.info("Created OpenSearch index {} behind alias {}", physical, alias);
+    } catch (IOException | OpenSearchException e) {
+      log.warn("Failed to initialize OpenSearch index {}", alias, e);
+    }
+  }
+
+  /** Physical indices the alias currently points at; empty when it is not an alias. */
+  public Set<String> aliasTargets(String alias) throws IOException {
+    boolean exists = client
+      .indices()
+      .existsAlias(builder -> builder.name(alias))
+      .value();
+    if (!exists) {
+      return Set.of();
+    }
+    return client
+      .indices()
+      .getAlias(builder -> builder.name(alias))
+      .result()
+      .keySet();
+  }
+
+  /** Whether {@code alias} already points at the physical index of the configured version. */
+  public boolean isCurrent(String alias) throws IOException {
+    return aliasTargets(alias).contains(properties.physicalIndex(alias));
+  }
+
+  /** (Re)create an empty physical index with the mapping of {@code alias}, without the alias. */
+  public void createIndex(String alias, String physical) throws IOException {
+    boolean exists = client
+      .indices()
+      .exists(builder -> builder.index(physical))
+      .value();
+    if (exists) {
+      // 上次重建中断留下的半成品
+      deleteIndex(physical);
+    }
+    client
+      .indices()
+      .create(builder ->
+        builder.index(physical).settings(this::applyPinyinAnalysis).mappings(mappingFor(alias))
+      );
+    log.info("Created OpenSearch index {} for alias {}", physical, alias);
+  }
+
+  /**
+   * Point {@code alias} at {@code physical} in one atomic request, detaching it from
+   * {@code previous}. A legacy non-versioned index named like the alias is dropped in the same
+   * request.
+   */
+  public void swapAlias(String alias, String physical, Set<String> previous) throws IOException {
+    List<Action> actions = new ArrayList<>();
+    if (previous.isEmpty()) {
+      boolean legacy = client
+        .indices()
+        .exists(builder -> builder.index(alias))
+        .value();
+      if (legacy) {
+        actions.add(Action.of(a -> a.removeIndex(r -> r.index(alias))));
+      }
+    }
+    for (String old : previous) {
+      if (!old.equals(physical)) {
+        actions.add(Action.of(a -> a.remove(r -> r.index(old).alias(alias))));
+      }
+    }
+    actions.add(Action.of(a -> a.add(add -> add.index(physical).alias(alias))));
+    client.indices().updateAliases(builder -> builder.actions(actions));
+    log.info("Alias {} now points at {}", alias, physical);
+  }
+
+  public void deleteIndex(String physical) throws IOException {
+    client.indices().delete(builder -> builder.index(physical));
+  }
+
+  private TypeMapping mappingFor(String alias) {
+    if (alias.equals(properties.postsIndex())) {
+      return postMapping();
+    }
+    if (alias.equals(properties.commentsIndex())) {
+      return commentMapping();
+    }
+    if (alias.equals(properties.usersIndex())) {
+      return userMapping();
+    }
+    if (alias.equals(properties.categoriesIndex())) {
+      return categoryMapping();
     }
+    return tagMapping();
   }
 
   private TypeMapping postMapping() {
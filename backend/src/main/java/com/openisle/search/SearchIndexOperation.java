@@ -0,0 +1,19 @@
+package com.openisle.search;
+
+/**
+ * A pending write to one search index: indexes {@code document} when present, otherwise
+ * deletes {@code id}.
+ */
+public record SearchIndexOperation(String index, Long id, SearchDocument document) {
+  public static SearchIndexOperation index(String index, SearchDocument document) {
+    return new SearchIndexOperation(index, document.entityId(), document);
+  }
+
+  public static SearchIndexOperation delete(String index, Long id) {
+    return new SearchIndexOperation(index, id, null);
+  }
+
+  public boolean isDelete() {
+    return document == null;
+  }
+}
@@ -0,0 +1,244 @@
+package com.openisle.search;
+
+import com.openisle.model.SearchIndexRetry;
+import com.openisle.repository.SearchIndexRetryRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Buffers index writes and flushes them in the background with one bulk request per batch.
+ *
+ * <p>Operations are coalesced per (index, id) until the next flush, so a burst of edits to
+ * the same post results in a single write of its latest state. Operations that fail are
+ * stored in {@code search_index_retries} and retried with exponential backoff; a retry
+ * reloads the entity from the database instead of replaying the original document.
+ *
+ * <p>{@code search.index.lag} reports how far (in seconds) the index trails the database:
+ * the age of the oldest queued operation or the oldest pending retry.
+ */
+@Slf4j
+@Component
+public class SearchIndexQueue {
+
+  private record Key(String index, Long id) {}
+
+  private record Pending(SearchIndexOperation operation, long enqueuedAt) {}
+
+  private final ConcurrentMap<Key, Pending> pending = new ConcurrentHashMap<>();
+  private final List<SearchIndexer> searchIndexers;
+  private final SearchIndexRetryRepository retryRepository;
+  private final SearchDocumentLoader documentLoader;
+  private final int batchSize;
+  private final Duration retryBackoff;
+  private final Duration maxRetryBackoff;
+  private final LongSupplier clock;
+  /** Creation time of the oldest stored retry in epoch millis, or 0 when there is none. */
+  private volatile long oldestRetryAt;
+
+  @Autowired
+  public SearchIndexQueue(
+    List<SearchIndexer> searchIndexers,
+    SearchIndexRetryRepository retryRepository,
+    SearchDocumentLoader documentLoader,
+    MeterRegistry meterRegistry,
+    @Value("${app.search.queue.batch-size:500}") int batchSize,
+    @Value("${app.search.queue.retry-backoff:PT30S}") Duration retryBackoff,
+    @Value("${app.search.queue.max-retry-backoff:PT30M}") Duration maxRetryBackoff
+  ) {
+    this(
+      searchIndexers,
+      retryRepository,
+      documentLoader,
+      meterRegistry,
+      batchSize,
+      retryBackoff,
+      maxRetryBackoff,
+      System::currentTimeMillis
+    );
+  }
+
+  SearchIndexQueue(
+    List<SearchIndexer> searchIndexers,
+    SearchIndexRetryRepository retryRepository,
+    SearchDocumentLoader documentLoader,
+    MeterRegistry meterRegistry,
+    int batchSize,
+    Duration retryBackoff,
+    Duration maxRetryBackoff,
+    LongSupplier clock
+  ) {
+    this.searchIndexers = searchIndexers;
+    this.retryRepository = retryRepository;
+    this.documentLoader = documentLoader;
+    this.batchSize = Math.max(1, batchSize);
+    this.retryBackoff = retryBackoff;
+    this.maxRetryBackoff = maxRetryBackoff;
+    this.clock = clock;
+    Gauge.builder("search.index.lag", this, SearchIndexQueue::lagSeconds)
+      .description("Age of the oldest index write not yet applied")
+      .baseUnit("seconds")
+      .register(meterRegistry);
+    Gauge.builder("search.index.pending", pending, ConcurrentMap::size)
+      .description("Index writes waiting for the next flush")
+      .register(meterRegistry);
+  }
+
+  /** Queue an operation, replacing any queued operation for the same document. */
+  public void enqueue(SearchIndexOperation operation) {
+    if (operation == null || operation.id() == null) {
+      return;
+    }
+    Key key = new Key(operation.index(), operation.id());
+    // 保留最早的入队时间，保证延迟指标不会被连续编辑掩盖
+    pending.merge(key, new Pending(operation, clock.getAsLong()), (old, latest) ->
+      new Pending(latest.operation(), old.enqueuedAt())
+    );
+  }
+
+  @Scheduled(
+    initialDelayString = "${app.search.queue.flush-interval:PT1S}",
+    fixedDelayString = "${app.search.queue.flush-interval:PT1S}"
+  )
+  public void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    List<SearchIndexOperation> batch = new ArrayList<>(batchSize);
+    for (Key key : pending.keySet()) {
+      Pending item = pending.remove(key);
+      if (item == null) {
+        continue;
+      }
+      batch.add(item.operation());
+      if (batch.size() >= batchSize) {
+        write(batch);
+        batch = new ArrayList<>(batchSize);
+      }
+    }
+    if (!batch.isEmpty()) {
+      write(batch);
+    }
+  }
+
+  @Scheduled(
+    initialDelayString = "${app.search.queue.retry-interval:PT30S}",
+    fixedDelayString = "${app.search.queue.retry-interval:PT30S}"
+  )
+  public void retryFailed() {
+    try {
+      List<SearchIndexRetry> due =
+        retryRepository.findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+          now(),
+          PageRequest.of(0, batchSize)
+        );
+      if (!due.isEmpty()) {
+        List<SearchIndexOperation> operations = new ArrayList<>(due.size());
+        for (SearchIndexRetry retry : due) {
+          operations.add(documentLoader.load(retry.getIndexName(), retry.getEntityId()));
+        }
+        Set<Key> failed = apply(operations);
+        for (SearchIndexRetry retry : due) {
+          if (failed.contains(new Key(retry.getIndexName(), retry.getEntityId()))) {
+            retry.setAttempts(retry.getAttempts() + 1);
+            retry.setNextAttemptAt(now().plus(backoff(retry.getAttempts())));
+            retryRepository.save(retry);
+          } else {
+            retryRepository.delete(retry);
+          }
+        }
+        log.info("Retried {} search index writes, {} still failing", due.size(), failed.size());
+      }
+      LocalDateTime oldest = retryRepository.findOldestCreatedAt();
+      oldestRetryAt = oldest == null
+        ? 0
+        : oldest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    } catch (DataAccessException e) {
+      log.warn("Search index retry run failed", e);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    flush();
+  }
+
+  double lagSeconds() {
+    long now = clock.getAsLong();
+    long oldest = now;
+    for (Pending item : pending.values()) {
+      oldest = Math.min(oldest, item.enqueuedAt());
+    }
+    long retryAt = oldestRetryAt;
+    if (retryAt > 0) {
+      oldest = Math.min(oldest, retryAt);
+    }
+    return (now - oldest) / 1000.0;
+  }
+
+  private void write(List<SearchIndexOperation> batch) {
+    for (Key key : apply(batch)) {
+      scheduleRetry(key);
+    }
+  }
+
+  /** Send the operations to every indexer and return the keys that failed anywhere. */
+  private Set<Key> apply(List<SearchIndexOperation> operations) {
+    Set<Key> failed = new HashSet<>();
+    for (SearchIndexer indexer : searchIndexers) {
+      List<SearchIndexOperation> rejected;
+      try {
+        rejected = indexer.bulk(operations);
+      } catch (RuntimeException e) {
+        log.warn("Search indexer {} failed", indexer.getClass().getSimpleName(), e);
+        rejected = operations;
+      }
+      for (SearchIndexOperation operation : rejected) {
+        failed.add(new Key(operation.index(), operation.id()));
+      }
+    }
+    return failed;
+  }
+
+  private void scheduleRetry(Key key) {
+    try {
+      SearchIndexRetry retry = retryRepository
+        .findByIndexNameAndEntityId(key.index(), key.id())
+        .orElseGet(() -> new SearchIndexRetry(key.index(), key.id(), now()));
+      retry.setNextAttemptAt(now().plus(backoff(retry.getAttempts())));
+      retryRepository.save(retry);
+      if (oldestRetryAt == 0) {
+        oldestRetryAt = clock.getAsLong();
+      }
+    } catch (DataAccessException e) {
+      log.error("Could not record search index retry for {}/{}", key.index(), key.id(), e);
+    }
+  }
+
+  private Duration backoff(int attempts) {
+    Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempts, 16));
+    return delay.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : delay;
+  }
+
+  private LocalDateTime now() {
+    return LocalDateTime.ofInstant(Instant.ofEpochMilli(clock.getAsLong()), ZoneId.systemDefault());
+  }
+}
@@ -1,6 +1,30 @@
 package com.openisle.search;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public interface SearchIndexer {
   void indexDocument(String index, SearchDocument document);
   void deleteDocument(String index, Long id);
+
+  /**
+   * Apply several operations at once.
+   *
+   * @return the operations that could not be applied and should be retried
+   */
+  default List<SearchIndexOperation> bulk(List<SearchIndexOperation> operations) {
+    List<SearchIndexOperation> failed = new ArrayList<>();
+    for (SearchIndexOperation operation : operations) {
+      try {
+        if (operation.isDelete()) {
+          deleteDocument(operation.index(), operation.id());
+        } else {
+          indexDocument(operation.index(), operation.document());
+        }
+      } catch (RuntimeException e) {
+        failed.add(operation);
+      }
+    }
+    return failed;
+  }
 }
@@ -3,8 +3,14 @@ package com.openisle.search;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+/**
+ * Synchronizes the search indices in the background after startup and periodically
+ * afterwards, so readiness never waits for a reindex. Only the node holding the
+ * {@link SearchReindexLock} does the work.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -15,16 +21,26 @@ public class SearchReindexInitializer implements CommandLineRunner {
 
   @Override
   public void run(String... args) {
-    if (!properties.isEnabled()) {
-      log.info("Search indexing disabled, skipping startup reindex.");
+    if (!properties.isEnabled() && !properties.getFulltext().isEnabled()) {
+      log.info("Search indexing disabled, skipping startup synchronization.");
       return;
     }
 
     if (!properties.isReindexOnStartup()) {
-      log.debug("Startup reindex disabled by configuration.");
+      log.debug("Startup synchronization disabled by configuration.");
       return;
     }
 
-    searchReindexService.reindexAll();
+    Thread thread = new Thread(searchReindexService::synchronize, "search-reindex");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Scheduled(
+    initialDelayString = "${app.search.sync-interval:PT15M}",
+    fixedDelayString = "${app.search.sync-interval:PT15M}"
+  )
+  public void synchronizePeriodically() {
+    searchReindexService.synchronize();
   }
 }
@@ -0,0 +1,69 @@
+package com.openisle.search;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis lease that elects a single node to rebuild / catch up the search indices.
+ * The lease expires on its own if the holder dies, and is only renewed or released by the
+ * node that owns it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchReindexLock {
+
+  private static final String KEY = "search:reindex:leader";
+
+  private static final RedisScript<Long> RENEW = RedisScript.of(
+    "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+    "return redis.call('pexpire', KEYS[1], ARGV[2]) end return 0",
+    Long.class
+  );
+  private static final RedisScript<Long> RELEASE = RedisScript.of(
+    "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+    "return redis.call('del', KEYS[1]) end return 0",
+    Long.class
+  );
+
+  private final StringRedisTemplate redisTemplate;
+  private final String token = UUID.randomUUID().toString();
+
+  public boolean tryAcquire(Duration ttl) {
+    try {
+      return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(KEY, token, ttl));
+    } catch (RuntimeException e) {
+      log.warn("Could not acquire search reindex lock", e);
+      return false;
+    }
+  }
+
+  public boolean renew(Duration ttl) {
+    try {
+      Long result = redisTemplate.execute(
+        RENEW,
+        List.of(KEY),
+        token,
+        String.valueOf(ttl.toMillis())
+      );
+      return result != null && result == 1L;
+    } catch (RuntimeException e) {
+      log.warn("Could not renew search reindex lock", e);
+      return false;
+    }
+  }
+
+  public void release() {
+    try {
+      redisTemplate.execute(RELEASE, List.of(KEY), token);
+    } catch (RuntimeException e) {
+      log.warn("Could not release search reindex lock", e);
+    }
+  }
+}
@@ -2,13 +2,22 @@ package com.openisle.search;
 
 import com.openisle.model.Post;
 import com.openisle.model.PostStatus;
+import com.openisle.model.SearchIndexState;
 import com.openisle.model.Tag;
 import com.openisle.repository.CategoryRepository;
 import com.openisle.repository.CommentRepository;
 import com.openisle.repository.PostRepository;
+import com.openisle.repository.SearchIndexStateRepository;
 import com.openisle.repository.TagRepository;
 import com.openisle.repository.UserRepository;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,79 +25,274 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Keeps the search indices in sync with the database without blocking startup.
+ *
+ * <p>{@link #synchronize()} runs on one node at a time (guarded by {@link SearchReindexLock}).
+ * For every logical index it either
+ * <ul>
+ *   <li>rebuilds OpenSearch into {@code <alias>-v<version>} when the alias still points at an
+ *   older version: full load, catch-up of rows updated meanwhile, atomic alias swap, and
+ *   removal of the previous index; or</li>
+ *   <li>catches up incrementally, reindexing only rows whose {@code updated_at} is past the
+ *   watermark stored in {@code search_index_state}.</li>
+ * </ul>
+ * Deleted posts and comments are tombstones with a fresh {@code updated_at}, so the catch-up
+ * removes them as well.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class SearchReindexService {
 
-  private final SearchIndexer searchIndexer;
+  /** Rows committed slightly before a run started may carry an older timestamp. */
+  private static final Duration CLOCK_SKEW = Duration.ofMinutes(1);
+  private static final Duration LOCK_TTL = Duration.ofMinutes(10);
+
+  private final List<SearchIndexer> searchIndexers;
+  private final Optional<OpenSearchIndexer> openSearchIndexer;
+  private final Optional<SearchIndexInitializer> indexInitializer;
   private final OpenSearchProperties properties;
+  private final SearchIndexQueue searchIndexQueue;
+  private final SearchDocumentLoader documentLoader;
+  private final SearchIndexStateRepository stateRepository;
+  private final SearchReindexLock lock;
+  private final TransactionTemplate transactionTemplate;
   private final PostRepository postRepository;
   private final CommentRepository commentRepository;
   private final UserRepository userRepository;
   private final CategoryRepository categoryRepository;
   private final TagRepository tagRepository;
 
-  @Transactional(readOnly = true)
+  /** Rebuild or catch up every index, unless another node is already doing it. */
+  public void synchronize() {
+    if (!isEnabled()) {
+      log.debug("Search indexing is disabled, skipping synchronization.");
+      return;
+    }
+    if (!lock.tryAcquire(LOCK_TTL)) {
+      log.info("Another node is synchronizing the search indices, skipping.");
+      return;
+    }
+    try {
+      for (String alias : properties.indexNames()) {
+        lock.renew(LOCK_TTL);
+        synchronize(alias);
+      }
+    } finally {
+      lock.release();
+    }
+  }
+
+  /** Full in-place reindex of every index through all indexers. */
   public void reindexAll() {
-    if (!properties.isEnabled()) {
+    if (!isEnabled()) {
       log.info("Search indexing is disabled, skipping reindex operation.");
       return;
     }
-
     log.info("Starting full search reindex operation.");
+    for (String alias : properties.indexNames()) {
+      load(alias, alias, searchIndexers);
+    }
+    log.info("Completed full search reindex operation.");
+  }
 
-    reindex(properties.postsIndex(), postRepository::findAll, (Post post) ->
-      post.getStatus() == PostStatus.PUBLISHED ? SearchDocumentFactory.fromPost(post) : null
-    );
+  private void synchronize(String alias) {
+    LocalDateTime startedAt = LocalDateTime.now().minus(CLOCK_SKEW);
+    SearchIndexState state = stateRepository
+      .findById(alias)
+      .orElseGet(() -> new SearchIndexState(alias));
+    try {
+      boolean rebuilt = rebuildIfOutdated(alias, startedAt);
+      if (state.getWatermark() == null) {
+        List<SearchIndexer> targets = rebuilt
+          ? searchIndexers.stream().filter(i -> !(i instanceof OpenSearchIndexer)).toList()
+          : searchIndexers;
+        load(alias, alias, targets);
+      } else {
+        int queued = catchUp(alias, state.getWatermark());
+        log.info("Queued {} changed entities for index {}.", queued, alias);
+      }
+      state.setPhysicalIndex(
+        properties.isEnabled() && openSearchIndexer.isPresent()
+          ? properties.physicalIndex(alias)
+          : null
+      );
+      state.setWatermark(startedAt);
+      stateRepository.save(state);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Failed to synchronize search index {}", alias, e);
+    }
+  }
 
-    reindex(
-      properties.commentsIndex(),
-      commentRepository::findAll,
-      SearchDocumentFactory::fromComment
-    );
+  /**
+   * Rebuild OpenSearch into the configured version next to the live index and swap the
+   * alias once it is complete. Indices of a newer version (another node already upgraded)
+   * are left alone.
+   */
+  private boolean rebuildIfOutdated(String alias, LocalDateTime startedAt) throws IOException {
+    SearchIndexInitializer initializer = indexInitializer.orElse(null);
+    OpenSearchIndexer indexer = openSearchIndexer.orElse(null);
+    if (!properties.isEnabled() || initializer == null || indexer == null) {
+      return false;
+    }
+    String physical = properties.physicalIndex(alias);
+    Set<String> previous = initializer.aliasTargets(alias);
+    if (previous.contains(physical)) {
+      return false;
+    }
+    int live = previous.stream().mapToInt(name -> versionOf(alias, name)).max().orElse(0);
+    if (live > properties.getIndexVersion()) {
+      log.warn(
+        "Search index {} is already at v{}, newer than v{}; not rebuilding.",
+        alias,
+        live,
+        properties.getIndexVersion()
+      );
+      return false;
+    }
 
-    reindex(properties.usersIndex(), userRepository::findAll, SearchDocumentFactory::fromUser);
+    log.info("Rebuilding search index {} into {}.", alias, physical);
+    initializer.createIndex(alias, physical);
+    load(alias, physical, List.of(indexer));
+    // 重建期间的写入仍进入旧索引，先按 updated_at 补齐再切换别名
+    List<SearchIndexOperation> changed = new ArrayList<>();
+    for (Long id : idsUpdatedSince(alias, startedAt)) {
+      SearchIndexOperation operation = documentLoader.load(alias, id);
+      changed.add(new SearchIndexOperation(physical, operation.id(), operation.document()));
+    }
+    bulk(physical, changed, List.of(indexer));
+    initializer.swapAlias(alias, physical, previous);
+    // 补齐与切换之间的空档
+    catchUp(alias, startedAt);
+    for (String old : previous) {
+      initializer.deleteIndex(old);
+    }
+    log.info("Rebuilt search index {} into {}.", alias, physical);
+    return true;
+  }
 
-    reindex(
-      properties.categoriesIndex(),
-      categoryRepository::findAll,
-      SearchDocumentFactory::fromCategory
-    );
+  /** Queue every entity of {@code alias} updated since {@code since}. */
+  private int catchUp(String alias, LocalDateTime since) {
+    List<Long> ids = idsUpdatedSince(alias, since);
+    for (Long id : ids) {
+      searchIndexQueue.enqueue(documentLoader.load(alias, id));
+    }
+    return ids.size();
+  }
 
-    reindex(properties.tagsIndex(), tagRepository::findAll, (Tag tag) ->
-      tag.isApproved() ? SearchDocumentFactory.fromTag(tag) : null
-    );
+  private List<Long> idsUpdatedSince(String alias, LocalDateTime since) {
+    if (alias.equals(properties.postsIndex())) {
+      return postRepository.findIdsUpdatedSince(since);
+    }
+    if (alias.equals(properties.commentsIndex())) {
+      return commentRepository.findIdsUpdatedSince(since);
+    }
+    if (alias.equals(properties.usersIndex())) {
+      return userRepository.findIdsUpdatedSince(since);
+    }
+    if (alias.equals(properties.categoriesIndex())) {
+      return categoryRepository.findIdsUpdatedSince(since);
+    }
+    return tagRepository.findIdsUpdatedSince(since);
+  }
 
-    log.info("Completed full search reindex operation.");
+  /** Load every searchable entity of {@code alias} into {@code target}. */
+  private void load(String alias, String target, List<SearchIndexer> indexers) {
+    if (alias.equals(properties.postsIndex())) {
+      reindex(target, indexers, postRepository::findAll, (Post post) ->
+        post.getStatus() == PostStatus.PUBLISHED ? SearchDocumentFactory.fromPost(post) : null
+      );
+    } else if (alias.equals(properties.commentsIndex())) {
+      reindex(
+        target,
+        indexers,
+        commentRepository::findAll,
+        SearchDocumentFactory::fromComment
+      );
+    } else if (alias.equals(properties.usersIndex())) {
+      reindex(target, indexers, userRepository::findAll, SearchDocumentFactory::fromUser);
+    } else if (alias.equals(properties.categoriesIndex())) {
+      reindex(
+        target,
+        indexers,
+        categoryRepository::findAll,
+        SearchDocumentFactory::fromCategory
+      );
+    } else {
+      reindex(target, indexers, tagRepository::findAll, (Tag tag) ->
+        tag.isApproved() ? SearchDocumentFactory.fromTag(tag) : null
+      );
+    }
   }
 
+  private record Batch(List<SearchIndexOperation> operations, boolean hasNext) {}
+
   private <T> void reindex(
     String index,
+    List<SearchIndexer> indexers,
     Function<Pageable, Page<T>> pageSupplier,
     Function<T, SearchDocument> mapper
   ) {
     int batchSize = Math.max(1, properties.getReindexBatchSize());
     int pageNumber = 0;
 
-    Page<T> page;
+    Batch batch;
     do {
       Pageable pageable = PageRequest.of(pageNumber, batchSize);
-      page = pageSupplier.apply(pageable);
-      if (page.isEmpty() && pageNumber == 0) {
-        log.info("No entities found for index {}.", index);
-      }
-
-      log.info("Reindexing {} entities for index {}.", page.getTotalElements(), index);
-      for (T entity : page) {
-        SearchDocument document = mapper.apply(entity);
-        if (Objects.nonNull(document)) {
-          searchIndexer.indexDocument(index, document);
+      // 每页一个事务，懒加载的标签等关联在事务内完成映射
+      batch = transactionTemplate.execute(status -> {
+        Page<T> page = pageSupplier.apply(pageable);
+        if (page.isEmpty() && pageable.getPageNumber() == 0) {
+          log.info("No entities found for index {}.", index);
         }
-      }
+        List<SearchIndexOperation> operations = new ArrayList<>(page.getNumberOfElements());
+        for (T entity : page) {
+          SearchDocument document = mapper.apply(entity);
+          if (Objects.nonNull(document)) {
+            operations.add(SearchIndexOperation.index(index, document));
+          }
+        }
+        return new Batch(operations, page.hasNext());
+      });
+      bulk(index, batch.operations(), indexers);
+      lock.renew(LOCK_TTL);
       pageNumber++;
-    } while (page.hasNext());
+    } while (batch.hasNext());
+  }
+
+  private void bulk(
+    String index,
+    List<SearchIndexOperation> operations,
+    List<SearchIndexer> indexers
+  ) {
+    if (operations.isEmpty()) {
+      return;
+    }
+    for (SearchIndexer indexer : indexers) {
+      int failed = indexer.bulk(operations).size();
+      if (failed > 0) {
+        log.warn("{} documents failed to reindex into {}.", failed, index);
+      }
+    }
+  }
+
+  /** Version suffix of a physical index ({@code <alias>-v<n>}), or 0 for a legacy index. */
+  static int versionOf(String alias, String physical) {
+    String prefix = alias + "-v";
+    if (!physical.startsWith(prefix)) {
+      return 0;
+    }
+    try {
+      return Integer.parseInt(physical.substring(prefix.length()));
+    } catch (NumberFormatException e) {
+      return 0;
+    }
+  }
+
+  private boolean isEnabled() {
+    return properties.isEnabled() || properties.getFulltext().isEnabled();
   }
 }
@@ -11,8 +11,10 @@ import com.openisle.repository.MessageConversationRepository;
 import com.openisle.repository.MessageParticipantRepository;
 import com.openisle.repository.MessageRepository;
 import com.openisle.repository.UserRepository;
-import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -27,12 +29,32 @@ public class ChannelService {
   private final MessageRepository messageRepository;
   private final UserRepository userRepository;
 
+  /**
+   * All channels with the viewer's membership and unread counts, in three queries however
+   * many channels or members there are: the channels, the viewer's participations and the
+   * grouped unread counts.
+   */
   @Transactional(readOnly = true)
   public List<ChannelDto> listChannels(Long userId) {
-    List<MessageConversation> channels = conversationRepository.findByChannelTrue();
+    List<MessageConversation> channels = conversationRepository.findChannelsWithLastMessage();
+    if (channels.isEmpty()) {
+      return List.of();
+    }
+    List<Long> ids = channels.stream().map(MessageConversation::getId).toList();
+    Set<Long> joined = participantRepository
+      .findByUserIdAndConversationIdIn(userId, ids)
+      .stream()
+      .map(p -> p.getConversation().getId())
+      .collect(Collectors.toSet());
+    Map<Long, Long> unread = new HashMap<>();
+    if (!joined.isEmpty()) {
+      for (Object[] row : messageRepository.countUnreadByConversation(userId, joined)) {
+        unread.put((Long) row[0], (Long) row[1]);
+      }
+    }
     return channels
       .stream()
-      .map(c -> toDto(c, userId))
+      .map(c -> toDto(c, c.getMemberCount(), joined.contains(c.getId()), unread))
       .collect(Collectors.toList());
   }
 
@@ -44,20 +66,28 @@ public class ChannelService {
     User user = userRepository
       .findById(userId)
       .orElseThrow(() -> new IllegalArgumentException("User not found"));
-    participantRepository
-      .findByConversationIdAndUserId(channelId, userId)
-      .orElseGet(() -> {
-        MessageParticipant p = new MessageParticipant();
-        p.setConversation(channel);
-        p.setUser(user);
-        MessageParticipant saved = participantRepository.save(p);
-        channel.getParticipants().add(saved);
-        return saved;
-      });
-    return toDto(channel, userId);
+    int memberCount = channel.getMemberCount();
+    if (participantRepository.findByConversationIdAndUserId(channelId, userId).isEmpty()) {
+      MessageParticipant p = new MessageParticipant();
+      p.setConversation(channel);
+      p.setUser(user);
+      participantRepository.save(p);
+      conversationRepository.incrementMemberCount(channelId);
+      memberCount++;
+    }
+    Map<Long, Long> unread = new HashMap<>();
+    for (Object[] row : messageRepository.countUnreadByConversation(userId, List.of(channelId))) {
+      unread.put((Long) row[0], (Long) row[1]);
+    }
+    return toDto(channel, memberCount, true, unread);
   }
 
-  private ChannelDto toDto(MessageConversation channel, Long userId) {
+  private ChannelDto toDto(
+    MessageConversation channel,
+    int memberCount,
+    boolean joined,
+    Map<Long, Long> unread
+  ) {
     ChannelDto dto = new ChannelDto();
     dto.setId(channel.getId());
     dto.setName(channel.getName());
@@ -66,31 +96,10 @@ public class ChannelService {
     if (channel.getLastMessage() != null) {
       dto.setLastMessage(toMessageDto(channel.getLastMessage()));
     }
-    dto.setMemberCount(channel.getParticipants().size());
-    boolean joined = channel
-      .getParticipants()
-      .stream()
-      .anyMatch(p -> p.getUser().getId().equals(userId));
+    dto.setMemberCount(memberCount);
     dto.setJoined(joined);
-    if (joined) {
-      MessageParticipant participant = channel
-        .getParticipants()
-        .stream()
-        .filter(p -> p.getUser().getId().equals(userId))
-        .findFirst()
-        .orElse(null);
-      LocalDateTime lastRead = participant.getLastReadAt() == null
-        ? LocalDateTime.of(1970, 1, 1, 0, 0)
-        : participant.getLastReadAt();
-      long unread = messageRepository.countByConversationIdAndCreatedAtAfterAndSenderIdNot(
-        channel.getId(),
-        lastRead,
-        userId
-      );
-      dto.setUnreadCount(unread);
-    } else {
-      dto.setUnreadCount(0);
-    }
+    // 未加入的频道没有未读数
+    dto.setUnreadCount(joined ? unread.getOrDefault(channel.getId(), 0L) : 0);
     return dto;
   }
 
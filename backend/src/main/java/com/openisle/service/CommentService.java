@@ -1,24 +1,24 @@
 package com.openisle.service;
 
 import com.openisle.config.CachingConfig;
-import com.openisle.exception.RateLimitException;
 import com.openisle.model.Comment;
 import com.openisle.model.CommentSort;
 import com.openisle.model.NotificationType;
-import com.openisle.model.PointHistory;
 import com.openisle.model.Post;
+import com.openisle.model.PostStatus;
+import com.openisle.model.PurgeTargetType;
+import com.openisle.model.PurgeTask;
 import com.openisle.model.Role;
 import com.openisle.model.User;
+import com.openisle.ratelimit.RateLimitAction;
+import com.openisle.ratelimit.RateLimitService;
 import com.openisle.repository.CommentRepository;
-import com.openisle.repository.CommentSubscriptionRepository;
-import com.openisle.repository.NotificationRepository;
-import com.openisle.repository.PointHistoryRepository;
 import com.openisle.repository.PostRepository;
+import com.openisle.repository.PurgeTaskRepository;
 import com.openisle.repository.ReactionRepository;
 import com.openisle.repository.UserRepository;
 import com.openisle.search.SearchIndexEventPublisher;
 import com.openisle.service.NotificationService;
-import com.openisle.service.PointService;
 import com.openisle.service.SubscriptionService;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -28,7 +28,6 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
@@ -49,31 +48,20 @@ public class CommentService {
   private final NotificationService notificationService;
   private final SubscriptionService subscriptionService;
   private final ReactionRepository reactionRepository;
-  private final CommentSubscriptionRepository commentSubscriptionRepository;
-  private final NotificationRepository notificationRepository;
-  private final PointHistoryRepository pointHistoryRepository;
-  private final PointService pointService;
   private final ImageUploader imageUploader;
   private final SearchIndexEventPublisher searchIndexEventPublisher;
+  private final RateLimitService rateLimitService;
+  private final PurgeTaskRepository purgeTaskRepository;
 
   @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public Comment addComment(String username, Long postId, String content) {
     log.debug("addComment called by user {} for post {}", username, postId);
-    long recent = commentRepository.countByAuthorAfter(
-      username,
-      java.time.LocalDateTime.now().minusMinutes(1)
-    );
-    if (recent >= 3) {
-      log.debug("Rate limit exceeded for user {}", username);
-      throw new RateLimitException("Too many comments");
-    }
+    rateLimitService.check(RateLimitAction.COMMENT, username);
     User author = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
-    Post post = postRepository
-      .findById(postId)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(postId);
     if (post.isClosed()) {
       throw new IllegalStateException("Post closed");
     }
@@ -143,20 +131,16 @@ public class CommentService {
   @Transactional
   public Comment addReply(String username, Long parentId, String content) {
     log.debug("addReply called by user {} for parent comment {}", username, parentId);
-    long recent = commentRepository.countByAuthorAfter(
-      username,
-      java.time.LocalDateTime.now().minusMinutes(1)
-    );
-    if (recent >= 3) {
-      log.debug("Rate limit exceeded for user {}", username);
-      throw new RateLimitException("Too many comments");
-    }
+    rateLimitService.check(RateLimitAction.REPLY, username);
     User author = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
     Comment parent = commentRepository
       .findById(parentId)
       .orElseThrow(() -> new IllegalArgumentException("Comment not found"));
+    if (parent.getPost().getStatus() == PostStatus.DELETED) {
+      throw new com.openisle.exception.NotFoundException("Post not found");
+    }
     if (parent.getPost().isClosed()) {
       throw new IllegalStateException("Post closed");
     }
@@ -234,9 +218,7 @@ public class CommentService {
 
   public List<Comment> getCommentsForPost(Long postId, CommentSort sort) {
     log.debug("getCommentsForPost called for post {} with sort {}", postId, sort);
-    Post post = postRepository
-      .findById(postId)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(postId);
     List<Comment> list = commentRepository.findByPostAndParentIsNullOrderByCreatedAtAsc(post);
     java.util.List<Comment> pinned = new java.util.ArrayList<>();
     java.util.List<Comment> others = new java.util.ArrayList<>();
@@ -308,9 +290,7 @@ public class CommentService {
 
   public java.util.List<User> getParticipants(Long postId, int limit) {
     log.debug("getParticipants called for post {} with limit {}", postId, limit);
-    Post post = postRepository
-      .findById(postId)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(postId);
     java.util.LinkedHashSet<User> set = new java.util.LinkedHashSet<>();
     set.add(post.getAuthor());
     set.addAll(commentRepository.findDistinctAuthorsByPost(post));
@@ -360,9 +340,7 @@ public class CommentService {
 
   public java.time.LocalDateTime getLastCommentTime(Long postId) {
     log.debug("getLastCommentTime called for post {}", postId);
-    Post post = postRepository
-      .findById(postId)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(postId);
     java.time.LocalDateTime time = commentRepository.findLastCommentTime(post);
     log.debug("getLastCommentTime for post {} is {}", postId, time);
     return time;
@@ -393,53 +371,34 @@ public class CommentService {
     log.debug("deleteComment completed for comment {}", id);
   }
 
+  /**
+   * Hide a comment and all of its replies, level by level, and enqueue their cleanup.
+   * Reactions, subscriptions, notifications, point history and images are removed in the
+   * background by {@link ContentPurgeService}.
+   */
   @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public void deleteCommentCascade(Comment comment) {
     log.debug("deleteCommentCascade called for comment {}", comment.getId());
-    List<Comment> replies = commentRepository.findByParentOrderByCreatedAtAsc(comment);
-    for (Comment c : replies) {
-      deleteCommentCascade(c);
+    List<Long> ids = new ArrayList<>();
+    List<Long> level = List.of(comment.getId());
+    while (!level.isEmpty()) {
+      ids.addAll(level);
+      level = commentRepository.findIdsByParentIds(level);
     }
 
-    // 逻辑删除相关的积分历史记录，并收集受影响的用户
-    List<PointHistory> pointHistories = pointHistoryRepository.findByComment(comment);
-    // 收集需要重新计算积分的用户
-    Set<User> usersToRecalculate = pointHistories
-      .stream()
-      .map(PointHistory::getUser)
-      .collect(Collectors.toSet());
-
-    // 删除其他相关数据
-    reactionRepository.findByComment(comment).forEach(reactionRepository::delete);
-    commentSubscriptionRepository
-      .findByComment(comment)
-      .forEach(commentSubscriptionRepository::delete);
-    notificationRepository.deleteAll(notificationRepository.findByComment(comment));
-    imageUploader.removeReferences(imageUploader.extractUrls(comment.getContent()));
-
-    // 逻辑删除评论
-    Post post = comment.getPost();
-    Long commentId = comment.getId();
-    commentRepository.delete(comment);
-    searchIndexEventPublisher.publishCommentDeleted(commentId);
-    // 删除积分历史
-    pointHistoryRepository.deleteAll(pointHistories);
+    commentRepository.softDeleteByIds(ids, LocalDateTime.now());
+    purgeTaskRepository.saveAll(
+      ids.stream().map(id -> new PurgeTask(PurgeTargetType.COMMENT, id)).toList()
+    );
+    for (Long id : ids) {
+      searchIndexEventPublisher.publishCommentDeleted(id);
+    }
 
     // Update post comment statistics
-    updatePostCommentStats(post);
-
-    // 重新计算受影响用户的积分
-    if (!usersToRecalculate.isEmpty()) {
-      for (User user : usersToRecalculate) {
-        int newPoints = pointService.recalculateUserPoints(user);
-        user.setPoint(newPoints);
-        log.debug("Recalculated points for user {}: {}", user.getUsername(), newPoints);
-      }
-      userRepository.saveAll(usersToRecalculate);
-    }
+    updatePostCommentStats(comment.getPost());
 
-    log.debug("deleteCommentCascade removed comment {}", comment.getId());
+    log.debug("deleteCommentCascade removed {} comments under {}", ids.size(), comment.getId());
   }
 
   @Transactional
@@ -0,0 +1,169 @@
+package com.openisle.service;
+
+import com.vladsch.flexmark.ext.autolink.AutolinkExtension;
+import com.vladsch.flexmark.ext.gfm.strikethrough.StrikethroughExtension;
+import com.vladsch.flexmark.ext.gfm.tasklist.TaskListExtension;
+import com.vladsch.flexmark.ext.tables.TablesExtension;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Derives rendered HTML, plain text, first image, referenced URLs and mentions from
+ * Markdown content. Results are computed once per content revision and kept in a bounded
+ * LRU cache keyed by the content hash, so callers can ask for them on every request.
+ */
+@Service
+public class ContentProcessingService {
+
+  /**
+   * Derived artifacts of one content revision.
+   *
+   * @param html Markdown rendered to HTML (not sanitized)
+   * @param plainText whitespace-normalized text of {@code html}
+   * @param firstImage first image URL as written in the content, or null
+   * @param urls absolute http(s) URLs referenced by the content
+   * @param mentions usernames mentioned with {@code @[name]}
+   */
+  public record ProcessedContent(
+    String html,
+    String plainText,
+    String firstImage,
+    Set<String> urls,
+    Set<String> mentions
+  ) {
+    /** Plain text cut to {@code limit} characters, or the whole text when limit is negative. */
+    public String excerpt(int limit) {
+      if (limit < 0 || plainText.length() <= limit) {
+        return plainText;
+      }
+      return plainText.substring(0, limit);
+    }
+  }
+
+  private static final ProcessedContent EMPTY = new ProcessedContent(
+    "",
+    "",
+    null,
+    Set.of(),
+    Set.of()
+  );
+
+  // 兼容 Markdown/HTML 两类图片写法
+  private static final Pattern MD_IMAGE = Pattern.compile("!\\[[^\\]]*\\]\\(([^)]+)\\)");
+  private static final Pattern HTML_IMAGE = Pattern.compile(
+    "<BaseImage[^>]+src=[\"']?([^\"'>]+)[\"']?[^>]*>"
+  );
+  private static final Pattern URL_PATTERN = Pattern.compile("https?://[^\\s)\\]\"'<>]+");
+  private static final Pattern MENTION_PATTERN = Pattern.compile("@\\[([^\\]]+)\\]");
+
+  private static final Parser MD_PARSER;
+  private static final HtmlRenderer MD_RENDERER;
+
+  static {
+    MutableDataSet opts = new MutableDataSet();
+    opts.set(
+      Parser.EXTENSIONS,
+      Arrays.asList(
+        TablesExtension.create(),
+        AutolinkExtension.create(),
+        StrikethroughExtension.create(),
+        TaskListExtension.create()
+      )
+    );
+    // 允许内联 HTML（调用方按需 sanitize）
+    opts.set(Parser.HTML_BLOCK_PARSER, true);
+    MD_PARSER = Parser.builder(opts).build();
+    MD_RENDERER = HtmlRenderer.builder(opts).escapeHtml(false).build();
+  }
+
+  private final Map<String, ProcessedContent> cache;
+
+  public ContentProcessingService(@Value("${app.content.cache-size:2000}") int cacheSize) {
+    this.cache = Collections.synchronizedMap(
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ProcessedContent> eldest) {
+          return size() > cacheSize;
+        }
+      }
+    );
+  }
+
+  public ProcessedContent process(String content) {
+    if (content == null || content.isEmpty()) {
+      return EMPTY;
+    }
+    String key = DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8));
+    ProcessedContent cached = cache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    ProcessedContent processed = compute(content);
+    cache.put(key, processed);
+    return processed;
+  }
+
+  public String renderHtml(String content) {
+    return process(content).html();
+  }
+
+  public String plainText(String content) {
+    return process(content).plainText();
+  }
+
+  public Set<String> extractUrls(String content) {
+    return process(content).urls();
+  }
+
+  public Set<String> extractMentions(String content) {
+    return process(content).mentions();
+  }
+
+  static ProcessedContent compute(String content) {
+    String html = MD_RENDERER.render(MD_PARSER.parse(content));
+    org.jsoup.nodes.Document doc = Jsoup.parse(html);
+    String plainText = doc.text().replaceAll("\\s+", " ").trim();
+    String firstImage = firstImage(content, doc);
+    return new ProcessedContent(
+      html,
+      plainText,
+      firstImage,
+      Collections.unmodifiableSet(collect(URL_PATTERN, 0, content)),
+      Collections.unmodifiableSet(collect(MENTION_PATTERN, 1, content))
+    );
+  }
+
+  private static String firstImage(String content, org.jsoup.nodes.Document rendered) {
+    Matcher m = MD_IMAGE.matcher(content);
+    if (m.find()) return m.group(1);
+    m = HTML_IMAGE.matcher(content);
+    if (m.find()) return m.group(1);
+    // 再从渲染后的 HTML 里找一次
+    Element img = rendered.selectFirst("img[src]");
+    return img != null ? img.attr("src") : null;
+  }
+
+  private static Set<String> collect(Pattern pattern, int group, String content) {
+    Set<String> set = new LinkedHashSet<>();
+    Matcher m = pattern.matcher(content);
+    while (m.find()) {
+      set.add(m.group(group));
+    }
+    return set;
+  }
+}
@@ -0,0 +1,132 @@
+package com.openisle.service;
+
+import com.openisle.model.Post;
+import com.openisle.model.PurgeTask;
+import com.openisle.notification.NotificationUnreadCounter;
+import com.openisle.repository.CommentRepository;
+import com.openisle.repository.CommentSubscriptionRepository;
+import com.openisle.repository.NotificationRepository;
+import com.openisle.repository.PointHistoryRepository;
+import com.openisle.repository.PollVoteRepository;
+import com.openisle.repository.PostRepository;
+import com.openisle.repository.PostReadRepository;
+import com.openisle.repository.PostSubscriptionRepository;
+import com.openisle.repository.PurgeTaskRepository;
+import com.openisle.repository.ReactionRepository;
+import com.openisle.repository.UserRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Removes everything hanging off deleted posts and comments with set-based statements.
+ *
+ * <p>Deleting only hides the content and enqueues a {@link PurgeTask}; this service then
+ * deletes reactions, subscriptions, notifications and reads with bulk
+ * {@code DELETE ... WHERE ... IN (...)}, logically deletes point history and subtracts the
+ * summed amounts from each affected user instead of recalculating their whole history.
+ * Every method runs in its own bounded transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContentPurgeService {
+
+  private final PurgeTaskRepository purgeTaskRepository;
+  private final PostRepository postRepository;
+  private final CommentRepository commentRepository;
+  private final ReactionRepository reactionRepository;
+  private final CommentSubscriptionRepository commentSubscriptionRepository;
+  private final PostSubscriptionRepository postSubscriptionRepository;
+  private final NotificationRepository notificationRepository;
+  private final PostReadRepository postReadRepository;
+  private final PollVoteRepository pollVoteRepository;
+  private final PointHistoryRepository pointHistoryRepository;
+  private final UserRepository userRepository;
+  private final PostChangeLogService postChangeLogService;
+  private final ImageUploader imageUploader;
+  private final NotificationUnreadCounter unreadCounter;
+
+  public List<PurgeTask> pendingTasks(int limit) {
+    return purgeTaskRepository.findAllByOrderByIdAsc(PageRequest.of(0, limit));
+  }
+
+  /** Purge the related rows of already hidden comments and drop their tasks. */
+  @Transactional
+  public void purgeComments(List<PurgeTask> tasks) {
+    List<Long> ids = new ArrayList<>(tasks.size());
+    for (PurgeTask task : tasks) {
+      ids.add(task.getTargetId());
+    }
+    purgeCommentRelations(ids);
+    purgeTaskRepository.deleteAllInBatch(tasks);
+    log.debug("Purged {} comments", ids.size());
+  }
+
+  /**
+   * Purge and hide the next {@code chunkSize} live comments of a deleted post.
+   *
+   * @return false once the post has no live comments left
+   */
+  @Transactional
+  public boolean purgePostComments(Long postId, int chunkSize) {
+    List<Long> ids = commentRepository.findIdsByPostId(postId, PageRequest.of(0, chunkSize));
+    if (ids.isEmpty()) {
+      return false;
+    }
+    purgeCommentRelations(ids);
+    commentRepository.softDeleteByIds(ids, LocalDateTime.now());
+    return true;
+  }
+
+  /** Remove the post itself once its comments have been purged, then drop the task. */
+  @Transactional
+  public void purgePost(PurgeTask task) {
+    Long postId = task.getTargetId();
+    Post post = postRepository.findById(postId).orElse(null);
+    if (post != null) {
+      reactionRepository.deleteByPostId(postId);
+      postSubscriptionRepository.deleteByPostId(postId);
+      unreadCounter.invalidate(notificationRepository.findUnreadUserIdsByPostId(postId));
+      notificationRepository.deleteByPostId(postId);
+      postReadRepository.deleteByPostId(postId);
+      pollVoteRepository.deleteByPostId(postId);
+      applyPointDeltas(pointHistoryRepository.sumAmountByUserForPost(postId));
+      pointHistoryRepository.softDeleteByPostId(postId, LocalDateTime.now());
+      pointHistoryRepository.detachCommentsOfPost(postId);
+      commentRepository.clearParentsByPostId(postId);
+      commentRepository.hardDeleteByPostId(postId);
+      postChangeLogService.deleteLogsForPost(post);
+      imageUploader.removeReferences(imageUploader.extractUrls(post.getContent()));
+      postRepository.delete(post);
+    }
+    purgeTaskRepository.delete(task);
+    log.debug("Purged post {}", postId);
+  }
+
+  private void purgeCommentRelations(List<Long> commentIds) {
+    reactionRepository.deleteByCommentIds(commentIds);
+    commentSubscriptionRepository.deleteByCommentIds(commentIds);
+    unreadCounter.invalidate(notificationRepository.findUnreadUserIdsByCommentIds(commentIds));
+    notificationRepository.deleteByCommentIds(commentIds);
+    applyPointDeltas(pointHistoryRepository.sumAmountByUserForComments(commentIds));
+    pointHistoryRepository.softDeleteByCommentIds(commentIds, LocalDateTime.now());
+    imageUploader.removeReferencesFromContents(commentRepository.findContentsByIds(commentIds));
+  }
+
+  /** 按用户汇总后的积分差值直接扣减，不再重算整段积分历史 */
+  private void applyPointDeltas(List<Object[]> sums) {
+    for (Object[] row : sums) {
+      Long userId = (Long) row[0];
+      int amount = ((Number) row[1]).intValue();
+      if (amount != 0) {
+        userRepository.addPoint(userId, -amount);
+      }
+    }
+  }
+}
@@ -21,7 +21,7 @@ public class ContributorService {
   private static final String REPO = "OpenIsle";
 
   private final ContributorConfigRepository repository;
-  private final RestTemplate restTemplate = new RestTemplate();
+  private final RestTemplate restTemplate;
 
   @PostConstruct
   @Scheduled(cron = "0 0 * * * *")
@@ -3,13 +3,20 @@ package com.openisle.service;
 import com.qcloud.cos.COSClient;
 import com.qcloud.cos.ClientConfig;
 import com.qcloud.cos.auth.BasicCOSCredentials;
-import com.qcloud.cos.auth.COSCredentials;
 import com.qcloud.cos.http.HttpMethodName;
+import com.qcloud.cos.model.DeleteObjectsRequest;
 import com.qcloud.cos.model.GeneratePresignedUrlRequest;
 import com.qcloud.cos.model.ObjectMetadata;
 import com.qcloud.cos.model.PutObjectRequest;
 import com.qcloud.cos.region.Region;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -21,51 +28,67 @@ import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 /**
- * ImageUploader implementation using Tencent Cloud COS.
+ * ImageUploader implementation using Tencent Cloud COS. Its upload and delete pools are
+ * exposed as {@code executor.*} metrics named {@code cos-upload} and {@code cos-delete}.
  */
 @Service
-public class CosImageUploader extends ImageUploader {
+public class CosImageUploader extends ImageUploader implements MeterBinder {
 
   private final COSClient cosClient;
   private final String bucketName;
   private final String baseUrl;
   private static final String UPLOAD_DIR = "dynamic_assert/";
+  // COS 批量删除单次最多 1000 个对象
+  private static final int DELETE_BATCH_SIZE = 1000;
   private static final Logger logger = LoggerFactory.getLogger(CosImageUploader.class);
   private final ExecutorService executor = Executors.newFixedThreadPool(
     2,
     new CustomizableThreadFactory("cos-upload-")
   );
+  private final ExecutorService deleteExecutor = Executors.newSingleThreadExecutor(
+    new CustomizableThreadFactory("cos-delete-")
+  );
 
   @org.springframework.beans.factory.annotation.Autowired
   public CosImageUploader(
     com.openisle.repository.ImageRepository imageRepository,
+    ContentProcessingService contentProcessingService,
     @Value("${cos.secret-id:}") String secretId,
     @Value("${cos.secret-key:}") String secretKey,
     @Value("${cos.region:ap-guangzhou}") String region,
     @Value("${cos.bucket-name:}") String bucketName,
     @Value("${cos.base-url:https://example.com}") String baseUrl
   ) {
-    super(imageRepository, baseUrl);
-    COSCredentials cred = new BasicCOSCredentials(secretId, secretKey);
-    ClientConfig config = new ClientConfig(new Region(region));
-    this.cosClient = new COSClient(cred, config);
-    this.bucketName = bucketName;
-    this.baseUrl = baseUrl;
+    this(
+      new COSClient(
+        new BasicCOSCredentials(secretId, secretKey),
+        new ClientConfig(new Region(region))
+      ),
+      imageRepository,
+      contentProcessingService,
+      bucketName,
+      baseUrl
+    );
     logger.debug("COS client initialized for region {} with bucket {}", region, bucketName);
   }
 
-  // for tests
   CosImageUploader(
     COSClient cosClient,
     com.openisle.repository.ImageRepository imageRepository,
+    ContentProcessingService contentProcessingService,
     String bucketName,
     String baseUrl
   ) {
-    super(imageRepository, baseUrl);
+    super(imageRepository, contentProcessingService, baseUrl);
     this.cosClient = cosClient;
     this.bucketName = bucketName;
     this.baseUrl = baseUrl;
-    logger.debug("COS client provided directly with bucket {}", bucketName);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    new ExecutorServiceMetrics(executor, "cos-upload", Tags.empty()).bindTo(registry);
+    new ExecutorServiceMetrics(deleteExecutor, "cos-delete", Tags.empty()).bindTo(registry);
   }
 
   @Override
@@ -109,6 +132,28 @@ public class CosImageUploader extends ImageUploader {
     }
   }
 
+  @Override
+  protected void deleteFromStore(Collection<String> keys) {
+    List<String> all = new ArrayList<>(keys);
+    for (int i = 0; i < all.size(); i += DELETE_BATCH_SIZE) {
+      List<String> batch = all.subList(i, Math.min(all.size(), i + DELETE_BATCH_SIZE));
+      try {
+        DeleteObjectsRequest req = new DeleteObjectsRequest(bucketName);
+        req.setQuiet(true);
+        req.withKeys(batch.toArray(new String[0]));
+        cosClient.deleteObjects(req);
+        logger.debug("Deleted {} images from COS", batch.size());
+      } catch (Exception e) {
+        logger.warn("Failed to delete {} images from COS", batch.size(), e);
+      }
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> deleteFromStoreAsync(Collection<String> keys) {
+    return CompletableFuture.runAsync(() -> deleteFromStore(keys), deleteExecutor);
+  }
+
   @Override
   public java.util.Map<String, String> presignUpload(String filename) {
     String ext = "";
@@ -18,7 +18,7 @@ import org.springframework.web.client.RestTemplate;
 public class DiscordAuthService {
 
   private final UserRepository userRepository;
-  private final RestTemplate restTemplate = new RestTemplate();
+  private final RestTemplate restTemplate;
 
   @Value("${discord.client-id:}")
   private String clientId;
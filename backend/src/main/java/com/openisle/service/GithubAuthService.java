@@ -21,7 +21,7 @@ import org.springframework.web.client.RestTemplate;
 public class GithubAuthService {
 
   private final UserRepository userRepository;
-  private final RestTemplate restTemplate = new RestTemplate();
+  private final RestTemplate restTemplate;
   private final AvatarGenerator avatarGenerator;
 
   @Value("${github.client-id:}")
@@ -2,16 +2,12 @@ package com.openisle.service;
 
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.jackson2.JacksonFactory;
 import com.openisle.model.Role;
 import com.openisle.model.User;
 import com.openisle.repository.UserRepository;
 import com.openisle.service.AvatarGenerator;
-import java.util.Collections;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -20,21 +16,13 @@ public class GoogleAuthService {
 
   private final UserRepository userRepository;
   private final AvatarGenerator avatarGenerator;
-
-  @Value("${google.client-id:}")
-  private String clientId;
+  private final GoogleIdTokenVerifier verifier;
 
   public Optional<AuthResult> authenticate(
     String idTokenString,
     com.openisle.model.RegisterMode mode,
     boolean viaInvite
   ) {
-    GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(
-      new NetHttpTransport(),
-      new JacksonFactory()
-    )
-      .setAudience(Collections.singletonList(clientId))
-      .build();
     try {
       GoogleIdToken idToken = verifier.verify(idTokenString);
       if (idToken == null) {
@@ -2,11 +2,19 @@ package com.openisle.service;
 
 import com.openisle.model.Image;
 import com.openisle.repository.ImageRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Abstract service for uploading images and tracking their references.
@@ -14,17 +22,21 @@ import java.util.regex.Pattern;
 public abstract class ImageUploader {
 
   private final ImageRepository imageRepository;
+  private final ContentProcessingService contentProcessingService;
   private final String baseUrl;
-  private final Pattern urlPattern;
 
-  protected ImageUploader(ImageRepository imageRepository, String baseUrl) {
+  protected ImageUploader(
+    ImageRepository imageRepository,
+    ContentProcessingService contentProcessingService,
+    String baseUrl
+  ) {
     this.imageRepository = imageRepository;
+    this.contentProcessingService = contentProcessingService;
     if (baseUrl.endsWith("/")) {
       this.baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
     } else {
       this.baseUrl = baseUrl;
     }
-    this.urlPattern = Pattern.compile(Pattern.quote(this.baseUrl) + "/[^\\s)]+");
   }
 
   /**
@@ -38,6 +50,16 @@ public abstract class ImageUploader {
 
   protected abstract void deleteFromStore(String key);
 
+  /** Delete several objects from the store. Implementations may batch the request. */
+  protected void deleteFromStore(Collection<String> keys) {
+    for (String key : keys) deleteFromStore(key);
+  }
+
+  /** Delete objects from the store without blocking the caller. */
+  public CompletableFuture<Void> deleteFromStoreAsync(Collection<String> keys) {
+    return CompletableFuture.runAsync(() -> deleteFromStore(keys));
+  }
+
   /**
    * Generate a presigned PUT URL for direct browser upload.
    * Default implementation is unsupported.
@@ -49,65 +71,101 @@ public abstract class ImageUploader {
   /** Extract COS URLs from text. */
   public Set<String> extractUrls(String text) {
     Set<String> set = new HashSet<>();
-    if (text == null) return set;
-    Matcher m = urlPattern.matcher(text);
-    while (m.find()) {
-      set.add(m.group());
+    for (String url : contentProcessingService.extractUrls(text)) {
+      if (url.startsWith(baseUrl + "/")) {
+        set.add(url);
+      }
     }
     return set;
   }
 
   public void addReferences(Set<String> urls) {
-    for (String u : urls) addReference(u);
+    adjust(urls, 1);
   }
 
   public void removeReferences(Set<String> urls) {
-    for (String u : urls) removeReference(u);
+    adjust(urls, -1);
+  }
+
+  /**
+   * Drop the references held by several texts at once. An image referenced by n of the texts
+   * loses n references; images are grouped by that count so each group is one UPDATE.
+   */
+  public void removeReferencesFromContents(Collection<String> texts) {
+    Map<String, Long> counts = new HashMap<>();
+    for (String text : texts) {
+      for (String u : extractUrls(text)) counts.merge(u, 1L, Long::sum);
+    }
+    Map<Long, Set<String>> byCount = new HashMap<>();
+    counts.forEach((u, n) -> byCount.computeIfAbsent(n, k -> new HashSet<>()).add(u));
+    byCount.forEach((n, group) -> adjust(group, -n));
   }
 
   public void adjustReferences(String oldText, String newText) {
     Set<String> oldUrls = extractUrls(oldText);
     Set<String> newUrls = extractUrls(newText);
-    for (String u : newUrls) {
-      if (!oldUrls.contains(u)) addReference(u);
+    Set<String> added = new HashSet<>(newUrls);
+    added.removeAll(oldUrls);
+    Set<String> removed = new HashSet<>(oldUrls);
+    removed.removeAll(newUrls);
+    adjust(added, 1);
+    adjust(removed, -1);
+  }
+
+  /**
+   * Apply {@code delta} to the given images. Removals are one UPDATE; images dropping to zero
+   * references are only marked and removed later by {@link #purgeUnreferenced(Duration, int)}.
+   * Additions are batched upserts, in url order so concurrent edits lock rows in the same order.
+   */
+  private void adjust(Set<String> urls, long delta) {
+    Set<String> own = new TreeSet<>();
+    for (String u : urls) {
+      if (u.startsWith(baseUrl)) own.add(u);
     }
-    for (String u : oldUrls) {
-      if (!newUrls.contains(u)) removeReference(u);
+    if (own.isEmpty()) return;
+    if (delta > 0) {
+      imageRepository.addRefCounts(own, delta);
+    } else {
+      imageRepository.adjustRefCounts(own, delta, LocalDateTime.now());
     }
   }
 
-  private void addReference(String url) {
-    if (!url.startsWith(baseUrl)) return;
-    imageRepository
-      .findByUrl(url)
-      .ifPresentOrElse(
-        img -> {
-          img.setRefCount(img.getRefCount() + 1);
-          imageRepository.save(img);
-        },
-        () -> {
-          Image img = new Image();
-          img.setUrl(url);
-          img.setRefCount(1);
-          imageRepository.save(img);
-        }
-      );
+  /**
+   * Delete up to {@code limit} image rows that have had no references for longer than
+   * {@code grace} and return the store keys to remove. The rows stay locked until the deletion
+   * commits, so an image referenced again in the meantime is not picked.
+   */
+  @Transactional
+  public List<String> purgeUnreferenced(Duration grace, int limit) {
+    List<Image> candidates = imageRepository.findUnreferencedBefore(
+      LocalDateTime.now().minus(grace),
+      PageRequest.of(0, limit)
+    );
+    if (candidates.isEmpty()) return List.of();
+    List<Long> ids = new ArrayList<>();
+    List<String> keys = new ArrayList<>();
+    for (Image img : candidates) {
+      ids.add(img.getId());
+      String u = img.getUrl();
+      if (u.startsWith(baseUrl + "/")) keys.add(u.substring(baseUrl.length() + 1));
+    }
+    imageRepository.deleteUnreferenced(ids);
+    return keys;
   }
 
-  private void removeReference(String url) {
-    if (!url.startsWith(baseUrl)) return;
-    imageRepository
-      .findByUrl(url)
-      .ifPresent(img -> {
-        long count = img.getRefCount() - 1;
-        if (count <= 0) {
-          imageRepository.delete(img);
-          String key = url.substring(baseUrl.length() + 1);
-          deleteFromStore(key);
-        } else {
-          img.setRefCount(count);
-          imageRepository.save(img);
-        }
-      });
+  /**
+   * Drop the keys whose image was referenced again after {@link #purgeUnreferenced} committed.
+   * A reference that waited on the locked row re-creates it once the delete commits, so its
+   * object has to stay in the store. Call this outside the purge transaction.
+   */
+  public List<String> withoutReferencedAgain(List<String> keys) {
+    if (keys.isEmpty()) return keys;
+    Map<String, String> byUrl = new HashMap<>();
+    for (String key : keys) byUrl.put(baseUrl + "/" + key, key);
+    List<String> remaining = new ArrayList<>(keys);
+    for (String url : imageRepository.findExistingUrls(byUrl.keySet())) {
+      remaining.remove(byUrl.get(url));
+    }
+    return remaining;
   }
 }
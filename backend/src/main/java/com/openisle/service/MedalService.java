@@ -8,6 +8,7 @@ import com.openisle.dto.PioneerMedalDto;
 import com.openisle.dto.PostMedalDto;
 import com.openisle.dto.SeedUserMedalDto;
 import com.openisle.model.MedalType;
+import com.openisle.model.PostStatus;
 import com.openisle.model.User;
 import com.openisle.repository.CommentRepository;
 import com.openisle.repository.PostRepository;
@@ -69,7 +70,7 @@ public class MedalService {
     postMedal.setType(MedalType.POST);
     postMedal.setTargetPostCount(POST_TARGET);
     if (user != null) {
-      long count = postRepository.countByAuthor_Id(userId);
+      long count = postRepository.countByAuthor_IdAndStatusNot(userId, PostStatus.DELETED);
       postMedal.setCurrentPostCount(count);
       postMedal.setCompleted(count >= POST_TARGET);
     } else {
@@ -169,7 +170,9 @@ public class MedalService {
     }
     if (commentRepository.countByAuthor_Id(user.getId()) >= COMMENT_TARGET) {
       user.setDisplayMedal(MedalType.COMMENT);
-    } else if (postRepository.countByAuthor_Id(user.getId()) >= POST_TARGET) {
+    } else if (
+      postRepository.countByAuthor_IdAndStatusNot(user.getId(), PostStatus.DELETED) >= POST_TARGET
+    ) {
       user.setDisplayMedal(MedalType.POST);
     } else if (postRepository.countByAuthor_IdAndRssExcludedFalse(user.getId()) >= 1) {
       user.setDisplayMedal(MedalType.FEATURED);
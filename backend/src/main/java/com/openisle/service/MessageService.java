@@ -3,28 +3,35 @@ package com.openisle.service;
 import com.openisle.dto.ConversationDetailDto;
 import com.openisle.dto.ConversationDto;
 import com.openisle.dto.MessageDto;
-import com.openisle.dto.MessageNotificationPayload;
 import com.openisle.dto.ReactionDto;
 import com.openisle.dto.UserSummaryDto;
+import com.openisle.exception.FieldException;
 import com.openisle.mapper.ReactionMapper;
+import com.openisle.message.ConversationCursor;
+import com.openisle.message.MessageCursor;
 import com.openisle.model.Message;
 import com.openisle.model.MessageConversation;
 import com.openisle.model.MessageParticipant;
 import com.openisle.model.Reaction;
 import com.openisle.model.User;
+import com.openisle.realtime.RealtimeEvent;
 import com.openisle.repository.MessageConversationRepository;
 import com.openisle.repository.MessageParticipantRepository;
 import com.openisle.repository.MessageRepository;
 import com.openisle.repository.ReactionRepository;
 import com.openisle.repository.UserRepository;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -74,6 +81,7 @@ public class MessageService {
     log.info("Message saved with ID: {}", message.getId());
 
     conversation.setLastMessage(message);
+    conversation.setLastMessageAt(message.getCreatedAt());
     conversationRepository.save(conversation);
     log.info(
       "Conversation {} updated with last message ID {}",
@@ -83,41 +91,17 @@ public class MessageService {
 
     try {
       MessageDto messageDto = toDto(message);
-
-      long unreadCount = getUnreadMessageCount(recipientId);
-
-      // 创建包含对话和参与者信息的完整payload
-      Map<String, Object> conversationInfo = new HashMap<>();
-      conversationInfo.put("id", conversation.getId());
-      conversationInfo.put(
-        "participants",
-        conversation
-          .getParticipants()
-          .stream()
-          .map(p -> {
-            Map<String, Object> participantInfo = new HashMap<>();
-            participantInfo.put("userId", p.getUser().getId());
-            participantInfo.put("username", p.getUser().getUsername());
-            return participantInfo;
-          })
-          .collect(Collectors.toList())
+      // 发送者本人不需要推送，只带上接收者及其未读数
+      RealtimeEvent.Recipient target = new RealtimeEvent.Recipient(
+        recipient.getId(),
+        recipient.getUsername(),
+        getUnreadMessageCount(recipientId),
+        null
       );
-
-      Map<String, Object> combinedPayload = new HashMap<>();
-      combinedPayload.put("message", messageDto);
-      combinedPayload.put("unreadCount", unreadCount);
-      combinedPayload.put("conversation", conversationInfo);
-      combinedPayload.put("senderId", senderId);
-      if (notificationProducer != null) {
-        log.info("NotificationProducer is available");
-      } else {
-        log.info("ERROR: NotificationProducer is NULL!");
-        return message;
-      }
       log.info("Recipient username: {}", recipient.getUsername());
-
-      notificationProducer.sendNotification(
-        new MessageNotificationPayload(recipient.getUsername(), combinedPayload)
+      notificationProducer.sendEvent(
+        recipient.getUsername(),
+        RealtimeEvent.ConversationMessage.of(messageDto, List.of(target))
       );
       log.info("=== Notification call completed ===");
     } catch (Exception e) {
@@ -148,6 +132,7 @@ public class MessageService {
         MessageParticipant p = new MessageParticipant();
         p.setConversation(conversation);
         p.setUser(sender);
+        conversationRepository.incrementMemberCount(conversationId);
         return participantRepository.save(p);
       });
 
@@ -164,43 +149,55 @@ public class MessageService {
     message = messageRepository.save(message);
 
     conversation.setLastMessage(message);
+    conversation.setLastMessageAt(message.getCreatedAt());
     conversationRepository.save(conversation);
 
     MessageDto messageDto = toDto(message);
 
     // Build participant payloads once to avoid duplicate broadcasts
-    java.util.List<Map<String, Object>> participantInfos = conversation
+    List<RealtimeEvent.Recipient> recipients = conversation
       .getParticipants()
       .stream()
       .filter(p -> !p.getUser().getId().equals(senderId))
-      .map(p -> {
-        Map<String, Object> info = new HashMap<>();
-        info.put("userId", p.getUser().getId());
-        info.put("username", p.getUser().getUsername());
-        info.put("unreadCount", getUnreadMessageCount(p.getUser().getId()));
-        info.put("channelUnread", getUnreadChannelCount(p.getUser().getId()));
-        return info;
-      })
+      .map(p ->
+        new RealtimeEvent.Recipient(
+          p.getUser().getId(),
+          p.getUser().getUsername(),
+          getUnreadMessageCount(p.getUser().getId()),
+          getUnreadChannelCount(p.getUser().getId())
+        )
+      )
       .collect(Collectors.toList());
 
-    Map<String, Object> conversationInfo = new HashMap<>();
-    conversationInfo.put("id", conversation.getId());
-    conversationInfo.put("participants", participantInfos);
-
-    Map<String, Object> combinedPayload = new HashMap<>();
-    combinedPayload.put("message", messageDto);
-    combinedPayload.put("conversation", conversationInfo);
-    combinedPayload.put("senderId", senderId);
-
     // Use sender's username for sharding; only one notification is needed
-    notificationProducer.sendNotification(
-      new MessageNotificationPayload(sender.getUsername(), combinedPayload)
+    notificationProducer.sendEvent(
+      sender.getUsername(),
+      RealtimeEvent.ConversationMessage.of(messageDto, recipients)
     );
 
     return message;
   }
 
   public MessageDto toDto(Message message) {
+    return toDto(message, reactionRepository.findByMessage(message));
+  }
+
+  /** Map messages in order, loading the reactions of all of them in one query. */
+  private List<MessageDto> toDtos(List<Message> messages) {
+    if (messages.isEmpty()) {
+      return List.of();
+    }
+    Map<Long, List<Reaction>> reactions = reactionRepository
+      .findByMessageIds(messages.stream().map(Message::getId).toList())
+      .stream()
+      .collect(Collectors.groupingBy(r -> r.getMessage().getId()));
+    return messages
+      .stream()
+      .map(m -> toDto(m, reactions.getOrDefault(m.getId(), List.of())))
+      .collect(Collectors.toList());
+  }
+
+  private MessageDto toDto(Message message, List<Reaction> reactions) {
     MessageDto dto = new MessageDto();
     dto.setId(message.getId());
     dto.setContent(message.getContent());
@@ -228,8 +225,7 @@ public class MessageService {
       dto.setReplyTo(replyDto);
     }
 
-    java.util.List<Reaction> reactions = reactionRepository.findByMessage(message);
-    java.util.List<ReactionDto> reactionDtos = reactions
+    List<ReactionDto> reactionDtos = reactions
       .stream()
       .map(reactionMapper::toDto)
       .collect(Collectors.toList());
@@ -261,6 +257,7 @@ public class MessageService {
       .orElseGet(() -> {
         log.info("No existing conversation found. Creating a new one.");
         MessageConversation conversation = new MessageConversation();
+        conversation.setMemberCount(2);
         conversation = conversationRepository.save(conversation);
         log.info("New conversation created with ID: {}", conversation.getId());
 
@@ -288,60 +285,91 @@ public class MessageService {
       });
   }
 
+  public static final int MAX_CONVERSATION_PAGE_SIZE = 100;
+
+  /** One page of the inbox and the cursor of the next one (null on the last page). */
+  public record ConversationPage(List<ConversationDto> items, ConversationCursor next) {}
+
+  /** The whole inbox, kept for clients that do not page yet; still a single query. */
   @Transactional(readOnly = true)
   public List<ConversationDto> getConversations(Long userId) {
-    List<MessageConversation> conversations =
-      conversationRepository.findConversationsByUserIdOrderByLastMessageDesc(userId);
-    return conversations
-      .stream()
-      .filter(c -> !c.isChannel())
-      .map(c -> toDto(c, userId))
-      .collect(Collectors.toList());
+    ConversationCursor start = ConversationCursor.START;
+    return toConversationDtos(
+      conversationRepository.findInboxPage(
+        userId,
+        start.lastMessageAt(),
+        start.id(),
+        Pageable.unpaged()
+      )
+    );
   }
 
-  private ConversationDto toDto(MessageConversation conversation, Long userId) {
-    ConversationDto dto = new ConversationDto();
-    dto.setId(conversation.getId());
-    dto.setChannel(conversation.isChannel());
-    dto.setName(conversation.getName());
-    dto.setAvatar(conversation.getAvatar());
-    dto.setCreatedAt(conversation.getCreatedAt());
-    if (conversation.getLastMessage() != null) {
-      dto.setLastMessage(toDto(conversation.getLastMessage()));
+  /**
+   * Direct conversations newest activity first, continuing after {@code cursor} on
+   * {@code (lastMessageAt, id)}. Each item carries the last message summary (without reactions
+   * or reply), the unread count and both participants, all from one query.
+   */
+  @Transactional(readOnly = true)
+  public ConversationPage getConversations(Long userId, ConversationCursor cursor, int size) {
+    int limit = Math.min(Math.max(1, size), MAX_CONVERSATION_PAGE_SIZE);
+    // 多取一条判断是否还有下一页
+    List<Object[]> rows = conversationRepository.findInboxPage(
+      userId,
+      cursor.lastMessageAt(),
+      cursor.id(),
+      PageRequest.of(0, limit + 1)
+    );
+    if (rows.size() <= limit) {
+      return new ConversationPage(toConversationDtos(rows), null);
     }
-    dto.setParticipants(
-      conversation
-        .getParticipants()
-        .stream()
-        .map(p -> {
-          UserSummaryDto userDto = new UserSummaryDto();
-          userDto.setId(p.getUser().getId());
-          userDto.setUsername(p.getUser().getUsername());
-          userDto.setAvatar(p.getUser().getAvatar());
-          userDto.setBot(p.getUser().isBot());
-          return userDto;
-        })
-        .collect(Collectors.toList())
+    rows = rows.subList(0, limit);
+    Object[] last = rows.get(limit - 1);
+    return new ConversationPage(
+      toConversationDtos(rows),
+      new ConversationCursor((LocalDateTime) last[4], (Long) last[0])
     );
+  }
 
-    MessageParticipant self = conversation
-      .getParticipants()
-      .stream()
-      .filter(p -> p.getUser().getId().equals(userId))
-      .findFirst()
-      .orElseThrow(() -> new IllegalStateException("Participant not found in conversation"));
-
-    LocalDateTime lastRead = self.getLastReadAt() == null
-      ? LocalDateTime.of(1970, 1, 1, 0, 0)
-      : self.getLastReadAt();
-    // 只计算别人发送给当前用户的未读消息
-    long unreadCount = messageRepository.countByConversationIdAndCreatedAtAfterAndSenderIdNot(
-      conversation.getId(),
-      lastRead,
-      userId
-    );
-    dto.setUnreadCount(unreadCount);
+  /** Map {@link MessageConversationRepository#findInboxPage} rows, keeping their order. */
+  private List<ConversationDto> toConversationDtos(List<Object[]> rows) {
+    Map<Long, ConversationDto> dtos = new LinkedHashMap<>();
+    for (Object[] row : rows) {
+      // 私信只有两个参与者；万一有多个，只保留第一行
+      dtos.computeIfAbsent((Long) row[0], id -> {
+        ConversationDto dto = new ConversationDto();
+        dto.setId(id);
+        dto.setName((String) row[1]);
+        dto.setAvatar((String) row[2]);
+        dto.setCreatedAt((LocalDateTime) row[3]);
+        if (row[5] != null) {
+          MessageDto last = new MessageDto();
+          last.setId((Long) row[5]);
+          last.setContent((String) row[6]);
+          last.setCreatedAt((LocalDateTime) row[7]);
+          last.setConversationId(id);
+          last.setSender(userSummary(row, 8));
+          dto.setLastMessage(last);
+        }
+        List<UserSummaryDto> participants = new ArrayList<>(2);
+        participants.add(userSummary(row, 12));
+        if (row[16] != null) {
+          participants.add(userSummary(row, 16));
+        }
+        dto.setParticipants(participants);
+        dto.setUnreadCount(((Number) row[20]).longValue());
+        return dto;
+      });
+    }
+    return new ArrayList<>(dtos.values());
+  }
 
+  /** The (id, username, avatar, bot) columns starting at {@code from}. */
+  private static UserSummaryDto userSummary(Object[] row, int from) {
+    UserSummaryDto dto = new UserSummaryDto();
+    dto.setId((Long) row[from]);
+    dto.setUsername((String) row[from + 1]);
+    dto.setAvatar((String) row[from + 2]);
+    dto.setBot(Boolean.TRUE.equals(row[from + 3]));
     return dto;
   }
 
@@ -354,11 +382,15 @@ public class MessageService {
     markConversationAsRead(conversationId, userId);
 
     MessageConversation conversation = conversationRepository
-      .findById(conversationId)
+      .findByIdWithParticipantsAndUsers(conversationId)
       .orElseThrow(() -> new IllegalArgumentException("Conversation not found"));
 
     Page<Message> messagesPage = messageRepository.findByConversationId(conversationId, pageable);
-    Page<MessageDto> messageDtoPage = messagesPage.map(this::toDto);
+    Page<MessageDto> messageDtoPage = new PageImpl<>(
+      toDtos(messagesPage.getContent()),
+      messagesPage.getPageable(),
+      messagesPage.getTotalElements()
+    );
 
     List<UserSummaryDto> participants = conversation
       .getParticipants()
@@ -384,6 +416,103 @@ public class MessageService {
     return detailDto;
   }
 
+  public static final int MAX_MESSAGE_PAGE_SIZE = 100;
+
+  /**
+   * A slice of history oldest first, with the cursors to continue towards older and newer
+   * messages; either is null when the slice already reaches that end.
+   */
+  public record MessagePage(List<MessageDto> items, MessageCursor before, MessageCursor after) {}
+
+  /**
+   * Page through a conversation by {@code (createdAt, id)}: older than {@code before}, newer than
+   * {@code after}, centred on message {@code aroundId}, or the latest messages when none is given.
+   * Senders and replies are fetch-joined and reactions loaded in one query per page.
+   */
+  @Transactional(readOnly = true)
+  public MessagePage getMessages(
+    Long conversationId,
+    Long userId,
+    MessageCursor before,
+    MessageCursor after,
+    Long aroundId,
+    int size
+  ) {
+    if ((before != null ? 1 : 0) + (after != null ? 1 : 0) + (aroundId != null ? 1 : 0) > 1) {
+      throw new FieldException("cursor", "Use only one of before, after and around");
+    }
+    participantRepository
+      .findByConversationIdAndUserId(conversationId, userId)
+      .orElseThrow(() -> new IllegalArgumentException("Participant not found"));
+    int limit = Math.min(Math.max(1, size), MAX_MESSAGE_PAGE_SIZE);
+
+    if (aroundId != null) {
+      Message anchor = messageRepository
+        .findById(aroundId)
+        .filter(m -> m.getConversation().getId().equals(conversationId))
+        .orElseThrow(() -> new IllegalArgumentException("Message not found"));
+      int olderLimit = (limit - 1) / 2;
+      int newerLimit = limit - olderLimit;
+      List<Message> older = messageRepository.findBefore(
+        conversationId,
+        anchor.getCreatedAt(),
+        anchor.getId(),
+        PageRequest.of(0, olderLimit + 1)
+      );
+      // 从锚点前一个 id 开始向后取，结果包含锚点本身
+      List<Message> newer = messageRepository.findAfter(
+        conversationId,
+        anchor.getCreatedAt(),
+        anchor.getId() - 1,
+        PageRequest.of(0, newerLimit + 1)
+      );
+      boolean hasOlder = older.size() > olderLimit;
+      boolean hasNewer = newer.size() > newerLimit;
+      List<Message> slice = new ArrayList<>(older.subList(0, Math.min(older.size(), olderLimit)));
+      Collections.reverse(slice);
+      slice.addAll(newer.subList(0, Math.min(newer.size(), newerLimit)));
+      return toMessagePage(slice, hasOlder, hasNewer);
+    }
+
+    // 多取一条判断是否还有更多
+    if (after != null) {
+      List<Message> rows = messageRepository.findAfter(
+        conversationId,
+        after.createdAt(),
+        after.id(),
+        PageRequest.of(0, limit + 1)
+      );
+      boolean hasNewer = rows.size() > limit;
+      List<Message> slice = rows.subList(0, Math.min(rows.size(), limit));
+      MessagePage page = toMessagePage(slice, true, hasNewer);
+      return slice.isEmpty() ? new MessagePage(page.items(), after, null) : page;
+    }
+
+    MessageCursor from = before != null ? before : MessageCursor.LATEST;
+    List<Message> rows = messageRepository.findBefore(
+      conversationId,
+      from.createdAt(),
+      from.id(),
+      PageRequest.of(0, limit + 1)
+    );
+    boolean hasOlder = rows.size() > limit;
+    List<Message> slice = new ArrayList<>(rows.subList(0, Math.min(rows.size(), limit)));
+    Collections.reverse(slice);
+    MessagePage page = toMessagePage(slice, hasOlder, before != null);
+    return slice.isEmpty() && before != null ? new MessagePage(page.items(), null, before) : page;
+  }
+
+  private MessagePage toMessagePage(List<Message> slice, boolean hasOlder, boolean hasNewer) {
+    if (slice.isEmpty()) {
+      return new MessagePage(List.of(), null, null);
+    }
+    return new MessagePage(
+      toDtos(slice),
+      hasOlder ? MessageCursor.of(slice.get(0)) : null,
+      hasNewer ? MessageCursor.of(slice.get(slice.size() - 1)) : null
+    );
+  }
+
   @Transactional
   public void markConversationAsRead(Long conversationId, Long userId) {
     MessageParticipant participant = participantRepository
@@ -0,0 +1,43 @@
+package com.openisle.service;
+
+import com.openisle.notification.NotificationUnreadCounter;
+import com.openisle.repository.NotificationArchiveRepository;
+import com.openisle.repository.NotificationRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Moves notifications past the retention window into {@code notification_archive}.
+ *
+ * <p>Each batch copies the oldest rows with one {@code INSERT ... SELECT} and deletes them
+ * by id in the same transaction, so the hot table only holds recent notifications.
+ */
+@Service
+@RequiredArgsConstructor
+public class NotificationArchiveService {
+
+  private final NotificationRepository notificationRepository;
+  private final NotificationArchiveRepository notificationArchiveRepository;
+  private final NotificationUnreadCounter unreadCounter;
+
+  /** Archive up to {@code batchSize} notifications created before {@code cutoff}. */
+  @Transactional
+  public int archiveBatch(LocalDateTime cutoff, int batchSize) {
+    List<Long> ids = notificationRepository.findIdsCreatedBefore(
+      cutoff,
+      PageRequest.of(0, batchSize)
+    );
+    if (ids.isEmpty()) {
+      return 0;
+    }
+    // 归档的未读通知会影响未读数，先让缓存失效
+    unreadCounter.invalidate(notificationRepository.findUnreadUserIdsByIds(ids));
+    notificationArchiveRepository.copyFromNotifications(ids, LocalDateTime.now());
+    notificationRepository.deleteByIds(ids);
+    return ids.size();
+  }
+}
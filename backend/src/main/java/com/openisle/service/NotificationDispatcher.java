@@ -0,0 +1,105 @@
+package com.openisle.service;
+
+import com.openisle.exception.EmailSendException;
+import com.openisle.model.User;
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Delivers emails and web pushes on a bounded pool instead of the caller thread.
+ * Sends are paced so that at most {@code rate-per-second} deliveries start each second.
+ */
+@Slf4j
+@Service
+public class NotificationDispatcher {
+
+  /**
+   * A single email / push delivery. {@code email} is null when the user should not be mailed.
+   */
+  public record Delivery(User user, String email, String subject, String text, String url) {}
+
+  private final EmailSender emailSender;
+  private final NotificationService notificationService;
+  private final Executor executor;
+  private final long intervalNanos;
+  private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+
+  public NotificationDispatcher(
+    EmailSender emailSender,
+    NotificationService notificationService,
+    @Qualifier("notificationDeliveryExecutor") Executor executor,
+    @Value("${app.notification.delivery.rate-per-second:20}") int ratePerSecond
+  ) {
+    this.emailSender = emailSender;
+    this.notificationService = notificationService;
+    this.executor = executor;
+    this.intervalNanos = ratePerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / ratePerSecond : 0;
+  }
+
+  /**
+   * Run the task on the delivery pool once the current transaction has committed,
+   * or right away when no transaction is active.
+   */
+  public void afterCommit(Runnable task) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            executor.execute(task);
+          }
+        }
+      );
+    } else {
+      executor.execute(task);
+    }
+  }
+
+  public void dispatch(Collection<Delivery> deliveries) {
+    for (Delivery delivery : deliveries) {
+      executor.execute(() -> deliver(delivery));
+    }
+  }
+
+  private void deliver(Delivery delivery) {
+    try {
+      acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    if (delivery.email() != null) {
+      try {
+        emailSender.sendEmail(delivery.email(), delivery.subject(), delivery.text());
+      } catch (EmailSendException e) {
+        log.warn("Failed to send email to {}: {}", delivery.email(), e.getMessage());
+      }
+    }
+    try {
+      notificationService.sendCustomPush(delivery.user(), delivery.subject(), delivery.url());
+    } catch (RuntimeException e) {
+      log.warn("Failed to send push to user {}: {}", delivery.user().getId(), e.getMessage());
+    }
+  }
+
+  /** Reserve the next free send slot and wait for it. */
+  private void acquire() throws InterruptedException {
+    if (intervalNanos <= 0) {
+      return;
+    }
+    long now = System.nanoTime();
+    long previous = nextSlot.getAndAccumulate(now, (prev, n) -> Math.max(prev, n) + intervalNanos);
+    long wait = Math.max(previous, now) - now;
+    if (wait > 0) {
+      TimeUnit.NANOSECONDS.sleep(wait);
+    }
+  }
+}
@@ -3,57 +3,78 @@ package com.openisle.service;
 import com.openisle.config.RabbitMQConfig;
 import com.openisle.config.ShardInfo;
 import com.openisle.config.ShardingStrategy;
-import com.openisle.dto.MessageNotificationPayload;
+import com.openisle.model.OutboxEvent;
+import com.openisle.outbox.OutboxRelay;
+import com.openisle.realtime.RealtimeEnvelope;
+import com.openisle.realtime.RealtimeEvent;
+import com.openisle.repository.OutboxEventRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Queues realtime notifications in the transactional outbox. The row is written in the
+ * caller's transaction, so a rollback never publishes and a slow broker never holds the
+ * transaction open; {@link OutboxRelay} publishes it after the commit. Callers running after
+ * their transaction committed use {@link #sendEventInNewTransaction}.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationProducer {
 
-  private final RabbitTemplate rabbitTemplate;
+  private final OutboxEventRepository outboxEventRepository;
+  private final OutboxRelay outboxRelay;
+  private final MessageConverter messageConverter;
   private final ShardingStrategy shardingStrategy;
 
   @Value("${rabbitmq.sharding.enabled}")
   private boolean shardingEnabled;
 
-  public void sendNotification(MessageNotificationPayload payload) {
-    String targetUsername = payload.getTargetUsername();
-
-    try {
-      if (shardingEnabled) {
-        // 使用分片策略发送消息
-        sendShardedNotification(payload, targetUsername);
-      } else {
-        // 使用原始单队列方式发送（向后兼容）
-        sendLegacyNotification(payload);
-      }
-    } catch (Exception e) {
-      log.error("Failed to send message to RabbitMQ for user: {}", targetUsername, e);
-      throw e;
+  @Timed(value = "notifications.publish", description = "Queue one realtime notification")
+  public void sendEvent(String username, RealtimeEvent event) {
+    String routingKey;
+    if (shardingEnabled) {
+      // 使用分片策略发送消息
+      ShardInfo shardInfo = shardingStrategy.getShardInfo(username);
+      routingKey = shardInfo.getRoutingKey();
+    } else {
+      // 使用原始单队列方式发送（向后兼容）
+      routingKey = RabbitMQConfig.ROUTING_KEY;
     }
+    Message message = messageConverter.toMessage(
+      RealtimeEnvelope.of(username, event),
+      new MessageProperties()
+    );
+    MessageProperties properties = message.getMessageProperties();
+    Object typeId = properties.getHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME);
+    outboxEventRepository.save(
+      new OutboxEvent(
+        RabbitMQConfig.EXCHANGE_NAME,
+        routingKey,
+        message.getBody(),
+        properties.getContentType(),
+        typeId == null ? null : typeId.toString()
+      )
+    );
+    outboxRelay.wakeUpAfterCommit();
   }
 
   /**
-   * 使用分片策略发送消息
-   */
-  private void sendShardedNotification(MessageNotificationPayload payload, String targetUsername) {
-    ShardInfo shardInfo = shardingStrategy.getShardInfo(targetUsername);
-    rabbitTemplate.convertAndSend(RabbitMQConfig.EXCHANGE_NAME, shardInfo.getRoutingKey(), payload);
-  }
-
-  /**
-   * 使用原始单队列方式发送消息（向后兼容）
+   * Queue from an after-commit callback, where the caller's transaction can no longer write:
+   * the row gets a transaction of its own, whose commit wakes the relay.
    */
-  private void sendLegacyNotification(MessageNotificationPayload payload) {
-    rabbitTemplate.convertAndSend(
-      RabbitMQConfig.EXCHANGE_NAME,
-      RabbitMQConfig.ROUTING_KEY,
-      payload
-    );
+  @Timed(value = "notifications.publish", description = "Queue one realtime notification")
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public void sendEventInNewTransaction(String username, RealtimeEvent event) {
+    sendEvent(username, event);
   }
 }
@@ -3,20 +3,25 @@ package com.openisle.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.openisle.dto.NotificationPreferenceDto;
 import com.openisle.model.*;
+import com.openisle.notification.NotificationCursor;
+import com.openisle.notification.NotificationUnreadCounter;
 import com.openisle.repository.NotificationRepository;
 import com.openisle.repository.ReactionRepository;
 import com.openisle.repository.UserRepository;
 import com.openisle.service.EmailSender;
 import com.openisle.exception.EmailSendException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Executor;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -37,12 +42,13 @@ public class NotificationService {
   private final PushNotificationService pushNotificationService;
   private final ReactionRepository reactionRepository;
   private final Executor notificationExecutor;
+  private final ContentProcessingService contentProcessingService;
+  private final NotificationUnreadCounter unreadCounter;
+  private final MeterRegistry meterRegistry;
 
   @Value("${app.website-url}")
   private String websiteUrl;
 
-  private static final Pattern MENTION_PATTERN = Pattern.compile("@\\[([^\\]]+)\\]");
-
   private static final Set<NotificationType> EMAIL_TYPES = EnumSet.of(
     NotificationType.COMMENT_REPLY,
     NotificationType.LOTTERY_WIN,
@@ -82,6 +88,23 @@ public class NotificationService {
     User fromUser,
     ReactionType reactionType,
     String content
+  ) {
+    // 显式计时：本类内部的调用不经过代理，@Timed 统计不到
+    return Timer.builder("notifications.create")
+      .description("Create and deliver one notification")
+      .register(meterRegistry)
+      .record(() -> create(user, type, post, comment, approved, fromUser, reactionType, content));
+  }
+
+  private Notification create(
+    User user,
+    NotificationType type,
+    Post post,
+    Comment comment,
+    Boolean approved,
+    User fromUser,
+    ReactionType reactionType,
+    String content
   ) {
     Notification n = new Notification();
     n.setUser(user);
@@ -93,9 +116,12 @@ public class NotificationService {
     n.setReactionType(reactionType);
     n.setContent(content);
     if (type == NotificationType.POST_VIEWED && fromUser != null && post != null) {
-      notificationRepository.deleteByTypeAndFromUserAndPost(type, fromUser, post);
+      unreadCounter.removed(
+        notificationRepository.deleteByTypeAndFromUserAndPost(type, fromUser, post)
+      );
     }
     n = notificationRepository.save(n);
+    unreadCounter.created(Collections.singletonList(n));
 
     //        Runnable asyncTask = () -> {
     if (
@@ -152,6 +178,31 @@ public class NotificationService {
     return n;
   }
 
+  /**
+   * Create the same notification for many users with a single batched save.
+   * Unlike {@link #createNotification} no email or push is sent.
+   */
+  @Transactional
+  public List<Notification> createNotifications(
+    Collection<User> users,
+    NotificationType type,
+    Post post,
+    User fromUser
+  ) {
+    List<Notification> notifications = new ArrayList<>(users.size());
+    for (User user : users) {
+      Notification n = new Notification();
+      n.setUser(user);
+      n.setType(type);
+      n.setPost(post);
+      n.setFromUser(fromUser);
+      notifications.add(n);
+    }
+    List<Notification> saved = notificationRepository.saveAll(notifications);
+    unreadCounter.created(saved);
+    return saved;
+  }
+
   public void deleteReactionNotification(
     User fromUser,
     Post post,
@@ -159,18 +210,22 @@ public class NotificationService {
     ReactionType reactionType
   ) {
     if (post != null) {
-      notificationRepository.deleteByTypeAndFromUserAndPostAndReactionType(
-        NotificationType.REACTION,
-        fromUser,
-        post,
-        reactionType
+      unreadCounter.removed(
+        notificationRepository.deleteByTypeAndFromUserAndPostAndReactionType(
+          NotificationType.REACTION,
+          fromUser,
+          post,
+          reactionType
+        )
       );
     } else if (comment != null) {
-      notificationRepository.deleteByTypeAndFromUserAndCommentAndReactionType(
-        NotificationType.REACTION,
-        fromUser,
-        comment,
-        reactionType
+      unreadCounter.removed(
+        notificationRepository.deleteByTypeAndFromUserAndCommentAndReactionType(
+          NotificationType.REACTION,
+          fromUser,
+          comment,
+          reactionType
+        )
       );
     }
   }
@@ -181,7 +236,9 @@ public class NotificationService {
    */
   @org.springframework.transaction.annotation.Transactional
   public void createRegisterRequestNotifications(User applicant, String reason) {
-    notificationRepository.deleteByTypeAndFromUser(NotificationType.REGISTER_REQUEST, applicant);
+    unreadCounter.removed(
+      notificationRepository.deleteByTypeAndFromUser(NotificationType.REGISTER_REQUEST, applicant)
+    );
     for (User admin : userRepository.findByRole(Role.ADMIN)) {
       createNotification(
         admin,
@@ -202,7 +259,9 @@ public class NotificationService {
    */
   @org.springframework.transaction.annotation.Transactional
   public void createActivityRedeemNotifications(User user, String content) {
-    notificationRepository.deleteByTypeAndFromUser(NotificationType.ACTIVITY_REDEEM, user);
+    unreadCounter.removed(
+      notificationRepository.deleteByTypeAndFromUser(NotificationType.ACTIVITY_REDEEM, user)
+    );
     for (User admin : userRepository.findByRole(Role.ADMIN)) {
       createNotification(
         admin,
@@ -297,73 +356,119 @@ public class NotificationService {
     userRepository.save(user);
   }
 
+  public static final int MAX_PAGE_SIZE = 100;
+
+  /** One page of notifications and the cursor of the next one (null on the last page). */
+  public record NotificationPage(List<Notification> items, NotificationCursor next) {}
+
+  /** Offset listing kept for older clients; the cursor variant below is preferred. */
   public List<Notification> listNotifications(String username, Boolean read, int page, int size) {
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
-    Set<NotificationType> disabled = user.getDisabledNotificationTypes();
-    org.springframework.data.domain.Pageable pageable =
-      org.springframework.data.domain.PageRequest.of(page, size);
-    org.springframework.data.domain.Page<Notification> result;
-    if (read == null) {
-      if (disabled.isEmpty()) {
-        result = notificationRepository.findByUserOrderByCreatedAtDesc(user, pageable);
-      } else {
-        result = notificationRepository.findByUserAndTypeNotInOrderByCreatedAtDesc(
-          user,
-          disabled,
-          pageable
-        );
-      }
-    } else {
-      if (disabled.isEmpty()) {
-        result = notificationRepository.findByUserAndReadOrderByCreatedAtDesc(user, read, pageable);
-      } else {
-        result = notificationRepository.findByUserAndReadAndTypeNotInOrderByCreatedAtDesc(
-          user,
-          read,
-          disabled,
-          pageable
-        );
-      }
+    return findPage(
+      user,
+      Boolean.FALSE.equals(read),
+      Boolean.TRUE.equals(read),
+      NotificationCursor.START,
+      org.springframework.data.domain.PageRequest.of(page, size)
+    );
+  }
+
+  /** Notifications newest first, continuing after {@code cursor} on {@code (createdAt, id)}. */
+  public NotificationPage listNotifications(
+    String username,
+    boolean unreadOnly,
+    NotificationCursor cursor,
+    int size
+  ) {
+    User user = userRepository
+      .findByUsername(username)
+      .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
+    int limit = Math.min(Math.max(1, size), MAX_PAGE_SIZE);
+    // 多取一条判断是否还有下一页
+    List<Notification> items = findPage(
+      user,
+      unreadOnly,
+      false,
+      cursor,
+      org.springframework.data.domain.PageRequest.of(0, limit + 1)
+    );
+    if (items.size() <= limit) {
+      return new NotificationPage(items, null);
     }
-    return result.getContent();
+    items = items.subList(0, limit);
+    return new NotificationPage(items, NotificationCursor.after(items.get(limit - 1)));
   }
 
+  private List<Notification> findPage(
+    User user,
+    boolean unreadOnly,
+    boolean readOnly,
+    NotificationCursor cursor,
+    org.springframework.data.domain.Pageable pageable
+  ) {
+    Set<NotificationType> disabled = user.getDisabledNotificationTypes();
+    return notificationRepository.findPage(
+      user.getId(),
+      !disabled.isEmpty(),
+      disabled,
+      unreadOnly,
+      readOnly,
+      Notification.READ_ALL_EXEMPT_TYPES,
+      cursor.createdAt(),
+      cursor.id(),
+      pageable
+    );
+  }
+
+  /** Mark the user's own notifications read with one update statement. */
+  @Transactional
   public void markRead(String username, List<Long> ids) {
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
-    List<Notification> notifs = notificationRepository.findAllById(ids);
-    for (Notification n : notifs) {
-      if (n.getUser().getId().equals(user.getId())) {
-        n.setRead(true);
-      }
+    if (ids == null || ids.isEmpty()) {
+      return;
+    }
+    Map<NotificationType, Long> unread = new EnumMap<>(NotificationType.class);
+    List<Object[]> rows = notificationRepository.countUnreadByTypeIn(
+      user.getId(),
+      ids,
+      Notification.READ_ALL_EXEMPT_TYPES
+    );
+    for (Object[] row : rows) {
+      unread.put((NotificationType) row[0], ((Number) row[1]).longValue());
     }
-    notificationRepository.saveAll(notifs);
+    notificationRepository.markRead(user.getId(), ids);
+    unreadCounter.markedRead(user.getId(), unread);
+  }
+
+  /**
+   * Mark everything received so far read by moving the user's watermark instead of updating
+   * rows. Types in {@link Notification#READ_ALL_EXEMPT_TYPES} stay unread.
+   */
+  @Transactional
+  public void markAllRead(String username) {
+    User user = userRepository
+      .findByUsername(username)
+      .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
+    userRepository.markNotificationsReadBefore(user.getId(), LocalDateTime.now());
+    unreadCounter.invalidate(List.of(user.getId()));
   }
 
   public long countUnread(String username) {
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
-    Set<NotificationType> disabled = user.getDisabledNotificationTypes();
-    if (disabled.isEmpty()) {
-      return notificationRepository.countByUserAndRead(user, false);
-    }
-    return notificationRepository.countByUserAndReadAndTypeNotIn(user, false, disabled);
+    return unreadCounter.countUnread(user);
   }
 
   public void notifyMentions(String content, User fromUser, Post post, Comment comment) {
     if (content == null || fromUser == null) {
       return;
     }
-    Matcher matcher = MENTION_PATTERN.matcher(content);
-    Set<String> names = new HashSet<>();
-    while (matcher.find()) {
-      names.add(matcher.group(1));
-    }
-    for (String name : names) {
+    for (String name : contentProcessingService.extractMentions(content)) {
       userRepository
         .findByUsername(name)
         .ifPresent(target -> {
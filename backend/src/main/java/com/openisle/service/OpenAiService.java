@@ -1,6 +1,7 @@
 package com.openisle.service;
 
 import java.util.*;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
 @Service
+@RequiredArgsConstructor
 public class OpenAiService {
 
   @Value("${openai.api-key:}")
@@ -19,7 +21,7 @@ public class OpenAiService {
   @Value("${openai.model:gpt-4o}")
   private String model;
 
-  private final RestTemplate restTemplate = new RestTemplate();
+  private final RestTemplate restTemplate;
 
   public Optional<String> formatMarkdown(String text) {
     if (apiKey == null || apiKey.isBlank()) {
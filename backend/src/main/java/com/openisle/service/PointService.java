@@ -33,7 +33,7 @@ public class PointService {
     if (log.getPostCount() > 1) return 0;
     log.setPostCount(log.getPostCount() + 1);
     pointLogRepository.save(log);
-    Post post = postRepository.findById(postId).orElseThrow();
+    Post post = postRepository.findActivePost(postId);
     return addPoint(user, 30, PointHistoryType.POST, post, null, null);
   }
 
@@ -45,7 +45,7 @@ public class PointService {
 
   public int awardForFeatured(String userName, Long postId) {
     User user = userRepository.findByUsername(userName).orElseThrow();
-    Post post = postRepository.findById(postId).orElseThrow();
+    Post post = postRepository.findActivePost(postId);
     return addPoint(user, 500, PointHistoryType.FEATURE, post, null, null);
   }
 
@@ -119,7 +119,7 @@ public class PointService {
     boolean isTheRewardCapped = false;
 
     // 根据帖子id找到发帖人
-    Post post = postRepository.findById(postId).orElseThrow();
+    Post post = postRepository.findActivePost(postId);
     User poster = post.getAuthor();
     Comment comment = commentRepository.findById(commentId).orElseThrow();
 
@@ -153,7 +153,7 @@ public class PointService {
   // 需要考虑点赞者和发帖人是同一个的情况
   public int awardForReactionOfPost(String reactionerName, Long postId) {
     // 根据帖子id找到发帖人
-    User poster = postRepository.findById(postId).orElseThrow().getAuthor();
+    User poster = postRepository.findActivePost(postId).getAuthor();
 
     // 获取点赞者信息
     User reactioner = userRepository.findByUsername(reactionerName).orElseThrow();
@@ -164,17 +164,17 @@ public class PointService {
     }
 
     // 如果不是同一个，则为发帖人加分
-    Post post = postRepository.findById(postId).orElseThrow();
+    Post post = postRepository.findActivePost(postId);
     return addPoint(poster, 10, PointHistoryType.POST_LIKED, post, null, reactioner);
   }
 
   public int deductForReactionOfPost(String reactionerName, Long postId) {
-    User poster = postRepository.findById(postId).orElseThrow().getAuthor();
+    User poster = postRepository.findActivePost(postId).getAuthor();
     User reactioner = userRepository.findByUsername(reactionerName).orElseThrow();
     if (poster.getId().equals(reactioner.getId())) {
       return 0;
     }
-    Post post = postRepository.findById(postId).orElseThrow();
+    Post post = postRepository.findActivePost(postId);
     return addPoint(poster, -10, PointHistoryType.POST_LIKE_CANCELLED, post, null, reactioner);
   }
 
@@ -285,7 +285,7 @@ public class PointService {
       throw new FieldException("amount", "打赏积分必须大于0");
     }
     User donor = userRepository.findByUsername(donorName).orElseThrow();
-    Post post = postRepository.findById(postId).orElseThrow();
+    Post post = postRepository.findActivePost(postId);
     User author = post.getAuthor();
     if (author.getId().equals(donor.getId())) {
       throw new FieldException("post", "不能给自己打赏");
@@ -312,7 +312,7 @@ public class PointService {
   }
 
   public DonationResponse getPostDonations(Long postId) {
-    Post post = postRepository.findById(postId).orElseThrow();
+    Post post = postRepository.findActivePost(postId);
     return buildDonationResponse(post);
   }
 
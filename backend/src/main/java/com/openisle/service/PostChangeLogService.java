@@ -2,8 +2,12 @@ package com.openisle.service;
 
 import com.openisle.model.*;
 import com.openisle.repository.PostChangeLogRepository;
+import com.openisle.repository.PostContentChangeLogRepository;
 import com.openisle.repository.PostRepository;
 import com.openisle.repository.UserRepository;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -15,8 +19,10 @@ import org.springframework.stereotype.Service;
 public class PostChangeLogService {
 
   private final PostChangeLogRepository logRepository;
+  private final PostContentChangeLogRepository contentLogRepository;
   private final PostRepository postRepository;
   private final UserRepository userRepository;
+  private final PostRevisionService revisionService;
 
   private User getSystemUser() {
     return userRepository
@@ -25,13 +31,7 @@ public class PostChangeLogService {
   }
 
   public void recordContentChange(Post post, User user, String oldContent, String newContent) {
-    PostContentChangeLog log = new PostContentChangeLog();
-    log.setPost(post);
-    log.setUser(user);
-    log.setType(PostChangeType.CONTENT);
-    log.setOldContent(oldContent);
-    log.setNewContent(newContent);
-    logRepository.save(log);
+    revisionService.record(post, user, oldContent, newContent);
   }
 
   public void recordTitleChange(Post post, User user, String oldTitle, String newTitle) {
@@ -141,12 +141,50 @@ public class PostChangeLogService {
 
   public void deleteLogsForPost(Post post) {
     logRepository.deleteByPost(post);
+    revisionService.evict(post.getId());
   }
 
+  /**
+   * Change logs of the post, oldest first. Content edits are detached summaries without
+   * their stored texts; those are read by {@link #contentDiff} and {@link #contentAt}.
+   */
   public List<PostChangeLog> listLogs(Long postId) {
-    Post post = postRepository
-      .findById(postId)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
-    return logRepository.findByPostOrderByCreatedAtAsc(post);
+    Post post = postRepository.findActivePost(postId);
+    List<PostChangeLog> logs = new ArrayList<>(
+      logRepository.findByPostAndTypeNotOrderByCreatedAtAsc(post, PostChangeType.CONTENT)
+    );
+    // 正文修改只查时间线需要的列，不读快照和补丁
+    for (Object[] row : contentLogRepository.findSummariesByPostId(postId)) {
+      PostContentChangeLog log = new PostContentChangeLog();
+      log.setId((Long) row[0]);
+      log.setPost(post);
+      log.setUser((User) row[1]);
+      log.setType(PostChangeType.CONTENT);
+      log.setCreatedAt((LocalDateTime) row[2]);
+      log.setRevision((Integer) row[3]);
+      log.setLinesAdded((Integer) row[4]);
+      log.setLinesRemoved((Integer) row[5]);
+      logs.add(log);
+    }
+    logs.sort(
+      Comparator.comparing(PostChangeLog::getCreatedAt).thenComparing(PostChangeLog::getId)
+    );
+    return logs;
+  }
+
+  /** Unified diff of one content edit, fetched when the timeline entry is expanded. */
+  public String contentDiff(Long postId, Long logId) {
+    PostChangeLog log = logRepository
+      .findById(logId)
+      .filter(l -> l.getPost().getId().equals(postId))
+      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Change log not found"));
+    if (!(log instanceof PostContentChangeLog content)) {
+      throw new com.openisle.exception.NotFoundException("Change log not found");
+    }
+    return revisionService.diff(content);
+  }
+
+  public String contentAt(Long postId, int revision) {
+    return revisionService.contentAt(postId, revision);
   }
 }
@@ -26,9 +26,7 @@ public class PostReadService {
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
-    Post post = postRepository
-      .findById(postId)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(postId);
     postReadRepository
       .findByUserAndPost(user, post)
       .ifPresentOrElse(
@@ -0,0 +1,209 @@
+package com.openisle.service;
+
+import com.openisle.exception.NotFoundException;
+import com.openisle.model.Post;
+import com.openisle.model.PostChangeType;
+import com.openisle.model.PostContentChangeLog;
+import com.openisle.model.User;
+import com.openisle.repository.PostContentChangeLogRepository;
+import com.openisle.repository.PostRepository;
+import com.openisle.util.TextDiff;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Post content history as numbered revisions. Each edit stores a deflated unified diff from the
+ * previous content; every {@code snapshotInterval} revisions, and whenever the chain is broken,
+ * the full new content is stored as a deflated snapshot too. A version is rebuilt on demand from
+ * the nearest snapshot and recently materialized versions are kept in a bounded LRU.
+ */
+@Slf4j
+@Service
+public class PostRevisionService {
+
+  private record VersionKey(Long postId, int revision) {}
+
+  private final PostContentChangeLogRepository revisionRepository;
+  private final PostRepository postRepository;
+  private final int snapshotInterval;
+  private final Map<VersionKey, String> versions;
+
+  public PostRevisionService(
+    PostContentChangeLogRepository revisionRepository,
+    PostRepository postRepository,
+    @Value("${app.post.revision.snapshot-interval:10}") int snapshotInterval,
+    @Value("${app.post.revision.cache-size:500}") int cacheSize
+  ) {
+    this.revisionRepository = revisionRepository;
+    this.postRepository = postRepository;
+    this.snapshotInterval = Math.max(1, snapshotInterval);
+    this.versions = Collections.synchronizedMap(
+      new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<VersionKey, String> eldest) {
+          return size() > cacheSize;
+        }
+      }
+    );
+  }
+
+  /** Store an edit of the post's content as its next revision. */
+  @Transactional
+  public PostContentChangeLog record(Post post, User user, String oldContent, String newContent) {
+    String before = Objects.requireNonNullElse(oldContent, "");
+    String after = Objects.requireNonNullElse(newContent, "");
+    // 锁住文章行，同一文章的并发编辑按顺序取下一个修订号
+    postRepository
+      .findByIdForUpdate(post.getId())
+      .orElseThrow(() -> new NotFoundException("Post not found"));
+    // 先转换旧格式的记录，修订号才能接着往下排
+    if (revisionRepository.existsByPostIdAndPatchIsNull(post.getId())) {
+      migratePost(post.getId());
+    }
+    Integer latest = revisionRepository.findLatestRevision(post.getId());
+    int revision = latest == null ? 1 : latest + 1;
+    // 旧内容与上一版本对不上时（例如直接改过库）从快照重新开始
+    boolean chained = latest != null && before.equals(contentAt(post.getId(), latest));
+
+    PostContentChangeLog change = new PostContentChangeLog();
+    change.setPost(post);
+    change.setUser(user);
+    change.setType(PostChangeType.CONTENT);
+    encode(change, revision, before, after, chained);
+    return revisionRepository.save(change);
+  }
+
+  /**
+   * Content of the post after the given revision; revision 0 is the content before the first
+   * recorded edit.
+   */
+  @Transactional(readOnly = true)
+  public String contentAt(Long postId, int revision) {
+    if (revision == 0) {
+      PostContentChangeLog first = revisionRepository
+        .findRevision(postId, 1)
+        .orElseThrow(() -> new NotFoundException("Revision not found"));
+      return TextDiff.restore(contentAt(postId, 1), TextDiff.inflate(first.getPatch()));
+    }
+    VersionKey key = new VersionKey(postId, revision);
+    String cached = versions.get(key);
+    if (cached != null) {
+      return cached;
+    }
+    Integer base = revisionRepository.findSnapshotRevision(postId, revision);
+    if (base == null) {
+      throw new NotFoundException("Revision not found");
+    }
+    // 缓存里有比快照更近的版本时从它接着应用补丁
+    String content = null;
+    int from = base;
+    for (int r = revision - 1; r > base; r--) {
+      String hit = versions.get(new VersionKey(postId, r));
+      if (hit != null) {
+        content = hit;
+        from = r + 1;
+        break;
+      }
+    }
+    List<PostContentChangeLog> logs = revisionRepository.findRevisions(postId, from, revision);
+    if (logs.size() != revision - from + 1) {
+      throw new NotFoundException("Revision not found");
+    }
+    for (PostContentChangeLog change : logs) {
+      content = content == null
+        ? TextDiff.inflate(change.getSnapshot())
+        : TextDiff.apply(content, TextDiff.inflate(change.getPatch()));
+    }
+    versions.put(key, content);
+    return content;
+  }
+
+  /** Unified diff from the content before this edit to the content after it. */
+  public String diff(PostContentChangeLog change) {
+    if (change.getPatch() != null) {
+      return TextDiff.inflate(change.getPatch());
+    }
+    // 尚未迁移的记录还保存着全文
+    return TextDiff.diff(
+      Objects.requireNonNullElse(change.getLegacyOldContent(), ""),
+      Objects.requireNonNullElse(change.getLegacyNewContent(), ""),
+      "old",
+      "new"
+    ).patch();
+  }
+
+  /**
+   * Convert the edits of up to {@code maxPosts} posts that still hold full old and new texts.
+   * Returns the number of posts converted, 0 once nothing is left.
+   */
+  @Transactional
+  public int migrateLegacy(int maxPosts) {
+    List<Long> postIds = revisionRepository.findPostIdsWithLegacyLogs(PageRequest.of(0, maxPosts));
+    for (Long postId : postIds) {
+      postRepository.findByIdForUpdate(postId);
+      // 加锁后再确认一次，期间 record 可能已经转换过这篇文章
+      if (revisionRepository.existsByPostIdAndPatchIsNull(postId)) {
+        migratePost(postId);
+      }
+    }
+    return postIds.size();
+  }
+
+  public void evict(Long postId) {
+    synchronized (versions) {
+      versions.keySet().removeIf(key -> key.postId().equals(postId));
+    }
+  }
+
+  /** Renumber a post's edits in id order and replace their full texts with revisions. */
+  private void migratePost(Long postId) {
+    int revision = 0;
+    String previous = null;
+    for (PostContentChangeLog change : revisionRepository.findByPostIdOrderByIdAsc(postId)) {
+      String before = Objects.requireNonNullElse(change.getLegacyOldContent(), "");
+      String after = Objects.requireNonNullElse(change.getLegacyNewContent(), "");
+      revision++;
+      encode(change, revision, before, after, before.equals(previous));
+      change.setLegacyOldContent(null);
+      change.setLegacyNewContent(null);
+      previous = after;
+    }
+    log.debug("Migrated {} content revisions of post {}", revision, postId);
+  }
+
+  private void encode(
+    PostContentChangeLog change,
+    int revision,
+    String before,
+    String after,
+    boolean chained
+  ) {
+    TextDiff.Result diff = TextDiff.diff(before, after, "r" + (revision - 1), "r" + revision);
+    change.setRevisionPostId(change.getPost().getId());
+    change.setRevision(revision);
+    change.setPatch(TextDiff.deflate(diff.patch()));
+    change.setLinesAdded(diff.linesAdded());
+    change.setLinesRemoved(diff.linesRemoved());
+    boolean snapshot =
+      !chained || (revision - 1) % snapshotInterval == 0 || !replays(before, after, diff.patch());
+    change.setSnapshot(snapshot ? TextDiff.deflate(after) : null);
+  }
+
+  /** Whether the diff rebuilds both sides exactly; otherwise the chain restarts at a snapshot. */
+  private static boolean replays(String before, String after, String patch) {
+    try {
+      return after.equals(TextDiff.apply(before, patch)) &&
+        before.equals(TextDiff.restore(after, patch));
+    } catch (RuntimeException e) {
+      return false;
+    }
+  }
+}
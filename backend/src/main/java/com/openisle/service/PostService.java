@@ -2,25 +2,22 @@ package com.openisle.service;
 
 import com.openisle.config.CachingConfig;
 import com.openisle.exception.NotFoundException;
-import com.openisle.exception.RateLimitException;
 import com.openisle.model.*;
+import com.openisle.ratelimit.RateLimitAction;
+import com.openisle.ratelimit.RateLimitService;
 import com.openisle.repository.CategoryProposalPostRepository;
 import com.openisle.repository.CategoryRepository;
 import com.openisle.repository.CommentRepository;
 import com.openisle.repository.LotteryPostRepository;
 import com.openisle.repository.NotificationRepository;
-import com.openisle.repository.PointHistoryRepository;
 import com.openisle.repository.PollPostRepository;
 import com.openisle.repository.PollVoteRepository;
 import com.openisle.repository.PostRepository;
-import com.openisle.repository.PostSubscriptionRepository;
-import com.openisle.repository.ReactionRepository;
+import com.openisle.repository.PurgeTaskRepository;
 import com.openisle.repository.TagRepository;
 import com.openisle.repository.UserRepository;
+import com.openisle.rss.RssFeedChangedEvent;
 import com.openisle.search.SearchIndexEventPublisher;
-import com.openisle.service.EmailSender;
-import com.openisle.exception.EmailSendException;
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
@@ -29,7 +26,6 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledFuture;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.cache.annotation.CacheEvict;
@@ -38,7 +34,6 @@ import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -59,20 +54,17 @@ public class PostService {
   private PublishMode publishMode;
   private final NotificationService notificationService;
   private final SubscriptionService subscriptionService;
-  private final CommentService commentService;
   private final CommentRepository commentRepository;
-  private final ReactionRepository reactionRepository;
-  private final PostSubscriptionRepository postSubscriptionRepository;
   private final NotificationRepository notificationRepository;
   private final PostReadService postReadService;
   private final ImageUploader imageUploader;
   private final TaskScheduler taskScheduler;
-  private final EmailSender emailSender;
+  private final NotificationDispatcher notificationDispatcher;
   private final ApplicationContext applicationContext;
   private final PointService pointService;
   private final PostChangeLogService postChangeLogService;
-  private final PointHistoryRepository pointHistoryRepository;
   private final CategoryService categoryService;
+  private final PurgeTaskRepository purgeTaskRepository;
   private final ConcurrentMap<Long, ScheduledFuture<?>> scheduledFinalizations =
     new ConcurrentHashMap<>();
 
@@ -86,7 +78,7 @@ public class PostService {
   @Value("${app.website-url:https://www.open-isle.com}")
   private String websiteUrl;
 
-  private final RedisTemplate redisTemplate;
+  private final RateLimitService rateLimitService;
 
   @org.springframework.beans.factory.annotation.Autowired
   public PostService(
@@ -100,23 +92,20 @@ public class PostService {
     PollVoteRepository pollVoteRepository,
     NotificationService notificationService,
     SubscriptionService subscriptionService,
-    CommentService commentService,
     CommentRepository commentRepository,
-    ReactionRepository reactionRepository,
-    PostSubscriptionRepository postSubscriptionRepository,
     NotificationRepository notificationRepository,
     PostReadService postReadService,
     ImageUploader imageUploader,
     TaskScheduler taskScheduler,
-    EmailSender emailSender,
+    NotificationDispatcher notificationDispatcher,
     ApplicationContext applicationContext,
     PointService pointService,
     PostChangeLogService postChangeLogService,
-    PointHistoryRepository pointHistoryRepository,
     @Value("${app.post.publish-mode:DIRECT}") PublishMode publishMode,
-    RedisTemplate redisTemplate,
+    RateLimitService rateLimitService,
     SearchIndexEventPublisher searchIndexEventPublisher,
-    CategoryService categoryService
+    CategoryService categoryService,
+    PurgeTaskRepository purgeTaskRepository
   ) {
     this.postRepository = postRepository;
     this.userRepository = userRepository;
@@ -128,24 +117,21 @@ public class PostService {
     this.pollVoteRepository = pollVoteRepository;
     this.notificationService = notificationService;
     this.subscriptionService = subscriptionService;
-    this.commentService = commentService;
     this.commentRepository = commentRepository;
-    this.reactionRepository = reactionRepository;
-    this.postSubscriptionRepository = postSubscriptionRepository;
     this.notificationRepository = notificationRepository;
     this.postReadService = postReadService;
     this.imageUploader = imageUploader;
     this.taskScheduler = taskScheduler;
-    this.emailSender = emailSender;
+    this.notificationDispatcher = notificationDispatcher;
     this.applicationContext = applicationContext;
     this.pointService = pointService;
     this.postChangeLogService = postChangeLogService;
-    this.pointHistoryRepository = pointHistoryRepository;
     this.publishMode = publishMode;
 
-    this.redisTemplate = redisTemplate;
+    this.rateLimitService = rateLimitService;
     this.searchIndexEventPublisher = searchIndexEventPublisher;
     this.categoryService = categoryService;
+    this.purgeTaskRepository = purgeTaskRepository;
   }
 
   @EventListener(ApplicationReadyEvent.class)
@@ -208,9 +194,7 @@ public class PostService {
   }
 
   public Post excludeFromRss(Long id, String username) {
-    Post post = postRepository
-      .findById(id)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(id);
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
@@ -218,13 +202,14 @@ public class PostService {
     post.setRssExcluded(true);
     Post saved = postRepository.save(post);
     postChangeLogService.recordFeaturedChange(saved, user, oldFeatured, false);
+    if (oldFeatured) {
+      applicationContext.publishEvent(new RssFeedChangedEvent(saved.getId(), true));
+    }
     return saved;
   }
 
   public Post includeInRss(Long id, String username) {
-    Post post = postRepository
-      .findById(id)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(id);
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
@@ -232,6 +217,9 @@ public class PostService {
     post.setRssExcluded(false);
     Post saved = postRepository.save(post);
     postChangeLogService.recordFeaturedChange(saved, user, oldFeatured, true);
+    if (!oldFeatured) {
+      applicationContext.publishEvent(new RssFeedChangedEvent(saved.getId(), true));
+    }
     notificationService.createNotification(
       saved.getAuthor(),
       NotificationType.POST_FEATURED,
@@ -266,11 +254,6 @@ public class PostService {
     String proposedName,
     String proposalDescription
   ) {
-    // 限制访问次数
-    boolean limitResult = isPostLimitReached(username);
-    if (!limitResult) {
-      throw new RateLimitException("Too many posts");
-    }
     if (tagIds == null || tagIds.isEmpty()) {
       throw new IllegalArgumentException("At least one tag required");
     }
@@ -348,6 +331,8 @@ public class PostService {
       post.setVisibleScope(postVisibleScopeType);
     }
 
+    // 限制发帖频率，参数校验失败的请求不计入
+    rateLimitService.check(RateLimitAction.POST, username);
     if (post instanceof LotteryPost) {
       post = lotteryPostRepository.save((LotteryPost) post);
     } else if (post instanceof CategoryProposalPost categoryProposalPost) {
@@ -422,7 +407,6 @@ public class PostService {
     if (post.getStatus() == PostStatus.PUBLISHED) {
       searchIndexEventPublisher.publishPostSaved(post);
     }
-    markPostLimit(author.getUsername());
     return post;
   }
 
@@ -431,7 +415,7 @@ public class PostService {
   public void finalizeProposal(Long postId) {
     scheduledFinalizations.remove(postId);
     categoryProposalPostRepository
-      .findById(postId)
+      .findByIdAndStatusNot(postId, PostStatus.DELETED)
       .ifPresent(cp -> {
         if (cp.getProposalStatus() != CategoryProposalStatus.PENDING) {
           return;
@@ -508,31 +492,9 @@ public class PostService {
       });
   }
 
-  /**
-   * 检查用户是否达到发帖限制
-   * @param username
-   * @return true - 允许发帖，false - 已达限制
-   */
-  private boolean isPostLimitReached(String username) {
-    String key = CachingConfig.LIMIT_CACHE_NAME + ":posts:" + username;
-    String result = (String) redisTemplate.opsForValue().get(key);
-    return StringUtils.isEmpty(result);
-  }
-
-  /**
-   * 标记用户发帖，触发limit计时
-   * @param username
-   */
-  private void markPostLimit(String username) {
-    String key = CachingConfig.LIMIT_CACHE_NAME + ":posts:" + username;
-    redisTemplate.opsForValue().set(key, "1", Duration.ofMinutes(5));
-  }
-
   @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   public void joinLottery(Long postId, String username) {
-    LotteryPost post = lotteryPostRepository
-      .findById(postId)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    LotteryPost post = lotteryPostRepository.findActivePost(postId);
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
@@ -543,17 +505,13 @@ public class PostService {
   }
 
   public PollPost getPoll(Long postId) {
-    return pollPostRepository
-      .findById(postId)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    return pollPostRepository.findActivePost(postId);
   }
 
   @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public PollPost votePoll(Long postId, String username, java.util.List<Integer> optionIndices) {
-    PollPost post = pollPostRepository
-      .findById(postId)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    PollPost post = pollPostRepository.findActivePost(postId);
     if (post.getEndTime() != null && post.getEndTime().isBefore(LocalDateTime.now())) {
       throw new IllegalStateException("Poll has ended");
     }
@@ -602,7 +560,7 @@ public class PostService {
   public void finalizePoll(Long postId) {
     scheduledFinalizations.remove(postId);
     pollPostRepository
-      .findById(postId)
+      .findByIdAndStatusNot(postId, PostStatus.DELETED)
       .ifPresent(pp -> {
         if (pp instanceof CategoryProposalPost) {
           return;
@@ -646,7 +604,7 @@ public class PostService {
     log.info("start to finalizeLottery for {}", postId);
     scheduledFinalizations.remove(postId);
     lotteryPostRepository
-      .findById(postId)
+      .findByIdAndStatusNot(postId, PostStatus.DELETED)
       .ifPresent(lp -> {
         List<User> participants = new ArrayList<>(lp.getParticipants());
         if (participants.isEmpty()) {
@@ -660,84 +618,71 @@ public class PostService {
         log.info("winner count {}", winnersCount);
         lp.setWinners(winners);
         lotteryPostRepository.save(lp);
+        // 开奖结果先随事务提交，站内通知、邮件和推送在提交后异步投递，
+        // 避免奖品数量较多时事务长时间等待外部 HTTP 调用
+        String url = String.format("%s/posts/%d", websiteUrl, lp.getId());
+        List<NotificationDispatcher.Delivery> deliveries = new ArrayList<>();
         for (User w : winners) {
-          if (
-            w.getEmail() != null &&
-            !w.getDisabledEmailNotificationTypes().contains(NotificationType.LOTTERY_WIN)
-          ) {
-            try {
-              emailSender.sendEmail(
-                w.getEmail(),
-                "你中奖了",
-                "恭喜你在抽奖贴 \"" + lp.getTitle() + "\" 中获奖"
-              );
-            } catch (EmailSendException e) {
-              log.warn("Failed to send lottery win email to {}: {}", w.getEmail(), e.getMessage());
-            }
-          }
-          notificationService.createNotification(
-            w,
-            NotificationType.LOTTERY_WIN,
-            lp,
-            null,
-            null,
-            lp.getAuthor(),
-            null,
-            null
+          deliveries.add(
+            new NotificationDispatcher.Delivery(
+              w,
+              lotteryEmail(w, NotificationType.LOTTERY_WIN),
+              "你中奖了",
+              "恭喜你在抽奖贴 \"" + lp.getTitle() + "\" 中获奖",
+              url
+            )
           );
-          notificationService.sendCustomPush(
-            w,
-            "你中奖了",
-            String.format("%s/posts/%d", websiteUrl, lp.getId())
+        }
+        User author = lp.getAuthor();
+        if (author != null) {
+          deliveries.add(
+            new NotificationDispatcher.Delivery(
+              author,
+              lotteryEmail(author, NotificationType.LOTTERY_DRAW),
+              "抽奖已开奖",
+              "您的抽奖贴 \"" + lp.getTitle() + "\" 已开奖",
+              url
+            )
           );
         }
-        if (lp.getAuthor() != null) {
-          if (
-            lp.getAuthor().getEmail() != null &&
-            !lp
-              .getAuthor()
-              .getDisabledEmailNotificationTypes()
-              .contains(NotificationType.LOTTERY_DRAW)
-          ) {
-            try {
-              emailSender.sendEmail(
-                lp.getAuthor().getEmail(),
-                "抽奖已开奖",
-                "您的抽奖贴 \"" + lp.getTitle() + "\" 已开奖"
-              );
-            } catch (EmailSendException e) {
-              log.warn(
-                "Failed to send lottery draw email to {}: {}",
-                lp.getAuthor().getEmail(),
-                e.getMessage()
-              );
-            }
-          }
-          notificationService.createNotification(
-            lp.getAuthor(),
-            NotificationType.LOTTERY_DRAW,
+        notificationDispatcher.afterCommit(() -> {
+          notificationService.createNotifications(
+            winners,
+            NotificationType.LOTTERY_WIN,
             lp,
-            null,
-            null,
-            null,
-            null,
-            null
-          );
-          notificationService.sendCustomPush(
-            lp.getAuthor(),
-            "抽奖已开奖",
-            String.format("%s/posts/%d", websiteUrl, lp.getId())
+            author
           );
-        }
+          if (author != null) {
+            notificationService.createNotification(
+              author,
+              NotificationType.LOTTERY_DRAW,
+              lp,
+              null,
+              null,
+              null,
+              null,
+              null
+            );
+          }
+          notificationDispatcher.dispatch(deliveries);
+        });
         postChangeLogService.recordLotteryResult(lp);
       });
   }
 
+  /**
+   * 获取抽奖相关邮件的收件地址，用户没有邮箱或关闭了该类邮件时返回 null
+   */
+  private static String lotteryEmail(User user, NotificationType type) {
+    if (user.getEmail() == null || user.getDisabledEmailNotificationTypes().contains(type)) {
+      return null;
+    }
+    return user.getEmail();
+  }
+
   @Transactional
   public Post viewPost(Long id, String viewer) {
-    Post post = postRepository
-      .findById(id)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(id);
     if (post.getStatus() != PostStatus.PUBLISHED) {
       if (viewer == null) {
         throw new com.openisle.exception.NotFoundException("User not found");
@@ -760,11 +705,7 @@ public class PostService {
     if (viewer != null && !viewer.equals(post.getAuthor().getUsername())) {
       User viewerUser = userRepository.findByUsername(viewer).orElse(null);
       if (viewerUser != null) {
-        notificationRepository.deleteByTypeAndFromUserAndPost(
-          NotificationType.POST_VIEWED,
-          viewerUser,
-          post
-        );
+        // createNotification 会先删除该访客之前的 POST_VIEWED 通知
         notificationService.createNotification(
           post.getAuthor(),
           NotificationType.POST_VIEWED,
@@ -1064,9 +1005,7 @@ public class PostService {
 
   @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   public Post approvePost(Long id) {
-    Post post = postRepository
-      .findById(id)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(id);
     // publish all pending tags along with the post
     for (com.openisle.model.Tag tag : post.getTags()) {
       if (!tag.isApproved()) {
@@ -1076,6 +1015,7 @@ public class PostService {
       }
     }
     post.setStatus(PostStatus.PUBLISHED);
+    post.setUpdatedAt(LocalDateTime.now());
     post = postRepository.save(post);
     searchIndexEventPublisher.publishPostSaved(post);
     notificationService.createNotification(
@@ -1092,13 +1032,12 @@ public class PostService {
   }
 
   public Post rejectPost(Long id) {
-    Post post = postRepository
-      .findById(id)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(id);
     // remove user created tags that are only linked to this post
     java.util.Set<com.openisle.model.Tag> tags = new java.util.HashSet<>(post.getTags());
     for (com.openisle.model.Tag tag : tags) {
       if (!tag.isApproved()) {
+        // 已删除未清理的文章仍占着 post_tags，计数要包含它们
         long count = postRepository.countDistinctByTags_Id(tag.getId());
         if (count <= 1) {
           Long tagId = tag.getId();
@@ -1109,6 +1048,7 @@ public class PostService {
       }
     }
     post.setStatus(PostStatus.REJECTED);
+    post.setUpdatedAt(LocalDateTime.now());
     post = postRepository.save(post);
     searchIndexEventPublisher.publishPostDeleted(post.getId());
     notificationService.createNotification(
@@ -1126,9 +1066,7 @@ public class PostService {
 
   @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   public Post pinPost(Long id, String username) {
-    Post post = postRepository
-      .findById(id)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(id);
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
@@ -1141,9 +1079,7 @@ public class PostService {
 
   @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   public Post unpinPost(Long id, String username) {
-    Post post = postRepository
-      .findById(id)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(id);
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
@@ -1156,9 +1092,7 @@ public class PostService {
 
   @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   public Post closePost(Long id, String username) {
-    Post post = postRepository
-      .findById(id)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(id);
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
@@ -1174,9 +1108,7 @@ public class PostService {
 
   @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   public Post reopenPost(Long id, String username) {
-    Post post = postRepository
-      .findById(id)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(id);
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
@@ -1207,9 +1139,7 @@ public class PostService {
     if (tagIds.size() > 2) {
       throw new IllegalArgumentException("At most two tags allowed");
     }
-    Post post = postRepository
-      .findById(id)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(id);
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
@@ -1233,6 +1163,7 @@ public class PostService {
     post.setTags(new java.util.HashSet<>(tags));
     PostVisibleScopeType oldVisibleScope = post.getVisibleScope();
     post.setVisibleScope(postVisibleScopeType);
+    post.setUpdatedAt(LocalDateTime.now());
     Post updated = postRepository.save(post);
     imageUploader.adjustReferences(oldContent, content);
     notificationService.notifyMentions(content, user, updated, null);
@@ -1242,6 +1173,11 @@ public class PostService {
     if (!java.util.Objects.equals(oldContent, content)) {
       postChangeLogService.recordContentChange(updated, user, oldContent, content);
     }
+    if (
+      !java.util.Objects.equals(oldTitle, title) || !java.util.Objects.equals(oldContent, content)
+    ) {
+      applicationContext.publishEvent(new RssFeedChangedEvent(updated.getId(), false));
+    }
     if (!java.util.Objects.equals(oldCategory.getId(), category.getId())) {
       postChangeLogService.recordCategoryChange(
         updated,
@@ -1271,9 +1207,7 @@ public class PostService {
   @CacheEvict(value = CachingConfig.POST_CACHE_NAME, allEntries = true)
   @Transactional
   public void deletePost(Long id, String username) {
-    Post post = postRepository
-      .findById(id)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(id);
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
@@ -1282,34 +1216,11 @@ public class PostService {
     if (!user.getId().equals(author.getId()) && user.getRole() != Role.ADMIN) {
       throw new IllegalArgumentException("Unauthorized");
     }
-    for (Comment c : commentRepository.findByPostAndParentIsNullOrderByCreatedAtAsc(post)) {
-      commentService.deleteCommentCascade(c);
-    }
-    reactionRepository.findByPost(post).forEach(reactionRepository::delete);
-    postSubscriptionRepository.findByPost(post).forEach(postSubscriptionRepository::delete);
-    notificationRepository.deleteAll(notificationRepository.findByPost(post));
-    postReadService.deleteByPost(post);
-    imageUploader.removeReferences(imageUploader.extractUrls(post.getContent()));
-    List<PointHistory> pointHistories = pointHistoryRepository.findByPost(post);
-    Set<User> usersToRecalculate = pointHistories
-      .stream()
-      .map(PointHistory::getUser)
-      .collect(Collectors.toSet());
-    if (!pointHistories.isEmpty()) {
-      LocalDateTime deletedAt = LocalDateTime.now();
-      for (PointHistory history : pointHistories) {
-        history.setDeletedAt(deletedAt);
-        history.setPost(null);
-      }
-      pointHistoryRepository.saveAll(pointHistories);
-    }
-    if (!usersToRecalculate.isEmpty()) {
-      for (User affected : usersToRecalculate) {
-        int newPoints = pointService.recalculateUserPoints(affected);
-        affected.setPoint(newPoints);
-      }
-      userRepository.saveAll(usersToRecalculate);
-    }
+    // 先标记删除并立即提交，关联数据由 ContentPurgeService 在后台批量清理
+    post.setStatus(PostStatus.DELETED);
+    post.setUpdatedAt(LocalDateTime.now());
+    postRepository.save(post);
+    purgeTaskRepository.save(new PurgeTask(PurgeTargetType.POST, post.getId()));
     if (post instanceof LotteryPost lp) {
       ScheduledFuture<?> future = scheduledFinalizations.remove(lp.getId());
       if (future != null) {
@@ -1318,9 +1229,10 @@ public class PostService {
     }
     String title = post.getTitle();
     Long postId = post.getId();
-    postChangeLogService.deleteLogsForPost(post);
-    postRepository.delete(post);
     searchIndexEventPublisher.publishPostDeleted(postId);
+    if (!Boolean.TRUE.equals(post.getRssExcluded())) {
+      applicationContext.publishEvent(new RssFeedChangedEvent(postId, true));
+    }
     if (adminDeleting) {
       notificationService.createNotification(
         author,
@@ -1336,11 +1248,11 @@ public class PostService {
   }
 
   public java.util.List<Post> getPostsByIds(java.util.List<Long> ids) {
-    return postRepository.findAllById(ids);
+    return postRepository.findByIdInAndStatusNot(ids, PostStatus.DELETED);
   }
 
   public long countPostsByCategory(Long categoryId) {
-    return postRepository.countByCategory_Id(categoryId);
+    return postRepository.countByCategory_IdAndStatusNot(categoryId, PostStatus.DELETED);
   }
 
   public Map<Long, Long> countPostsByCategoryIds(List<Long> categoryIds) {
@@ -1353,7 +1265,7 @@ public class PostService {
   }
 
   public long countPostsByTag(Long tagId) {
-    return postRepository.countDistinctByTags_Id(tagId);
+    return postRepository.countDistinctByTags_IdAndStatusNot(tagId, PostStatus.DELETED);
   }
 
   public Map<Long, Long> countPostsByTagIds(List<Long> tagIds) {
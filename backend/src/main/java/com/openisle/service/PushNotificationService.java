@@ -3,63 +3,237 @@ package com.openisle.service;
 import com.openisle.model.PushSubscription;
 import com.openisle.model.User;
 import com.openisle.repository.PushSubscriptionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.security.GeneralSecurityException;
 import java.security.Security;
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import lombok.extern.slf4j.Slf4j;
+import nl.martijndwars.webpush.AbstractPushService;
+import nl.martijndwars.webpush.Encoding;
 import nl.martijndwars.webpush.Notification;
-import nl.martijndwars.webpush.PushService;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.jose4j.lang.JoseException;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+/**
+ * Sends web pushes off the caller thread on a bounded pool through one shared HTTP client. Each
+ * subscription's payload is encrypted once and reused when a rate-limited (429) push is retried;
+ * subscriptions whose endpoint answers 404 or 410 are deleted. Outcomes are counted as
+ * {@code webpush.deliveries} and the pool is exposed as {@code executor.*} metrics named
+ * {@code webpush}.
+ */
 @Slf4j
 @Service
 public class PushNotificationService {
 
+  /** Outcome of one subscription's delivery, the {@code result} tag of the metric. */
+  enum Result {
+    DELIVERED,
+    GONE,
+    RATE_LIMITED,
+    FAILED,
+  }
+
   private final PushSubscriptionRepository subscriptionRepository;
-  private final PushService pushService;
+  private final PushRequests pushRequests;
+  private final HttpClient httpClient;
+  private final ExecutorService executor;
+  private final int maxRetries;
+  private final Duration retryBackoff;
+  private final Duration timeout;
+  private final Map<Result, Counter> deliveries = new EnumMap<>(Result.class);
+  private final Counter retries;
+  private final Timer sendTimer;
 
   public PushNotificationService(
     PushSubscriptionRepository subscriptionRepository,
+    MeterRegistry meterRegistry,
     @Value("${app.webpush.public-key:}") String publicKey,
-    @Value("${app.webpush.private-key:}") String privateKey
+    @Value("${app.webpush.private-key:}") String privateKey,
+    @Value("${app.webpush.concurrency:16}") int concurrency,
+    @Value("${app.webpush.max-retries:3}") int maxRetries,
+    @Value("${app.webpush.retry-backoff:PT1S}") Duration retryBackoff,
+    @Value("${app.webpush.timeout:PT10S}") Duration timeout
   ) throws GeneralSecurityException {
     this.subscriptionRepository = subscriptionRepository;
     if (publicKey != null && !publicKey.isBlank() && privateKey != null && !privateKey.isBlank()) {
       Security.addProvider(new BouncyCastleProvider());
-      this.pushService = new PushService(publicKey, privateKey);
+      this.pushRequests = new PushRequests(publicKey, privateKey);
     } else {
-      this.pushService = null;
+      this.pushRequests = null;
     }
+    this.maxRetries = maxRetries;
+    this.retryBackoff = retryBackoff;
+    this.timeout = timeout;
+    this.executor = Executors.newFixedThreadPool(
+      Math.max(1, concurrency),
+      new CustomizableThreadFactory("webpush-")
+    );
+    this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    for (Result result : Result.values()) {
+      deliveries.put(
+        result,
+        Counter.builder("webpush.deliveries")
+          .tag("result", result.name().toLowerCase(Locale.ROOT))
+          .description("Web pushes by final outcome, one per subscription")
+          .register(meterRegistry)
+      );
+    }
+    this.retries = Counter.builder("webpush.retries")
+      .description("Rate-limited web pushes sent again after a backoff")
+      .register(meterRegistry);
+    this.sendTimer = Timer.builder("webpush.send")
+      .description("Latency of a single web push request")
+      .register(meterRegistry);
+    new ExecutorServiceMetrics(executor, "webpush", Tags.empty()).bindTo(meterRegistry);
   }
 
-  public void sendNotification(User user, String payload) {
-    if (pushService == null) {
+  /**
+   * Push {@code payload} to every subscription of the user. Returns at once; the future
+   * completes when all subscriptions have been handled and never completes exceptionally.
+   */
+  public CompletableFuture<Void> sendNotification(User user, String payload) {
+    if (pushRequests == null) {
       log.warn("Push notifications are disabled because VAPID keys are not configured.");
-      return;
+      return CompletableFuture.completedFuture(null);
     }
     List<PushSubscription> subs = subscriptionRepository.findByUser(user);
-    for (PushSubscription sub : subs) {
-      try {
-        Notification notification = new Notification(
-          sub.getEndpoint(),
-          sub.getP256dh(),
-          sub.getAuth(),
-          payload
+    return CompletableFuture.allOf(
+      subs.stream().map(sub -> deliver(sub, payload)).toArray(CompletableFuture[]::new)
+    );
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private CompletableFuture<Void> deliver(PushSubscription sub, String payload) {
+    return CompletableFuture.supplyAsync(() -> encrypt(sub, payload), executor)
+      .thenCompose(request -> attempt(sub, request, 0))
+      .exceptionally(e -> {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null
+          ? e.getCause()
+          : e;
+        log.warn("Failed to send push to subscription {}: {}", sub.getId(), cause.getMessage());
+        return Result.FAILED;
+      })
+      .thenAccept(result -> deliveries.get(result).increment());
+  }
+
+  private CompletableFuture<Result> attempt(PushSubscription sub, HttpRequest request, int retry) {
+    return CompletableFuture.supplyAsync(() -> post(request), executor).thenCompose(response -> {
+      int status = response.statusCode();
+      if (status >= 200 && status < 300) {
+        return CompletableFuture.completedFuture(Result.DELIVERED);
+      }
+      if (status == 404 || status == 410) {
+        // 浏览器已取消订阅，这个 endpoint 不会再恢复
+        subscriptionRepository.deleteById(sub.getId());
+        log.info("Deleted expired push subscription {} (status {})", sub.getId(), status);
+        return CompletableFuture.completedFuture(Result.GONE);
+      }
+      if (status == 429 && retry < maxRetries) {
+        retries.increment();
+        Executor later = CompletableFuture.delayedExecutor(
+          retryDelay(response, retry).toMillis(),
+          TimeUnit.MILLISECONDS,
+          executor
         );
-        pushService.send(notification);
-      } catch (
-        GeneralSecurityException
-        | IOException
-        | JoseException
-        | InterruptedException
-        | java.util.concurrent.ExecutionException e
-      ) {
-        log.error(e.getMessage());
+        // 重试沿用已加密的请求
+        return CompletableFuture.runAsync(() -> {}, later).thenCompose(v ->
+          attempt(sub, request, retry + 1)
+        );
+      }
+      log.warn("Push to subscription {} failed with status {}", sub.getId(), status);
+      return CompletableFuture.completedFuture(
+        status == 429 ? Result.RATE_LIMITED : Result.FAILED
+      );
+    });
+  }
+
+  /** Honour a Retry-After in seconds, otherwise back off exponentially. */
+  private Duration retryDelay(HttpResponse<Void> response, int retry) {
+    String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
+    if (retryAfter != null) {
+      try {
+        return Duration.ofSeconds(Math.max(0, Long.parseLong(retryAfter.trim())));
+      } catch (NumberFormatException e) {
+        // HTTP-date 格式，按默认退避处理
       }
     }
+    return retryBackoff.multipliedBy(1L << Math.min(retry, 10));
+  }
+
+  private HttpRequest encrypt(PushSubscription sub, String payload) {
+    try {
+      Notification notification = new Notification(
+        sub.getEndpoint(),
+        sub.getP256dh(),
+        sub.getAuth(),
+        payload
+      );
+      nl.martijndwars.webpush.HttpRequest prepared = pushRequests.prepare(notification);
+      HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(prepared.getUrl()))
+        .timeout(timeout)
+        .POST(
+          prepared.getBody() == null
+            ? HttpRequest.BodyPublishers.noBody()
+            : HttpRequest.BodyPublishers.ofByteArray(prepared.getBody())
+        );
+      prepared.getHeaders().forEach(builder::header);
+      return builder.build();
+    } catch (GeneralSecurityException | IOException | JoseException e) {
+      throw new CompletionException(e);
+    }
+  }
+
+  private HttpResponse<Void> post(HttpRequest request) {
+    Timer.Sample sample = Timer.start();
+    try {
+      return httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+    } catch (IOException e) {
+      throw new CompletionException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CompletionException(e);
+    } finally {
+      sample.stop(sendTimer);
+    }
+  }
+
+  /** Encrypts payloads and signs VAPID headers; the requests are sent by our own client. */
+  private static final class PushRequests extends AbstractPushService<PushRequests> {
+
+    PushRequests(String publicKey, String privateKey) throws GeneralSecurityException {
+      super(publicKey, privateKey);
+    }
+
+    nl.martijndwars.webpush.HttpRequest prepare(Notification notification)
+      throws GeneralSecurityException, IOException, JoseException {
+      return prepareRequest(notification, Encoding.AESGCM);
+    }
   }
 }
@@ -1,22 +1,21 @@
 package com.openisle.service;
 
-import com.openisle.dto.MessageNotificationPayload;
 import com.openisle.dto.ReactionDto;
 import com.openisle.mapper.ReactionMapper;
 import com.openisle.model.Comment;
 import com.openisle.model.Message;
 import com.openisle.model.NotificationType;
 import com.openisle.model.Post;
+import com.openisle.model.PostStatus;
 import com.openisle.model.Reaction;
 import com.openisle.model.ReactionType;
 import com.openisle.model.User;
+import com.openisle.realtime.RealtimeEvent;
 import com.openisle.repository.CommentRepository;
 import com.openisle.repository.MessageRepository;
 import com.openisle.repository.PostRepository;
 import com.openisle.repository.ReactionRepository;
 import com.openisle.repository.UserRepository;
-import java.util.HashMap;
-import java.util.Map;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -46,9 +45,7 @@ public class ReactionService {
     User user = userRepository
       .findByUsername(username)
       .orElseThrow(() -> new com.openisle.exception.NotFoundException("User not found"));
-    Post post = postRepository
-      .findById(postId)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(postId);
     java.util.Optional<Reaction> existing = reactionRepository.findByUserAndPostAndType(
       user,
       post,
@@ -87,6 +84,9 @@ public class ReactionService {
     Comment comment = commentRepository
       .findById(commentId)
       .orElseThrow(() -> new IllegalArgumentException("Comment not found"));
+    if (comment.getPost().getStatus() == PostStatus.DELETED) {
+      throw new com.openisle.exception.NotFoundException("Post not found");
+    }
     java.util.Optional<Reaction> existing = reactionRepository.findByUserAndCommentAndType(
       user,
       comment,
@@ -132,19 +132,17 @@ public class ReactionService {
       type
     );
 
-    Map<String, Object> syncPayload = new HashMap<>();
-    syncPayload.put("eventType", "MESSAGE_REACTION");
-    syncPayload.put("conversationId", message.getConversation().getId());
-    syncPayload.put("messageId", message.getId());
+    Long conversationId = message.getConversation().getId();
 
     if (existing.isPresent()) {
       Reaction removed = existing.get();
       ReactionDto removedDto = reactionMapper.toDto(removed);
       reactionRepository.delete(removed);
 
-      syncPayload.put("action", "REMOVED");
-      syncPayload.put("reaction", removedDto);
-      sendMessageReactionSync(user.getUsername(), syncPayload);
+      sendMessageReactionSync(
+        user.getUsername(),
+        RealtimeEvent.MessageReaction.of(conversationId, removedDto, false)
+      );
 
       return null;
     }
@@ -155,25 +153,24 @@ public class ReactionService {
     reaction.setType(type);
     reaction = reactionRepository.save(reaction);
 
-    syncPayload.put("action", "ADDED");
-    syncPayload.put("reaction", reactionMapper.toDto(reaction));
-    sendMessageReactionSync(user.getUsername(), syncPayload);
+    sendMessageReactionSync(
+      user.getUsername(),
+      RealtimeEvent.MessageReaction.of(conversationId, reactionMapper.toDto(reaction), true)
+    );
 
     return reaction;
   }
 
-  private void sendMessageReactionSync(String shardUsername, Map<String, Object> payload) {
+  private void sendMessageReactionSync(String shardUsername, RealtimeEvent.MessageReaction event) {
     try {
-      notificationProducer.sendNotification(new MessageNotificationPayload(shardUsername, payload));
+      notificationProducer.sendEvent(shardUsername, event);
     } catch (Exception e) {
       log.error("Failed to broadcast message reaction sync via RabbitMQ", e);
     }
   }
 
   public java.util.List<Reaction> getReactionsForPost(Long postId) {
-    Post post = postRepository
-      .findById(postId)
-      .orElseThrow(() -> new com.openisle.exception.NotFoundException("Post not found"));
+    Post post = postRepository.findActivePost(postId);
     return reactionRepository.findByPost(post);
   }
 
@@ -1,6 +1,7 @@
 package com.openisle.service;
 
 import java.util.Map;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -10,12 +11,13 @@ import org.springframework.web.client.RestTemplate;
  * CaptchaService implementation using Google reCAPTCHA.
  */
 @Service
+@RequiredArgsConstructor
 public class RecaptchaService extends CaptchaService {
 
   @Value("${recaptcha.secret-key:}")
   private String secretKey;
 
-  private final RestTemplate restTemplate = new RestTemplate();
+  private final RestTemplate restTemplate;
 
   @Override
   public boolean verify(String token) {
@@ -3,6 +3,7 @@ package com.openisle.service;
 import com.openisle.exception.EmailSendException;
 import java.util.HashMap;
 import java.util.Map;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -14,6 +15,7 @@ import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 @Service
+@RequiredArgsConstructor
 public class ResendEmailSender extends EmailSender {
 
   @Value("${resend.api.key}")
@@ -22,7 +24,7 @@ public class ResendEmailSender extends EmailSender {
   @Value("${resend.from.email}")
   private String fromEmail;
 
-  private final RestTemplate restTemplate = new RestTemplate();
+  private final RestTemplate restTemplate;
 
   @Override
   public void sendEmail(String to, String subject, String text) {
@@ -0,0 +1,94 @@
+package com.openisle.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short-lived, bounded in-process cache of search pages keyed by the full query.
+ *
+ * <p>Popular keywords are requested by many clients within seconds; serving them from memory
+ * keeps those bursts off OpenSearch and MySQL. Entries expire after a few seconds so newly
+ * indexed content shows up quickly, and least recently used entries are evicted once
+ * {@code maxEntries} is reached. A non-positive TTL disables caching.
+ */
+@Component
+public class SearchResultCache {
+
+  private record Entry(SearchService.SearchPage page, long expiresAt) {}
+
+  private final Map<SearchService.SearchQuery, Entry> entries;
+  private final long ttlMillis;
+  private final LongSupplier clock;
+  private final Counter hits;
+  private final Counter misses;
+
+  @Autowired
+  public SearchResultCache(
+    MeterRegistry meterRegistry,
+    @Value("${app.search.cache.ttl:PT30S}") Duration ttl,
+    @Value("${app.search.cache.max-entries:1000}") int maxEntries
+  ) {
+    this(meterRegistry, ttl, maxEntries, System::currentTimeMillis);
+  }
+
+  SearchResultCache(
+    MeterRegistry meterRegistry,
+    Duration ttl,
+    int maxEntries,
+    LongSupplier clock
+  ) {
+    this.ttlMillis = ttl.toMillis();
+    this.clock = clock;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<SearchService.SearchQuery, Entry> eldest) {
+        return size() > maxEntries;
+      }
+    };
+    this.hits = Counter.builder("search.cache")
+      .tag("result", "hit")
+      .description("Search pages served from the result cache")
+      .register(meterRegistry);
+    this.misses = Counter.builder("search.cache")
+      .tag("result", "miss")
+      .description("Search pages that had to be queried")
+      .register(meterRegistry);
+  }
+
+  /** Cached page for the query, or null when absent or expired. */
+  public synchronized SearchService.SearchPage get(SearchService.SearchQuery query) {
+    if (ttlMillis <= 0) {
+      return null;
+    }
+    Entry entry = entries.get(query);
+    if (entry == null) {
+      misses.increment();
+      return null;
+    }
+    if (entry.expiresAt() <= clock.getAsLong()) {
+      entries.remove(query);
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return entry.page();
+  }
+
+  public synchronized void put(SearchService.SearchQuery query, SearchService.SearchPage page) {
+    if (ttlMillis <= 0) {
+      return;
+    }
+    entries.put(query, new Entry(page, clock.getAsLong() + ttlMillis));
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+}
@@ -1,5 +1,6 @@
 package com.openisle.service;
 
+import com.openisle.exception.FieldException;
 import com.openisle.model.Category;
 import com.openisle.model.Comment;
 import com.openisle.model.Post;
@@ -11,8 +12,12 @@ import com.openisle.repository.CommentRepository;
 import com.openisle.repository.PostRepository;
 import com.openisle.repository.TagRepository;
 import com.openisle.repository.UserRepository;
+import com.openisle.search.MySqlFullTextSearchEngine;
 import com.openisle.search.OpenSearchProperties;
+import com.openisle.search.SearchCursor;
 import com.openisle.search.SearchDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -27,9 +32,17 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.opensearch.client.opensearch.OpenSearchClient;
 import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.mapping.FieldType;
+import org.opensearch.client.opensearch._types.query_dsl.BoolQuery;
 import org.opensearch.client.opensearch._types.query_dsl.TextQueryType;
 import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.search.Highlight;
 import org.opensearch.client.opensearch.core.search.Hit;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.HtmlUtils;
 
@@ -45,152 +58,371 @@ public class SearchService {
   private final TagRepository tagRepository;
   private final Optional<OpenSearchClient> openSearchClient;
   private final OpenSearchProperties openSearchProperties;
+  private final ContentProcessingService contentProcessingService;
+  private final Optional<MySqlFullTextSearchEngine> fullTextSearchEngine;
+  private final SearchResultCache searchResultCache;
+  private final MeterRegistry meterRegistry;
 
   @org.springframework.beans.factory.annotation.Value("${app.snippet-length}")
   private int snippetLength;
 
+  // 关键词列表接口的结果上限，避免 LIKE 查询一次返回全部匹配
+  @org.springframework.beans.factory.annotation.Value("${app.search.list-limit:50}")
+  private int listLimit = DEFAULT_LIST_LIMIT;
+
   private static final int DEFAULT_OPEN_SEARCH_LIMIT = 50;
+  private static final String ENGINE_OPENSEARCH = "opensearch";
+  private static final String ENGINE_FULLTEXT = "fulltext";
+  private static final String ENGINE_LIKE = "like";
+  private static final String ENGINE_CACHE = "cache";
+  private static final int DEFAULT_LIST_LIMIT = 50;
+  public static final int MAX_PAGE_SIZE = 100;
 
   public List<User> searchUsers(String keyword) {
-    return userRepository.findByUsernameContainingIgnoreCase(keyword);
+    return userRepository.findByUsernameContainingIgnoreCase(keyword, listPage());
   }
 
   public List<Post> searchPosts(String keyword) {
     return postRepository.findByTitleContainingIgnoreCaseOrContentContainingIgnoreCaseAndStatus(
       keyword,
       keyword,
-      PostStatus.PUBLISHED
+      PostStatus.PUBLISHED,
+      listPage()
     );
   }
 
   public List<Post> searchPostsByContent(String keyword) {
-    return postRepository.findByContentContainingIgnoreCaseAndStatus(keyword, PostStatus.PUBLISHED);
+    return postRepository.findByContentContainingIgnoreCaseAndStatus(
+      keyword,
+      PostStatus.PUBLISHED,
+      listPage()
+    );
   }
 
   public List<Post> searchPostsByTitle(String keyword) {
-    return postRepository.findByTitleContainingIgnoreCaseAndStatus(keyword, PostStatus.PUBLISHED);
+    return postRepository.findByTitleContainingIgnoreCaseAndStatus(
+      keyword,
+      PostStatus.PUBLISHED,
+      listPage()
+    );
   }
 
   public List<Comment> searchComments(String keyword) {
-    return commentRepository.findByContentContainingIgnoreCase(keyword);
+    return commentRepository.findByContentContainingIgnoreCase(keyword, listPage());
   }
 
   public List<Category> searchCategories(String keyword) {
-    return categoryRepository.findByNameContainingIgnoreCase(keyword);
+    return categoryRepository.findByNameContainingIgnoreCase(keyword, listPage());
   }
 
   public List<Tag> searchTags(String keyword) {
-    return tagRepository.findByNameContainingIgnoreCaseAndApprovedTrue(keyword);
+    return tagRepository.findByNameContainingIgnoreCaseAndApprovedTrue(keyword, listPage());
+  }
+
+  private Pageable listPage() {
+    return PageRequest.of(0, Math.max(1, listLimit));
   }
 
   public List<SearchResult> globalSearch(String keyword) {
     if (keyword == null || keyword.isBlank()) {
       return List.of();
     }
-    if (isOpenSearchEnabled()) {
-      try {
-        List<SearchResult> results = searchWithOpenSearch(keyword);
-        if (!results.isEmpty()) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String engineName = ENGINE_LIKE;
+    try {
+      if (isOpenSearchEnabled()) {
+        try {
+          List<SearchResult> results = searchWithOpenSearch(keyword);
+          if (!results.isEmpty()) {
+            engineName = ENGINE_OPENSEARCH;
+            return results;
+          }
+        } catch (IOException e) {
+          log.warn("OpenSearch global search failed, falling back to database query", e);
+        }
+      }
+      MySqlFullTextSearchEngine engine = fullTextSearchEngine.orElse(null);
+      if (engine != null && engine.canSearch(keyword)) {
+        try {
+          List<SearchResult> results = searchWithFullText(engine, keyword.trim());
+          engineName = ENGINE_FULLTEXT;
           return results;
+        } catch (DataAccessException e) {
+          log.warn("Full-text global search failed, falling back to LIKE query", e);
         }
+      }
+      return fallbackGlobalSearch(keyword);
+    } finally {
+      sample.stop(latencyTimer("global", engineName));
+    }
+  }
+
+  /**
+   * One page of results of a single type, ranked by relevance.
+   *
+   * <p>Only the index of the requested type is queried. OpenSearch pages continue with
+   * {@code search_after} on (score, createdAt, entityId), so deep pages cost the same as the
+   * first one; the MySQL fallbacks continue by offset. Total hits are only counted and
+   * highlights only built when asked for. Pages are cached briefly per query and every query
+   * is recorded in the {@code search.query.latency} timer.
+   */
+  public SearchPage searchPage(SearchQuery query) {
+    String index = indexFor(query.type());
+    String keyword = query.keyword() == null ? "" : query.keyword().trim();
+    if (keyword.isEmpty()) {
+      return new SearchPage(List.of(), null, query.trackTotalHits() ? 0L : null);
+    }
+    SearchQuery normalized = new SearchQuery(
+      query.type(),
+      keyword,
+      query.cursor(),
+      Math.min(Math.max(1, query.size()), MAX_PAGE_SIZE),
+      query.trackTotalHits(),
+      query.highlight()
+    );
+    Timer.Sample sample = Timer.start(meterRegistry);
+    SearchPage cached = searchResultCache.get(normalized);
+    if (cached != null) {
+      sample.stop(latencyTimer(normalized.type(), ENGINE_CACHE));
+      return cached;
+    }
+    SearchCursor cursor = SearchCursor.decode(normalized.cursor());
+
+    SearchPage page = null;
+    String engineName = null;
+    if (isOpenSearchEnabled()) {
+      try {
+        page = searchPageWithOpenSearch(index, normalized, cursor);
+        engineName = ENGINE_OPENSEARCH;
       } catch (IOException e) {
-        log.warn("OpenSearch global search failed, falling back to database query", e);
+        log.warn("OpenSearch {} search failed, falling back to database query", index, e);
       }
     }
-    return fallbackGlobalSearch(keyword);
+    MySqlFullTextSearchEngine engine = fullTextSearchEngine.orElse(null);
+    if (page == null && engine != null && engine.canSearch(keyword)) {
+      try {
+        page = searchPageWithFullText(engine, index, normalized, cursor.offset());
+        engineName = ENGINE_FULLTEXT;
+      } catch (DataAccessException e) {
+        log.warn("Full-text {} search failed, falling back to LIKE query", index, e);
+      }
+    }
+    if (page == null) {
+      page = searchPageWithLike(normalized, cursor.offset());
+      engineName = ENGINE_LIKE;
+    }
+    sample.stop(latencyTimer(normalized.type(), engineName));
+    searchResultCache.put(normalized, page);
+    return page;
+  }
+
+  private SearchPage searchPageWithOpenSearch(String index, SearchQuery query, SearchCursor cursor)
+    throws IOException {
+    OpenSearchClient client = openSearchClient.orElseThrow();
+    String keyword = query.keyword();
+    boolean hasHan = containsHan(keyword);
+    List<FieldValue> searchAfter = cursor.searchAfter();
+    SearchResponse<SearchDocument> resp = client.search(
+      b -> {
+        b
+          .index(index)
+          .trackTotalHits(t -> t.enabled(query.trackTotalHits()))
+          .query(qb -> qb.bool(bool -> keywordQuery(bool, keyword, hasHan)))
+          // 同分时按时间和 ID 排序，保证 search_after 游标稳定
+          .sort(s -> s.score(sc -> sc.order(SortOrder.Desc)))
+          .sort(s ->
+            s.field(f -> f.field("createdAt").order(SortOrder.Desc).unmappedType(FieldType.Date))
+          )
+          .sort(s ->
+            s.field(f -> f.field("entityId").order(SortOrder.Desc).unmappedType(FieldType.Long))
+          )
+          // 多取一条用于判断是否还有下一页
+          .size(query.size() + 1);
+        if (searchAfter != null) {
+          b.searchAfter(searchAfter);
+        } else if (cursor.offset() > 0) {
+          b.from(cursor.offset());
+        }
+        if (query.highlight()) {
+          b.highlight(this::highlight);
+        }
+        return b;
+      },
+      SearchDocument.class
+    );
+
+    List<Hit<SearchDocument>> hits = resp.hits().hits();
+    boolean hasNext = hits.size() > query.size();
+    List<Hit<SearchDocument>> pageHits = hasNext ? hits.subList(0, query.size()) : hits;
+    List<SearchResult> items = new ArrayList<>(pageHits.size());
+    for (Hit<SearchDocument> hit : pageHits) {
+      SearchResult result = mapHit(hit, keyword);
+      if (result != null) {
+        items.add(query.highlight() ? result : result.withoutHighlight());
+      }
+    }
+    String nextCursor = hasNext
+      ? SearchCursor.afterHit(
+        cursor.offset() + pageHits.size(),
+        pageHits.get(pageHits.size() - 1).sort()
+      ).encode()
+      : null;
+    Long total = query.trackTotalHits() && resp.hits().total() != null
+      ? resp.hits().total().value()
+      : null;
+    return new SearchPage(items, nextCursor, total);
+  }
+
+  private SearchPage searchPageWithFullText(
+    MySqlFullTextSearchEngine engine,
+    String index,
+    SearchQuery query,
+    int offset
+  ) {
+    List<MySqlFullTextSearchEngine.Hit> hits = engine.searchFrom(
+      query.keyword(),
+      List.of(index),
+      offset,
+      query.size() + 1
+    );
+    boolean hasNext = hits.size() > query.size();
+    List<MySqlFullTextSearchEngine.Hit> pageHits = hasNext ? hits.subList(0, query.size()) : hits;
+    List<SearchResult> items = new ArrayList<>(pageHits.size());
+    for (MySqlFullTextSearchEngine.Hit hit : pageHits) {
+      SearchResult result = fullTextResult(hit, query.keyword());
+      if (result != null) {
+        items.add(query.highlight() ? result : result.withoutHighlight());
+      }
+    }
+    String nextCursor = hasNext ? SearchCursor.atOffset(offset + pageHits.size()).encode() : null;
+    return new SearchPage(items, nextCursor, null);
+  }
+
+  /** LIKE fallback, newest first; the offset is rounded down to a page boundary. */
+  private SearchPage searchPageWithLike(SearchQuery query, int offset) {
+    String keyword = query.keyword();
+    int size = query.size();
+    int pageNumber = offset / size;
+    Pageable pageable = PageRequest.of(pageNumber, size, Sort.by(Sort.Direction.DESC, "id"));
+    List<SearchResult> items = switch (query.type()) {
+      case "post" -> postRepository
+        .findByTitleContainingIgnoreCaseOrContentContainingIgnoreCaseAndStatus(
+          keyword,
+          keyword,
+          PostStatus.PUBLISHED,
+          pageable
+        )
+        .stream()
+        .map(p -> postResult(p, keyword, containsIgnoreCase(p.getTitle(), keyword)))
+        .toList();
+      case "comment" -> commentRepository
+        .findByContentContainingIgnoreCase(keyword, pageable)
+        .stream()
+        .map(c -> commentResult(c, keyword))
+        .toList();
+      case "user" -> userRepository
+        .findByUsernameContainingIgnoreCase(keyword, pageable)
+        .stream()
+        .map(u -> userResult(u, keyword))
+        .toList();
+      case "category" -> categoryRepository
+        .findByNameContainingIgnoreCase(keyword, pageable)
+        .stream()
+        .map(c -> categoryResult(c, keyword))
+        .toList();
+      default -> tagRepository
+        .findByNameContainingIgnoreCaseAndApprovedTrue(keyword, pageable)
+        .stream()
+        .map(t -> tagResult(t, keyword))
+        .toList();
+    };
+    if (!query.highlight()) {
+      items = items.stream().map(SearchResult::withoutHighlight).toList();
+    }
+    // 不额外多查一条，满页即认为可能还有下一页
+    String nextCursor = items.size() == size
+      ? SearchCursor.atOffset((pageNumber + 1) * size).encode()
+      : null;
+    return new SearchPage(items, nextCursor, null);
+  }
+
+  private String indexFor(String type) {
+    if (type == null) {
+      throw new FieldException("type", "Search type is required");
+    }
+    return switch (type) {
+      case "post" -> openSearchProperties.postsIndex();
+      case "comment" -> openSearchProperties.commentsIndex();
+      case "user" -> openSearchProperties.usersIndex();
+      case "category" -> openSearchProperties.categoriesIndex();
+      case "tag" -> openSearchProperties.tagsIndex();
+      default -> throw new FieldException("type", "Unsupported search type: " + type);
+    };
+  }
+
+  private Timer latencyTimer(String type, String engine) {
+    return Timer.builder("search.query.latency")
+      .description("Search query latency")
+      .tag("type", type)
+      .tag("engine", engine)
+      .publishPercentiles(0.5, 0.95, 0.99)
+      .publishPercentileHistogram()
+      .register(meterRegistry);
+  }
+
+  /** Ranked MySQL FULLTEXT search; snippets are only built for the returned page. */
+  private List<SearchResult> searchWithFullText(MySqlFullTextSearchEngine engine, String keyword) {
+    List<MySqlFullTextSearchEngine.Hit> hits = engine.search(
+      keyword,
+      searchIndices(),
+      0,
+      DEFAULT_OPEN_SEARCH_LIMIT
+    );
+    List<SearchResult> results = new ArrayList<>(hits.size());
+    for (MySqlFullTextSearchEngine.Hit hit : hits) {
+      SearchResult result = fullTextResult(hit, keyword);
+      if (result != null) {
+        results.add(result);
+      }
+    }
+    return results;
+  }
+
+  private SearchResult fullTextResult(MySqlFullTextSearchEngine.Hit hit, String keyword) {
+    SearchDocument document = hit.document();
+    // 标题命中时按 post_title 返回，与 OpenSearch 高亮结果保持一致
+    Map<String, List<String>> highlight = containsIgnoreCase(document.title(), keyword)
+      ? Map.of("title", List.of(highlightHtml(document.title(), keyword)))
+      : Map.of();
+    return toSearchResult(document, highlight, keyword);
+  }
+
+  private static boolean containsIgnoreCase(String text, String keyword) {
+    return text != null && text.toLowerCase().contains(keyword.toLowerCase());
   }
 
   private List<SearchResult> fallbackGlobalSearch(String keyword) {
-    final String effectiveKeyword = keyword == null ? "" : keyword.trim();
     Stream<SearchResult> users = searchUsers(keyword)
       .stream()
-      .map(u ->
-        new SearchResult(
-          "user",
-          u.getId(),
-          u.getUsername(),
-          u.getIntroduction(),
-          null,
-          null,
-          highlightHtml(u.getUsername(), effectiveKeyword),
-          highlightHtml(u.getIntroduction(), effectiveKeyword),
-          null
-        )
-      );
+      .map(u -> userResult(u, keyword));
 
     Stream<SearchResult> categories = searchCategories(keyword)
       .stream()
-      .map(c ->
-        new SearchResult(
-          "category",
-          c.getId(),
-          c.getName(),
-          null,
-          c.getDescription(),
-          null,
-          highlightHtml(c.getName(), effectiveKeyword),
-          null,
-          highlightHtml(c.getDescription(), effectiveKeyword)
-        )
-      );
+      .map(c -> categoryResult(c, keyword));
 
     Stream<SearchResult> tags = searchTags(keyword)
       .stream()
-      .map(t ->
-        new SearchResult(
-          "tag",
-          t.getId(),
-          t.getName(),
-          null,
-          t.getDescription(),
-          null,
-          highlightHtml(t.getName(), effectiveKeyword),
-          null,
-          highlightHtml(t.getDescription(), effectiveKeyword)
-        )
-      );
+      .map(t -> tagResult(t, keyword));
 
     // Merge post results while removing duplicates between search by content
     // and search by title
     List<SearchResult> mergedPosts = Stream.concat(
       searchPosts(keyword)
         .stream()
-        .map(p -> {
-          String snippet = extractSnippet(p.getContent(), keyword, false);
-          return new SearchResult(
-            "post",
-            p.getId(),
-            p.getTitle(),
-            p.getCategory() != null ? p.getCategory().getName() : null,
-            snippet,
-            null,
-            highlightHtml(p.getTitle(), effectiveKeyword),
-            highlightHtml(
-              p.getCategory() != null ? p.getCategory().getName() : null,
-              effectiveKeyword
-            ),
-            highlightHtml(snippet, effectiveKeyword)
-          );
-        }),
+        .map(p -> postResult(p, keyword, false)),
       searchPostsByTitle(keyword)
         .stream()
-        .map(p -> {
-          String snippet = extractSnippet(p.getContent(), keyword, true);
-          return new SearchResult(
-            "post_title",
-            p.getId(),
-            p.getTitle(),
-            p.getCategory() != null ? p.getCategory().getName() : null,
-            snippet,
-            null,
-            highlightHtml(p.getTitle(), effectiveKeyword),
-            highlightHtml(
-              p.getCategory() != null ? p.getCategory().getName() : null,
-              effectiveKeyword
-            ),
-            highlightHtml(snippet, effectiveKeyword)
-          );
-        })
+        .map(p -> postResult(p, keyword, true))
     )
       .collect(
         java.util.stream.Collectors.toMap(
@@ -206,26 +438,86 @@ public class SearchService {
 
     Stream<SearchResult> comments = searchComments(keyword)
       .stream()
-      .map(c -> {
-        String snippet = extractSnippet(c.getContent(), keyword, false);
-        return new SearchResult(
-          "comment",
-          c.getId(),
-          c.getPost().getTitle(),
-          c.getAuthor().getUsername(),
-          snippet,
-          c.getPost().getId(),
-          highlightHtml(c.getPost().getTitle(), effectiveKeyword),
-          highlightHtml(c.getAuthor().getUsername(), effectiveKeyword),
-          highlightHtml(snippet, effectiveKeyword)
-        );
-      });
+      .map(c -> commentResult(c, keyword));
 
     return Stream.of(users, categories, tags, mergedPosts.stream(), comments)
       .flatMap(s -> s)
       .toList();
   }
 
+  private SearchResult userResult(User u, String keyword) {
+    return new SearchResult(
+      "user",
+      u.getId(),
+      u.getUsername(),
+      u.getIntroduction(),
+      null,
+      null,
+      highlightHtml(u.getUsername(), keyword),
+      highlightHtml(u.getIntroduction(), keyword),
+      null
+    );
+  }
+
+  private SearchResult categoryResult(Category c, String keyword) {
+    return new SearchResult(
+      "category",
+      c.getId(),
+      c.getName(),
+      null,
+      c.getDescription(),
+      null,
+      highlightHtml(c.getName(), keyword),
+      null,
+      highlightHtml(c.getDescription(), keyword)
+    );
+  }
+
+  private SearchResult tagResult(Tag t, String keyword) {
+    return new SearchResult(
+      "tag",
+      t.getId(),
+      t.getName(),
+      null,
+      t.getDescription(),
+      null,
+      highlightHtml(t.getName(), keyword),
+      null,
+      highlightHtml(t.getDescription(), keyword)
+    );
+  }
+
+  private SearchResult postResult(Post p, String keyword, boolean titleMatch) {
+    String snippet = extractSnippet(p.getContent(), keyword, titleMatch);
+    String category = p.getCategory() != null ? p.getCategory().getName() : null;
+    return new SearchResult(
+      titleMatch ? "post_title" : "post",
+      p.getId(),
+      p.getTitle(),
+      category,
+      snippet,
+      null,
+      highlightHtml(p.getTitle(), keyword),
+      highlightHtml(category, keyword),
+      highlightHtml(snippet, keyword)
+    );
+  }
+
+  private SearchResult commentResult(Comment c, String keyword) {
+    String snippet = extractSnippet(c.getContent(), keyword, false);
+    return new SearchResult(
+      "comment",
+      c.getId(),
+      c.getPost().getTitle(),
+      c.getAuthor().getUsername(),
+      snippet,
+      c.getPost().getId(),
+      highlightHtml(c.getPost().getTitle(), keyword),
+      highlightHtml(c.getAuthor().getUsername(), keyword),
+      highlightHtml(snippet, keyword)
+    );
+  }
+
   private boolean isOpenSearchEnabled() {
     return openSearchProperties.isEnabled() && openSearchClient.isPresent();
   }
@@ -252,124 +544,10 @@ public class SearchService {
       b ->
         b
           .index(searchIndices())
-          .trackTotalHits(t -> t.enabled(true))
-          .query(qb ->
-            qb.bool(bool -> {
-              // ---------- 严格层 ----------
-              // 中文/任意短语（轻微符号/空白扰动）
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("title").query(qRaw).slop(2).boost(6.0f))
-              );
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("content").query(qRaw).slop(2).boost(2.5f))
-              );
-
-              // 结构化等值（.raw）
-              bool.should(s ->
-                s.term(t ->
-                  t
-                    .field("author.raw")
-                    .value(v -> v.stringValue(qRaw))
-                    .boost(4.0f)
-                )
-              );
-              bool.should(s ->
-                s.term(t ->
-                  t
-                    .field("category.raw")
-                    .value(v -> v.stringValue(qRaw))
-                    .boost(3.0f)
-                )
-              );
-              bool.should(s ->
-                s.term(t ->
-                  t
-                    .field("tags.raw")
-                    .value(v -> v.stringValue(qRaw))
-                    .boost(3.0f)
-                )
-              );
-
-              // 拼音短语（严格）
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("title.py").query(qRaw).slop(1).boost(4.0f))
-              );
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("content.py").query(qRaw).slop(1).boost(1.8f))
-              );
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("author.py").query(qRaw).slop(1).boost(2.2f))
-              );
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("category.py").query(qRaw).slop(1).boost(2.0f))
-              );
-              bool.should(s ->
-                s.matchPhrase(mp -> mp.field("tags.py").query(qRaw).slop(1).boost(2.0f))
-              );
-
-              // ---------- 放宽层（仅当包含中文时启用） ----------
-              if (hasHan) {
-                // title.zh
-                bool.should(s ->
-                  s.match(m ->
-                    m
-                      .field("title.zh")
-                      .query(org.opensearch.client.opensearch._types.FieldValue.of(qRaw))
-                      .operator(org.opensearch.client.opensearch._types.query_dsl.Operator.Or)
-                      .minimumShouldMatch("2<-1 3<-1 4<-1 5<-2 6<-2 7<-3")
-                      .boost(3.0f)
-                  )
-                );
-                // content.zh
-                bool.should(s ->
-                  s.match(m ->
-                    m
-                      .field("content.zh")
-                      .query(org.opensearch.client.opensearch._types.FieldValue.of(qRaw))
-                      .operator(org.opensearch.client.opensearch._types.query_dsl.Operator.Or)
-                      .minimumShouldMatch("2<-1 3<-1 4<-1 5<-2 6<-2 7<-3")
-                      .boost(1.6f)
-                  )
-                );
-              }
-
-              return bool.minimumShouldMatch("1");
-            })
-          )
-          // ---------- 高亮：允许跨子字段回填 + 匹配字段组 ----------
-          .highlight(h -> {
-            var hb = h
-              .preTags("<mark>")
-              .postTags("</mark>")
-              .requireFieldMatch(false)
-              .fields("title", f ->
-                f
-                  .fragmentSize(highlightFragmentSize())
-                  .numberOfFragments(1)
-                  .matchedFields(List.of("title", "title.zh", "title.py"))
-              )
-              .fields("content", f ->
-                f
-                  .fragmentSize(highlightFragmentSize())
-                  .numberOfFragments(1)
-                  .matchedFields(List.of("content", "content.zh", "content.py"))
-              )
-              .fields("title.zh", f -> f.fragmentSize(highlightFragmentSize()).numberOfFragments(1))
-              .fields("content.zh", f ->
-                f.fragmentSize(highlightFragmentSize()).numberOfFragments(1)
-              )
-              .fields("title.py", f -> f.fragmentSize(highlightFragmentSize()).numberOfFragments(1))
-              .fields("content.py", f ->
-                f.fragmentSize(highlightFragmentSize()).numberOfFragments(1)
-              )
-              .fields("author", f -> f.numberOfFragments(0))
-              .fields("author.py", f -> f.numberOfFragments(0))
-              .fields("category", f -> f.numberOfFragments(0))
-              .fields("category.py", f -> f.numberOfFragments(0))
-              .fields("tags", f -> f.numberOfFragments(0))
-              .fields("tags.py", f -> f.numberOfFragments(0));
-            return hb;
-          })
+          // 全局搜索不展示总数，无需精确计数
+          .trackTotalHits(t -> t.enabled(false))
+          .query(qb -> qb.bool(bool -> keywordQuery(bool, qRaw, hasHan)))
+          .highlight(this::highlight)
           .size(DEFAULT_OPEN_SEARCH_LIMIT > 0 ? DEFAULT_OPEN_SEARCH_LIMIT : 10),
       SearchDocument.class
     );
@@ -377,6 +555,109 @@ public class SearchService {
     return mapHits(resp.hits().hits(), qRaw);
   }
 
+  private static BoolQuery.Builder keywordQuery(
+    BoolQuery.Builder bool,
+    String qRaw,
+    boolean hasHan
+  ) {
+    // ---------- 严格层 ----------
+    // 中文/任意短语（轻微符号/空白扰动）
+    bool.should(s -> s.matchPhrase(mp -> mp.field("title").query(qRaw).slop(2).boost(6.0f)));
+    bool.should(s -> s.matchPhrase(mp -> mp.field("content").query(qRaw).slop(2).boost(2.5f)));
+
+    // 结构化等值（.raw）
+    bool.should(s ->
+      s.term(t ->
+        t
+          .field("author.raw")
+          .value(v -> v.stringValue(qRaw))
+          .boost(4.0f)
+      )
+    );
+    bool.should(s ->
+      s.term(t ->
+        t
+          .field("category.raw")
+          .value(v -> v.stringValue(qRaw))
+          .boost(3.0f)
+      )
+    );
+    bool.should(s ->
+      s.term(t ->
+        t
+          .field("tags.raw")
+          .value(v -> v.stringValue(qRaw))
+          .boost(3.0f)
+      )
+    );
+
+    // 拼音短语（严格）
+    bool.should(s -> s.matchPhrase(mp -> mp.field("title.py").query(qRaw).slop(1).boost(4.0f)));
+    bool.should(s -> s.matchPhrase(mp -> mp.field("content.py").query(qRaw).slop(1).boost(1.8f)));
+    bool.should(s -> s.matchPhrase(mp -> mp.field("author.py").query(qRaw).slop(1).boost(2.2f)));
+    bool.should(s -> s.matchPhrase(mp -> mp.field("category.py").query(qRaw).slop(1).boost(2.0f)));
+    bool.should(s -> s.matchPhrase(mp -> mp.field("tags.py").query(qRaw).slop(1).boost(2.0f)));
+
+    // ---------- 放宽层（仅当包含中文时启用） ----------
+    if (hasHan) {
+      // title.zh
+      bool.should(s ->
+        s.match(m ->
+          m
+            .field("title.zh")
+            .query(org.opensearch.client.opensearch._types.FieldValue.of(qRaw))
+            .operator(org.opensearch.client.opensearch._types.query_dsl.Operator.Or)
+            .minimumShouldMatch("2<-1 3<-1 4<-1 5<-2 6<-2 7<-3")
+            .boost(3.0f)
+        )
+      );
+      // content.zh
+      bool.should(s ->
+        s.match(m ->
+          m
+            .field("content.zh")
+            .query(org.opensearch.client.opensearch._types.FieldValue.of(qRaw))
+            .operator(org.opensearch.client.opensearch._types.query_dsl.Operator.Or)
+            .minimumShouldMatch("2<-1 3<-1 4<-1 5<-2 6<-2 7<-3")
+            .boost(1.6f)
+        )
+      );
+    }
+
+    return bool.minimumShouldMatch("1");
+  }
+
+  // ---------- 高亮：允许跨子字段回填 + 匹配字段组 ----------
+  private Highlight.Builder highlight(Highlight.Builder h) {
+    var hb = h
+      .preTags("<mark>")
+      .postTags("</mark>")
+      .requireFieldMatch(false)
+      .fields("title", f ->
+        f
+          .fragmentSize(highlightFragmentSize())
+          .numberOfFragments(1)
+          .matchedFields(List.of("title", "title.zh", "title.py"))
+      )
+      .fields("content", f ->
+        f
+          .fragmentSize(highlightFragmentSize())
+          .numberOfFragments(1)
+          .matchedFields(List.of("content", "content.zh", "content.py"))
+      )
+      .fields("title.zh", f -> f.fragmentSize(highlightFragmentSize()).numberOfFragments(1))
+      .fields("content.zh", f -> f.fragmentSize(highlightFragmentSize()).numberOfFragments(1))
+      .fields("title.py", f -> f.fragmentSize(highlightFragmentSize()).numberOfFragments(1))
+      .fields("content.py", f -> f.fragmentSize(highlightFragmentSize()).numberOfFragments(1))
+      .fields("author", f -> f.numberOfFragments(0))
+      .fields("author.py", f -> f.numberOfFragments(0))
+      .fields("category", f -> f.numberOfFragments(0))
+      .fields("category.py", f -> f.numberOfFragments(0))
+      .fields("tags", f -> f.numberOfFragments(0))
+      .fields("tags.py", f -> f.numberOfFragments(0));
+    return hb;
+  }
+
   /** Lucene query_string 安全转义（保留 * 由我们自己追加） */
   private static String escapeForQueryString(String s) {
     if (s == null || s.isEmpty()) return "";
@@ -424,13 +705,7 @@ public class SearchService {
   }
 
   private List<String> searchIndices() {
-    return List.of(
-      openSearchProperties.postsIndex(),
-      openSearchProperties.commentsIndex(),
-      openSearchProperties.usersIndex(),
-      openSearchProperties.categoriesIndex(),
-      openSearchProperties.tagsIndex()
-    );
+    return openSearchProperties.indexNames();
   }
 
   private List<SearchResult> mapHits(List<Hit<SearchDocument>> hits, String keyword) {
@@ -445,11 +720,17 @@ public class SearchService {
   }
 
   private SearchResult mapHit(Hit<SearchDocument> hit, String keyword) {
-    SearchDocument document = hit.source();
+    return toSearchResult(hit.source(), hit.highlight(), keyword);
+  }
+
+  private SearchResult toSearchResult(
+    SearchDocument document,
+    Map<String, List<String>> highlight,
+    String keyword
+  ) {
     if (document == null || document.entityId() == null) {
       return null;
     }
-    Map<String, List<String>> highlight = hit.highlight();
     String highlightedContent = firstHighlight(
       highlight,
       "content",
@@ -566,8 +847,9 @@ public class SearchService {
     return extractSnippet(content, keyword, fromStart);
   }
 
-  private String extractSnippet(String content, String keyword, boolean fromStart) {
+  String extractSnippet(String content, String keyword, boolean fromStart) {
     if (content == null) return "";
+    content = contentProcessingService.plainText(content);
     int limit = snippetLength;
     if (fromStart) {
       if (limit < 0) {
@@ -593,7 +875,7 @@ public class SearchService {
     return snippet;
   }
 
-  private String highlightHtml(String text, String keyword) {
+  static String highlightHtml(String text, String keyword) {
     if (text == null) {
       return null;
     }
@@ -633,5 +915,34 @@ public class SearchService {
     String highlightedText,
     String highlightedSubText,
     String highlightedExtra
+  ) {
+    /** The same result without the {@code <mark>} markup, for callers that skip highlighting. */
+    public SearchResult withoutHighlight() {
+      return new SearchResult(type, id, text, subText, extra, postId, null, null, null);
+    }
+  }
+
+  /**
+   * A typed, paginated search request.
+   *
+   * @param type one of {@code post}, {@code comment}, {@code user}, {@code category},
+   *     {@code tag}
+   * @param cursor {@link SearchPage#nextCursor()} of the previous page, or null for the first
+   * @param trackTotalHits whether to count all matches (OpenSearch only)
+   * @param highlight whether to return {@code <mark>} highlighted fields
+   */
+  public record SearchQuery(
+    String type,
+    String keyword,
+    String cursor,
+    int size,
+    boolean trackTotalHits,
+    boolean highlight
   ) {}
+
+  /**
+   * @param nextCursor cursor of the following page, or null on the last page
+   * @param total number of matches, or null when not tracked
+   */
+  public record SearchPage(List<SearchResult> items, String nextCursor, Long total) {}
 }
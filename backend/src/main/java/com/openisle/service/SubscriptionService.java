@@ -21,7 +21,7 @@ public class SubscriptionService {
 
   public void subscribePost(String username, Long postId) {
     User user = userRepo.findByUsername(username).orElseThrow();
-    Post post = postRepo.findById(postId).orElseThrow();
+    Post post = postRepo.findActivePost(postId);
     postSubRepo
       .findByUserAndPost(user, post)
       .orElseGet(() -> {
@@ -46,7 +46,7 @@ public class SubscriptionService {
 
   public void unsubscribePost(String username, Long postId) {
     User user = userRepo.findByUsername(username).orElseThrow();
-    Post post = postRepo.findById(postId).orElseThrow();
+    Post post = postRepo.findActivePost(postId);
     postSubRepo
       .findByUserAndPost(user, post)
       .ifPresent(ps -> {
@@ -140,7 +140,7 @@ public class SubscriptionService {
   }
 
   public List<User> getPostSubscribers(Long postId) {
-    Post post = postRepo.findById(postId).orElseThrow();
+    Post post = postRepo.findActivePost(postId);
     return postSubRepo.findByPost(post).stream().map(PostSubscription::getUser).toList();
   }
 
@@ -182,7 +182,7 @@ public class SubscriptionService {
       return false;
     }
     User user = userRepo.findByUsername(username).orElseThrow();
-    Post post = postRepo.findById(postId).orElseThrow();
+    Post post = postRepo.findActivePost(postId);
     return postSubRepo.findByUserAndPost(user, post).isPresent();
   }
 
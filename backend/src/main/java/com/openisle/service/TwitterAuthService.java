@@ -24,7 +24,7 @@ import org.springframework.web.client.RestTemplate;
 public class TwitterAuthService {
 
   private final UserRepository userRepository;
-  private final RestTemplate restTemplate = new RestTemplate();
+  private final RestTemplate restTemplate;
   private static final Logger logger = LoggerFactory.getLogger(TwitterAuthService.class);
 
   @Value("${twitter.client-id:}")
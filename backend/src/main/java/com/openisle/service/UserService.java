@@ -79,6 +79,7 @@ public class UserService {
       //            u.setVerificationCode(genCode());
       u.setRegisterReason(reason);
       u.setApproved(mode == com.openisle.model.RegisterMode.DIRECT);
+      u.setUpdatedAt(java.time.LocalDateTime.now());
       User saved = userRepository.save(u);
       searchIndexEventPublisher.publishUserSaved(saved);
       return saved;
@@ -240,6 +241,7 @@ public class UserService {
     if (introduction != null) {
       user.setIntroduction(introduction);
     }
+    user.setUpdatedAt(java.time.LocalDateTime.now());
     return userRepository.save(user);
   }
 
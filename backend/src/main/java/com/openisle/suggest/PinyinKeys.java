@@ -0,0 +1,60 @@
+package com.openisle.suggest;
+
+import com.ibm.icu.text.Transliterator;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Lookup keys of a name: the lower-cased name itself and, for names containing Chinese
+ * characters, the joined full pinyin and the pinyin initials. This mirrors the
+ * {@code keep_full_pinyin}/{@code keep_joined_full_pinyin} analysis of the OpenSearch
+ * indices, so "张三" is found by "张", "zhang", "zhangsan" and "zs".
+ */
+final class PinyinKeys {
+
+  private static final Pattern HAN = Pattern.compile("\\p{IsHan}");
+  private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+
+  // Transliterator 实例不保证线程安全，每个线程各持一份
+  private static final ThreadLocal<Transliterator> HAN_LATIN = ThreadLocal.withInitial(() ->
+    Transliterator.getInstance("Han-Latin; Latin-ASCII; Lower")
+  );
+
+  private PinyinKeys() {}
+
+  static String normalize(String text) {
+    return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+  }
+
+  static List<String> keys(String name) {
+    String normalized = normalize(name);
+    if (normalized.isEmpty()) {
+      return List.of();
+    }
+    Set<String> keys = new LinkedHashSet<>();
+    keys.add(normalized);
+    if (HAN.matcher(normalized).find()) {
+      List<String> syllables = new ArrayList<>();
+      for (String part : NON_ALNUM.split(HAN_LATIN.get().transliterate(normalized))) {
+        if (!part.isEmpty()) {
+          syllables.add(part);
+        }
+      }
+      if (!syllables.isEmpty()) {
+        StringBuilder joined = new StringBuilder();
+        StringBuilder initials = new StringBuilder();
+        for (String syllable : syllables) {
+          joined.append(syllable);
+          initials.append(syllable.charAt(0));
+        }
+        keys.add(joined.toString());
+        keys.add(initials.toString());
+      }
+    }
+    return List.copyOf(keys);
+  }
+}
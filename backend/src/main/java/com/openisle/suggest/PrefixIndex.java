@@ -0,0 +1,150 @@
+package com.openisle.suggest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable prefix index over a set of {@link Suggestion}s.
+ *
+ * <p>Every lookup key ({@link PinyinKeys}) is stored once in a sorted array next to the
+ * position of its entry. A prefix query binary-searches the range of keys starting with the
+ * prefix and keeps the best {@code limit} entries of that range: exact name matches first,
+ * then higher weight, shorter name and lower id. Queries only allocate a top-k buffer and
+ * the result.
+ */
+final class PrefixIndex {
+
+  static final PrefixIndex EMPTY = build(List.of());
+
+  private record Key(String key, int owner) {}
+
+  private final Suggestion[] entries;
+  private final String[] names;
+  /** Static rank of each entry (0 = best): higher weight, shorter name, lower id. */
+  private final int[] ranks;
+  private final String[] keys;
+  private final int[] owners;
+
+  private PrefixIndex(
+    Suggestion[] entries,
+    String[] names,
+    int[] ranks,
+    String[] keys,
+    int[] owners
+  ) {
+    this.entries = entries;
+    this.names = names;
+    this.ranks = ranks;
+    this.keys = keys;
+    this.owners = owners;
+  }
+
+  static PrefixIndex build(Collection<Suggestion> suggestions) {
+    Suggestion[] entries = suggestions.toArray(new Suggestion[0]);
+    String[] names = new String[entries.length];
+    List<Key> keyList = new ArrayList<>(entries.length * 2);
+    for (int i = 0; i < entries.length; i++) {
+      names[i] = PinyinKeys.normalize(entries[i].name());
+      for (String key : PinyinKeys.keys(entries[i].name())) {
+        keyList.add(new Key(key, i));
+      }
+    }
+    Integer[] order = new Integer[entries.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(
+      order,
+      Comparator.<Integer>comparingLong(i -> -entries[i].weight())
+        .thenComparingInt(i -> names[i].length())
+        .thenComparingLong(i -> entries[i].id())
+    );
+    int[] ranks = new int[entries.length];
+    for (int rank = 0; rank < order.length; rank++) {
+      ranks[order[rank]] = rank;
+    }
+    keyList.sort(Comparator.comparing(Key::key));
+    String[] keys = new String[keyList.size()];
+    int[] owners = new int[keyList.size()];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = keyList.get(i).key();
+      owners[i] = keyList.get(i).owner();
+    }
+    return new PrefixIndex(entries, names, ranks, keys, owners);
+  }
+
+  int size() {
+    return entries.length;
+  }
+
+  List<Suggestion> top(String prefix, int limit) {
+    String normalized = PinyinKeys.normalize(prefix);
+    if (normalized.isEmpty() || limit <= 0 || keys.length == 0) {
+      return List.of();
+    }
+    int from = lowerBound(normalized);
+    // 以 prefix 开头的 key 都排在 prefix + Character.MAX_VALUE 之前
+    int to = lowerBound(normalized + Character.MAX_VALUE);
+    // 与 prefix 完全相同的 key 排在区间最前，只有它们可能是名称完全匹配
+    int exactTo = from;
+    while (exactTo < to && keys[exactTo].equals(normalized)) {
+      exactTo++;
+    }
+    int capacity = Math.min(limit, to - from);
+    int[] bestOwners = new int[capacity];
+    int[] bestRanks = new int[capacity];
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      int owner = owners[i];
+      int rank = ranks[owner];
+      if (i < exactTo && names[owner].equals(normalized)) {
+        // 完全匹配排在所有前缀匹配之前
+        rank -= entries.length;
+      }
+      if (count == capacity && rank >= bestRanks[count - 1]) {
+        continue;
+      }
+      if (contains(bestOwners, count, owner)) {
+        continue;
+      }
+      int j = count < capacity ? count++ : count - 1;
+      // 插入排序，保持按 rank 升序
+      while (j > 0 && bestRanks[j - 1] > rank) {
+        bestOwners[j] = bestOwners[j - 1];
+        bestRanks[j] = bestRanks[j - 1];
+        j--;
+      }
+      bestOwners[j] = owner;
+      bestRanks[j] = rank;
+    }
+    List<Suggestion> result = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      result.add(entries[bestOwners[i]]);
+    }
+    return result;
+  }
+
+  private static boolean contains(int[] values, int count, int value) {
+    for (int i = 0; i < count; i++) {
+      if (values[i] == value) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int lowerBound(String key) {
+    int index = Arrays.binarySearch(keys, key);
+    if (index >= 0) {
+      // 重复 key 时回退到第一个
+      while (index > 0 && keys[index - 1].equals(key)) {
+        index--;
+      }
+      return index;
+    }
+    return -index - 1;
+  }
+}
@@ -0,0 +1,31 @@
+package com.openisle.suggest;
+
+/**
+ * Published when a user, tag or category is saved or removed; a null {@code name} removes
+ * the entry. A null {@code weight} keeps the weight already known for the entry.
+ */
+public record SuggestChangedEvent(
+  SuggestKind kind,
+  Long id,
+  String name,
+  String icon,
+  Long weight
+) {
+  public static SuggestChangedEvent saved(
+    SuggestKind kind,
+    Long id,
+    String name,
+    String icon,
+    Long weight
+  ) {
+    return new SuggestChangedEvent(kind, id, name, icon, weight);
+  }
+
+  public static SuggestChangedEvent removed(SuggestKind kind, Long id) {
+    return new SuggestChangedEvent(kind, id, null, null, null);
+  }
+
+  public boolean isRemoval() {
+    return name == null;
+  }
+}
@@ -0,0 +1,8 @@
+package com.openisle.suggest;
+
+/** Entity types served by the typeahead index. */
+public enum SuggestKind {
+  USER,
+  TAG,
+  CATEGORY,
+}
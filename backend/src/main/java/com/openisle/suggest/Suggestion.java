@@ -0,0 +1,10 @@
+package com.openisle.suggest;
+
+/**
+ * One typeahead entry.
+ *
+ * @param icon avatar of a user, small icon of a tag or category
+ * @param weight popularity used to rank entries sharing a prefix (experience of a user,
+ *     post count of a tag)
+ */
+public record Suggestion(SuggestKind kind, Long id, String name, String icon, long weight) {}
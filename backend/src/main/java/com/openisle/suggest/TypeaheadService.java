@@ -0,0 +1,186 @@
+package com.openisle.suggest;
+
+import com.openisle.model.Category;
+import com.openisle.repository.CategoryRepository;
+import com.openisle.repository.PostRepository;
+import com.openisle.repository.TagRepository;
+import com.openisle.repository.UserRepository;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-process typeahead over usernames, tag names and category names.
+ *
+ * <p>Each kind keeps its live entries in a map and serves queries from an immutable
+ * {@link PrefixIndex} snapshot. {@link SuggestChangedEvent}s update the map right after
+ * commit; changed kinds are re-snapshotted by {@link #refresh()} about once a second, so a
+ * burst of edits costs one rebuild. Every node loads all entries in the background at
+ * startup and reloads them periodically to pick up changes made on other nodes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TypeaheadService implements CommandLineRunner {
+
+  public static final int MAX_LIMIT = 50;
+
+  private static final class Shard {
+
+    private final Map<Long, Suggestion> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile PrefixIndex index = PrefixIndex.EMPTY;
+  }
+
+  private final Map<SuggestKind, Shard> shards = newShards();
+
+  private final UserRepository userRepository;
+  private final TagRepository tagRepository;
+  private final CategoryRepository categoryRepository;
+  private final PostRepository postRepository;
+
+  /** Best {@code limit} entries of {@code kind} whose name or pinyin starts with the prefix. */
+  public List<Suggestion> suggest(SuggestKind kind, String prefix, int limit) {
+    return shards.get(kind).index.top(prefix, Math.min(Math.max(1, limit), MAX_LIMIT));
+  }
+
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onChange(SuggestChangedEvent event) {
+    if (event == null || event.kind() == null || event.id() == null) {
+      return;
+    }
+    Shard shard = shards.get(event.kind());
+    if (event.isRemoval()) {
+      shard.entries.remove(event.id());
+    } else {
+      shard.entries.compute(event.id(), (id, previous) -> {
+        long weight = event.weight() != null
+          ? event.weight()
+          : previous != null ? previous.weight() : 0L;
+        return new Suggestion(event.kind(), id, event.name(), event.icon(), weight);
+      });
+    }
+    shard.dirty.set(true);
+  }
+
+  /** Rebuild the snapshots of kinds changed since the last refresh. */
+  @Scheduled(
+    initialDelayString = "${app.suggest.refresh-interval:PT1S}",
+    fixedDelayString = "${app.suggest.refresh-interval:PT1S}"
+  )
+  public void refresh() {
+    for (Shard shard : shards.values()) {
+      if (shard.dirty.compareAndSet(true, false)) {
+        shard.index = PrefixIndex.build(shard.entries.values());
+      }
+    }
+  }
+
+  @Override
+  public void run(String... args) {
+    Thread thread = new Thread(this::reload, "typeahead-load");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /** Replace every kind with the current database contents. */
+  @Scheduled(
+    initialDelayString = "${app.suggest.reload-interval:PT10M}",
+    fixedDelayString = "${app.suggest.reload-interval:PT10M}"
+  )
+  public void reload() {
+    try {
+      long start = System.currentTimeMillis();
+      replace(SuggestKind.USER, loadUsers());
+      replace(SuggestKind.TAG, loadTags());
+      replace(SuggestKind.CATEGORY, loadCategories());
+      log.info(
+        "Loaded typeahead index ({} users, {} tags, {} categories) in {} ms",
+        shards.get(SuggestKind.USER).index.size(),
+        shards.get(SuggestKind.TAG).index.size(),
+        shards.get(SuggestKind.CATEGORY).index.size(),
+        System.currentTimeMillis() - start
+      );
+    } catch (RuntimeException e) {
+      log.warn("Failed to load the typeahead index", e);
+    }
+  }
+
+  private void replace(SuggestKind kind, Map<Long, Suggestion> loaded) {
+    Shard shard = shards.get(kind);
+    shard.entries.keySet().retainAll(loaded.keySet());
+    shard.entries.putAll(loaded);
+    shard.dirty.set(false);
+    shard.index = PrefixIndex.build(shard.entries.values());
+  }
+
+  private static Map<SuggestKind, Shard> newShards() {
+    Map<SuggestKind, Shard> shards = new EnumMap<>(SuggestKind.class);
+    for (SuggestKind kind : SuggestKind.values()) {
+      shards.put(kind, new Shard());
+    }
+    return shards;
+  }
+
+  private Map<Long, Suggestion> loadUsers() {
+    Map<Long, Suggestion> users = new HashMap<>();
+    for (Object[] row : userRepository.findSuggestRows()) {
+      Long id = (Long) row[0];
+      long experience = ((Number) row[3]).longValue();
+      users.put(
+        id,
+        new Suggestion(SuggestKind.USER, id, (String) row[1], (String) row[2], experience)
+      );
+    }
+    return users;
+  }
+
+  private Map<Long, Suggestion> loadTags() {
+    Map<Long, Long> counts = new HashMap<>();
+    for (Object[] row : postRepository.countPostsGroupByTag()) {
+      counts.put((Long) row[0], ((Number) row[1]).longValue());
+    }
+    Map<Long, Suggestion> tags = new HashMap<>();
+    for (Object[] row : tagRepository.findApprovedSuggestRows()) {
+      Long id = (Long) row[0];
+      tags.put(
+        id,
+        new Suggestion(
+          SuggestKind.TAG,
+          id,
+          (String) row[1],
+          (String) row[2],
+          counts.getOrDefault(id, 0L)
+        )
+      );
+    }
+    return tags;
+  }
+
+  private Map<Long, Suggestion> loadCategories() {
+    Map<Long, Suggestion> categories = new HashMap<>();
+    for (Category category : categoryRepository.findAll()) {
+      categories.put(
+        category.getId(),
+        new Suggestion(
+          SuggestKind.CATEGORY,
+          category.getId(),
+          category.getName(),
+          category.getIcon(),
+          0L
+        )
+      );
+    }
+    return categories;
+  }
+}
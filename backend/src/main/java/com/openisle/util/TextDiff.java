@@ -0,0 +1,115 @@
+package com.openisle.util;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.UnifiedDiffUtils;
+import com.github.difflib.patch.AbstractDelta;
+import com.github.difflib.patch.Patch;
+import com.github.difflib.patch.PatchFailedException;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Line-based unified diffs and deflate compression for stored text revisions. Text is split on
+ * {@code \n} only, so carriage returns and a missing or trailing newline survive a round trip
+ * exactly.
+ */
+public final class TextDiff {
+
+  /** Number of unchanged lines kept around each change. */
+  private static final int CONTEXT = 3;
+
+  /** A unified diff (empty when nothing changed) and its changed line counts. */
+  public record Result(String patch, int linesAdded, int linesRemoved) {}
+
+  private TextDiff() {}
+
+  public static Result diff(
+    String original,
+    String revised,
+    String originalName,
+    String revisedName
+  ) {
+    List<String> originalLines = lines(original);
+    Patch<String> patch = DiffUtils.diff(originalLines, lines(revised));
+    int added = 0;
+    int removed = 0;
+    for (AbstractDelta<String> delta : patch.getDeltas()) {
+      added += delta.getTarget().size();
+      removed += delta.getSource().size();
+    }
+    List<String> unified = UnifiedDiffUtils.generateUnifiedDiff(
+      originalName,
+      revisedName,
+      originalLines,
+      patch,
+      CONTEXT
+    );
+    return new Result(String.join("\n", unified), added, removed);
+  }
+
+  /** Apply a diff produced by {@link #diff} to its original text. */
+  public static String apply(String original, String patch) {
+    try {
+      return String.join("\n", parse(patch).applyTo(lines(original)));
+    } catch (PatchFailedException e) {
+      throw new IllegalArgumentException("Patch does not apply", e);
+    }
+  }
+
+  /** Undo a diff produced by {@link #diff} on its revised text. */
+  public static String restore(String revised, String patch) {
+    return String.join("\n", parse(patch).restore(lines(revised)));
+  }
+
+  public static byte[] deflate(String text) {
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try {
+      deflater.setInput(text.getBytes(StandardCharsets.UTF_8));
+      deflater.finish();
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      while (!deflater.finished()) {
+        out.write(buffer, 0, deflater.deflate(buffer));
+      }
+      return out.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  public static String inflate(byte[] data) {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[4096];
+      while (!inflater.finished()) {
+        int n = inflater.inflate(buffer);
+        boolean stuck = inflater.needsInput() || inflater.needsDictionary();
+        if (n == 0 && !inflater.finished() && stuck) {
+          throw new IllegalArgumentException("Truncated deflate data");
+        }
+        out.write(buffer, 0, n);
+      }
+      return out.toString(StandardCharsets.UTF_8);
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Corrupt deflate data", e);
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static Patch<String> parse(String patch) {
+    return UnifiedDiffUtils.parseUnifiedDiff(lines(patch));
+  }
+
+  private static List<String> lines(String text) {
+    // limit -1 保留末尾空行，"a\n" 与 "a" 不同
+    return Arrays.asList(text.split("\n", -1));
+  }
+}
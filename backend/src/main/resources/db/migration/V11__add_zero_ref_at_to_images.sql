@@ -0,0 +1,7 @@
+ALTER TABLE images
+ADD COLUMN zero_ref_at DATETIME(6) DEFAULT NULL;
+
+CREATE INDEX idx_images_zero_ref_at ON images (zero_ref_at);
+
+-- 已经没有引用的图片从现在开始计算宽限期
+UPDATE images SET zero_ref_at = NOW(6) WHERE ref_count <= 0;
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS purge_tasks (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    target_type VARCHAR(16) NOT NULL,
+    target_id BIGINT NOT NULL,
+    created_at DATETIME(6) NOT NULL
+);
+
+-- Hibernate 可能把 status 建成 ENUM 列，新增 DELETED 状态前先改成 VARCHAR
+ALTER TABLE posts MODIFY COLUMN status VARCHAR(50) NOT NULL;
@@ -0,0 +1,17 @@
+-- MySQL FULLTEXT 搜索引擎使用的文档表（OpenSearch 关闭或不可用时查询）
+-- ngram 分词的最小长度由服务端 ngram_token_size 决定（默认 2），需与 app.search.fulltext.min-token-size 一致
+CREATE TABLE IF NOT EXISTS search_documents (
+    index_name VARCHAR(64) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    type VARCHAR(32) NOT NULL,
+    title VARCHAR(512) NULL,
+    content MEDIUMTEXT NULL,
+    author VARCHAR(255) NULL,
+    category VARCHAR(255) NULL,
+    tags VARCHAR(2048) NULL,
+    post_id BIGINT NULL,
+    created_at BIGINT NULL,
+    PRIMARY KEY (index_name, entity_id),
+    FULLTEXT KEY ft_search_documents_title (title) WITH PARSER ngram,
+    FULLTEXT KEY ft_search_documents_all (title, content, author, category, tags) WITH PARSER ngram
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS search_index_retries (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    index_name VARCHAR(128) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at DATETIME(6) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    CONSTRAINT uk_search_index_retries_target UNIQUE (index_name, entity_id)
+);
+
+CREATE INDEX idx_search_index_retries_next ON search_index_retries (next_attempt_at);
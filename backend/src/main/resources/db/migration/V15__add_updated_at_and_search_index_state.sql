@@ -0,0 +1,22 @@
+-- updated_at 用于搜索索引的增量追平
+ALTER TABLE posts ADD COLUMN updated_at DATETIME(6) NULL;
+ALTER TABLE comments ADD COLUMN updated_at DATETIME(6) NULL;
+ALTER TABLE users ADD COLUMN updated_at DATETIME(6) NULL;
+ALTER TABLE categories ADD COLUMN updated_at DATETIME(6) NULL;
+ALTER TABLE tags ADD COLUMN updated_at DATETIME(6) NULL;
+
+UPDATE posts SET updated_at = created_at WHERE updated_at IS NULL;
+UPDATE comments SET updated_at = COALESCE(deleted_at, created_at) WHERE updated_at IS NULL;
+UPDATE users SET updated_at = created_at WHERE updated_at IS NULL;
+UPDATE categories SET updated_at = NOW(6) WHERE updated_at IS NULL;
+UPDATE tags SET updated_at = created_at WHERE updated_at IS NULL;
+
+CREATE INDEX idx_posts_updated_at ON posts (updated_at);
+CREATE INDEX idx_comments_updated_at ON comments (updated_at);
+CREATE INDEX idx_users_updated_at ON users (updated_at);
+
+CREATE TABLE IF NOT EXISTS search_index_state (
+    index_name VARCHAR(128) NOT NULL PRIMARY KEY,
+    physical_index VARCHAR(160) NULL,
+    watermark DATETIME(6) NULL
+);
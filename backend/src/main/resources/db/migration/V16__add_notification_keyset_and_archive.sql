@@ -0,0 +1,21 @@
+-- 通知按 (user_id, created_at, id) 游标分页
+CREATE INDEX idx_notifications_user_created ON notifications (user_id, created_at, id);
+
+-- “全部已读”只记录水位线，不逐行更新
+ALTER TABLE users ADD COLUMN notifications_read_before DATETIME(6) NULL;
+
+-- 超过保留期的通知移入归档表
+CREATE TABLE IF NOT EXISTS notification_archive (
+    id BIGINT NOT NULL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    post_id BIGINT NULL,
+    comment_id BIGINT NULL,
+    from_user_id BIGINT NULL,
+    reaction_type VARCHAR(255) NULL,
+    content VARCHAR(1000) NULL,
+    is_read BIT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    archived_at DATETIME(6) NOT NULL
+);
+CREATE INDEX idx_notification_archive_user_created ON notification_archive (user_id, created_at);
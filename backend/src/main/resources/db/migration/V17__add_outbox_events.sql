@@ -0,0 +1,13 @@
+-- 实时通知的事务性发件箱：与业务数据同一事务写入，提交后由 OutboxRelay 批量发布到 RabbitMQ
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    exchange VARCHAR(255) NOT NULL,
+    routing_key VARCHAR(255) NOT NULL,
+    payload LONGTEXT NOT NULL,
+    payload_type VARCHAR(255) NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    created_at DATETIME(6) NOT NULL,
+    sent_at DATETIME(6) NULL
+);
+
+CREATE INDEX idx_outbox_events_pending ON outbox_events (sent_at, id);
@@ -0,0 +1,3 @@
+-- 实时事件改为 Smile 二进制编码：发件箱保存消息体原始字节并记录内容类型，NULL 表示 JSON
+ALTER TABLE outbox_events MODIFY COLUMN payload LONGBLOB NOT NULL;
+ALTER TABLE outbox_events ADD COLUMN content_type VARCHAR(100) NULL;
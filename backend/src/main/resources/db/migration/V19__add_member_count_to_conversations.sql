@@ -0,0 +1,11 @@
+-- 会话成员数，频道列表不再加载全部参与者
+ALTER TABLE message_conversations ADD COLUMN member_count INT NOT NULL DEFAULT 0;
+
+UPDATE message_conversations c SET member_count = (
+    SELECT COUNT(*)
+    FROM message_participants p
+    WHERE p.conversation_id = c.id
+);
+
+-- 按用户查询其参与的会话
+CREATE INDEX idx_message_participants_user_conversation ON message_participants (user_id, conversation_id);
@@ -0,0 +1,11 @@
+-- 会话列表按最后一条消息时间做 keyset 分页
+ALTER TABLE message_conversations ADD COLUMN last_message_at DATETIME(6) NULL;
+
+UPDATE message_conversations c SET last_message_at = COALESCE(
+    (SELECT m.created_at FROM messages m WHERE m.id = c.last_message_id),
+    c.created_at
+);
+
+ALTER TABLE message_conversations MODIFY COLUMN last_message_at DATETIME(6) NOT NULL;
+
+CREATE INDEX idx_message_conversations_last_message ON message_conversations (last_message_at, id);
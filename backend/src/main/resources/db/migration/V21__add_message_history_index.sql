@@ -0,0 +1,2 @@
+-- 消息历史按 (created_at, id) 做 keyset 分页
+CREATE INDEX idx_messages_conversation_created ON messages (conversation_id, created_at, id);
@@ -0,0 +1,12 @@
+-- 文章内容修改改为修订号 + 压缩的 unified diff，每隔若干修订保存一份完整快照
+-- 旧记录由 PostRevisionMigrationInitializer 在启动后转换并清空 old_content/new_content
+-- post_id 冗余自 post_change_logs，用于保证同一文章的修订号唯一
+ALTER TABLE post_content_change_logs
+  ADD COLUMN post_id BIGINT NULL,
+  ADD COLUMN revision INT NULL,
+  ADD COLUMN snapshot LONGBLOB NULL,
+  ADD COLUMN patch LONGBLOB NULL,
+  ADD COLUMN lines_added INT NOT NULL DEFAULT 0,
+  ADD COLUMN lines_removed INT NOT NULL DEFAULT 0;
+
+CREATE UNIQUE INDEX uk_post_content_revision ON post_content_change_logs (post_id, revision);
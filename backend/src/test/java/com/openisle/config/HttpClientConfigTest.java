@@ -0,0 +1,133 @@
+package com.openisle.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+/** Runs the outbound client against a local mock server. */
+class HttpClientConfigTest {
+
+  private HttpServer server;
+  private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private CloseableHttpClient client;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/", exchange -> {
+      // 每个 TCP 连接的客户端端口不同
+      clientPorts.add(exchange.getRemoteAddress().getPort());
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        String path = exchange.getRequestURI().getPath();
+        if (path.startsWith("/slow/")) {
+          Thread.sleep(Long.parseLong(path.substring("/slow/".length())));
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        inFlight.decrementAndGet();
+      }
+      byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    });
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    if (client != null) {
+      client.close();
+    }
+    server.stop(0);
+  }
+
+  @Test
+  void reusesKeptAliveConnections() {
+    RestTemplate rest = restTemplate(20, Duration.ofSeconds(5));
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals("ok", rest.getForObject(url("/ping"), String.class));
+    }
+
+    assertEquals(1, clientPorts.size());
+  }
+
+  @Test
+  void boundsConnectionsPerHost() throws Exception {
+    RestTemplate rest = restTemplate(2, Duration.ofSeconds(5));
+
+    ExecutorService callers = Executors.newFixedThreadPool(6);
+    try {
+      List<Future<String>> calls = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+        calls.add(callers.submit(() -> rest.getForObject(url("/slow/100"), String.class)));
+      }
+      for (Future<String> call : calls) {
+        assertEquals("ok", call.get());
+      }
+    } finally {
+      callers.shutdown();
+    }
+
+    assertEquals(2, maxInFlight.get());
+    assertEquals(2, clientPorts.size());
+  }
+
+  @Test
+  void timesOutSlowResponses() {
+    RestTemplate rest = restTemplate(20, Duration.ofMillis(200));
+
+    long start = System.nanoTime();
+    ResourceAccessException e = assertThrows(
+      ResourceAccessException.class,
+      () -> rest.getForObject(url("/slow/2000"), String.class)
+    );
+    long millis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+    assertInstanceOf(SocketTimeoutException.class, e.getCause());
+    assertTrue(millis < 2000, "waited " + millis + "ms");
+  }
+
+  private RestTemplate restTemplate(int maxPerHost, Duration readTimeout) {
+    HttpClientConfig config = new HttpClientConfig();
+    client = config.outboundHttpClient(
+      100,
+      maxPerHost,
+      Duration.ofSeconds(5),
+      readTimeout,
+      new SimpleMeterRegistry()
+    );
+    return config.restTemplate(client);
+  }
+
+  private String url(String path) {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+  }
+}
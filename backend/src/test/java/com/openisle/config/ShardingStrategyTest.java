@@ -0,0 +1,83 @@
+package com.openisle.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class ShardingStrategyTest {
+
+  private static final int USERS = 100_000;
+
+  @Test
+  void distributesUsernamesWithinFivePercent() {
+    for (ShardAlgorithm algorithm : ShardAlgorithm.values()) {
+      for (int shards : new int[] { 16, 24 }) {
+        ShardingStrategy strategy = new ShardingStrategy(shards, algorithm);
+        int[] counts = new int[shards];
+        for (int i = 0; i < USERS; i++) {
+          counts[strategy.getShardInfo(username(i)).getShardIndex()]++;
+        }
+        double expected = (double) USERS / shards;
+        for (int shard = 0; shard < shards; shard++) {
+          assertEquals(
+            expected,
+            counts[shard],
+            expected * 0.05,
+            algorithm + " " + shards + " shards, shard " + shard
+          );
+        }
+      }
+    }
+  }
+
+  @Test
+  void growingTheShardCountOnlyMovesUsersToNewShards() {
+    for (ShardAlgorithm algorithm : ShardAlgorithm.values()) {
+      ShardingStrategy before = new ShardingStrategy(16, algorithm);
+      ShardingStrategy after = new ShardingStrategy(20, algorithm);
+      int moved = 0;
+      for (int i = 0; i < USERS; i++) {
+        int from = before.getShardInfo(username(i)).getShardIndex();
+        int to = after.getShardInfo(username(i)).getShardIndex();
+        if (from != to) {
+          assertTrue(to >= 16, algorithm + " moved a user between existing shards");
+          moved++;
+        }
+      }
+      // 约 4/20 的用户迁移到新增分片
+      assertEquals(0.2, (double) moved / USERS, 0.01, algorithm.name());
+    }
+  }
+
+  @Test
+  void namesQueuesApartFromLegacyHexShards() {
+    ShardInfo info = new ShardingStrategy(32, ShardAlgorithm.JUMP).getShardInfo("alice");
+    assertEquals("notifications-shard-" + info.getShardIndex(), info.getQueueName());
+    assertEquals("notifications.shards." + info.getShardIndex(), info.getRoutingKey());
+    assertEquals(0, new ShardingStrategy(16, ShardAlgorithm.JUMP).getShardInfo("").getShardIndex());
+  }
+
+  @Test
+  void rejectsNonPositiveShardCount() {
+    assertThrows(IllegalArgumentException.class, () ->
+      new ShardingStrategy(0, ShardAlgorithm.JUMP)
+    );
+  }
+
+  @Test
+  void murmurMatchesReferenceVectors() {
+    assertEquals(0L, Murmur3.hash64(""));
+    assertEquals(-8839064797231613815L, Murmur3.hash64("a"));
+    assertEquals(5699955792253506986L, Murmur3.hash64("alice"));
+    assertEquals(-5338552207432225185L, Murmur3.hash64("用户名"));
+    assertEquals(-7362412312553418723L, Murmur3.hash64("0123456789abcdefXYZ"));
+  }
+
+  private static String username(int i) {
+    return switch (i % 3) {
+      case 0 -> "user" + i;
+      case 1 -> "用户" + i;
+      default -> "u_" + Integer.toHexString(i * 31);
+    };
+  }
+}
@@ -8,6 +8,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import com.openisle.model.Notification;
 import com.openisle.model.NotificationType;
 import com.openisle.model.User;
+import com.openisle.notification.NotificationUnreadCounter;
 import com.openisle.repository.NotificationRepository;
 import com.openisle.repository.UserRepository;
 import com.openisle.service.EmailSender;
@@ -36,6 +37,9 @@ class AdminUserControllerTest {
   @MockBean
   private EmailSender emailSender;
 
+  @MockBean
+  private NotificationUnreadCounter unreadCounter;
+
   @Test
   void approveMarksNotificationsRead() throws Exception {
     User u = new User();
@@ -54,6 +58,7 @@ class AdminUserControllerTest {
 
     assertTrue(n.isRead());
     verify(notificationRepository).saveAll(List.of(n));
+    verify(unreadCounter).markedRead(List.of(n));
   }
 
   @Test
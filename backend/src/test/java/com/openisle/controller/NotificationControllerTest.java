@@ -10,6 +10,7 @@ import com.openisle.mapper.NotificationMapper;
 import com.openisle.model.Notification;
 import com.openisle.model.NotificationType;
 import com.openisle.model.Post;
+import com.openisle.notification.NotificationCursor;
 import com.openisle.service.NotificationService;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -83,6 +84,56 @@ class NotificationControllerTest {
       .andExpect(jsonPath("$[0].id").value(5));
   }
 
+  @Test
+  void pageNotificationsReturnsNextCursor() throws Exception {
+    Notification n = new Notification();
+    n.setId(7L);
+    LocalDateTime t = LocalDateTime.of(2024, 5, 1, 12, 0);
+    NotificationCursor next = new NotificationCursor(t, 7L);
+    when(
+      notificationService.listNotifications("alice", true, NotificationCursor.START, 1)
+    ).thenReturn(new NotificationService.NotificationPage(List.of(n), next));
+
+    NotificationDto dto = new NotificationDto();
+    dto.setId(7L);
+    when(notificationMapper.toDto(n)).thenReturn(dto);
+
+    mockMvc
+      .perform(
+        get("/api/notifications/page")
+          .param("unread", "true")
+          .param("size", "1")
+          .principal(new UsernamePasswordAuthenticationToken("alice", "p"))
+      )
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.items[0].id").value(7))
+      .andExpect(jsonPath("$.nextCursor").value(next.encode()));
+  }
+
+  @Test
+  void pageNotificationsRejectsBadCursor() throws Exception {
+    mockMvc
+      .perform(
+        get("/api/notifications/page")
+          .param("cursor", "???")
+          .principal(new UsernamePasswordAuthenticationToken("alice", "p"))
+      )
+      .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void markAllReadEndpoint() throws Exception {
+    mockMvc
+      .perform(
+        post("/api/notifications/read-all").principal(
+          new UsernamePasswordAuthenticationToken("alice", "p")
+        )
+      )
+      .andExpect(status().isOk());
+
+    verify(notificationService).markAllRead("alice");
+  }
+
   @Test
   void markReadEndpoint() throws Exception {
     mockMvc
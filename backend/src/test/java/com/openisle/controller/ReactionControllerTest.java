@@ -13,6 +13,7 @@ import com.openisle.model.Post;
 import com.openisle.model.Reaction;
 import com.openisle.model.ReactionType;
 import com.openisle.model.User;
+import com.openisle.ratelimit.RateLimitService;
 import com.openisle.service.LevelService;
 import com.openisle.service.PointService;
 import com.openisle.service.ReactionService;
@@ -43,6 +44,9 @@ class ReactionControllerTest {
   @MockBean
   private PointService pointService;
 
+  @MockBean
+  private RateLimitService rateLimitService;
+
   @Test
   void reactToPost() throws Exception {
     User user = new User();
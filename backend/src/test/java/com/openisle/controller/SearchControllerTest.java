@@ -12,6 +12,9 @@ import com.openisle.model.Post;
 import com.openisle.model.PostStatus;
 import com.openisle.model.User;
 import com.openisle.service.SearchService;
+import com.openisle.suggest.SuggestKind;
+import com.openisle.suggest.Suggestion;
+import com.openisle.suggest.TypeaheadService;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -37,6 +40,9 @@ class SearchControllerTest {
   @MockBean
   private PostMapper postMapper;
 
+  @MockBean
+  private TypeaheadService typeaheadService;
+
   @Test
   void userSearchEndpoint() throws Exception {
     User user = new User();
@@ -115,4 +121,56 @@ class SearchControllerTest {
       .andExpect(status().isOk())
       .andExpect(jsonPath("$[0].id").value(5));
   }
+
+  @Test
+  void pagedSearchReturnsCursor() throws Exception {
+    Mockito.when(
+      searchService.searchPage(
+        new SearchService.SearchQuery("post", "spring", "abc", 10, true, false)
+      )
+    ).thenReturn(
+      new SearchService.SearchPage(
+        List.of(
+          new SearchService.SearchResult("post", 7L, "spring", null, null, null, null, null, null)
+        ),
+        "next",
+        42L
+      )
+    );
+
+    mockMvc
+      .perform(
+        get("/api/search/page")
+          .param("type", "post")
+          .param("keyword", "spring")
+          .param("cursor", "abc")
+          .param("size", "10")
+          .param("trackTotalHits", "true")
+          .param("highlight", "false")
+      )
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.items[0].id").value(7))
+      .andExpect(jsonPath("$.nextCursor").value("next"))
+      .andExpect(jsonPath("$.total").value(42));
+  }
+
+  @Test
+  void suggestUsersByPrefix() throws Exception {
+    Mockito.when(typeaheadService.suggest(SuggestKind.USER, "zh", 5)).thenReturn(
+      List.of(new Suggestion(SuggestKind.USER, 1L, "张三", "a.png", 0))
+    );
+
+    mockMvc
+      .perform(
+        get("/api/search/suggest").param("type", "user").param("prefix", "zh").param("limit", "5")
+      )
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$[0].type").value("user"))
+      .andExpect(jsonPath("$[0].name").value("张三"))
+      .andExpect(jsonPath("$[0].icon").value("a.png"));
+
+    mockMvc
+      .perform(get("/api/search/suggest").param("type", "medal").param("prefix", "zh"))
+      .andExpect(status().isBadRequest());
+  }
 }
@@ -0,0 +1,52 @@
+package com.openisle.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+class QueryCountFilterTest {
+
+  @Test
+  void recordsStatementsPerUriTemplate() throws Exception {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+    beans.registerSingleton("meterRegistry", registry);
+    QueryCountFilter filter = new QueryCountFilter(beans.getBeanProvider(MeterRegistry.class));
+    QueryCountInspector inspector = new QueryCountInspector();
+
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/posts/42");
+    MockFilterChain chain = new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+      @Override
+      protected void service(
+        jakarta.servlet.http.HttpServletRequest req,
+        jakarta.servlet.http.HttpServletResponse res
+      ) {
+        req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/posts/{id}");
+        inspector.inspect("select 1");
+        inspector.inspect("select 2");
+        inspector.inspect("select 3");
+      }
+    });
+
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+    DistributionSummary summary = registry
+      .get("http.server.requests.queries")
+      .tag("uri", "/api/posts/{id}")
+      .tag("method", "GET")
+      .summary();
+    assertEquals(1, summary.count());
+    assertEquals(3.0, summary.totalAmount());
+    // 请求结束后不再计数
+    inspector.inspect("select 4");
+    assertEquals(0, QueryCountInspector.current());
+  }
+}
@@ -0,0 +1,189 @@
+package com.openisle.notification;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.model.Notification;
+import com.openisle.model.NotificationType;
+import com.openisle.model.User;
+import com.openisle.realtime.RealtimeEvent;
+import com.openisle.repository.NotificationRepository;
+import com.openisle.repository.UserRepository;
+import com.openisle.service.NotificationProducer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+class NotificationUnreadCounterTest {
+
+  private static final Set<NotificationType> EXEMPT = Notification.READ_ALL_EXEMPT_TYPES;
+
+  private StringRedisTemplate redis;
+  private HashOperations<String, Object, Object> hashOps;
+  private NotificationRepository notificationRepo;
+  private UserRepository userRepo;
+  private NotificationProducer producer;
+  private ApplicationEventPublisher publisher;
+  private NotificationUnreadCounter counter;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    redis = mock(StringRedisTemplate.class);
+    hashOps = mock(HashOperations.class);
+    when(redis.<Object, Object>opsForHash()).thenReturn(hashOps);
+    notificationRepo = mock(NotificationRepository.class);
+    userRepo = mock(UserRepository.class);
+    producer = mock(NotificationProducer.class);
+    publisher = mock(ApplicationEventPublisher.class);
+    counter = new NotificationUnreadCounter(
+      redis,
+      notificationRepo,
+      userRepo,
+      producer,
+      publisher,
+      new SimpleMeterRegistry(),
+      100
+    );
+  }
+
+  @Test
+  void loadsOnceFromDatabaseAndExcludesDisabledTypes() {
+    User user = new User();
+    user.setId(1L);
+    user.setDisabledNotificationTypes(EnumSet.of(NotificationType.POST_VIEWED));
+    when(hashOps.entries("notifications:unread:1")).thenReturn(Map.of());
+    when(notificationRepo.countUnreadByType(1L, EXEMPT)).thenReturn(
+      List.<Object[]>of(
+        new Object[] { NotificationType.MENTION, 2L },
+        new Object[] { NotificationType.POST_VIEWED, 7L }
+      )
+    );
+
+    assertEquals(2L, counter.countUnread(user));
+
+    // 只在还没有已加载的哈希时写入
+    verify(redis).execute(
+      any(RedisScript.class),
+      eq(List.of("notifications:unread:1")),
+      eq("604800"),
+      eq("_"),
+      eq("1"),
+      eq("POST_VIEWED"),
+      eq("7"),
+      eq("MENTION"),
+      eq("2")
+    );
+    verify(hashOps, never()).putAll(anyString(), anyMap());
+
+    when(hashOps.entries("notifications:unread:1")).thenReturn(
+      Map.of("_", "1", "MENTION", "3", "POST_VIEWED", "7")
+    );
+
+    assertEquals(3L, counter.countUnread(user));
+    verify(notificationRepo, times(1)).countUnreadByType(1L, EXEMPT);
+  }
+
+  @Test
+  void fallsBackToDatabaseWhenRedisIsDown() {
+    User user = new User();
+    user.setId(2L);
+    user.setDisabledNotificationTypes(EnumSet.noneOf(NotificationType.class));
+    when(hashOps.entries(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+    when(notificationRepo.countUnreadByType(2L, EXEMPT)).thenReturn(
+      List.<Object[]>of(new Object[] { NotificationType.COMMENT_REPLY, 4L })
+    );
+
+    assertEquals(4L, counter.countUnread(user));
+  }
+
+  @Test
+  void publishesDeltasOnlyForUnreadNotifications() {
+    User alice = new User();
+    alice.setId(1L);
+    Notification unread = notification(alice, NotificationType.MENTION, false);
+    Notification read = notification(alice, NotificationType.MENTION, true);
+    Notification reply = notification(alice, NotificationType.COMMENT_REPLY, false);
+
+    counter.removed(List.of(unread, read, reply));
+
+    ArgumentCaptor<UnreadCountChangedEvent> captor = ArgumentCaptor.forClass(
+      UnreadCountChangedEvent.class
+    );
+    verify(publisher).publishEvent(captor.capture());
+    assertEquals(
+      Map.of(1L, Map.of(NotificationType.MENTION, -1L, NotificationType.COMMENT_REPLY, -1L)),
+      captor.getValue().deltas()
+    );
+
+    counter.created(List.of(read));
+    verifyNoMoreInteractions(publisher);
+  }
+
+  @Test
+  void appliesDeltasAndPushesTotal() {
+    when(hashOps.entries("notifications:unread:1")).thenReturn(
+      Map.of("_", "1", "MENTION", "3", "POST_VIEWED", "5")
+    );
+    when(userRepo.findUsernameById(1L)).thenReturn(Optional.of("alice"));
+    when(userRepo.findDisabledNotificationTypes(1L)).thenReturn(
+      List.of(NotificationType.POST_VIEWED)
+    );
+
+    counter.onChange(
+      new UnreadCountChangedEvent(Map.of(1L, Map.of(NotificationType.MENTION, 1L)), Set.of())
+    );
+
+    verify(redis).execute(
+      any(RedisScript.class),
+      eq(List.of("notifications:unread:1")),
+      eq("MENTION"),
+      eq("1")
+    );
+    ArgumentCaptor<RealtimeEvent> captor = ArgumentCaptor.forClass(RealtimeEvent.class);
+    verify(producer).sendEventInNewTransaction(eq("alice"), captor.capture());
+    RealtimeEvent.NotificationUnread event = (RealtimeEvent.NotificationUnread) captor.getValue();
+    assertEquals(3L, event.count());
+    assertEquals(Map.of("MENTION", 3L, "POST_VIEWED", 5L), event.byType());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void reconcileEvictsDriftedCounters() {
+    Cursor<String> cursor = mock(Cursor.class);
+    when(cursor.hasNext()).thenReturn(true, true, false);
+    when(cursor.next()).thenReturn("notifications:unread:1", "notifications:unread:2");
+    when(redis.scan(any())).thenReturn(cursor);
+    when(hashOps.entries("notifications:unread:1")).thenReturn(Map.of("_", "1", "MENTION", "2"));
+    when(hashOps.entries("notifications:unread:2")).thenReturn(Map.of("_", "1", "MENTION", "-1"));
+    when(notificationRepo.countUnreadByUserAndType(List.of(1L, 2L), EXEMPT)).thenReturn(
+      List.<Object[]>of(new Object[] { 1L, NotificationType.MENTION, 2L })
+    );
+
+    counter.reconcile();
+
+    verify(redis, never()).delete("notifications:unread:1");
+    verify(redis).delete("notifications:unread:2");
+  }
+
+  private static Notification notification(User user, NotificationType type, boolean read) {
+    Notification n = new Notification();
+    n.setUser(user);
+    n.setType(type);
+    n.setRead(read);
+    return n;
+  }
+}
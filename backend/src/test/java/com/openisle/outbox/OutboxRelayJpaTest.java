@@ -0,0 +1,75 @@
+package com.openisle.outbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import com.openisle.model.OutboxEvent;
+import com.openisle.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Runs the relay against the real repository, outside a test transaction. */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayJpaTest {
+
+  private static final long NOW = 1_700_000_000_000L;
+
+  @Autowired
+  private OutboxEventRepository repository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @AfterEach
+  void tearDown() {
+    repository.deleteAll();
+  }
+
+  @Test
+  void purgeDeletesOnlyRowsSentBeforeTheRetention() {
+    LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochMilli(NOW), ZoneId.systemDefault());
+    OutboxEvent old = save(now.minusDays(2));
+    OutboxEvent recent = save(now.minusHours(1));
+    OutboxEvent pending = save(null);
+
+    relay().purgeSent();
+
+    List<Long> left = repository.findAll().stream().map(OutboxEvent::getId).sorted().toList();
+    assertEquals(List.of(recent.getId(), pending.getId()), left);
+    assertFalse(repository.existsById(old.getId()));
+  }
+
+  private OutboxRelay relay() {
+    return new OutboxRelay(
+      repository,
+      mock(RabbitTemplate.class),
+      new TransactionTemplate(transactionManager),
+      new SimpleMeterRegistry(),
+      Runnable::run,
+      10,
+      Duration.ofMillis(50),
+      Duration.ofDays(1),
+      () -> NOW
+    );
+  }
+
+  private OutboxEvent save(LocalDateTime sentAt) {
+    OutboxEvent event = new OutboxEvent("ex", "rk", new byte[] { 1 }, null, null);
+    event.setSentAt(sentAt);
+    return repository.save(event);
+  }
+}
@@ -0,0 +1,233 @@
+package com.openisle.outbox;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.config.RabbitMQConfig;
+import com.openisle.config.ShardAlgorithm;
+import com.openisle.config.ShardingStrategy;
+import com.openisle.model.OutboxEvent;
+import com.openisle.realtime.RealtimeEnvelope;
+import com.openisle.realtime.RealtimeEvent;
+import com.openisle.realtime.RealtimeMessageConverter;
+import com.openisle.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionOperations;
+
+class OutboxRelayTest {
+
+  private static final long NOW = 1_700_000_000_000L;
+
+  private final RealtimeMessageConverter converter = new RabbitMQConfig(
+    new ShardingStrategy(16, ShardAlgorithm.JUMP)
+  ).messageConverter();
+  private final List<OutboxEvent> rows = new ArrayList<>();
+  private final AtomicBoolean crashOnMarkSent = new AtomicBoolean();
+  private OutboxEventRepository repository;
+  private StubRabbitTemplate rabbit;
+  private OutboxRelay relay;
+
+  @BeforeEach
+  void setUp() {
+    repository = mock(OutboxEventRepository.class);
+    when(repository.lockPending(any())).thenAnswer(invocation -> {
+      Pageable page = invocation.getArgument(0);
+      return rows
+        .stream()
+        .filter(e -> e.getSentAt() == null)
+        .sorted(Comparator.comparing(OutboxEvent::getId))
+        .limit(page.getPageSize())
+        .toList();
+    });
+    when(repository.markSent(any(), any())).thenAnswer(invocation -> {
+      if (crashOnMarkSent.getAndSet(false)) {
+        // 进程在 broker 确认之后、事务提交之前崩溃
+        throw new DataAccessResourceFailureException("crash");
+      }
+      Collection<Long> ids = invocation.getArgument(0);
+      LocalDateTime sentAt = invocation.getArgument(1);
+      rows.stream().filter(e -> ids.contains(e.getId())).forEach(e -> e.setSentAt(sentAt));
+      return ids.size();
+    });
+    when(repository.incrementAttempts(any())).thenAnswer(invocation -> {
+      Collection<Long> ids = invocation.getArgument(0);
+      rows
+        .stream()
+        .filter(e -> ids.contains(e.getId()))
+        .forEach(e -> e.setAttempts(e.getAttempts() + 1));
+      return ids.size();
+    });
+    rabbit = new StubRabbitTemplate();
+    relay = new OutboxRelay(
+      repository,
+      rabbit,
+      TransactionOperations.withoutTransaction(),
+      new SimpleMeterRegistry(),
+      Runnable::run,
+      2,
+      Duration.ofMillis(50),
+      Duration.ofDays(1),
+      () -> NOW
+    );
+  }
+
+  @Test
+  void publishesPendingEventsInOrderAndMarksThemSent() {
+    add("alice", "notifications.shards.3");
+    add("bob", "notifications.shards.7");
+    add("carol", "notifications.routingkey");
+
+    relay.wakeUpAfterCommit();
+
+    assertEquals(List.of("outbox-1", "outbox-2", "outbox-3"), rabbit.messageIds());
+    assertEquals(
+      List.of("notifications.shards.3", "notifications.shards.7", "notifications.routingkey"),
+      rabbit.routingKeys
+    );
+    assertTrue(rows.stream().allMatch(e -> e.getSentAt() != null));
+    Message first = rabbit.published.get(0);
+    assertEquals(
+      RealtimeMessageConverter.CONTENT_TYPE_SMILE,
+      first.getMessageProperties().getContentType()
+    );
+    assertEquals(envelope("alice"), converter.fromMessage(first));
+
+    relay.drain();
+    assertEquals(3, rabbit.published.size());
+  }
+
+  @Test
+  void crashAfterConfirmReplaysWithTheSameMessageIds() {
+    add("alice", "notifications.shards.1");
+    add("bob", "notifications.shards.2");
+    crashOnMarkSent.set(true);
+
+    relay.drain();
+    assertTrue(rows.stream().allMatch(e -> e.getSentAt() == null));
+
+    relay.drain();
+    relay.drain();
+    // 至少一次投递：重放的消息 id 不变，消费者可以据此去重
+    assertEquals(List.of("outbox-1", "outbox-2", "outbox-1", "outbox-2"), rabbit.messageIds());
+    assertTrue(rows.stream().allMatch(e -> e.getSentAt() != null));
+  }
+
+  @Test
+  void nackedEventsStayPendingAndAreRetried() {
+    add("alice", "notifications.shards.1");
+    add("bob", "notifications.shards.2");
+    rabbit.nackOnce.add(2L);
+
+    relay.drain();
+    assertNotNull(rows.get(0).getSentAt());
+    assertNull(rows.get(1).getSentAt());
+    assertEquals(1, rows.get(1).getAttempts());
+
+    relay.drain();
+    assertEquals(List.of("outbox-1", "outbox-2", "outbox-2"), rabbit.messageIds());
+    assertNotNull(rows.get(1).getSentAt());
+  }
+
+  @Test
+  void unavailableBrokerLeavesEventsPending() {
+    add("alice", "notifications.shards.1");
+    rabbit.down = true;
+
+    relay.drain();
+    assertNull(rows.get(0).getSentAt());
+    assertEquals(1, rows.get(0).getAttempts());
+
+    rabbit.down = false;
+    relay.poll();
+    assertEquals(List.of("outbox-1"), rabbit.messageIds());
+    assertNotNull(rows.get(0).getSentAt());
+  }
+
+  @Test
+  void purgesSentEventsOlderThanRetention() {
+    relay.purgeSent();
+
+    LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochMilli(NOW), ZoneId.systemDefault());
+    verify(repository).deleteSentBefore(now.minusDays(1));
+  }
+
+  private void add(String username, String routingKey) {
+    Message message = converter.toMessage(envelope(username), new MessageProperties());
+    OutboxEvent event = new OutboxEvent(
+      RabbitMQConfig.EXCHANGE_NAME,
+      routingKey,
+      message.getBody(),
+      message.getMessageProperties().getContentType(),
+      null
+    );
+    event.setId((long) rows.size() + 1);
+    rows.add(event);
+  }
+
+  private static RealtimeEnvelope envelope(String username) {
+    return RealtimeEnvelope.of(username, new RealtimeEvent.NotificationUnread(1, Map.of()));
+  }
+
+  /** Records messages in memory and confirms them right away, like a broker with confirms. */
+  private static class StubRabbitTemplate extends RabbitTemplate {
+
+    final List<Message> published = new ArrayList<>();
+    final List<String> routingKeys = new ArrayList<>();
+    final Set<Long> nackOnce = new HashSet<>();
+    boolean down;
+
+    StubRabbitTemplate() {
+      super(confirmingConnectionFactory());
+    }
+
+    @Override
+    public void send(
+      String exchange,
+      String routingKey,
+      Message message,
+      CorrelationData correlation
+    ) {
+      if (down) {
+        throw new AmqpConnectException(new IOException("connection refused"));
+      }
+      published.add(message);
+      routingKeys.add(routingKey);
+      boolean ack = !nackOnce.remove(Long.valueOf(correlation.getId()));
+      correlation.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "nack"));
+    }
+
+    List<String> messageIds() {
+      return published.stream().map(m -> m.getMessageProperties().getMessageId()).toList();
+    }
+
+    private static ConnectionFactory confirmingConnectionFactory() {
+      ConnectionFactory connectionFactory = mock(ConnectionFactory.class);
+      when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+      return connectionFactory;
+    }
+  }
+}
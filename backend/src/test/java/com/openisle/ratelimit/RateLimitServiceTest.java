@@ -0,0 +1,111 @@
+package com.openisle.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.exception.RateLimitException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+class RateLimitServiceTest {
+
+  private static RateLimitProperties.Policy policy(RateLimitAlgorithm algorithm, int limit) {
+    return new RateLimitProperties.Policy(algorithm, limit, Duration.ofMinutes(1));
+  }
+
+  @Test
+  void slidingWindowAllowsLimitPerWindow() {
+    AtomicLong now = new AtomicLong(0);
+    InMemoryRateLimiter limiter = new InMemoryRateLimiter(now::get);
+    RateLimitProperties.Policy policy = policy(RateLimitAlgorithm.SLIDING_WINDOW, 3);
+
+    assertTrue(limiter.tryAcquire("k", policy));
+    now.set(10_000);
+    assertTrue(limiter.tryAcquire("k", policy));
+    assertTrue(limiter.tryAcquire("k", policy));
+    assertFalse(limiter.tryAcquire("k", policy));
+    assertTrue(limiter.tryAcquire("other", policy));
+
+    // the first action leaves the window, the other two are still counted
+    now.set(60_000);
+    assertTrue(limiter.tryAcquire("k", policy));
+    assertFalse(limiter.tryAcquire("k", policy));
+  }
+
+  @Test
+  void tokenBucketRefillsOverWindow() {
+    AtomicLong now = new AtomicLong(0);
+    InMemoryRateLimiter limiter = new InMemoryRateLimiter(now::get);
+    RateLimitProperties.Policy policy = policy(RateLimitAlgorithm.TOKEN_BUCKET, 2);
+
+    assertTrue(limiter.tryAcquire("k", policy));
+    assertTrue(limiter.tryAcquire("k", policy));
+    assertFalse(limiter.tryAcquire("k", policy));
+
+    // 2 tokens per minute => one token every 30s
+    now.set(30_000);
+    assertTrue(limiter.tryAcquire("k", policy));
+    assertFalse(limiter.tryAcquire("k", policy));
+  }
+
+  @Test
+  void rejectionThrowsAndIsCounted() {
+    RateLimitProperties properties = new RateLimitProperties();
+    RateLimiter primary = mock(RateLimiter.class);
+    when(primary.tryAcquire(eq("openisle_ratelimit:comments:alice"), any())).thenReturn(false);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    RateLimitService service = new RateLimitService(
+      properties,
+      primary,
+      new InMemoryRateLimiter(),
+      registry
+    );
+
+    RateLimitException e = assertThrows(RateLimitException.class, () ->
+      service.check(RateLimitAction.COMMENT, "alice")
+    );
+    assertEquals("Too many comments", e.getMessage());
+    assertEquals(
+      1.0,
+      registry.get("openisle.ratelimit.rejected").tag("action", "comments").counter().count()
+    );
+  }
+
+  @Test
+  void fallsBackToMemoryWhenRedisFails() {
+    RateLimitProperties properties = new RateLimitProperties();
+    RateLimiter primary = mock(RateLimiter.class);
+    when(primary.tryAcquire(any(), any())).thenThrow(
+      new RedisConnectionFailureException("down")
+    );
+    RateLimitService service = new RateLimitService(
+      properties,
+      primary,
+      new InMemoryRateLimiter(),
+      new SimpleMeterRegistry()
+    );
+
+    // default post policy: one post per five minutes
+    assertTrue(service.tryAcquire(RateLimitAction.POST, "alice"));
+    assertFalse(service.tryAcquire(RateLimitAction.POST, "alice"));
+  }
+
+  @Test
+  void disabledPolicyAlwaysAllows() {
+    RateLimitProperties properties = new RateLimitProperties();
+    properties.policy(RateLimitAction.POST).setLimit(0);
+    RateLimiter primary = mock(RateLimiter.class);
+    RateLimitService service = new RateLimitService(
+      properties,
+      primary,
+      new InMemoryRateLimiter(),
+      new SimpleMeterRegistry()
+    );
+
+    assertTrue(service.tryAcquire(RateLimitAction.POST, "alice"));
+    verifyNoInteractions(primary);
+  }
+}
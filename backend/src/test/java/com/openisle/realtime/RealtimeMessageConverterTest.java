@@ -0,0 +1,161 @@
+package com.openisle.realtime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.openisle.config.RabbitMQConfig;
+import com.openisle.config.ShardAlgorithm;
+import com.openisle.config.ShardingStrategy;
+import com.openisle.dto.MessageDto;
+import com.openisle.dto.ReactionDto;
+import com.openisle.dto.UserSummaryDto;
+import com.openisle.model.ReactionType;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+class RealtimeMessageConverterTest {
+
+  private static final int RECIPIENTS = 20;
+
+  private final RealtimeMessageConverter converter = new RabbitMQConfig(
+    new ShardingStrategy(16, ShardAlgorithm.JUMP)
+  ).messageConverter();
+
+  @Test
+  void roundTripsEveryEventType() {
+    List<RealtimeEvent> events = List.of(
+      channelMessage(),
+      RealtimeEvent.MessageReaction.of(7L, reaction(3L), false),
+      new RealtimeEvent.NotificationUnread(4, Map.of("MENTION", 3L, "COMMENT_REPLY", 1L))
+    );
+    for (RealtimeEvent event : events) {
+      RealtimeEnvelope envelope = RealtimeEnvelope.of("alice", event);
+      Message message = converter.toMessage(envelope, new MessageProperties());
+
+      assertEquals(
+        RealtimeMessageConverter.CONTENT_TYPE_SMILE,
+        message.getMessageProperties().getContentType()
+      );
+      assertEquals(envelope, converter.fromMessage(message));
+    }
+  }
+
+  @Test
+  void stillDecodesLegacyJson() {
+    Message message = converter.toMessage(legacyPayload(), new MessageProperties());
+
+    assertEquals(
+      MessageProperties.CONTENT_TYPE_JSON,
+      message.getMessageProperties().getContentType()
+    );
+    Object decoded = converter.fromMessage(message);
+    assertInstanceOf(Map.class, decoded);
+    assertEquals("alice", ((Map<?, ?>) decoded).get("targetUsername"));
+  }
+
+  @Test
+  void envelopeIsSmallerAndNotSlowerThanLegacyJson() {
+    RealtimeEnvelope envelope = RealtimeEnvelope.of("alice", channelMessage());
+    Map<String, Object> legacy = legacyPayload();
+
+    int envelopeSize = converter.toMessage(envelope, new MessageProperties()).getBody().length;
+    int legacySize = converter.toMessage(legacy, new MessageProperties()).getBody().length;
+    // 短字段名 + 二进制编码，且不再重复参与者 id 和完整 DTO
+    assertTrue(
+      envelopeSize * 2 < legacySize,
+      "envelope " + envelopeSize + " bytes, legacy " + legacySize + " bytes"
+    );
+
+    // 预热后再计时；只做宽松比较，精确数据见 benchmarks 模块的 RealtimeCodecBenchmark
+    roundTrips(envelope, 2_000);
+    roundTrips(legacy, 2_000);
+    long envelopeNanos = roundTrips(envelope, 5_000);
+    long legacyNanos = roundTrips(legacy, 5_000);
+    assertTrue(
+      envelopeNanos < legacyNanos * 2,
+      "envelope " + envelopeNanos + " ns, legacy " + legacyNanos + " ns"
+    );
+  }
+
+  private long roundTrips(Object payload, int times) {
+    long start = System.nanoTime();
+    for (int i = 0; i < times; i++) {
+      assertNotNull(converter.fromMessage(converter.toMessage(payload, new MessageProperties())));
+    }
+    return System.nanoTime() - start;
+  }
+
+  private static RealtimeEvent.ConversationMessage channelMessage() {
+    List<RealtimeEvent.Recipient> recipients = new ArrayList<>();
+    for (long id = 2; id <= RECIPIENTS + 1; id++) {
+      recipients.add(new RealtimeEvent.Recipient(id, "user" + id, 3L, 1L));
+    }
+    return RealtimeEvent.ConversationMessage.of(message(), recipients);
+  }
+
+  /** The Map payload MessageService published before the envelope, as JSON. */
+  private static Map<String, Object> legacyPayload() {
+    List<Map<String, Object>> participants = new ArrayList<>();
+    for (long id = 2; id <= RECIPIENTS + 1; id++) {
+      Map<String, Object> participant = new HashMap<>();
+      participant.put("userId", id);
+      participant.put("username", "user" + id);
+      participant.put("unreadCount", 3L);
+      participant.put("channelUnread", 1L);
+      participants.add(participant);
+    }
+    Map<String, Object> conversation = new HashMap<>();
+    conversation.put("id", 7L);
+    conversation.put("participants", participants);
+    Map<String, Object> payload = new HashMap<>();
+    payload.put("message", message());
+    payload.put("conversation", conversation);
+    payload.put("senderId", 1L);
+    Map<String, Object> wrapper = new HashMap<>();
+    wrapper.put("targetUsername", "alice");
+    wrapper.put("payload", payload);
+    return wrapper;
+  }
+
+  private static MessageDto message() {
+    MessageDto reply = new MessageDto();
+    reply.setId(41L);
+    reply.setContent("早上好");
+    reply.setSender(user(2L, "user2"));
+    reply.setConversationId(7L);
+    reply.setCreatedAt(LocalDateTime.of(2024, 5, 1, 9, 0));
+    reply.setReactions(List.of());
+
+    MessageDto message = new MessageDto();
+    message.setId(42L);
+    message.setContent("大家好，今晚八点开会");
+    message.setSender(user(1L, "alice"));
+    message.setConversationId(7L);
+    message.setCreatedAt(LocalDateTime.of(2024, 5, 1, 9, 30, 15));
+    message.setReplyTo(reply);
+    message.setReactions(List.of(reaction(3L), reaction(4L)));
+    return message;
+  }
+
+  private static UserSummaryDto user(Long id, String username) {
+    UserSummaryDto user = new UserSummaryDto();
+    user.setId(id);
+    user.setUsername(username);
+    user.setAvatar("https://cdn.example.com/avatars/" + username + ".png");
+    return user;
+  }
+
+  private static ReactionDto reaction(Long id) {
+    ReactionDto reaction = new ReactionDto();
+    reaction.setId(id);
+    reaction.setType(ReactionType.LIKE);
+    reaction.setUser("user" + id);
+    reaction.setMessageId(42L);
+    return reaction;
+  }
+}
@@ -0,0 +1,157 @@
+package com.openisle.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import com.openisle.model.Image;
+import com.openisle.service.ContentProcessingService;
+import com.openisle.service.ImageUploader;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Runs the native upsert against H2 in MySQL mode, outside a test transaction. */
+@DataJpaTest(
+  properties = "spring.datasource.url=jdbc:h2:mem:images;MODE=MySQL;DB_CLOSE_DELAY=-1"
+)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ImageRepositoryTest {
+
+  private static final String BASE = "http://cos.example.com";
+
+  @Autowired
+  private ImageRepository imageRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @AfterEach
+  void tearDown() {
+    imageRepository.deleteAll();
+  }
+
+  @Test
+  void upsertCreatesThenCounts() {
+    String url = BASE + "/dynamic_assert/a.png";
+
+    imageRepository.addRefCounts(Set.of(url), 1);
+    imageRepository.addRefCounts(Set.of(url), 2);
+    assertEquals(3, imageRepository.findByUrl(url).orElseThrow().getRefCount());
+
+    imageRepository.adjustRefCounts(Set.of(url), -3, LocalDateTime.now());
+    assertNotNull(imageRepository.findByUrl(url).orElseThrow().getZeroRefAt());
+    imageRepository.addRefCounts(Set.of(url), 1);
+    Image image = imageRepository.findByUrl(url).orElseThrow();
+    assertEquals(1, image.getRefCount());
+    assertNull(image.getZeroRefAt());
+  }
+
+  @Test
+  void batchUpsertSpansSeveralStatements() {
+    List<String> urls = new ArrayList<>();
+    for (int i = 0; i < 1200; i++) urls.add(BASE + "/dynamic_assert/" + i + ".png");
+    imageRepository.addRefCounts(urls.subList(0, 600), 1);
+
+    imageRepository.addRefCounts(urls, 2);
+
+    assertEquals(1200, imageRepository.count());
+    assertEquals(3, imageRepository.findByUrl(urls.get(0)).orElseThrow().getRefCount());
+    assertEquals(2, imageRepository.findByUrl(urls.get(1199)).orElseThrow().getRefCount());
+  }
+
+  @Test
+  void concurrentFirstReferencesShareOneRow() throws Exception {
+    String url = BASE + "/dynamic_assert/b.png";
+    int threads = 8;
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Integer>> calls = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        calls.add(
+          pool.submit(() -> {
+            start.await();
+            return imageRepository.addRefCounts(Set.of(url), 1);
+          })
+        );
+      }
+      start.countDown();
+      for (Future<Integer> call : calls) {
+        call.get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    assertEquals(1, imageRepository.count());
+    assertEquals(threads, imageRepository.findByUrl(url).orElseThrow().getRefCount());
+  }
+
+  @Test
+  void purgeSkipsImagesReferencedAgain() {
+    String gone = BASE + "/dynamic_assert/gone.png";
+    String back = BASE + "/dynamic_assert/back.png";
+    LocalDateTime longAgo = LocalDateTime.now().minusDays(2);
+    imageRepository.addRefCounts(Set.of(gone), 1);
+    imageRepository.addRefCounts(Set.of(back), 1);
+    imageRepository.adjustRefCounts(Set.of(gone, back), -1, longAgo);
+    imageRepository.addRefCounts(Set.of(back), 1);
+
+    List<String> keys = purge(uploader());
+
+    assertEquals(List.of("dynamic_assert/gone.png"), keys);
+    assertTrue(imageRepository.findByUrl(gone).isEmpty());
+    assertEquals(1, imageRepository.findByUrl(back).orElseThrow().getRefCount());
+  }
+
+  @Test
+  void storeKeepsObjectsReferencedAfterThePurgeCommits() {
+    String gone = BASE + "/dynamic_assert/gone.png";
+    String back = BASE + "/dynamic_assert/back.png";
+    imageRepository.addRefCounts(Set.of(gone, back), 1);
+    imageRepository.adjustRefCounts(Set.of(gone, back), -1, LocalDateTime.now().minusDays(2));
+    ImageUploader uploader = uploader();
+    List<String> keys = purge(uploader);
+    assertEquals(2, keys.size());
+    // 等待行锁的引用在删除提交后重新插入了这一行
+    imageRepository.addRefCounts(Set.of(back), 1);
+
+    assertEquals(List.of("dynamic_assert/gone.png"), uploader.withoutReferencedAgain(keys));
+    assertEquals(1, imageRepository.findByUrl(back).orElseThrow().getRefCount());
+  }
+
+  private List<String> purge(ImageUploader uploader) {
+    return new TransactionTemplate(transactionManager).execute(status ->
+      uploader.purgeUnreferenced(Duration.ofHours(1), 10)
+    );
+  }
+
+  private ImageUploader uploader() {
+    return new ImageUploader(imageRepository, new ContentProcessingService(100), BASE) {
+      @Override
+      protected CompletableFuture<String> doUpload(byte[] data, String filename) {
+        return mock(CompletableFuture.class);
+      }
+
+      @Override
+      protected void deleteFromStore(String key) {}
+    };
+  }
+}
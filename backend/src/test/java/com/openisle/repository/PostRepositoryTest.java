@@ -0,0 +1,117 @@
+package com.openisle.repository;
+
+import static com.openisle.model.PostStatus.DELETED;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.openisle.model.Category;
+import com.openisle.model.Post;
+import com.openisle.model.PostStatus;
+import com.openisle.model.Role;
+import com.openisle.model.Tag;
+import com.openisle.model.User;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+@DataJpaTest
+class PostRepositoryTest {
+
+  @Autowired
+  private PostRepository postRepository;
+
+  @Autowired
+  private TestEntityManager em;
+
+  private User author;
+  private Category category;
+  private Tag tag;
+  private Post kept;
+  private Post deleted;
+
+  @BeforeEach
+  void setUp() {
+    author = new User();
+    author.setUsername("alice");
+    author.setEmail("alice@example.com");
+    author.setPassword("p");
+    author.setRole(Role.USER);
+    em.persist(author);
+    category = new Category();
+    category.setName("general");
+    category.setIcon("icon");
+    category.setDescription("d");
+    em.persist(category);
+    tag = new Tag();
+    tag.setName("java");
+    tag.setDescription("d");
+    em.persist(tag);
+    kept = post(PostStatus.PUBLISHED);
+    deleted = post(DELETED);
+    em.flush();
+    em.clear();
+  }
+
+  @Test
+  void countsSkipDeletedPosts() {
+    Long categoryId = category.getId();
+    Long tagId = tag.getId();
+    assertEquals(1, postRepository.countByCategory_IdAndStatusNot(categoryId, DELETED));
+    assertEquals(1, postRepository.countDistinctByTags_IdAndStatusNot(tagId, DELETED));
+    assertEquals(1, postRepository.countByAuthor_IdAndStatusNot(author.getId(), DELETED));
+    assertEquals(
+      Map.of(categoryId, 1L),
+      toMap(postRepository.countPostsByCategoryIds(List.of(categoryId)))
+    );
+    assertEquals(Map.of(tagId, 1L), toMap(postRepository.countPostsByTagIds(List.of(tagId))));
+    // 清理未审核标签时仍要算上已删除的文章
+    assertEquals(2, postRepository.countDistinctByTags_Id(tag.getId()));
+  }
+
+  @Test
+  void lookupByIdsSkipsDeletedPosts() {
+    List<Post> posts = postRepository.findByIdInAndStatusNot(
+      List.of(kept.getId(), deleted.getId()),
+      DELETED
+    );
+
+    assertEquals(List.of(kept.getId()), posts.stream().map(Post::getId).toList());
+  }
+
+  @Test
+  void counterUpdatesLeaveUpdatedAtAlone() {
+    Post post = postRepository.findById(kept.getId()).orElseThrow();
+    LocalDateTime stamped = post.getUpdatedAt();
+    assertNotNull(stamped);
+    post.setViews(post.getViews() + 1);
+    post.setCommentCount(3L);
+    em.flush();
+    em.clear();
+
+    Post reloaded = postRepository.findById(kept.getId()).orElseThrow();
+    assertEquals(1, reloaded.getViews());
+    assertEquals(stamped, reloaded.getUpdatedAt());
+    assertFalse(postRepository.findIdsUpdatedSince(stamped.plusNanos(1000)).contains(kept.getId()));
+  }
+
+  private static Map<Long, Long> toMap(List<Object[]> rows) {
+    return rows.stream().collect(Collectors.toMap(r -> (Long) r[0], r -> (Long) r[1]));
+  }
+
+  private Post post(PostStatus status) {
+    Post post = new Post();
+    post.setTitle("title");
+    post.setContent("content");
+    post.setAuthor(author);
+    post.setCategory(category);
+    post.setTags(new java.util.HashSet<>(Set.of(tag)));
+    post.setStatus(status);
+    return em.persist(post);
+  }
+}
@@ -0,0 +1,110 @@
+package com.openisle.rss;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.model.Post;
+import com.openisle.model.User;
+import com.openisle.service.CommentService;
+import com.openisle.service.ContentProcessingService;
+import com.openisle.service.PostService;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RssFeedServiceTest {
+
+  private PostService postService;
+  private CommentService commentService;
+  private AtomicLong now;
+  private RssFeedService service;
+  private Post post;
+
+  @BeforeEach
+  void setUp() {
+    postService = mock(PostService.class);
+    commentService = mock(CommentService.class);
+    now = new AtomicLong(1_000_000L);
+    service = new RssFeedService(
+      postService,
+      commentService,
+      new ContentProcessingService(100),
+      "https://example.com/",
+      10,
+      Duration.ofMinutes(10),
+      now::get
+    );
+    User author = new User();
+    author.setUsername("alice");
+    post = new Post();
+    post.setId(1L);
+    post.setTitle("Hello");
+    post.setContent("Some **markdown** ![img](/a.png)");
+    post.setAuthor(author);
+    post.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+    when(postService.listLatestRssPosts(10)).thenReturn(List.of(post));
+    when(commentService.getCommentsForPost(eq(1L), any())).thenReturn(List.of());
+  }
+
+  @Test
+  void feedIsRenderedOnce() {
+    RssFeedService.RssFeed first = service.getFeed();
+    RssFeedService.RssFeed second = service.getFeed();
+
+    assertSame(first, second);
+    verify(postService, times(1)).listLatestRssPosts(10);
+    assertTrue(first.xml().contains("<strong>markdown</strong>"));
+    assertTrue(first.xml().contains("<enclosure url=\"https://example.com/a.png\""));
+    assertTrue(first.etag().startsWith("\""));
+  }
+
+  @Test
+  void editOfFeedPostRebuildsDocument() {
+    RssFeedService.RssFeed first = service.getFeed();
+
+    post.setContent("changed");
+    now.addAndGet(5_000);
+    service.onFeedChanged(new RssFeedChangedEvent(1L, false));
+    RssFeedService.RssFeed second = service.getFeed();
+
+    assertNotEquals(first.etag(), second.etag());
+    assertTrue(second.lastModified().isAfter(first.lastModified()));
+    assertTrue(second.xml().contains("changed"));
+  }
+
+  @Test
+  void editOfOtherPostIsIgnored() {
+    service.getFeed();
+
+    service.onFeedChanged(new RssFeedChangedEvent(2L, false));
+    service.getFeed();
+
+    verify(postService, times(1)).listLatestRssPosts(10);
+  }
+
+  @Test
+  void unchangedRebuildKeepsValidators() {
+    RssFeedService.RssFeed first = service.getFeed();
+
+    now.addAndGet(Duration.ofMinutes(11).toMillis());
+    RssFeedService.RssFeed second = service.getFeed();
+
+    verify(postService, times(2)).listLatestRssPosts(10);
+    assertEquals(first.etag(), second.etag());
+    assertEquals(first.lastModified(), second.lastModified());
+  }
+
+  @Test
+  void membershipChangeRebuildsDocument() {
+    service.getFeed();
+
+    service.onFeedChanged(new RssFeedChangedEvent(3L, true));
+    service.getFeed();
+
+    verify(postService, times(2)).listLatestRssPosts(10);
+  }
+}
@@ -0,0 +1,129 @@
+package com.openisle.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.model.SearchIndexRetry;
+import com.openisle.repository.SearchIndexRetryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class SearchIndexQueueTest {
+
+  private SearchIndexer indexer;
+  private SearchIndexRetryRepository retryRepo;
+  private SearchDocumentLoader loader;
+  private SimpleMeterRegistry registry;
+  private AtomicLong clock;
+  private SearchIndexQueue queue;
+
+  @BeforeEach
+  void setUp() {
+    indexer = mock(SearchIndexer.class);
+    retryRepo = mock(SearchIndexRetryRepository.class);
+    loader = mock(SearchDocumentLoader.class);
+    registry = new SimpleMeterRegistry();
+    clock = new AtomicLong(1_000_000L);
+    queue = new SearchIndexQueue(
+      List.of(indexer),
+      retryRepo,
+      loader,
+      registry,
+      100,
+      Duration.ofSeconds(30),
+      Duration.ofMinutes(30),
+      clock::get
+    );
+    when(indexer.bulk(any())).thenReturn(List.of());
+  }
+
+  private static SearchDocument post(long id, String title) {
+    return new SearchDocument("post", id, title, "c", "a", null, List.of(), id, 0L);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void flushCoalescesWritesPerDocument() {
+    queue.enqueue(SearchIndexOperation.index("posts", post(1L, "v1")));
+    queue.enqueue(SearchIndexOperation.index("posts", post(1L, "v2")));
+    queue.enqueue(SearchIndexOperation.index("posts", post(1L, "v3")));
+    queue.enqueue(SearchIndexOperation.delete("comments", 1L));
+
+    queue.flush();
+
+    ArgumentCaptor<List<SearchIndexOperation>> captor = ArgumentCaptor.forClass(List.class);
+    verify(indexer, times(1)).bulk(captor.capture());
+    List<SearchIndexOperation> batch = captor.getValue();
+    assertEquals(2, batch.size());
+    SearchIndexOperation post = batch
+      .stream()
+      .filter(op -> op.index().equals("posts"))
+      .findFirst()
+      .orElseThrow();
+    assertEquals("v3", post.document().title());
+    verifyNoInteractions(retryRepo);
+
+    queue.flush();
+    verifyNoMoreInteractions(indexer);
+  }
+
+  @Test
+  void failedWritesAreStoredForRetry() {
+    SearchIndexOperation op = SearchIndexOperation.index("posts", post(7L, "t"));
+    when(indexer.bulk(any())).thenReturn(List.of(op));
+    when(retryRepo.findByIndexNameAndEntityId("posts", 7L)).thenReturn(Optional.empty());
+
+    queue.enqueue(op);
+    queue.flush();
+
+    ArgumentCaptor<SearchIndexRetry> captor = ArgumentCaptor.forClass(SearchIndexRetry.class);
+    verify(retryRepo).save(captor.capture());
+    assertEquals("posts", captor.getValue().getIndexName());
+    assertEquals(7L, captor.getValue().getEntityId());
+    assertNotNull(captor.getValue().getNextAttemptAt());
+  }
+
+  @Test
+  void retryReloadsDocumentAndBacksOffOnFailure() {
+    SearchIndexRetry ok = new SearchIndexRetry("posts", 1L, LocalDateTime.now());
+    SearchIndexRetry failing = new SearchIndexRetry("posts", 2L, LocalDateTime.now());
+    when(
+      retryRepo.findByNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(any(), any())
+    ).thenReturn(List.of(ok, failing));
+    SearchIndexOperation first = SearchIndexOperation.index("posts", post(1L, "fresh"));
+    SearchIndexOperation second = SearchIndexOperation.delete("posts", 2L);
+    when(loader.load("posts", 1L)).thenReturn(first);
+    when(loader.load("posts", 2L)).thenReturn(second);
+    when(indexer.bulk(List.of(first, second))).thenReturn(List.of(second));
+
+    queue.retryFailed();
+
+    verify(retryRepo).delete(ok);
+    verify(retryRepo).save(failing);
+    assertEquals(1, failing.getAttempts());
+  }
+
+  @Test
+  void lagReportsAgeOfOldestQueuedWrite() {
+    assertEquals(0.0, registry.get("search.index.lag").gauge().value());
+
+    queue.enqueue(SearchIndexOperation.index("posts", post(1L, "v1")));
+    clock.addAndGet(3_000);
+    queue.enqueue(SearchIndexOperation.index("posts", post(1L, "v2")));
+    clock.addAndGet(2_000);
+
+    assertEquals(5.0, registry.get("search.index.lag").gauge().value());
+    assertEquals(1.0, registry.get("search.index.pending").gauge().value());
+
+    queue.flush();
+    assertEquals(0.0, registry.get("search.index.lag").gauge().value());
+  }
+}
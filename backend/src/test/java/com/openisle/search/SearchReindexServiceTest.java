@@ -0,0 +1,172 @@
+package com.openisle.search;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.model.Post;
+import com.openisle.model.PostStatus;
+import com.openisle.model.SearchIndexState;
+import com.openisle.repository.CategoryRepository;
+import com.openisle.repository.CommentRepository;
+import com.openisle.repository.PostRepository;
+import com.openisle.repository.SearchIndexStateRepository;
+import com.openisle.repository.TagRepository;
+import com.openisle.repository.UserRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class SearchReindexServiceTest {
+
+  private OpenSearchProperties properties;
+  private OpenSearchIndexer openSearchIndexer;
+  private SearchIndexInitializer initializer;
+  private SearchIndexQueue queue;
+  private SearchDocumentLoader loader;
+  private SearchIndexStateRepository stateRepo;
+  private SearchReindexLock lock;
+  private PostRepository postRepo;
+  private CommentRepository commentRepo;
+  private UserRepository userRepo;
+  private CategoryRepository categoryRepo;
+  private TagRepository tagRepo;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    properties = new OpenSearchProperties();
+    openSearchIndexer = mock(OpenSearchIndexer.class);
+    initializer = mock(SearchIndexInitializer.class);
+    queue = mock(SearchIndexQueue.class);
+    loader = mock(SearchDocumentLoader.class);
+    stateRepo = mock(SearchIndexStateRepository.class);
+    lock = mock(SearchReindexLock.class);
+    postRepo = mock(PostRepository.class);
+    commentRepo = mock(CommentRepository.class);
+    userRepo = mock(UserRepository.class);
+    categoryRepo = mock(CategoryRepository.class);
+    tagRepo = mock(TagRepository.class);
+    when(lock.tryAcquire(any())).thenReturn(true);
+    when(openSearchIndexer.bulk(any())).thenReturn(List.of());
+    when(stateRepo.findById(anyString())).thenReturn(Optional.empty());
+    when(postRepo.findAll(any(Pageable.class))).thenReturn(Page.empty());
+    when(commentRepo.findAll(any(Pageable.class))).thenReturn(Page.empty());
+    when(userRepo.findAll(any(Pageable.class))).thenReturn(Page.empty());
+    when(categoryRepo.findAll(any(Pageable.class))).thenReturn(Page.empty());
+    when(tagRepo.findAll(any(Pageable.class))).thenReturn(Page.empty());
+  }
+
+  private SearchReindexService service() {
+    TransactionTemplate tx = mock(TransactionTemplate.class);
+    when(tx.execute(any())).thenAnswer(inv ->
+      ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null)
+    );
+    return new SearchReindexService(
+      List.of(openSearchIndexer),
+      Optional.of(openSearchIndexer),
+      Optional.of(initializer),
+      properties,
+      queue,
+      loader,
+      stateRepo,
+      lock,
+      tx,
+      postRepo,
+      commentRepo,
+      userRepo,
+      categoryRepo,
+      tagRepo
+    );
+  }
+
+  @Test
+  void catchesUpFromWatermarkWhenIndexIsCurrent() throws Exception {
+    properties.setEnabled(true);
+    LocalDateTime watermark = LocalDateTime.now().minusHours(1);
+    SearchIndexState state = new SearchIndexState(properties.postsIndex());
+    state.setWatermark(watermark);
+    when(stateRepo.findById(properties.postsIndex())).thenReturn(Optional.of(state));
+    when(initializer.aliasTargets(anyString())).thenAnswer(inv ->
+      Set.of(properties.physicalIndex(inv.getArgument(0)))
+    );
+    when(postRepo.findIdsUpdatedSince(watermark)).thenReturn(List.of(5L));
+    SearchIndexOperation op = SearchIndexOperation.delete(properties.postsIndex(), 5L);
+    when(loader.load(properties.postsIndex(), 5L)).thenReturn(op);
+
+    service().synchronize();
+
+    verify(queue).enqueue(op);
+    verify(initializer, never()).createIndex(anyString(), anyString());
+    assertTrue(state.getWatermark().isAfter(watermark));
+    verify(stateRepo).save(state);
+    verify(lock).release();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void rebuildsOutdatedIndexAndSwapsAlias() throws Exception {
+    properties.setEnabled(true);
+    properties.setIndexVersion(2);
+    String alias = properties.postsIndex();
+    when(initializer.aliasTargets(anyString())).thenAnswer(inv ->
+      Set.of(properties.physicalIndex(inv.getArgument(0)))
+    );
+    when(initializer.aliasTargets(alias)).thenReturn(Set.of(alias + "-v1"));
+    Post post = new Post();
+    post.setId(1L);
+    post.setTitle("t");
+    post.setContent("c");
+    post.setStatus(PostStatus.PUBLISHED);
+    when(postRepo.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(post)));
+
+    service().synchronize();
+
+    verify(initializer).createIndex(alias, alias + "-v2");
+    ArgumentCaptor<List<SearchIndexOperation>> captor = ArgumentCaptor.forClass(List.class);
+    verify(openSearchIndexer, atLeastOnce()).bulk(captor.capture());
+    assertEquals(alias + "-v2", captor.getAllValues().get(0).get(0).index());
+    verify(initializer).swapAlias(alias, alias + "-v2", Set.of(alias + "-v1"));
+    verify(initializer).deleteIndex(alias + "-v1");
+    verify(initializer, never()).createIndex(eq(properties.tagsIndex()), anyString());
+  }
+
+  @Test
+  void leavesNewerIndexVersionAlone() throws Exception {
+    properties.setEnabled(true);
+    when(initializer.aliasTargets(anyString())).thenAnswer(inv ->
+      Set.of(inv.getArgument(0) + "-v3")
+    );
+
+    service().synchronize();
+
+    verify(initializer, never()).createIndex(anyString(), anyString());
+    verify(initializer, never()).swapAlias(anyString(), anyString(), any());
+  }
+
+  @Test
+  void skipsWhenAnotherNodeHoldsTheLock() {
+    properties.setEnabled(true);
+    when(lock.tryAcquire(any())).thenReturn(false);
+
+    service().synchronize();
+
+    verifyNoInteractions(stateRepo, queue, initializer);
+    verify(lock, never()).release();
+  }
+
+  @Test
+  void parsesVersionSuffix() {
+    assertEquals(7, SearchReindexService.versionOf("openisle-posts", "openisle-posts-v7"));
+    assertEquals(0, SearchReindexService.versionOf("openisle-posts", "openisle-posts"));
+  }
+}
@@ -0,0 +1,175 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.openisle.dto.ChannelDto;
+import com.openisle.metrics.QueryCountInspector;
+import com.openisle.model.Message;
+import com.openisle.model.MessageConversation;
+import com.openisle.model.MessageParticipant;
+import com.openisle.model.Role;
+import com.openisle.model.User;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(
+  properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+  "com.openisle.metrics.QueryCountInspector"
+)
+@Import(ChannelService.class)
+class ChannelServiceTest {
+
+  private static final LocalDateTime READ_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+  @Autowired
+  private ChannelService channelService;
+
+  @Autowired
+  private TestEntityManager em;
+
+  private User viewer;
+  private User other;
+
+  @BeforeEach
+  void setUp() {
+    viewer = user("viewer");
+    other = user("other");
+  }
+
+  @Test
+  void listsChannelsInConstantQueries() {
+    for (int i = 0; i < 3; i++) {
+      channel("c" + i, 5, true);
+    }
+    long few = countQueries();
+
+    for (int i = 3; i < 20; i++) {
+      channel("c" + i, 5, i % 2 == 0);
+    }
+    long many = countQueries();
+
+    assertEquals(3, few);
+    assertEquals(few, many);
+  }
+
+  @Test
+  void listsMembersJoinedAndUnreadCounts() {
+    MessageConversation joined = channel("joined", 3, true);
+    MessageConversation notJoined = channel("notJoined", 4, false);
+    MessageParticipant self = em
+      .getEntityManager()
+      .createQuery(
+        "SELECT p FROM MessageParticipant p WHERE p.conversation = :c AND p.user = :u",
+        MessageParticipant.class
+      )
+      .setParameter("c", joined)
+      .setParameter("u", viewer)
+      .getSingleResult();
+    self.setLastReadAt(READ_AT);
+    // channel() 已经写入一条 READ_AT 之后的消息
+    message(joined, other, READ_AT.minusMinutes(1));
+    message(joined, other, READ_AT.plusMinutes(2));
+    message(joined, viewer, READ_AT.plusMinutes(3));
+    em.flush();
+    em.clear();
+
+    Map<String, ChannelDto> channels = channelService
+      .listChannels(viewer.getId())
+      .stream()
+      .collect(Collectors.toMap(ChannelDto::getName, c -> c));
+
+    ChannelDto j = channels.get("joined");
+    assertTrue(j.isJoined());
+    assertEquals(4, j.getMemberCount());
+    assertEquals(2, j.getUnreadCount());
+    assertNotNull(j.getLastMessage());
+    assertEquals(viewer.getId(), j.getLastMessage().getSender().getId());
+    ChannelDto n = channels.get("notJoined");
+    assertFalse(n.isJoined());
+    assertEquals(4, n.getMemberCount());
+    assertEquals(0, n.getUnreadCount());
+  }
+
+  @Test
+  void joiningTwiceCountsTheMemberOnce() {
+    MessageConversation channel = channel("c", 2, false);
+    em.clear();
+
+    assertEquals(3, channelService.joinChannel(channel.getId(), viewer.getId()).getMemberCount());
+    em.clear();
+    ChannelDto again = channelService.joinChannel(channel.getId(), viewer.getId());
+
+    assertTrue(again.isJoined());
+    assertEquals(3, again.getMemberCount());
+    em.clear();
+    assertEquals(3, em.find(MessageConversation.class, channel.getId()).getMemberCount());
+  }
+
+  private long countQueries() {
+    em.flush();
+    em.clear();
+    QueryCountInspector.start();
+    List<ChannelDto> channels = channelService.listChannels(viewer.getId());
+    long queries = QueryCountInspector.stop();
+    assertFalse(channels.isEmpty());
+    return queries;
+  }
+
+  /** A channel with {@code members} other members and one message, optionally joined. */
+  private MessageConversation channel(String name, int members, boolean join) {
+    MessageConversation channel = new MessageConversation();
+    channel.setChannel(true);
+    channel.setName(name);
+    channel.setMemberCount(members + (join ? 1 : 0));
+    em.persist(channel);
+    for (int i = 0; i < members; i++) {
+      participant(channel, user(name + "-member" + i));
+    }
+    if (join) {
+      participant(channel, viewer);
+    }
+    message(channel, other, READ_AT.plusMinutes(1));
+    return channel;
+  }
+
+  private void participant(MessageConversation channel, User user) {
+    MessageParticipant participant = new MessageParticipant();
+    participant.setConversation(channel);
+    participant.setUser(user);
+    em.persist(participant);
+  }
+
+  private void message(MessageConversation channel, User sender, LocalDateTime createdAt) {
+    Message message = new Message();
+    message.setConversation(channel);
+    message.setSender(sender);
+    message.setContent("hi");
+    em.persist(message);
+    channel.setLastMessage(message);
+    em.flush();
+    // createdAt 由 @CreationTimestamp 生成，直接改库里的值
+    em
+      .getEntityManager()
+      .createQuery("UPDATE Message m SET m.createdAt = :createdAt WHERE m.id = :id")
+      .setParameter("createdAt", createdAt)
+      .setParameter("id", message.getId())
+      .executeUpdate();
+  }
+
+  private User user(String username) {
+    User user = new User();
+    user.setUsername(username);
+    user.setEmail(username + "@example.com");
+    user.setPassword("p");
+    user.setRole(Role.USER);
+    return em.persist(user);
+  }
+}
@@ -1,19 +1,24 @@
 package com.openisle.service;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 import com.openisle.exception.RateLimitException;
+import com.openisle.model.Comment;
+import com.openisle.model.Post;
+import com.openisle.model.PurgeTask;
+import com.openisle.ratelimit.RateLimitAction;
+import com.openisle.ratelimit.RateLimitService;
 import com.openisle.repository.CommentRepository;
-import com.openisle.repository.CommentSubscriptionRepository;
-import com.openisle.repository.NotificationRepository;
-import com.openisle.repository.PointHistoryRepository;
 import com.openisle.repository.PostRepository;
+import com.openisle.repository.PurgeTaskRepository;
 import com.openisle.repository.ReactionRepository;
 import com.openisle.repository.UserRepository;
 import com.openisle.search.SearchIndexEventPublisher;
-import com.openisle.service.PointService;
+import java.util.List;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 class CommentServiceTest {
 
@@ -25,12 +30,10 @@ class CommentServiceTest {
     NotificationService notifService = mock(NotificationService.class);
     SubscriptionService subService = mock(SubscriptionService.class);
     ReactionRepository reactionRepo = mock(ReactionRepository.class);
-    CommentSubscriptionRepository subRepo = mock(CommentSubscriptionRepository.class);
-    NotificationRepository nRepo = mock(NotificationRepository.class);
-    PointHistoryRepository pointHistoryRepo = mock(PointHistoryRepository.class);
-    PointService pointService = mock(PointService.class);
     ImageUploader imageUploader = mock(ImageUploader.class);
     SearchIndexEventPublisher searchIndexEventPublisher = mock(SearchIndexEventPublisher.class);
+    RateLimitService rateLimitService = mock(RateLimitService.class);
+    PurgeTaskRepository purgeTaskRepo = mock(PurgeTaskRepository.class);
 
     CommentService service = new CommentService(
       commentRepo,
@@ -39,16 +42,55 @@ class CommentServiceTest {
       notifService,
       subService,
       reactionRepo,
-      subRepo,
-      nRepo,
-      pointHistoryRepo,
-      pointService,
       imageUploader,
-      searchIndexEventPublisher
+      searchIndexEventPublisher,
+      rateLimitService,
+      purgeTaskRepo
     );
 
-    when(commentRepo.countByAuthorAfter(eq("alice"), any())).thenReturn(3L);
+    doThrow(new RateLimitException("Too many comments"))
+      .when(rateLimitService)
+      .check(RateLimitAction.COMMENT, "alice");
 
     assertThrows(RateLimitException.class, () -> service.addComment("alice", 1L, "hi"));
   }
+
+  @Test
+  void deleteCommentCascadeHidesSubtreeAndEnqueuesPurge() {
+    CommentRepository commentRepo = mock(CommentRepository.class);
+    SearchIndexEventPublisher searchIndexEventPublisher = mock(SearchIndexEventPublisher.class);
+    PurgeTaskRepository purgeTaskRepo = mock(PurgeTaskRepository.class);
+    CommentService service = new CommentService(
+      commentRepo,
+      mock(PostRepository.class),
+      mock(UserRepository.class),
+      mock(NotificationService.class),
+      mock(SubscriptionService.class),
+      mock(ReactionRepository.class),
+      mock(ImageUploader.class),
+      searchIndexEventPublisher,
+      mock(RateLimitService.class),
+      purgeTaskRepo
+    );
+    Post post = new Post();
+    post.setId(10L);
+    Comment root = new Comment();
+    root.setId(1L);
+    root.setPost(post);
+    when(commentRepo.findIdsByParentIds(List.of(1L))).thenReturn(List.of(2L, 3L));
+    when(commentRepo.findIdsByParentIds(List.of(2L, 3L))).thenReturn(List.of(4L));
+    when(commentRepo.findIdsByParentIds(List.of(4L))).thenReturn(List.of());
+
+    service.deleteCommentCascade(root);
+
+    verify(commentRepo).softDeleteByIds(eq(List.of(1L, 2L, 3L, 4L)), any());
+    ArgumentCaptor<List<PurgeTask>> tasks = ArgumentCaptor.forClass(List.class);
+    verify(purgeTaskRepo).saveAll(tasks.capture());
+    assertEquals(
+      List.of(1L, 2L, 3L, 4L),
+      tasks.getValue().stream().map(PurgeTask::getTargetId).toList()
+    );
+    verify(searchIndexEventPublisher, times(4)).publishCommentDeleted(any());
+    verify(commentRepo, never()).delete(any());
+  }
 }
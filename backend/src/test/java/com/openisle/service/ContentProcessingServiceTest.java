@@ -0,0 +1,58 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class ContentProcessingServiceTest {
+
+  private static final String CONTENT =
+    "# Title\n\nHello @[alice] and @[bob], see ![img](https://cos.example.com/a.png) " +
+    "and [link](https://example.com/page).\n\n<script>alert(1)</script>";
+
+  @Test
+  void processExtractsArtifacts() {
+    ContentProcessingService service = new ContentProcessingService(10);
+
+    ContentProcessingService.ProcessedContent processed = service.process(CONTENT);
+
+    assertTrue(processed.html().contains("<h1>Title</h1>"));
+    assertEquals("Title Hello @[alice] and @[bob], see and link.", processed.plainText());
+    assertEquals("https://cos.example.com/a.png", processed.firstImage());
+    assertEquals(
+      Set.of("https://cos.example.com/a.png", "https://example.com/page"),
+      processed.urls()
+    );
+    assertEquals(Set.of("alice", "bob"), processed.mentions());
+    assertEquals("Title", processed.excerpt(5));
+    assertEquals(processed.plainText(), processed.excerpt(-1));
+  }
+
+  @Test
+  void sameContentIsProcessedOnce() {
+    ContentProcessingService service = new ContentProcessingService(10);
+
+    assertSame(service.process(CONTENT), service.process(new String(CONTENT)));
+    assertNotSame(service.process(CONTENT), service.process(CONTENT + " "));
+  }
+
+  @Test
+  void cacheIsBounded() {
+    ContentProcessingService service = new ContentProcessingService(1);
+
+    ContentProcessingService.ProcessedContent first = service.process("a");
+    service.process("b");
+
+    assertNotSame(first, service.process("a"));
+  }
+
+  @Test
+  void emptyContent() {
+    ContentProcessingService service = new ContentProcessingService(10);
+
+    assertEquals("", service.process(null).excerpt(10));
+    assertNull(service.process("").firstImage());
+    assertTrue(service.extractUrls(null).isEmpty());
+  }
+}
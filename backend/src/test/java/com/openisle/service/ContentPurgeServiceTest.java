@@ -0,0 +1,154 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.model.Post;
+import com.openisle.model.PurgeTargetType;
+import com.openisle.model.PurgeTask;
+import com.openisle.notification.NotificationUnreadCounter;
+import com.openisle.repository.CommentRepository;
+import com.openisle.repository.CommentSubscriptionRepository;
+import com.openisle.repository.NotificationRepository;
+import com.openisle.repository.PointHistoryRepository;
+import com.openisle.repository.PollVoteRepository;
+import com.openisle.repository.PostReadRepository;
+import com.openisle.repository.PostRepository;
+import com.openisle.repository.PostSubscriptionRepository;
+import com.openisle.repository.PurgeTaskRepository;
+import com.openisle.repository.ReactionRepository;
+import com.openisle.repository.UserRepository;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ContentPurgeServiceTest {
+
+  private PurgeTaskRepository purgeTaskRepo;
+  private PostRepository postRepo;
+  private CommentRepository commentRepo;
+  private ReactionRepository reactionRepo;
+  private CommentSubscriptionRepository commentSubRepo;
+  private PostSubscriptionRepository postSubRepo;
+  private NotificationRepository notificationRepo;
+  private PostReadRepository postReadRepo;
+  private PollVoteRepository pollVoteRepo;
+  private PointHistoryRepository pointHistoryRepo;
+  private UserRepository userRepo;
+  private PostChangeLogService changeLogService;
+  private ImageUploader imageUploader;
+  private NotificationUnreadCounter unreadCounter;
+  private ContentPurgeService service;
+
+  @BeforeEach
+  void setUp() {
+    purgeTaskRepo = mock(PurgeTaskRepository.class);
+    postRepo = mock(PostRepository.class);
+    commentRepo = mock(CommentRepository.class);
+    reactionRepo = mock(ReactionRepository.class);
+    commentSubRepo = mock(CommentSubscriptionRepository.class);
+    postSubRepo = mock(PostSubscriptionRepository.class);
+    notificationRepo = mock(NotificationRepository.class);
+    postReadRepo = mock(PostReadRepository.class);
+    pollVoteRepo = mock(PollVoteRepository.class);
+    pointHistoryRepo = mock(PointHistoryRepository.class);
+    userRepo = mock(UserRepository.class);
+    changeLogService = mock(PostChangeLogService.class);
+    imageUploader = mock(ImageUploader.class);
+    unreadCounter = mock(NotificationUnreadCounter.class);
+    service = new ContentPurgeService(
+      purgeTaskRepo,
+      postRepo,
+      commentRepo,
+      reactionRepo,
+      commentSubRepo,
+      postSubRepo,
+      notificationRepo,
+      postReadRepo,
+      pollVoteRepo,
+      pointHistoryRepo,
+      userRepo,
+      changeLogService,
+      imageUploader,
+      unreadCounter
+    );
+  }
+
+  @Test
+  void purgeCommentsUsesBulkStatementsAndPointDeltas() {
+    List<PurgeTask> tasks = List.of(
+      new PurgeTask(PurgeTargetType.COMMENT, 1L),
+      new PurgeTask(PurgeTargetType.COMMENT, 2L)
+    );
+    List<Long> ids = List.of(1L, 2L);
+    when(pointHistoryRepo.sumAmountByUserForComments(ids)).thenReturn(
+      List.<Object[]>of(new Object[] { 7L, 10L }, new Object[] { 8L, 0L })
+    );
+    when(commentRepo.findContentsByIds(ids)).thenReturn(List.of("a", "b"));
+
+    service.purgeComments(tasks);
+
+    verify(reactionRepo).deleteByCommentIds(ids);
+    verify(commentSubRepo).deleteByCommentIds(ids);
+    verify(notificationRepo).deleteByCommentIds(ids);
+    verify(pointHistoryRepo).softDeleteByCommentIds(eq(ids), any());
+    verify(userRepo).addPoint(7L, -10);
+    verify(userRepo, never()).addPoint(eq(8L), anyInt());
+    verify(imageUploader).removeReferencesFromContents(List.of("a", "b"));
+    verify(purgeTaskRepo).deleteAllInBatch(tasks);
+  }
+
+  @Test
+  void purgePostCommentsStopsWhenNothingLeft() {
+    when(commentRepo.findIdsByPostId(eq(5L), any())).thenReturn(List.of(3L), List.of());
+
+    assertTrue(service.purgePostComments(5L, 100));
+    assertFalse(service.purgePostComments(5L, 100));
+
+    verify(reactionRepo).deleteByCommentIds(List.of(3L));
+    verify(commentRepo, times(1)).softDeleteByIds(eq(List.of(3L)), any());
+  }
+
+  @Test
+  void purgePostRemovesRelationsThenPost() {
+    Post post = new Post();
+    post.setId(5L);
+    post.setContent("c");
+    PurgeTask task = new PurgeTask(PurgeTargetType.POST, 5L);
+    when(postRepo.findById(5L)).thenReturn(Optional.of(post));
+    when(notificationRepo.findUnreadUserIdsByPostId(5L)).thenReturn(List.of(9L));
+    when(pointHistoryRepo.sumAmountByUserForPost(5L)).thenReturn(
+      List.<Object[]>of(new Object[] { 7L, 30L })
+    );
+    when(imageUploader.extractUrls("c")).thenReturn(Set.of("u"));
+
+    service.purgePost(task);
+
+    verify(reactionRepo).deleteByPostId(5L);
+    verify(postSubRepo).deleteByPostId(5L);
+    verify(notificationRepo).deleteByPostId(5L);
+    verify(unreadCounter).invalidate(List.of(9L));
+    verify(postReadRepo).deleteByPostId(5L);
+    verify(pollVoteRepo).deleteByPostId(5L);
+    verify(userRepo).addPoint(7L, -30);
+    verify(commentRepo).hardDeleteByPostId(5L);
+    verify(changeLogService).deleteLogsForPost(post);
+    verify(imageUploader).removeReferences(Set.of("u"));
+    verify(postRepo).delete(post);
+    verify(purgeTaskRepo).delete(task);
+  }
+
+  @Test
+  void purgePostDropsTaskForMissingPost() {
+    PurgeTask task = new PurgeTask(PurgeTargetType.POST, 9L);
+    when(postRepo.findById(9L)).thenReturn(Optional.empty());
+
+    service.purgePost(task);
+
+    verify(postRepo, never()).delete(any());
+    verify(purgeTaskRepo).delete(task);
+  }
+}
@@ -1,15 +1,26 @@
 package com.openisle.service;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import com.openisle.model.Image;
 import com.openisle.repository.ImageRepository;
 import com.qcloud.cos.COSClient;
+import com.qcloud.cos.model.DeleteObjectsRequest;
 import com.qcloud.cos.model.PutObjectRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 class CosImageUploaderTest {
 
+  private final ContentProcessingService contentProcessingService =
+    new ContentProcessingService(100);
+
   @Test
   void uploadReturnsUrl() {
     COSClient client = mock(COSClient.class);
@@ -17,6 +28,7 @@ class CosImageUploaderTest {
     CosImageUploader uploader = new CosImageUploader(
       client,
       repo,
+      contentProcessingService,
       "bucket",
       "http://cos.example.com"
     );
@@ -26,4 +38,77 @@ class CosImageUploaderTest {
     verify(client).putObject(any(PutObjectRequest.class));
     assertTrue(url.matches("http://cos.example.com/dynamic_assert/[a-f0-9]{32}\\.png"));
   }
+
+  @Test
+  void adjustReferencesUsesBulkUpdates() {
+    ImageRepository repo = mock(ImageRepository.class);
+    CosImageUploader uploader = new CosImageUploader(
+      mock(COSClient.class),
+      repo,
+      contentProcessingService,
+      "bucket",
+      "http://cos.example.com"
+    );
+    String kept = "http://cos.example.com/a.png";
+    String removed = "http://cos.example.com/b.png";
+    String added = "http://cos.example.com/c.png";
+
+    uploader.adjustReferences(
+      "![](" + kept + ") ![](" + removed + ")",
+      "![](" + kept + ") ![](" + added + ") ![](http://other.com/x.png)"
+    );
+
+    verify(repo).addRefCounts(eq(Set.of(added)), eq(1L));
+    verify(repo).adjustRefCounts(eq(Set.of(removed)), eq(-1L), any());
+    verify(repo, times(1)).addRefCounts(any(), anyLong());
+    verify(repo, never()).saveAll(any());
+    verify(repo, never()).delete(any());
+  }
+
+  @Test
+  void purgeDeletesLockedCandidates() {
+    ImageRepository repo = mock(ImageRepository.class);
+    CosImageUploader uploader = new CosImageUploader(
+      mock(COSClient.class),
+      repo,
+      contentProcessingService,
+      "bucket",
+      "http://cos.example.com"
+    );
+    Image a = new Image();
+    a.setId(1L);
+    a.setUrl("http://cos.example.com/dynamic_assert/a.png");
+    Image b = new Image();
+    b.setId(2L);
+    b.setUrl("http://cos.example.com/dynamic_assert/b.png");
+    when(repo.findUnreferencedBefore(any(), any())).thenReturn(List.of(a, b));
+
+    List<String> keys = uploader.purgeUnreferenced(Duration.ofHours(1), 10);
+
+    verify(repo).deleteUnreferenced(List.of(1L, 2L));
+    assertEquals(List.of("dynamic_assert/a.png", "dynamic_assert/b.png"), keys);
+  }
+
+  @Test
+  void deleteFromStoreBatchesRequests() {
+    COSClient client = mock(COSClient.class);
+    CosImageUploader uploader = new CosImageUploader(
+      client,
+      mock(ImageRepository.class),
+      contentProcessingService,
+      "bucket",
+      "http://cos.example.com"
+    );
+    List<String> keys = new ArrayList<>();
+    for (int i = 0; i < 1500; i++) {
+      keys.add("dynamic_assert/" + i + ".png");
+    }
+
+    uploader.deleteFromStoreAsync(keys).join();
+
+    ArgumentCaptor<DeleteObjectsRequest> req = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+    verify(client, times(2)).deleteObjects(req.capture());
+    assertEquals(1000, req.getAllValues().get(0).getKeys().size());
+    assertEquals(500, req.getAllValues().get(1).getKeys().size());
+  }
 }
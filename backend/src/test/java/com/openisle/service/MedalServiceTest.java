@@ -5,6 +5,7 @@ import static org.mockito.Mockito.*;
 
 import com.openisle.dto.MedalDto;
 import com.openisle.model.MedalType;
+import com.openisle.model.PostStatus;
 import com.openisle.model.User;
 import com.openisle.repository.CommentRepository;
 import com.openisle.repository.PostRepository;
@@ -38,7 +39,7 @@ class MedalServiceTest {
     ContributorService contributorService = mock(ContributorService.class);
 
     when(commentRepo.countByAuthor_Id(1L)).thenReturn(120L);
-    when(postRepo.countByAuthor_Id(1L)).thenReturn(80L);
+    when(postRepo.countByAuthor_IdAndStatusNot(1L, PostStatus.DELETED)).thenReturn(80L);
     when(contributorService.getContributionLines(anyString())).thenReturn(0L);
     when(userRepo.countByCreatedAtBefore(any())).thenReturn(50L);
     User user = new User();
@@ -126,7 +127,7 @@ class MedalServiceTest {
     ContributorService contributorService = mock(ContributorService.class);
 
     when(commentRepo.countByAuthor_Id(1L)).thenReturn(120L);
-    when(postRepo.countByAuthor_Id(1L)).thenReturn(0L);
+    when(postRepo.countByAuthor_IdAndStatusNot(1L, PostStatus.DELETED)).thenReturn(0L);
     when(contributorService.getContributionLines(anyString())).thenReturn(0L);
     when(userRepo.countByCreatedAtBefore(any())).thenReturn(0L);
     User user = new User();
@@ -148,7 +149,7 @@ class MedalServiceTest {
     ContributorService contributorService = mock(ContributorService.class);
 
     when(commentRepo.countByAuthor_Id(1L)).thenReturn(10L);
-    when(postRepo.countByAuthor_Id(1L)).thenReturn(0L);
+    when(postRepo.countByAuthor_IdAndStatusNot(1L, PostStatus.DELETED)).thenReturn(0L);
     when(contributorService.getContributionLines(anyString())).thenReturn(0L);
     when(userRepo.countByCreatedAtBefore(any())).thenReturn(0L);
     User user = new User();
@@ -0,0 +1,249 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.openisle.dto.MessageDto;
+import com.openisle.mapper.ReactionMapper;
+import com.openisle.message.MessageCursor;
+import com.openisle.metrics.QueryCountInspector;
+import com.openisle.model.Message;
+import com.openisle.model.MessageConversation;
+import com.openisle.model.MessageParticipant;
+import com.openisle.model.Reaction;
+import com.openisle.model.ReactionType;
+import com.openisle.model.Role;
+import com.openisle.model.User;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(
+  properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+  "com.openisle.metrics.QueryCountInspector"
+)
+@Import({ MessageService.class, ReactionMapper.class })
+class MessageServiceHistoryTest {
+
+  private static final int MESSAGES = 95;
+  private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+  @Autowired
+  private MessageService messageService;
+
+  @Autowired
+  private TestEntityManager em;
+
+  @MockBean
+  private NotificationProducer notificationProducer;
+
+  private User alice;
+  private User bob;
+  private MessageConversation conversation;
+  /** Message ids oldest first. */
+  private final List<Long> history = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    alice = user("alice");
+    bob = user("bob");
+    conversation = new MessageConversation();
+    em.persist(conversation);
+    participant(alice);
+    participant(bob);
+    Message previous = null;
+    for (int i = 0; i < MESSAGES; i++) {
+      // 每三条消息共用一个时间，检验 id 作为第二排序键
+      Message message = message(i % 2 == 0 ? alice : bob, T0.plusSeconds(i / 3), previous);
+      if (i % 5 == 0) {
+        reaction(message, alice, ReactionType.LIKE);
+        reaction(message, bob, ReactionType.SMILE);
+      }
+      history.add(message.getId());
+      previous = i % 4 == 0 ? message : null;
+    }
+    em.flush();
+    em.clear();
+  }
+
+  @Test
+  void pagesBackThroughHistoryInBoundedQueries() {
+    List<MessageDto> collected = new ArrayList<>();
+    MessageCursor before = null;
+    List<Long> queries = new ArrayList<>();
+    do {
+      QueryCountInspector.start();
+      MessageService.MessagePage page = messageService.getMessages(
+        conversation.getId(),
+        alice.getId(),
+        before,
+        null,
+        null,
+        20
+      );
+      queries.add(QueryCountInspector.stop());
+      collected.addAll(0, page.items());
+      before = page.before() == null ? null : MessageCursor.decode(page.before().encode());
+      em.clear();
+    } while (before != null);
+
+    assertEquals(5, queries.size());
+    // 参与者检查、一页消息、一次批量加载反应
+    queries.forEach(q -> assertEquals(3, q));
+    assertEquals(history, ids(collected));
+
+    MessageDto first = collected.get(0);
+    assertEquals("alice", first.getSender().getUsername());
+    assertEquals(2, first.getReactions().size());
+    assertEquals(first.getId(), first.getReactions().get(0).getMessageId());
+    assertTrue(collected.get(3).getReactions().isEmpty());
+    MessageDto reply = collected.get(1);
+    assertEquals(first.getId(), reply.getReplyTo().getId());
+    assertEquals("alice", reply.getReplyTo().getSender().getUsername());
+  }
+
+  @Test
+  void cursorsStayStableUnderConcurrentInserts() {
+    MessageService.MessagePage latest = messageService.getMessages(
+      conversation.getId(),
+      alice.getId(),
+      null,
+      null,
+      null,
+      20
+    );
+    assertNull(latest.after());
+    MessageCursor newest = MessageCursor.of(em.find(Message.class, history.get(MESSAGES - 1)));
+    em.clear();
+
+    // 翻页期间有新消息写入，其中一条与最新一条时间相同
+    List<Long> inserted = new ArrayList<>();
+    conversation = em.find(MessageConversation.class, conversation.getId());
+    inserted.add(message(bob, newest.createdAt(), null).getId());
+    inserted.add(message(bob, T0.plusMinutes(10), null).getId());
+    em.flush();
+    em.clear();
+
+    List<MessageDto> older = new ArrayList<>();
+    MessageCursor before = latest.before();
+    while (before != null) {
+      MessageService.MessagePage page = messageService.getMessages(
+        conversation.getId(),
+        alice.getId(),
+        before,
+        null,
+        null,
+        20
+      );
+      older.addAll(0, page.items());
+      before = page.before();
+    }
+    older.addAll(latest.items());
+    assertEquals(history, ids(older));
+
+    MessageService.MessagePage newer = messageService.getMessages(
+      conversation.getId(),
+      alice.getId(),
+      null,
+      newest,
+      null,
+      20
+    );
+    // 与最新一条同时间的那条 id 更大，排在它之后
+    assertEquals(inserted, ids(newer.items()));
+    assertNull(newer.after());
+    assertEquals(MessageCursor.of(em.find(Message.class, inserted.get(0))), newer.before());
+  }
+
+  @Test
+  void aroundMessageCentresTheSlice() {
+    Long anchor = history.get(50);
+    MessageService.MessagePage page = messageService.getMessages(
+      conversation.getId(),
+      bob.getId(),
+      null,
+      null,
+      anchor,
+      9
+    );
+
+    assertEquals(history.subList(46, 55), ids(page.items()));
+    assertNotNull(page.before());
+    assertNotNull(page.after());
+    assertEquals(history.get(46), page.before().id());
+    assertEquals(history.get(54), page.after().id());
+
+    MessageService.MessagePage start = messageService.getMessages(
+      conversation.getId(),
+      bob.getId(),
+      null,
+      null,
+      history.get(1),
+      9
+    );
+    assertEquals(history.subList(0, 6), ids(start.items()));
+    assertNull(start.before());
+    assertNotNull(start.after());
+  }
+
+  @Test
+  void rejectsOutsiders() {
+    User carol = user("carol");
+    assertThrows(
+      IllegalArgumentException.class,
+      () -> messageService.getMessages(conversation.getId(), carol.getId(), null, null, null, 20)
+    );
+  }
+
+  private static List<Long> ids(List<MessageDto> messages) {
+    return messages.stream().map(MessageDto::getId).toList();
+  }
+
+  private void participant(User user) {
+    MessageParticipant participant = new MessageParticipant();
+    participant.setConversation(conversation);
+    participant.setUser(user);
+    em.persist(participant);
+  }
+
+  private Message message(User sender, LocalDateTime createdAt, Message replyTo) {
+    Message message = new Message();
+    message.setConversation(conversation);
+    message.setSender(sender);
+    message.setContent("hi");
+    message.setReplyTo(replyTo);
+    em.persist(message);
+    em.flush();
+    // createdAt 由 @CreationTimestamp 生成，直接改库里的值
+    em
+      .getEntityManager()
+      .createQuery("UPDATE Message m SET m.createdAt = :createdAt WHERE m.id = :id")
+      .setParameter("createdAt", createdAt)
+      .setParameter("id", message.getId())
+      .executeUpdate();
+    return message;
+  }
+
+  private void reaction(Message message, User user, ReactionType type) {
+    Reaction reaction = new Reaction();
+    reaction.setMessage(message);
+    reaction.setUser(user);
+    reaction.setType(type);
+    em.persist(reaction);
+  }
+
+  private User user(String username) {
+    User user = new User();
+    user.setUsername(username);
+    user.setEmail(username + "@example.com");
+    user.setPassword("p");
+    user.setRole(Role.USER);
+    return em.persist(user);
+  }
+}
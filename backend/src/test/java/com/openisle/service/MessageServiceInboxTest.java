@@ -0,0 +1,168 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.openisle.dto.ConversationDto;
+import com.openisle.mapper.ReactionMapper;
+import com.openisle.message.ConversationCursor;
+import com.openisle.metrics.QueryCountInspector;
+import com.openisle.model.Message;
+import com.openisle.model.MessageConversation;
+import com.openisle.model.MessageParticipant;
+import com.openisle.model.Role;
+import com.openisle.model.User;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(
+  properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+  "com.openisle.metrics.QueryCountInspector"
+)
+@Import({ MessageService.class, ReactionMapper.class })
+class MessageServiceInboxTest {
+
+  private static final int CONVERSATIONS = 200;
+  private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+  @Autowired
+  private MessageService messageService;
+
+  @Autowired
+  private TestEntityManager em;
+
+  @MockBean
+  private NotificationProducer notificationProducer;
+
+  private User viewer;
+
+  @BeforeEach
+  void setUp() {
+    viewer = user("viewer");
+    for (int i = 0; i < CONVERSATIONS; i++) {
+      User other = user("other" + i);
+      MessageConversation conversation = new MessageConversation();
+      em.persist(conversation);
+      participant(conversation, viewer, T0);
+      participant(conversation, other, null);
+      // 每两个会话共用一个时间，检验 id 作为第二排序键
+      LocalDateTime at = T0.plusMinutes(i / 2);
+      message(conversation, viewer, at.minusSeconds(1));
+      message(conversation, other, at);
+      conversation.setLastMessageAt(at);
+    }
+    MessageConversation channel = new MessageConversation();
+    channel.setChannel(true);
+    em.persist(channel);
+    participant(channel, viewer, null);
+    em.flush();
+    em.clear();
+  }
+
+  @Test
+  void listsTheWholeInboxInOneQuery() {
+    QueryCountInspector.start();
+    List<ConversationDto> inbox = messageService.getConversations(viewer.getId());
+    long queries = QueryCountInspector.stop();
+
+    assertEquals(1, queries);
+    assertEquals(CONVERSATIONS, inbox.size());
+    ConversationDto newest = inbox.get(0);
+    assertEquals("other199", newest.getParticipants().get(1).getUsername());
+    assertEquals(viewer.getId(), newest.getParticipants().get(0).getId());
+    assertEquals("other199", newest.getLastMessage().getSender().getUsername());
+    assertEquals(T0.plusMinutes(99), newest.getLastMessage().getCreatedAt());
+    assertEquals(newest.getId(), newest.getLastMessage().getConversationId());
+    // 只有对方在已读时间 T0 之后发的消息算未读
+    assertEquals(1, newest.getUnreadCount());
+    assertEquals(0, inbox.get(CONVERSATIONS - 1).getUnreadCount());
+  }
+
+  @Test
+  void pagesWithAStableCursorInBoundedQueries() {
+    List<ConversationDto> all = messageService.getConversations(viewer.getId());
+    em.clear();
+
+    List<ConversationDto> paged = new ArrayList<>();
+    ConversationCursor cursor = ConversationCursor.START;
+    int pages = 0;
+    QueryCountInspector.start();
+    do {
+      MessageService.ConversationPage page = messageService.getConversations(
+        viewer.getId(),
+        cursor,
+        30
+      );
+      paged.addAll(page.items());
+      cursor = page.next();
+      if (cursor != null) {
+        cursor = ConversationCursor.decode(cursor.encode());
+      }
+      pages++;
+    } while (cursor != null);
+    long queries = QueryCountInspector.stop();
+
+    assertEquals(7, pages);
+    assertEquals(pages, queries);
+    assertEquals(all.stream().map(ConversationDto::getId).toList(), ids(paged));
+  }
+
+  @Test
+  void newMessageMovesTheConversationToTheFront() {
+    List<ConversationDto> before = messageService.getConversations(viewer.getId());
+    Long oldest = before.get(CONVERSATIONS - 1).getId();
+
+    messageService.sendMessageToConversation(viewer.getId(), oldest, "bump", null);
+    em.flush();
+    em.clear();
+
+    List<ConversationDto> after = messageService.getConversations(viewer.getId());
+    assertEquals(oldest, after.get(0).getId());
+    assertEquals("bump", after.get(0).getLastMessage().getContent());
+  }
+
+  private static List<Long> ids(List<ConversationDto> conversations) {
+    return conversations.stream().map(ConversationDto::getId).toList();
+  }
+
+  private void participant(MessageConversation conversation, User user, LocalDateTime readAt) {
+    MessageParticipant participant = new MessageParticipant();
+    participant.setConversation(conversation);
+    participant.setUser(user);
+    participant.setLastReadAt(readAt);
+    em.persist(participant);
+  }
+
+  private void message(MessageConversation conversation, User sender, LocalDateTime createdAt) {
+    Message message = new Message();
+    message.setConversation(conversation);
+    message.setSender(sender);
+    message.setContent("hi");
+    em.persist(message);
+    conversation.setLastMessage(message);
+    em.flush();
+    // createdAt 由 @CreationTimestamp 生成，直接改库里的值
+    em
+      .getEntityManager()
+      .createQuery("UPDATE Message m SET m.createdAt = :createdAt WHERE m.id = :id")
+      .setParameter("createdAt", createdAt)
+      .setParameter("id", message.getId())
+      .executeUpdate();
+  }
+
+  private User user(String username) {
+    User user = new User();
+    user.setUsername(username);
+    user.setEmail(username + "@example.com");
+    user.setPassword("p");
+    user.setRole(Role.USER);
+    return em.persist(user);
+  }
+}
@@ -0,0 +1,56 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.notification.NotificationUnreadCounter;
+import com.openisle.repository.NotificationArchiveRepository;
+import com.openisle.repository.NotificationRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.PageRequest;
+
+class NotificationArchiveServiceTest {
+
+  @Test
+  void archivesBatchAndInvalidatesUnreadOwners() {
+    NotificationRepository nRepo = mock(NotificationRepository.class);
+    NotificationArchiveRepository archiveRepo = mock(NotificationArchiveRepository.class);
+    NotificationUnreadCounter unreadCounter = mock(NotificationUnreadCounter.class);
+    NotificationArchiveService service = new NotificationArchiveService(
+      nRepo,
+      archiveRepo,
+      unreadCounter
+    );
+    LocalDateTime cutoff = LocalDateTime.of(2024, 1, 1, 0, 0);
+    when(nRepo.findIdsCreatedBefore(cutoff, PageRequest.of(0, 2))).thenReturn(List.of(1L, 2L));
+    when(nRepo.findUnreadUserIdsByIds(List.of(1L, 2L))).thenReturn(List.of(9L));
+
+    assertEquals(2, service.archiveBatch(cutoff, 2));
+
+    InOrder order = inOrder(unreadCounter, archiveRepo, nRepo);
+    order.verify(unreadCounter).invalidate(List.of(9L));
+    order.verify(archiveRepo).copyFromNotifications(eq(List.of(1L, 2L)), any());
+    order.verify(nRepo).deleteByIds(List.of(1L, 2L));
+  }
+
+  @Test
+  void emptyBatchDoesNothing() {
+    NotificationRepository nRepo = mock(NotificationRepository.class);
+    NotificationArchiveRepository archiveRepo = mock(NotificationArchiveRepository.class);
+    NotificationArchiveService service = new NotificationArchiveService(
+      nRepo,
+      archiveRepo,
+      mock(NotificationUnreadCounter.class)
+    );
+    when(nRepo.findIdsCreatedBefore(any(), any())).thenReturn(List.of());
+
+    assertEquals(0, service.archiveBatch(LocalDateTime.now(), 100));
+
+    verifyNoInteractions(archiveRepo);
+    verify(nRepo, never()).deleteByIds(any());
+  }
+}
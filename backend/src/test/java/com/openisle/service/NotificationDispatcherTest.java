@@ -0,0 +1,106 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.exception.EmailSendException;
+import com.openisle.model.User;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import org.junit.jupiter.api.Test;
+
+class NotificationDispatcherTest {
+
+  @Test
+  void dispatchSendsEmailAndPush() {
+    EmailSender email = mock(EmailSender.class);
+    NotificationService notificationService = mock(NotificationService.class);
+    Executor executor = Runnable::run;
+    NotificationDispatcher dispatcher = new NotificationDispatcher(
+      email,
+      notificationService,
+      executor,
+      0
+    );
+
+    User winner = new User();
+    winner.setId(1L);
+    User muted = new User();
+    muted.setId(2L);
+
+    dispatcher.dispatch(
+      List.of(
+        new NotificationDispatcher.Delivery(winner, "a@a.com", "你中奖了", "text", "url"),
+        new NotificationDispatcher.Delivery(muted, null, "你中奖了", "text", "url")
+      )
+    );
+
+    verify(email).sendEmail("a@a.com", "你中奖了", "text");
+    verifyNoMoreInteractions(email);
+    verify(notificationService).sendCustomPush(winner, "你中奖了", "url");
+    verify(notificationService).sendCustomPush(muted, "你中奖了", "url");
+  }
+
+  @Test
+  void emailFailureStillSendsPush() {
+    EmailSender email = mock(EmailSender.class);
+    NotificationService notificationService = mock(NotificationService.class);
+    Executor executor = Runnable::run;
+    NotificationDispatcher dispatcher = new NotificationDispatcher(
+      email,
+      notificationService,
+      executor,
+      0
+    );
+    doThrow(new EmailSendException("down")).when(email).sendEmail(any(), any(), any());
+
+    User winner = new User();
+    winner.setId(1L);
+    dispatcher.dispatch(
+      List.of(new NotificationDispatcher.Delivery(winner, "a@a.com", "s", "t", "u"))
+    );
+
+    verify(notificationService).sendCustomPush(winner, "s", "u");
+  }
+
+  @Test
+  void afterCommitRunsImmediatelyWithoutTransaction() {
+    List<Runnable> submitted = new ArrayList<>();
+    NotificationDispatcher dispatcher = new NotificationDispatcher(
+      mock(EmailSender.class),
+      mock(NotificationService.class),
+      submitted::add,
+      0
+    );
+
+    dispatcher.afterCommit(() -> {});
+
+    assertEquals(1, submitted.size());
+  }
+
+  @Test
+  void deliveriesArePaced() {
+    EmailSender email = mock(EmailSender.class);
+    NotificationDispatcher dispatcher = new NotificationDispatcher(
+      email,
+      mock(NotificationService.class),
+      Runnable::run,
+      50
+    );
+    User user = new User();
+    user.setId(1L);
+    List<NotificationDispatcher.Delivery> deliveries = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      deliveries.add(new NotificationDispatcher.Delivery(user, "a@a.com", "s", "t", "u"));
+    }
+
+    long start = System.nanoTime();
+    dispatcher.dispatch(deliveries);
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+    // 50/s => 20ms between sends, the first one starts immediately
+    assertTrue(elapsedMillis >= 90, "elapsed " + elapsedMillis + "ms");
+    verify(email, times(6)).sendEmail("a@a.com", "s", "t");
+  }
+}
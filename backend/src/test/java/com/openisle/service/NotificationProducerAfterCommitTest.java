@@ -0,0 +1,133 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import com.openisle.config.RabbitMQConfig;
+import com.openisle.config.ShardAlgorithm;
+import com.openisle.config.ShardingStrategy;
+import com.openisle.model.OutboxEvent;
+import com.openisle.outbox.OutboxRelay;
+import com.openisle.realtime.RealtimeEvent;
+import com.openisle.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Queues an event from an after-commit listener, as the unread counter push does. */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ NotificationProducer.class, NotificationProducerAfterCommitTest.Config.class })
+class NotificationProducerAfterCommitTest {
+
+  record Committed(String username) {}
+
+  static class Listener {
+
+    private final NotificationProducer producer;
+
+    Listener(NotificationProducer producer) {
+      this.producer = producer;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onCommitted(Committed event) {
+      producer.sendEventInNewTransaction(
+        event.username(),
+        new RealtimeEvent.NotificationUnread(1, Map.of("MENTION", 1L))
+      );
+    }
+  }
+
+  @TestConfiguration
+  static class Config {
+
+    @Bean(destroyMethod = "shutdownNow")
+    ExecutorService relayExecutor() {
+      return Executors.newSingleThreadExecutor();
+    }
+
+    @Bean
+    ShardingStrategy shardingStrategy() {
+      return new ShardingStrategy(16, ShardAlgorithm.JUMP);
+    }
+
+    @Bean
+    MessageConverter messageConverter(ShardingStrategy shardingStrategy) {
+      return new RabbitMQConfig(shardingStrategy).messageConverter();
+    }
+
+    @Bean
+    OutboxRelay outboxRelay(
+      OutboxEventRepository repository,
+      PlatformTransactionManager transactionManager,
+      ExecutorService relayExecutor
+    ) {
+      return new OutboxRelay(
+        repository,
+        mock(RabbitTemplate.class),
+        new TransactionTemplate(transactionManager),
+        new SimpleMeterRegistry(),
+        relayExecutor,
+        10,
+        Duration.ofMillis(50),
+        Duration.ofDays(1)
+      );
+    }
+
+    @Bean
+    Listener listener(NotificationProducer producer) {
+      return new Listener(producer);
+    }
+  }
+
+  @Autowired
+  private OutboxEventRepository repository;
+
+  @Autowired
+  private ApplicationEventPublisher publisher;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private ExecutorService relayExecutor;
+
+  @AfterEach
+  void tearDown() {
+    repository.deleteAll();
+  }
+
+  @Test
+  void eventQueuedAfterCommitIsStoredAndRelayed() throws Exception {
+    new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+      publisher.publishEvent(new Committed("alice"))
+    );
+
+    // 等待提交后唤醒的 relay 跑完
+    relayExecutor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+    List<OutboxEvent> rows = repository.findAll();
+    assertEquals(1, rows.size());
+    assertNotNull(rows.get(0).getSentAt());
+  }
+}
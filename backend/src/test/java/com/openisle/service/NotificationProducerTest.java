@@ -0,0 +1,71 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.config.RabbitMQConfig;
+import com.openisle.config.ShardAlgorithm;
+import com.openisle.config.ShardingStrategy;
+import com.openisle.model.OutboxEvent;
+import com.openisle.outbox.OutboxRelay;
+import com.openisle.realtime.RealtimeEnvelope;
+import com.openisle.realtime.RealtimeEvent;
+import com.openisle.realtime.RealtimeMessageConverter;
+import com.openisle.repository.OutboxEventRepository;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class NotificationProducerTest {
+
+  @Test
+  void writesShardedEventToOutboxAndWakesRelay() {
+    ShardingStrategy sharding = new ShardingStrategy(16, ShardAlgorithm.JUMP);
+    RealtimeMessageConverter converter = new RabbitMQConfig(sharding).messageConverter();
+    OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    OutboxRelay relay = mock(OutboxRelay.class);
+    NotificationProducer producer = new NotificationProducer(
+      repository,
+      relay,
+      converter,
+      sharding
+    );
+    ReflectionTestUtils.setField(producer, "shardingEnabled", true);
+    RealtimeEvent event = new RealtimeEvent.NotificationUnread(3, Map.of("MENTION", 3L));
+
+    producer.sendEvent("alice", event);
+
+    ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+    verify(repository).save(captor.capture());
+    verify(relay).wakeUpAfterCommit();
+    OutboxEvent row = captor.getValue();
+    assertEquals(RabbitMQConfig.EXCHANGE_NAME, row.getExchange());
+    assertEquals(sharding.getShardInfo("alice").getRoutingKey(), row.getRoutingKey());
+    assertEquals(RealtimeMessageConverter.CONTENT_TYPE_SMILE, row.getContentType());
+    MessageProperties properties = new MessageProperties();
+    properties.setContentType(row.getContentType());
+    Message message = new Message(row.getPayload(), properties);
+    assertEquals(RealtimeEnvelope.of("alice", event), converter.fromMessage(message));
+  }
+
+  @Test
+  void usesLegacyRoutingKeyWhenShardingIsDisabled() {
+    ShardingStrategy sharding = new ShardingStrategy(16, ShardAlgorithm.JUMP);
+    OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    NotificationProducer producer = new NotificationProducer(
+      repository,
+      mock(OutboxRelay.class),
+      new RabbitMQConfig(sharding).messageConverter(),
+      sharding
+    );
+
+    producer.sendEvent("bob", new RealtimeEvent.NotificationUnread(0, Map.of()));
+
+    ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+    verify(repository).save(captor.capture());
+    assertEquals(RabbitMQConfig.ROUTING_KEY, captor.getValue().getRoutingKey());
+  }
+}
@@ -4,17 +4,22 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import com.openisle.model.*;
+import com.openisle.notification.NotificationCursor;
+import com.openisle.notification.NotificationUnreadCounter;
 import com.openisle.repository.NotificationRepository;
 import com.openisle.repository.ReactionRepository;
 import com.openisle.repository.UserRepository;
 import com.openisle.service.PushNotificationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Executor;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
 class NotificationServiceTest {
@@ -22,6 +27,7 @@ class NotificationServiceTest {
   @Test
   void markReadUpdatesOnlyOwnedNotifications() {
     NotificationRepository nRepo = mock(NotificationRepository.class);
+    NotificationUnreadCounter unreadCounter = mock(NotificationUnreadCounter.class);
     UserRepository uRepo = mock(UserRepository.class);
     ReactionRepository rRepo = mock(ReactionRepository.class);
     EmailSender email = mock(EmailSender.class);
@@ -33,7 +39,10 @@ class NotificationServiceTest {
       email,
       push,
       rRepo,
-      executor
+      executor,
+      new ContentProcessingService(100),
+      unreadCounter,
+      new SimpleMeterRegistry()
     );
     org.springframework.test.util.ReflectionTestUtils.setField(
       service,
@@ -46,24 +55,72 @@ class NotificationServiceTest {
     user.setUsername("alice");
     when(uRepo.findByUsername("alice")).thenReturn(Optional.of(user));
 
-    Notification n1 = new Notification();
-    n1.setId(10L);
-    n1.setUser(user);
-    Notification n2 = new Notification();
-    n2.setId(11L);
-    n2.setUser(user);
-    when(nRepo.findAllById(List.of(10L, 11L))).thenReturn(List.of(n1, n2));
+    when(
+      nRepo.countUnreadByTypeIn(1L, List.of(10L, 11L), Notification.READ_ALL_EXEMPT_TYPES)
+    ).thenReturn(List.<Object[]>of(new Object[] { NotificationType.MENTION, 2L }));
 
     service.markRead("alice", List.of(10L, 11L));
 
-    assertTrue(n1.isRead());
-    assertTrue(n2.isRead());
-    verify(nRepo).saveAll(List.of(n1, n2));
+    verify(nRepo).markRead(1L, List.of(10L, 11L));
+    verify(nRepo, never()).saveAll(any());
+    verify(unreadCounter).markedRead(1L, Map.of(NotificationType.MENTION, 2L));
+  }
+
+  @Test
+  void markAllReadMovesWatermark() {
+    NotificationRepository nRepo = mock(NotificationRepository.class);
+    NotificationUnreadCounter unreadCounter = mock(NotificationUnreadCounter.class);
+    UserRepository uRepo = mock(UserRepository.class);
+    NotificationService service = new NotificationService(
+      nRepo,
+      uRepo,
+      mock(EmailSender.class),
+      mock(PushNotificationService.class),
+      mock(ReactionRepository.class),
+      Runnable::run,
+      new ContentProcessingService(100),
+      unreadCounter,
+      new SimpleMeterRegistry()
+    );
+
+    User user = new User();
+    user.setId(1L);
+    user.setUsername("alice");
+    when(uRepo.findByUsername("alice")).thenReturn(Optional.of(user));
+
+    service.markAllRead("alice");
+
+    verify(uRepo).markNotificationsReadBefore(eq(1L), any(LocalDateTime.class));
+    verify(nRepo, never()).markRead(any(), any());
+    verify(unreadCounter).invalidate(List.of(1L));
+  }
+
+  @Test
+  void effectivelyReadHonoursWatermarkExceptExemptTypes() {
+    User user = new User();
+    user.setNotificationsReadBefore(LocalDateTime.of(2024, 1, 1, 0, 0));
+    Notification old = new Notification();
+    old.setUser(user);
+    old.setType(NotificationType.MENTION);
+    old.setCreatedAt(LocalDateTime.of(2023, 12, 31, 0, 0));
+    Notification fresh = new Notification();
+    fresh.setUser(user);
+    fresh.setType(NotificationType.MENTION);
+    fresh.setCreatedAt(LocalDateTime.of(2024, 1, 2, 0, 0));
+    Notification request = new Notification();
+    request.setUser(user);
+    request.setType(NotificationType.REGISTER_REQUEST);
+    request.setCreatedAt(LocalDateTime.of(2023, 12, 31, 0, 0));
+
+    assertTrue(old.effectivelyRead());
+    assertFalse(fresh.effectivelyRead());
+    assertFalse(request.effectivelyRead());
   }
 
   @Test
   void listNotificationsWithoutFilter() {
     NotificationRepository nRepo = mock(NotificationRepository.class);
+    NotificationUnreadCounter unreadCounter = mock(NotificationUnreadCounter.class);
     UserRepository uRepo = mock(UserRepository.class);
     ReactionRepository rRepo = mock(ReactionRepository.class);
     EmailSender email = mock(EmailSender.class);
@@ -75,7 +132,10 @@ class NotificationServiceTest {
       email,
       push,
       rRepo,
-      executor
+      executor,
+      new ContentProcessingService(100),
+      unreadCounter,
+      new SimpleMeterRegistry()
     );
     org.springframework.test.util.ReflectionTestUtils.setField(
       service,
@@ -90,19 +150,84 @@ class NotificationServiceTest {
     when(uRepo.findByUsername("bob")).thenReturn(Optional.of(user));
 
     Notification n = new Notification();
-    when(nRepo.findByUserOrderByCreatedAtDesc(eq(user), any(Pageable.class))).thenReturn(
-      new PageImpl<>(List.of(n))
-    );
+    when(
+      nRepo.findPage(
+        eq(2L),
+        eq(false),
+        any(),
+        eq(false),
+        eq(false),
+        any(),
+        eq(NotificationCursor.START.createdAt()),
+        eq(Long.MAX_VALUE),
+        eq(PageRequest.of(0, 10))
+      )
+    ).thenReturn(List.of(n));
 
     List<Notification> list = service.listNotifications("bob", null, 0, 10);
 
     assertEquals(1, list.size());
-    verify(nRepo).findByUserOrderByCreatedAtDesc(eq(user), any(Pageable.class));
   }
 
   @Test
-  void countUnreadReturnsRepositoryValue() {
+  void listNotificationsPagesByCursor() {
+    NotificationRepository nRepo = mock(NotificationRepository.class);
+    UserRepository uRepo = mock(UserRepository.class);
+    NotificationService service = new NotificationService(
+      nRepo,
+      uRepo,
+      mock(EmailSender.class),
+      mock(PushNotificationService.class),
+      mock(ReactionRepository.class),
+      Runnable::run,
+      new ContentProcessingService(100),
+      mock(NotificationUnreadCounter.class),
+      new SimpleMeterRegistry()
+    );
+
+    User user = new User();
+    user.setId(2L);
+    user.setUsername("bob");
+    user.setDisabledNotificationTypes(new HashSet<>());
+    when(uRepo.findByUsername("bob")).thenReturn(Optional.of(user));
+
+    LocalDateTime t = LocalDateTime.of(2024, 5, 1, 12, 0);
+    Notification n1 = notification(30L, t);
+    Notification n2 = notification(29L, t);
+    Notification n3 = notification(28L, t.minusMinutes(1));
+    NotificationCursor cursor = new NotificationCursor(t.plusHours(1), 99L);
+    when(
+      nRepo.findPage(
+        eq(2L),
+        eq(false),
+        any(),
+        eq(true),
+        eq(false),
+        any(),
+        eq(cursor.createdAt()),
+        eq(99L),
+        eq(PageRequest.of(0, 3))
+      )
+    ).thenReturn(List.of(n1, n2, n3));
+
+    NotificationService.NotificationPage page = service.listNotifications("bob", true, cursor, 2);
+
+    assertEquals(List.of(n1, n2), page.items());
+    assertEquals(new NotificationCursor(t, 29L), page.next());
+    assertEquals(page.next(), NotificationCursor.decode(page.next().encode()));
+  }
+
+  private static Notification notification(Long id, LocalDateTime createdAt) {
+    Notification n = new Notification();
+    n.setId(id);
+    n.setCreatedAt(createdAt);
+    return n;
+  }
+
+  @Test
+  void countUnreadReturnsCounterValue() {
     NotificationRepository nRepo = mock(NotificationRepository.class);
+    NotificationUnreadCounter unreadCounter = mock(NotificationUnreadCounter.class);
     UserRepository uRepo = mock(UserRepository.class);
     ReactionRepository rRepo = mock(ReactionRepository.class);
     EmailSender email = mock(EmailSender.class);
@@ -114,7 +239,10 @@ class NotificationServiceTest {
       email,
       push,
       rRepo,
-      executor
+      executor,
+      new ContentProcessingService(100),
+      unreadCounter,
+      new SimpleMeterRegistry()
     );
     org.springframework.test.util.ReflectionTestUtils.setField(
       service,
@@ -127,17 +255,18 @@ class NotificationServiceTest {
     user.setUsername("carl");
     user.setDisabledNotificationTypes(new HashSet<>());
     when(uRepo.findByUsername("carl")).thenReturn(Optional.of(user));
-    when(nRepo.countByUserAndRead(user, false)).thenReturn(5L);
+    when(unreadCounter.countUnread(user)).thenReturn(5L);
 
     long count = service.countUnread("carl");
 
     assertEquals(5L, count);
-    verify(nRepo).countByUserAndRead(user, false);
+    verify(nRepo, never()).countByUserAndRead(any(), anyBoolean());
   }
 
   @Test
   void listNotificationsFiltersDisabledTypes() {
     NotificationRepository nRepo = mock(NotificationRepository.class);
+    NotificationUnreadCounter unreadCounter = mock(NotificationUnreadCounter.class);
     UserRepository uRepo = mock(UserRepository.class);
     ReactionRepository rRepo = mock(ReactionRepository.class);
     EmailSender email = mock(EmailSender.class);
@@ -149,7 +278,10 @@ class NotificationServiceTest {
       email,
       push,
       rRepo,
-      executor
+      executor,
+      new ContentProcessingService(100),
+      unreadCounter,
+      new SimpleMeterRegistry()
     );
     org.springframework.test.util.ReflectionTestUtils.setField(
       service,
@@ -164,70 +296,28 @@ class NotificationServiceTest {
 
     Notification n = new Notification();
     when(
-      nRepo.findByUserAndTypeNotInOrderByCreatedAtDesc(
-        eq(user),
+      nRepo.findPage(
+        eq(4L),
+        eq(true),
         eq(user.getDisabledNotificationTypes()),
+        eq(false),
+        eq(false),
+        any(),
+        any(),
+        any(),
         any(Pageable.class)
       )
-    ).thenReturn(new PageImpl<>(List.of(n)));
+    ).thenReturn(List.of(n));
 
     List<Notification> list = service.listNotifications("dana", null, 0, 10);
 
     assertEquals(1, list.size());
-    verify(nRepo).findByUserAndTypeNotInOrderByCreatedAtDesc(
-      eq(user),
-      eq(user.getDisabledNotificationTypes()),
-      any(Pageable.class)
-    );
-  }
-
-  @Test
-  void countUnreadFiltersDisabledTypes() {
-    NotificationRepository nRepo = mock(NotificationRepository.class);
-    UserRepository uRepo = mock(UserRepository.class);
-    ReactionRepository rRepo = mock(ReactionRepository.class);
-    EmailSender email = mock(EmailSender.class);
-    PushNotificationService push = mock(PushNotificationService.class);
-    Executor executor = Runnable::run;
-    NotificationService service = new NotificationService(
-      nRepo,
-      uRepo,
-      email,
-      push,
-      rRepo,
-      executor
-    );
-    org.springframework.test.util.ReflectionTestUtils.setField(
-      service,
-      "websiteUrl",
-      "https://ex.com"
-    );
-
-    User user = new User();
-    user.setId(5L);
-    user.setUsername("erin");
-    when(uRepo.findByUsername("erin")).thenReturn(Optional.of(user));
-    when(
-      nRepo.countByUserAndReadAndTypeNotIn(
-        eq(user),
-        eq(false),
-        eq(user.getDisabledNotificationTypes())
-      )
-    ).thenReturn(2L);
-
-    long count = service.countUnread("erin");
-
-    assertEquals(2L, count);
-    verify(nRepo).countByUserAndReadAndTypeNotIn(
-      eq(user),
-      eq(false),
-      eq(user.getDisabledNotificationTypes())
-    );
   }
 
   @Test
   void createRegisterRequestNotificationsDeletesOldOnes() {
     NotificationRepository nRepo = mock(NotificationRepository.class);
+    NotificationUnreadCounter unreadCounter = mock(NotificationUnreadCounter.class);
     UserRepository uRepo = mock(UserRepository.class);
     ReactionRepository rRepo = mock(ReactionRepository.class);
     EmailSender email = mock(EmailSender.class);
@@ -239,7 +329,10 @@ class NotificationServiceTest {
       email,
       push,
       rRepo,
-      executor
+      executor,
+      new ContentProcessingService(100),
+      unreadCounter,
+      new SimpleMeterRegistry()
     );
     org.springframework.test.util.ReflectionTestUtils.setField(
       service,
@@ -263,6 +356,7 @@ class NotificationServiceTest {
   @Test
   void createActivityRedeemNotificationsDeletesOldOnes() {
     NotificationRepository nRepo = mock(NotificationRepository.class);
+    NotificationUnreadCounter unreadCounter = mock(NotificationUnreadCounter.class);
     UserRepository uRepo = mock(UserRepository.class);
     ReactionRepository rRepo = mock(ReactionRepository.class);
     EmailSender email = mock(EmailSender.class);
@@ -274,7 +368,10 @@ class NotificationServiceTest {
       email,
       push,
       rRepo,
-      executor
+      executor,
+      new ContentProcessingService(100),
+      unreadCounter,
+      new SimpleMeterRegistry()
     );
     org.springframework.test.util.ReflectionTestUtils.setField(
       service,
@@ -298,6 +395,7 @@ class NotificationServiceTest {
   @Test
   void createPointRedeemNotificationsDeletesOldOnes() {
     NotificationRepository nRepo = mock(NotificationRepository.class);
+    NotificationUnreadCounter unreadCounter = mock(NotificationUnreadCounter.class);
     UserRepository uRepo = mock(UserRepository.class);
     ReactionRepository rRepo = mock(ReactionRepository.class);
     EmailSender email = mock(EmailSender.class);
@@ -309,7 +407,10 @@ class NotificationServiceTest {
       email,
       push,
       rRepo,
-      executor
+      executor,
+      new ContentProcessingService(100),
+      unreadCounter,
+      new SimpleMeterRegistry()
     );
     org.springframework.test.util.ReflectionTestUtils.setField(
       service,
@@ -333,6 +434,7 @@ class NotificationServiceTest {
   @Test
   void createNotificationSendsEmailForCommentReply() {
     NotificationRepository nRepo = mock(NotificationRepository.class);
+    NotificationUnreadCounter unreadCounter = mock(NotificationUnreadCounter.class);
     UserRepository uRepo = mock(UserRepository.class);
     ReactionRepository rRepo = mock(ReactionRepository.class);
     EmailSender email = mock(EmailSender.class);
@@ -344,7 +446,10 @@ class NotificationServiceTest {
       email,
       push,
       rRepo,
-      executor
+      executor,
+      new ContentProcessingService(100),
+      unreadCounter,
+      new SimpleMeterRegistry()
     );
     org.springframework.test.util.ReflectionTestUtils.setField(
       service,
@@ -378,6 +483,7 @@ class NotificationServiceTest {
   @Test
   void postViewedNotificationDeletesOldOnes() {
     NotificationRepository nRepo = mock(NotificationRepository.class);
+    NotificationUnreadCounter unreadCounter = mock(NotificationUnreadCounter.class);
     UserRepository uRepo = mock(UserRepository.class);
     ReactionRepository rRepo = mock(ReactionRepository.class);
     EmailSender email = mock(EmailSender.class);
@@ -389,7 +495,10 @@ class NotificationServiceTest {
       email,
       push,
       rRepo,
-      executor
+      executor,
+      new ContentProcessingService(100),
+      unreadCounter,
+      new SimpleMeterRegistry()
     );
     org.springframework.test.util.ReflectionTestUtils.setField(
       service,
@@ -417,4 +526,29 @@ class NotificationServiceTest {
     verify(nRepo).deleteByTypeAndFromUserAndPost(NotificationType.POST_VIEWED, viewer, post);
     verify(nRepo).save(any(Notification.class));
   }
+
+  @Test
+  void timesEveryNotificationOnce() {
+    NotificationRepository nRepo = mock(NotificationRepository.class);
+    when(nRepo.save(any(Notification.class))).thenAnswer(i -> i.getArgument(0));
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    NotificationService service = new NotificationService(
+      nRepo,
+      mock(UserRepository.class),
+      mock(EmailSender.class),
+      mock(PushNotificationService.class),
+      mock(ReactionRepository.class),
+      Runnable::run,
+      new ContentProcessingService(100),
+      mock(NotificationUnreadCounter.class),
+      registry
+    );
+    User user = new User();
+    user.setId(1L);
+
+    service.createNotification(user, NotificationType.MENTION, null, null, null);
+    service.createNotification(user, NotificationType.MENTION, null, null, null, null, null, "c");
+
+    assertEquals(2, registry.get("notifications.create").timer().count());
+  }
 }
@@ -0,0 +1,74 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.openisle.model.Category;
+import com.openisle.model.Post;
+import com.openisle.model.PostChangeLog;
+import com.openisle.model.PostChangeType;
+import com.openisle.model.PostContentChangeLog;
+import com.openisle.model.Role;
+import com.openisle.model.User;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest
+@Import({ PostChangeLogService.class, PostRevisionService.class })
+class PostChangeLogServiceTest {
+
+  @Autowired
+  private PostChangeLogService changeLogService;
+
+  @Autowired
+  private TestEntityManager em;
+
+  @Test
+  void listsContentEditsAsSummariesInTimelineOrder() {
+    User author = new User();
+    author.setUsername("alice");
+    author.setEmail("alice@example.com");
+    author.setPassword("p");
+    author.setRole(Role.USER);
+    em.persist(author);
+    Category category = new Category();
+    category.setName("general");
+    category.setIcon("icon");
+    category.setDescription("d");
+    em.persist(category);
+    Post post = new Post();
+    post.setTitle("title");
+    post.setContent("a\nb");
+    post.setAuthor(author);
+    post.setCategory(category);
+    em.persist(post);
+
+    changeLogService.recordContentChange(post, author, "a\nb", "a\nc\nd");
+    changeLogService.recordTitleChange(post, author, "title", "new title");
+    changeLogService.recordContentChange(post, author, "a\nc\nd", "a\nc");
+    em.flush();
+    em.clear();
+
+    List<PostChangeLog> logs = changeLogService.listLogs(post.getId());
+
+    assertEquals(
+      List.of(PostChangeType.CONTENT, PostChangeType.TITLE, PostChangeType.CONTENT),
+      logs.stream().map(PostChangeLog::getType).toList()
+    );
+    PostContentChangeLog first = (PostContentChangeLog) logs.get(0);
+    assertEquals(1, first.getRevision());
+    assertEquals(2, first.getLinesAdded());
+    assertEquals(1, first.getLinesRemoved());
+    assertEquals("alice", first.getUser().getUsername());
+    // 时间线不读取存储的正文
+    assertNull(first.getPatch());
+    assertNull(first.getSnapshot());
+    PostContentChangeLog second = (PostContentChangeLog) logs.get(2);
+    assertEquals(2, second.getRevision());
+    assertEquals("a\nc", changeLogService.contentAt(post.getId(), second.getRevision()));
+    assertTrue(changeLogService.contentDiff(post.getId(), second.getId()).contains("-d"));
+  }
+}
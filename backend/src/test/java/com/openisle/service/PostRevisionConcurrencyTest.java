@@ -0,0 +1,114 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.openisle.model.Category;
+import com.openisle.model.Post;
+import com.openisle.model.PostContentChangeLog;
+import com.openisle.model.Role;
+import com.openisle.model.User;
+import com.openisle.repository.CategoryRepository;
+import com.openisle.repository.PostContentChangeLogRepository;
+import com.openisle.repository.PostRepository;
+import com.openisle.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/** Concurrent edits of one post, each committing its own transaction. */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:revisions;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import(PostRevisionService.class)
+class PostRevisionConcurrencyTest {
+
+  @Autowired
+  private PostRevisionService revisionService;
+
+  @Autowired
+  private PostContentChangeLogRepository revisionRepository;
+
+  @Autowired
+  private PostRepository postRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Test
+  void concurrentEditsGetConsecutiveRevisions() throws Exception {
+    User author = new User();
+    author.setUsername("alice");
+    author.setEmail("alice@example.com");
+    author.setPassword("p");
+    author.setRole(Role.USER);
+    userRepository.save(author);
+    Category category = new Category();
+    category.setName("general");
+    category.setIcon("icon");
+    category.setDescription("d");
+    categoryRepository.save(category);
+    Post post = new Post();
+    post.setTitle("title");
+    post.setContent("content");
+    post.setAuthor(author);
+    post.setCategory(category);
+    postRepository.save(post);
+
+    int threads = 4;
+    int edits = 5;
+    TransactionTemplate transactions = new TransactionTemplate(transactionManager);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<?>> calls = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int thread = t;
+        calls.add(
+          pool.submit(() -> {
+            start.await();
+            for (int i = 0; i < edits; i++) {
+              String next = "edit " + thread + "." + i;
+              transactions.executeWithoutResult(status ->
+                revisionService.record(post, author, "content", next)
+              );
+            }
+            return null;
+          })
+        );
+      }
+      start.countDown();
+      for (Future<?> call : calls) {
+        call.get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    List<Integer> revisions = revisionRepository
+      .findByPostIdOrderByIdAsc(post.getId())
+      .stream()
+      .map(PostContentChangeLog::getRevision)
+      .sorted()
+      .toList();
+    assertEquals(IntStream.rangeClosed(1, threads * edits).boxed().toList(), revisions);
+  }
+}
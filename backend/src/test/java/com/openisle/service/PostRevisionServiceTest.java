@@ -0,0 +1,299 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.openisle.metrics.QueryCountInspector;
+import com.openisle.model.Category;
+import com.openisle.model.Post;
+import com.openisle.model.PostChangeType;
+import com.openisle.model.PostContentChangeLog;
+import com.openisle.model.Role;
+import com.openisle.model.User;
+import com.openisle.repository.PostContentChangeLogRepository;
+import com.openisle.util.TextDiff;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(
+  properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=" +
+    "com.openisle.metrics.QueryCountInspector",
+    "app.post.revision.snapshot-interval=5",
+    "app.post.revision.cache-size=4",
+  }
+)
+@Import(PostRevisionService.class)
+class PostRevisionServiceTest {
+
+  @Autowired
+  private PostRevisionService revisionService;
+
+  @Autowired
+  private PostContentChangeLogRepository revisionRepository;
+
+  @Autowired
+  private TestEntityManager em;
+
+  private User author;
+  private Category category;
+
+  @BeforeEach
+  void setUp() {
+    author = new User();
+    author.setUsername("alice");
+    author.setEmail("alice@example.com");
+    author.setPassword("p");
+    author.setRole(Role.USER);
+    em.persist(author);
+    category = new Category();
+    category.setName("general");
+    category.setIcon("icon");
+    category.setDescription("d");
+    em.persist(category);
+  }
+
+  @Test
+  void rebuildsEveryRevisionExactly() {
+    Post post = post();
+    List<String> versions = edit(post, 23, 40, new Random(7));
+    em.flush();
+    em.clear();
+    revisionService.evict(post.getId());
+
+    for (int r = 0; r < versions.size(); r++) {
+      assertEquals(versions.get(r), revisionService.contentAt(post.getId(), r), "revision " + r);
+    }
+    // 倒序再读一遍，缓存命中与否结果都一样
+    revisionService.evict(post.getId());
+    for (int r = versions.size() - 1; r >= 0; r--) {
+      assertEquals(versions.get(r), revisionService.contentAt(post.getId(), r), "revision " + r);
+    }
+
+    List<Integer> snapshots = revisionRepository
+      .findByPostIdOrderByIdAsc(post.getId())
+      .stream()
+      .filter(l -> l.getSnapshot() != null)
+      .map(PostContentChangeLog::getRevision)
+      .toList();
+    assertEquals(List.of(1, 6, 11, 16, 21), snapshots);
+  }
+
+  @Test
+  void restartsChainWhenOldContentDiverges() {
+    Post post = post();
+    revisionService.record(post, author, "a\nb", "a\nc");
+    // 上一版本是 "a\nc"，这次的旧内容却不同
+    revisionService.record(post, author, "x\ny", "x\nz");
+    revisionService.record(post, author, "x\nz", "x\nz\nw");
+    em.flush();
+    em.clear();
+    revisionService.evict(post.getId());
+
+    PostContentChangeLog second = revisionRepository.findRevision(post.getId(), 2).get();
+    assertNotNull(second.getSnapshot());
+    assertEquals("a\nb", revisionService.contentAt(post.getId(), 0));
+    assertEquals("a\nc", revisionService.contentAt(post.getId(), 1));
+    assertEquals("x\nz", revisionService.contentAt(post.getId(), 2));
+    assertEquals("x\nz\nw", revisionService.contentAt(post.getId(), 3));
+    assertEquals("x\ny", TextDiff.restore("x\nz", revisionService.diff(second)));
+  }
+
+  @Test
+  void storesFarLessThanFullTexts() {
+    Post post = post();
+    StringBuilder doc = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      doc.append("Paragraph ").append(i).append(": ").append(Long.toHexString(i * 2654435761L));
+      doc.append(" lorem ipsum dolor sit amet\n");
+    }
+    List<String> versions = new ArrayList<>(List.of(doc.toString()));
+    Random random = new Random(11);
+    for (int i = 0; i < 30; i++) {
+      List<String> lines = new ArrayList<>(List.of(versions.get(i).split("\n", -1)));
+      lines.set(random.nextInt(lines.size() - 1), "edited " + i + " " + random.nextLong());
+      String next = String.join("\n", lines);
+      revisionService.record(post, author, versions.get(i), next);
+      versions.add(next);
+    }
+    em.flush();
+    em.clear();
+
+    long fullTexts = 0;
+    for (int i = 0; i < 30; i++) {
+      fullTexts += bytes(versions.get(i)) + bytes(versions.get(i + 1));
+    }
+    long stored = 0;
+    for (PostContentChangeLog log : revisionRepository.findByPostIdOrderByIdAsc(post.getId())) {
+      stored += log.getPatch().length + (log.getSnapshot() == null ? 0 : log.getSnapshot().length);
+      assertEquals(1, log.getLinesAdded());
+      assertEquals(1, log.getLinesRemoved());
+    }
+    assertTrue(stored * 50 < fullTexts, "stored " + stored + " of " + fullTexts + " bytes");
+    revisionService.evict(post.getId());
+    assertEquals(versions.get(30), revisionService.contentAt(post.getId(), 30));
+  }
+
+  @Test
+  void servesMaterializedVersionsFromCache() {
+    Post post = post();
+    List<String> versions = edit(post, 14, 20, new Random(3));
+    em.flush();
+    em.clear();
+    revisionService.evict(post.getId());
+
+    // 找最近的快照，再取快照到目标之间的记录
+    assertEquals(2, queries(post, versions, 9));
+    assertEquals(0, queries(post, versions, 9));
+    // 第 10 版从缓存里的第 9 版接着应用补丁
+    assertEquals(2, queries(post, versions, 10));
+
+    // 缓存最多 4 个版本，最久未用的第 9 版被挤掉
+    for (int r = 11; r <= 13; r++) {
+      queries(post, versions, r);
+    }
+    assertEquals(0, queries(post, versions, 10));
+    assertEquals(2, queries(post, versions, 9));
+  }
+
+  @Test
+  void migratesLegacyRows() {
+    Post first = post();
+    Post second = post();
+    List<String> firstVersions = List.of("v0", "v0\nv1", "v1", "v1\r\nv2\n", "v2\n");
+    for (int i = 1; i < firstVersions.size(); i++) {
+      legacy(first, firstVersions.get(i - 1), firstVersions.get(i));
+    }
+    // 第二篇中间断了一次链
+    legacy(second, "", "start");
+    legacy(second, "other", "other\nend");
+    em.flush();
+    em.clear();
+
+    assertEquals(1, revisionService.migrateLegacy(1));
+    assertEquals(1, revisionService.migrateLegacy(10));
+    assertEquals(0, revisionService.migrateLegacy(10));
+    em.flush();
+    em.clear();
+
+    List<PostContentChangeLog> logs = revisionRepository.findByPostIdOrderByIdAsc(first.getId());
+    List<Integer> revisions = logs.stream().map(PostContentChangeLog::getRevision).toList();
+    assertEquals(List.of(1, 2, 3, 4), revisions);
+    for (PostContentChangeLog log : logs) {
+      assertNull(log.getLegacyOldContent());
+      assertNull(log.getLegacyNewContent());
+      assertNotNull(log.getPatch());
+    }
+    for (int r = 0; r < firstVersions.size(); r++) {
+      assertEquals(firstVersions.get(r), revisionService.contentAt(first.getId(), r));
+    }
+    assertEquals("", revisionService.contentAt(second.getId(), 0));
+    assertEquals("start", revisionService.contentAt(second.getId(), 1));
+    assertEquals("other\nend", revisionService.contentAt(second.getId(), 2));
+    PostContentChangeLog restart = revisionRepository.findRevision(second.getId(), 2).get();
+    assertNotNull(restart.getSnapshot());
+  }
+
+  @Test
+  void recordMigratesThePostFirst() {
+    Post post = post();
+    legacy(post, "a", "b");
+    legacy(post, "b", "c");
+    em.flush();
+    em.clear();
+
+    revisionService.record(post, author, "c", "d");
+    em.flush();
+    em.clear();
+
+    assertEquals(3, revisionRepository.findLatestRevision(post.getId()));
+    assertEquals("a", revisionService.contentAt(post.getId(), 0));
+    assertEquals("d", revisionService.contentAt(post.getId(), 3));
+    assertFalse(revisionRepository.existsByPostIdAndPatchIsNull(post.getId()));
+  }
+
+  /** Apply random line edits, recording each; returns every version, the original first. */
+  private List<String> edit(Post post, int edits, int lines, Random random) {
+    List<String> doc = new ArrayList<>();
+    for (int i = 0; i < lines; i++) {
+      doc.add("line " + i);
+    }
+    String[] tricky = {
+      "--- a/file",
+      "+++ b/file",
+      "@@ -1,3 +1,3 @@",
+      "",
+      " leading space",
+      "windows\r",
+      "中文 😀",
+    };
+    List<String> versions = new ArrayList<>(List.of(String.join("\n", doc)));
+    for (int i = 0; i < edits; i++) {
+      int changes = 1 + random.nextInt(3);
+      for (int c = 0; c < changes; c++) {
+        int at = random.nextInt(doc.size() + 1);
+        String line = random.nextInt(3) == 0
+          ? tricky[random.nextInt(tricky.length)]
+          : "edit " + i + "." + c;
+        switch (random.nextInt(3)) {
+          case 0 -> doc.add(at, line);
+          case 1 -> {
+            if (!doc.isEmpty()) {
+              doc.remove(Math.min(at, doc.size() - 1));
+            }
+          }
+          default -> {
+            if (doc.isEmpty()) {
+              doc.add(line);
+            } else {
+              doc.set(Math.min(at, doc.size() - 1), line);
+            }
+          }
+        }
+      }
+      String next = i == 12 ? "" : String.join("\n", doc);
+      if (i == 12) {
+        doc.clear();
+      }
+      revisionService.record(post, author, versions.get(i), next);
+      versions.add(next);
+    }
+    return versions;
+  }
+
+  private void legacy(Post post, String oldContent, String newContent) {
+    PostContentChangeLog log = new PostContentChangeLog();
+    log.setPost(post);
+    log.setUser(author);
+    log.setType(PostChangeType.CONTENT);
+    log.setLegacyOldContent(oldContent);
+    log.setLegacyNewContent(newContent);
+    em.persist(log);
+  }
+
+  private Post post() {
+    Post post = new Post();
+    post.setTitle("title");
+    post.setContent("content");
+    post.setAuthor(author);
+    post.setCategory(category);
+    return em.persist(post);
+  }
+
+  private long queries(Post post, List<String> versions, int revision) {
+    QueryCountInspector.start();
+    assertEquals(versions.get(revision), revisionService.contentAt(post.getId(), revision));
+    return QueryCountInspector.stop();
+  }
+
+  private static long bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8).length;
+  }
+}
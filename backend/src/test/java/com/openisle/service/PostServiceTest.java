@@ -83,7 +83,7 @@ class PostServiceTest {
     author.setRole(Role.USER);
     post.setAuthor(author);
 
-    when(postRepo.findById(1L)).thenReturn(Optional.of(post));
+    when(postRepo.findActivePost(1L)).thenReturn(post);
     when(userRepo.findByUsername("alice")).thenReturn(Optional.of(author));
     when(commentRepo.findByPostAndParentIsNullOrderByCreatedAtAsc(post)).thenReturn(List.of());
     when(reactionRepo.findByPost(post)).thenReturn(List.of());
@@ -169,7 +169,7 @@ class PostServiceTest {
     admin.setId(1L);
     admin.setRole(Role.ADMIN);
 
-    when(postRepo.findById(1L)).thenReturn(Optional.of(post));
+    when(postRepo.findActivePost(1L)).thenReturn(post);
     when(userRepo.findByUsername("admin")).thenReturn(Optional.of(admin));
     when(commentRepo.findByPostAndParentIsNullOrderByCreatedAtAsc(post)).thenReturn(List.of());
     when(reactionRepo.findByPost(post)).thenReturn(List.of());
@@ -348,7 +348,7 @@ class PostServiceTest {
     history.setUser(historyUser);
     history.setPost(post);
 
-    when(postRepo.findById(10L)).thenReturn(Optional.of(post));
+    when(postRepo.findActivePost(10L)).thenReturn(post);
     when(userRepo.findByUsername("author")).thenReturn(Optional.of(author));
     when(commentRepo.findByPostAndParentIsNullOrderByCreatedAtAsc(post)).thenReturn(List.of());
     when(reactionRepo.findByPost(post)).thenReturn(List.of());
@@ -0,0 +1,203 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.openisle.model.PushSubscription;
+import com.openisle.model.User;
+import com.openisle.repository.PushSubscriptionRepository;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.InetSocketAddress;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.Security;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bouncycastle.jce.interfaces.ECPrivateKey;
+import org.bouncycastle.jce.interfaces.ECPublicKey;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Runs against a local stub push service that can be slow, gone or rate limited. */
+class PushNotificationServiceTest {
+
+  private static final int CONCURRENCY = 4;
+
+  private HttpServer server;
+  private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private PushSubscriptionRepository repo;
+  private SimpleMeterRegistry registry;
+  private PushNotificationService service;
+  private String userKey;
+  private String userAuth;
+  private final User user = new User();
+  private final List<PushSubscription> subscriptions = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/", exchange -> {
+      String path = exchange.getRequestURI().getPath();
+      int hit = hits.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      exchange.getRequestBody().readAllBytes();
+      int status = 201;
+      try {
+        if (path.startsWith("/slow")) {
+          Thread.sleep(200);
+        } else if (path.equals("/gone")) {
+          status = 410;
+        } else if (path.equals("/missing")) {
+          status = 404;
+        } else if (path.equals("/limited") && hit <= 2) {
+          exchange.getResponseHeaders().add("Retry-After", "0");
+          status = 429;
+        } else if (path.equals("/always-limited")) {
+          status = 429;
+        } else if (path.equals("/broken")) {
+          status = 500;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        inFlight.decrementAndGet();
+      }
+      exchange.sendResponseHeaders(status, -1);
+      exchange.close();
+    });
+    server.start();
+
+    Security.addProvider(new BouncyCastleProvider());
+    KeyPair vapid = keyPair();
+    KeyPair browser = keyPair();
+    userKey = base64(((ECPublicKey) browser.getPublic()).getQ().getEncoded(false));
+    byte[] auth = new byte[16];
+    new SecureRandom().nextBytes(auth);
+    userAuth = base64(auth);
+
+    user.setId(1L);
+    repo = mock(PushSubscriptionRepository.class);
+    when(repo.findByUser(user)).thenReturn(subscriptions);
+    registry = new SimpleMeterRegistry();
+    service = new PushNotificationService(
+      repo,
+      registry,
+      base64(((ECPublicKey) vapid.getPublic()).getQ().getEncoded(false)),
+      base64(((ECPrivateKey) vapid.getPrivate()).getD().toByteArray()),
+      CONCURRENCY,
+      2,
+      Duration.ofMillis(10),
+      Duration.ofSeconds(5)
+    );
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.shutdown();
+    server.stop(0);
+  }
+
+  @Test
+  void sendsConcurrentlyWithinTheBound() throws Exception {
+    for (int i = 0; i < 12; i++) {
+      subscribe((long) i, "/slow/" + i);
+    }
+
+    long start = System.nanoTime();
+    service.sendNotification(user, "hello").get(10, TimeUnit.SECONDS);
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertEquals(12, delivered("delivered"));
+    assertTrue(maxInFlight.get() > 1, "pushes should overlap");
+    assertTrue(maxInFlight.get() <= CONCURRENCY, "at most " + CONCURRENCY + " at once");
+    // 串行需要 12 * 200ms
+    assertTrue(millis < 12 * 200, "took " + millis + "ms");
+  }
+
+  @Test
+  void returnsBeforeSlowEndpointsAnswer() throws Exception {
+    subscribe(1L, "/slow/1");
+
+    long start = System.nanoTime();
+    var pending = service.sendNotification(user, "hello");
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertTrue(millis < 200, "caller waited " + millis + "ms");
+    pending.get(10, TimeUnit.SECONDS);
+    assertEquals(1, delivered("delivered"));
+  }
+
+  @Test
+  void deletesGoneSubscriptions() throws Exception {
+    subscribe(1L, "/gone");
+    subscribe(2L, "/missing");
+    subscribe(3L, "/ok");
+    subscribe(4L, "/broken");
+
+    service.sendNotification(user, "hello").get(10, TimeUnit.SECONDS);
+
+    verify(repo).deleteById(1L);
+    verify(repo).deleteById(2L);
+    verify(repo, never()).deleteById(3L);
+    verify(repo, never()).deleteById(4L);
+    assertEquals(2, delivered("gone"));
+    assertEquals(1, delivered("delivered"));
+    assertEquals(1, delivered("failed"));
+  }
+
+  @Test
+  void retriesRateLimitedPushesWithBackoff() throws Exception {
+    subscribe(1L, "/limited");
+    subscribe(2L, "/always-limited");
+
+    service.sendNotification(user, "hello").get(10, TimeUnit.SECONDS);
+
+    assertEquals(3, hits.get("/limited").get());
+    // 首次发送加两次重试
+    assertEquals(3, hits.get("/always-limited").get());
+    assertEquals(1, delivered("delivered"));
+    assertEquals(1, delivered("rate_limited"));
+    assertEquals(4, registry.get("webpush.retries").counter().count());
+    assertEquals(6, registry.get("webpush.send").timer().count());
+    verify(repo, never()).deleteById(anyLong());
+  }
+
+  private void subscribe(Long id, String path) {
+    PushSubscription sub = new PushSubscription();
+    sub.setId(id);
+    sub.setUser(user);
+    sub.setEndpoint("http://127.0.0.1:" + server.getAddress().getPort() + path);
+    sub.setP256dh(userKey);
+    sub.setAuth(userAuth);
+    subscriptions.add(sub);
+  }
+
+  private double delivered(String result) {
+    return registry.get("webpush.deliveries").tag("result", result).counter().count();
+  }
+
+  private static KeyPair keyPair() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("ECDH", "BC");
+    generator.initialize(new ECGenParameterSpec("prime256v1"));
+    return generator.generateKeyPair();
+  }
+
+  private static String base64(byte[] bytes) {
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+  }
+}
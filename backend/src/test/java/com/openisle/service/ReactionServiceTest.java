@@ -1,16 +1,15 @@
 package com.openisle.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
-import com.openisle.dto.MessageNotificationPayload;
-import com.openisle.dto.ReactionDto;
 import com.openisle.mapper.ReactionMapper;
 import com.openisle.model.*;
+import com.openisle.realtime.RealtimeEvent;
 import com.openisle.repository.*;
-import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -50,7 +49,7 @@ class ReactionServiceTest {
     post.setAuthor(author);
 
     when(userRepo.findByUsername("bob")).thenReturn(Optional.of(user));
-    when(postRepo.findById(3L)).thenReturn(Optional.of(post));
+    when(postRepo.findActivePost(3L)).thenReturn(post);
     when(reactionRepo.findByUserAndPostAndType(user, post, ReactionType.LIKE)).thenReturn(
       Optional.empty()
     );
@@ -117,29 +116,20 @@ class ReactionServiceTest {
     Reaction result = service.reactToMessage("alice", 30L, ReactionType.LIKE);
 
     assertEquals(40L, result.getId());
-    ArgumentCaptor<MessageNotificationPayload> payloadCaptor = ArgumentCaptor.forClass(
-      MessageNotificationPayload.class
+    ArgumentCaptor<RealtimeEvent.MessageReaction> eventCaptor = ArgumentCaptor.forClass(
+      RealtimeEvent.MessageReaction.class
     );
-    verify(notificationProducer).sendNotification(payloadCaptor.capture());
-
-    MessageNotificationPayload outbound = payloadCaptor.getValue();
-    assertEquals("alice", outbound.getTargetUsername());
-
-    Object payloadObject = outbound.getPayload();
-    assertInstanceOf(Map.class, payloadObject);
-    Map<?, ?> payload = (Map<?, ?>) payloadObject;
-    assertEquals("MESSAGE_REACTION", payload.get("eventType"));
-    assertEquals(20L, payload.get("conversationId"));
-    assertEquals(30L, payload.get("messageId"));
-    assertEquals("ADDED", payload.get("action"));
-
-    Object reactionObject = payload.get("reaction");
-    assertInstanceOf(ReactionDto.class, reactionObject);
-    ReactionDto reactionDto = (ReactionDto) reactionObject;
-    assertEquals(40L, reactionDto.getId());
-    assertEquals("alice", reactionDto.getUser());
-    assertEquals(30L, reactionDto.getMessageId());
-    assertEquals(ReactionType.LIKE, reactionDto.getType());
+    verify(notificationProducer).sendEvent(eq("alice"), eventCaptor.capture());
+
+    RealtimeEvent.MessageReaction event = eventCaptor.getValue();
+    assertEquals(20L, event.conversationId());
+    assertEquals(30L, event.messageId());
+    assertTrue(event.added());
+
+    RealtimeEvent.ReactionRef reaction = event.reaction();
+    assertEquals(40L, reaction.id());
+    assertEquals("alice", reaction.username());
+    assertEquals(ReactionType.LIKE.name(), reaction.type());
   }
 
   @Test
@@ -189,28 +179,19 @@ class ReactionServiceTest {
 
     assertNull(result);
     verify(reactionRepo).delete(existing);
-    ArgumentCaptor<MessageNotificationPayload> payloadCaptor = ArgumentCaptor.forClass(
-      MessageNotificationPayload.class
+    ArgumentCaptor<RealtimeEvent.MessageReaction> eventCaptor = ArgumentCaptor.forClass(
+      RealtimeEvent.MessageReaction.class
     );
-    verify(notificationProducer).sendNotification(payloadCaptor.capture());
-
-    MessageNotificationPayload outbound = payloadCaptor.getValue();
-    assertEquals("alice", outbound.getTargetUsername());
-
-    Object payloadObject = outbound.getPayload();
-    assertInstanceOf(Map.class, payloadObject);
-    Map<?, ?> payload = (Map<?, ?>) payloadObject;
-    assertEquals("MESSAGE_REACTION", payload.get("eventType"));
-    assertEquals(20L, payload.get("conversationId"));
-    assertEquals(30L, payload.get("messageId"));
-    assertEquals("REMOVED", payload.get("action"));
-
-    Object reactionObject = payload.get("reaction");
-    assertInstanceOf(ReactionDto.class, reactionObject);
-    ReactionDto reactionDto = (ReactionDto) reactionObject;
-    assertEquals(50L, reactionDto.getId());
-    assertEquals("alice", reactionDto.getUser());
-    assertEquals(30L, reactionDto.getMessageId());
-    assertEquals(ReactionType.LIKE, reactionDto.getType());
+    verify(notificationProducer).sendEvent(eq("alice"), eventCaptor.capture());
+
+    RealtimeEvent.MessageReaction event = eventCaptor.getValue();
+    assertEquals(20L, event.conversationId());
+    assertEquals(30L, event.messageId());
+    assertFalse(event.added());
+
+    RealtimeEvent.ReactionRef reaction = event.reaction();
+    assertEquals(50L, reaction.id());
+    assertEquals("alice", reaction.username());
+    assertEquals(ReactionType.LIKE.name(), reaction.type());
   }
 }
@@ -0,0 +1,75 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class SearchResultCacheTest {
+
+  private static SearchService.SearchQuery query(String keyword) {
+    return new SearchService.SearchQuery("post", keyword, null, 20, false, true);
+  }
+
+  private static SearchService.SearchPage page() {
+    return new SearchService.SearchPage(List.of(), null, null);
+  }
+
+  @Test
+  void entriesExpireAfterTtl() {
+    AtomicLong now = new AtomicLong(1_000);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    SearchResultCache cache = new SearchResultCache(
+      registry,
+      Duration.ofSeconds(30),
+      10,
+      now::get
+    );
+    SearchService.SearchPage page = page();
+    cache.put(query("java"), page);
+
+    now.addAndGet(29_999);
+    assertSame(page, cache.get(query("java")));
+    now.addAndGet(1);
+    assertNull(cache.get(query("java")));
+
+    assertEquals(1, registry.get("search.cache").tag("result", "hit").counter().count());
+    assertEquals(1, registry.get("search.cache").tag("result", "miss").counter().count());
+  }
+
+  @Test
+  void leastRecentlyUsedEntryIsEvicted() {
+    SearchResultCache cache = new SearchResultCache(
+      new SimpleMeterRegistry(),
+      Duration.ofSeconds(30),
+      2,
+      () -> 0L
+    );
+    cache.put(query("a"), page());
+    cache.put(query("b"), page());
+    cache.get(query("a"));
+    cache.put(query("c"), page());
+
+    assertEquals(2, cache.size());
+    assertNotNull(cache.get(query("a")));
+    assertNull(cache.get(query("b")));
+    assertNotNull(cache.get(query("c")));
+  }
+
+  @Test
+  void zeroTtlDisablesCaching() {
+    SearchResultCache cache = new SearchResultCache(
+      new SimpleMeterRegistry(),
+      Duration.ZERO,
+      10,
+      () -> 0L
+    );
+    cache.put(query("a"), page());
+
+    assertNull(cache.get(query("a")));
+    assertEquals(0, cache.size());
+  }
+}
@@ -2,18 +2,27 @@ package com.openisle.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import com.openisle.exception.FieldException;
 import com.openisle.model.Post;
 import com.openisle.model.PostStatus;
+import com.openisle.model.User;
 import com.openisle.repository.CategoryRepository;
 import com.openisle.repository.CommentRepository;
 import com.openisle.repository.PostRepository;
 import com.openisle.repository.TagRepository;
 import com.openisle.repository.UserRepository;
+import com.openisle.search.MySqlFullTextSearchEngine;
 import com.openisle.search.OpenSearchProperties;
+import com.openisle.search.SearchCursor;
+import com.openisle.search.SearchDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.springframework.data.domain.Pageable;
 
 class SearchServiceTest {
 
@@ -31,7 +40,11 @@ class SearchServiceTest {
       categoryRepo,
       tagRepo,
       Optional.empty(),
-      new OpenSearchProperties()
+      new OpenSearchProperties(),
+      new ContentProcessingService(100),
+      Optional.empty(),
+      newCache(),
+      new SimpleMeterRegistry()
     );
 
     Post post1 = new Post();
@@ -45,21 +58,23 @@ class SearchServiceTest {
       postRepo.findByTitleContainingIgnoreCaseOrContentContainingIgnoreCaseAndStatus(
         Mockito.anyString(),
         Mockito.anyString(),
-        Mockito.eq(PostStatus.PUBLISHED)
+        Mockito.eq(PostStatus.PUBLISHED),
+        Mockito.any(Pageable.class)
       )
     ).thenReturn(List.of(post1));
     Mockito.when(
       postRepo.findByTitleContainingIgnoreCaseAndStatus(
         Mockito.anyString(),
-        Mockito.eq(PostStatus.PUBLISHED)
+        Mockito.eq(PostStatus.PUBLISHED),
+        Mockito.any(Pageable.class)
       )
     ).thenReturn(List.of(post1, post2));
-    Mockito.when(commentRepo.findByContentContainingIgnoreCase(Mockito.anyString())).thenReturn(
-      List.of()
-    );
-    Mockito.when(userRepo.findByUsernameContainingIgnoreCase(Mockito.anyString())).thenReturn(
-      List.of()
-    );
+    Mockito.when(
+      commentRepo.findByContentContainingIgnoreCase(Mockito.anyString(), Mockito.any())
+    ).thenReturn(List.of());
+    Mockito.when(
+      userRepo.findByUsernameContainingIgnoreCase(Mockito.anyString(), Mockito.any())
+    ).thenReturn(List.of());
 
     List<SearchService.SearchResult> results = service.globalSearch("h");
 
@@ -67,4 +82,269 @@ class SearchServiceTest {
     assertEquals(1L, results.get(0).id());
     assertEquals(2L, results.get(1).id());
   }
+
+  @Test
+  void globalSearchUsesFullTextEngineWhenAvailable() {
+    PostRepository postRepo = Mockito.mock(PostRepository.class);
+    MySqlFullTextSearchEngine engine = Mockito.mock(MySqlFullTextSearchEngine.class);
+    SearchService service = new SearchService(
+      Mockito.mock(UserRepository.class),
+      postRepo,
+      Mockito.mock(CommentRepository.class),
+      Mockito.mock(CategoryRepository.class),
+      Mockito.mock(TagRepository.class),
+      Optional.empty(),
+      new OpenSearchProperties(),
+      new ContentProcessingService(100),
+      Optional.of(engine),
+      newCache(),
+      new SimpleMeterRegistry()
+    );
+    SearchDocument post = new SearchDocument(
+      "post",
+      1L,
+      "你好世界",
+      "正文",
+      "alice",
+      "闲聊",
+      List.of(),
+      1L,
+      0L
+    );
+    SearchDocument comment = new SearchDocument(
+      "comment",
+      2L,
+      "另一个帖子",
+      "评论里提到你好",
+      "bob",
+      null,
+      List.of(),
+      3L,
+      0L
+    );
+    Mockito.when(engine.canSearch("你好")).thenReturn(true);
+    Mockito.when(
+      engine.search(Mockito.eq("你好"), Mockito.anyCollection(), Mockito.eq(0), Mockito.anyInt())
+    ).thenReturn(
+      List.of(
+        new MySqlFullTextSearchEngine.Hit("openisle-posts", post, 4.0),
+        new MySqlFullTextSearchEngine.Hit("openisle-comments", comment, 1.0)
+      )
+    );
+
+    List<SearchService.SearchResult> results = service.globalSearch("你好");
+
+    assertEquals(2, results.size());
+    assertEquals("post_title", results.get(0).type());
+    assertEquals("<mark>你好</mark>世界", results.get(0).highlightedText());
+    assertEquals("comment", results.get(1).type());
+    assertEquals(3L, results.get(1).postId());
+    assertEquals("bob", results.get(1).subText());
+    Mockito.verifyNoInteractions(postRepo);
+  }
+
+  @Test
+  void globalSearchUsesLikeQueryForShortKeywords() {
+    PostRepository postRepo = Mockito.mock(PostRepository.class);
+    MySqlFullTextSearchEngine engine = Mockito.mock(MySqlFullTextSearchEngine.class);
+    SearchService service = new SearchService(
+      Mockito.mock(UserRepository.class),
+      postRepo,
+      Mockito.mock(CommentRepository.class),
+      Mockito.mock(CategoryRepository.class),
+      Mockito.mock(TagRepository.class),
+      Optional.empty(),
+      new OpenSearchProperties(),
+      new ContentProcessingService(100),
+      Optional.of(engine),
+      newCache(),
+      new SimpleMeterRegistry()
+    );
+    Mockito.when(engine.canSearch("h")).thenReturn(false);
+
+    service.globalSearch("h");
+
+    Mockito.verify(engine, Mockito.never()).search(
+      Mockito.any(),
+      Mockito.any(),
+      Mockito.anyInt(),
+      Mockito.anyInt()
+    );
+    Mockito.verify(postRepo).findByTitleContainingIgnoreCaseAndStatus(
+      Mockito.eq("h"),
+      Mockito.eq(PostStatus.PUBLISHED),
+      Mockito.any(Pageable.class)
+    );
+  }
+
+  @Test
+  void searchPageContinuesLikeResultsWithCursor() {
+    UserRepository userRepo = Mockito.mock(UserRepository.class);
+    SearchService service = newService(userRepo, Optional.empty(), new SimpleMeterRegistry());
+    Mockito.when(
+      userRepo.findByUsernameContainingIgnoreCase(Mockito.eq("al"), Mockito.any(Pageable.class))
+    ).thenReturn(List.of(user(3L, "alice"), user(2L, "alan")), List.of(user(1L, "albert")));
+
+    SearchService.SearchPage first = service.searchPage(
+      new SearchService.SearchQuery("user", "al", null, 2, false, true)
+    );
+    SearchService.SearchPage second = service.searchPage(
+      new SearchService.SearchQuery("user", "al", first.nextCursor(), 2, false, true)
+    );
+
+    assertEquals(
+      List.of(3L, 2L),
+      first.items().stream().map(SearchService.SearchResult::id).toList()
+    );
+    assertEquals("<mark>al</mark>ice", first.items().get(0).highlightedText());
+    assertNotNull(first.nextCursor());
+    assertNull(first.total());
+    assertEquals(1L, second.items().get(0).id());
+    assertNull(second.nextCursor());
+    ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+    Mockito.verify(userRepo, Mockito.times(2)).findByUsernameContainingIgnoreCase(
+      Mockito.eq("al"),
+      pageable.capture()
+    );
+    assertEquals(0, pageable.getAllValues().get(0).getPageNumber());
+    assertEquals(1, pageable.getAllValues().get(1).getPageNumber());
+    assertEquals(2, pageable.getAllValues().get(1).getPageSize());
+  }
+
+  @Test
+  void searchPageServesRepeatedQueriesFromCache() {
+    UserRepository userRepo = Mockito.mock(UserRepository.class);
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    SearchService service = newService(userRepo, Optional.empty(), registry);
+    Mockito.when(
+      userRepo.findByUsernameContainingIgnoreCase(Mockito.eq("al"), Mockito.any(Pageable.class))
+    ).thenReturn(List.of(user(3L, "alice")));
+
+    SearchService.SearchQuery query = new SearchService.SearchQuery(
+      "user",
+      " al ",
+      null,
+      20,
+      false,
+      false
+    );
+    SearchService.SearchPage first = service.searchPage(query);
+    SearchService.SearchPage second = service.searchPage(query);
+
+    assertSame(first, second);
+    assertNull(first.items().get(0).highlightedText());
+    Mockito.verify(userRepo, Mockito.times(1)).findByUsernameContainingIgnoreCase(
+      Mockito.eq("al"),
+      Mockito.any(Pageable.class)
+    );
+    assertEquals(1, registry.get("search.query.latency").tag("engine", "like").timer().count());
+    assertEquals(1, registry.get("search.query.latency").tag("engine", "cache").timer().count());
+  }
+
+  @Test
+  void searchPageUsesFullTextOffsets() {
+    MySqlFullTextSearchEngine engine = Mockito.mock(MySqlFullTextSearchEngine.class);
+    SearchService service = newService(
+      Mockito.mock(UserRepository.class),
+      Optional.of(engine),
+      new SimpleMeterRegistry()
+    );
+    Mockito.when(engine.canSearch("你好")).thenReturn(true);
+    Mockito.when(
+      engine.searchFrom(
+        Mockito.eq("你好"),
+        Mockito.eq(List.of("openisle-posts")),
+        Mockito.eq(0L),
+        Mockito.eq(2)
+      )
+    ).thenReturn(List.of(postHit(5L), postHit(4L)));
+    Mockito.when(
+      engine.searchFrom(
+        Mockito.eq("你好"),
+        Mockito.eq(List.of("openisle-posts")),
+        Mockito.eq(1L),
+        Mockito.eq(2)
+      )
+    ).thenReturn(List.of(postHit(4L)));
+
+    SearchService.SearchPage first = service.searchPage(
+      new SearchService.SearchQuery("post", "你好", null, 1, true, true)
+    );
+    SearchService.SearchPage second = service.searchPage(
+      new SearchService.SearchQuery("post", "你好", first.nextCursor(), 1, true, true)
+    );
+
+    assertEquals(5L, first.items().get(0).id());
+    assertEquals(1, SearchCursor.decode(first.nextCursor()).offset());
+    assertEquals(4L, second.items().get(0).id());
+    assertNull(second.nextCursor());
+  }
+
+  @Test
+  void searchPageRejectsUnknownType() {
+    SearchService service = newService(
+      Mockito.mock(UserRepository.class),
+      Optional.empty(),
+      new SimpleMeterRegistry()
+    );
+
+    assertThrows(FieldException.class, () ->
+      service.searchPage(new SearchService.SearchQuery("medal", "x", null, 10, false, true))
+    );
+    SearchService.SearchQuery badCursor = new SearchService.SearchQuery(
+      "user",
+      "x",
+      "not a cursor",
+      10,
+      false,
+      true
+    );
+    assertThrows(FieldException.class, () -> service.searchPage(badCursor));
+  }
+
+  private static SearchService newService(
+    UserRepository userRepo,
+    Optional<MySqlFullTextSearchEngine> engine,
+    SimpleMeterRegistry registry
+  ) {
+    return new SearchService(
+      userRepo,
+      Mockito.mock(PostRepository.class),
+      Mockito.mock(CommentRepository.class),
+      Mockito.mock(CategoryRepository.class),
+      Mockito.mock(TagRepository.class),
+      Optional.empty(),
+      new OpenSearchProperties(),
+      new ContentProcessingService(100),
+      engine,
+      new SearchResultCache(registry, Duration.ofSeconds(30), 100),
+      registry
+    );
+  }
+
+  private static SearchResultCache newCache() {
+    return new SearchResultCache(new SimpleMeterRegistry(), Duration.ofSeconds(30), 100);
+  }
+
+  private static User user(Long id, String username) {
+    User user = new User();
+    user.setId(id);
+    user.setUsername(username);
+    return user;
+  }
+
+  private static MySqlFullTextSearchEngine.Hit postHit(Long id) {
+    SearchDocument document = new SearchDocument(
+      "post",
+      id,
+      "你好" + id,
+      "正文",
+      "alice",
+      null,
+      List.of(),
+      null,
+      0L
+    );
+    return new MySqlFullTextSearchEngine.Hit("openisle-posts", document, 1.0);
+  }
 }
@@ -0,0 +1,129 @@
+package com.openisle.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.openisle.exception.NotFoundException;
+import com.openisle.mapper.ReactionMapper;
+import com.openisle.model.Category;
+import com.openisle.model.Comment;
+import com.openisle.model.Post;
+import com.openisle.model.PostStatus;
+import com.openisle.model.ReactionType;
+import com.openisle.model.Role;
+import com.openisle.model.User;
+import com.openisle.ratelimit.RateLimitService;
+import com.openisle.repository.CommentRepository;
+import com.openisle.repository.ReactionRepository;
+import com.openisle.search.SearchIndexEventPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+/** Writes against a post that is soft-deleted and waiting for the purge. */
+@DataJpaTest
+@Import({ CommentService.class, ReactionService.class, ReactionMapper.class })
+class TombstonedPostWritesTest {
+
+  @Autowired
+  private CommentService commentService;
+
+  @Autowired
+  private ReactionService reactionService;
+
+  @Autowired
+  private CommentRepository commentRepository;
+
+  @Autowired
+  private ReactionRepository reactionRepository;
+
+  @Autowired
+  private TestEntityManager em;
+
+  @MockBean
+  private NotificationService notificationService;
+
+  @MockBean
+  private SubscriptionService subscriptionService;
+
+  @MockBean
+  private ImageUploader imageUploader;
+
+  @MockBean
+  private SearchIndexEventPublisher searchIndexEventPublisher;
+
+  @MockBean
+  private RateLimitService rateLimitService;
+
+  @MockBean
+  private NotificationProducer notificationProducer;
+
+  @MockBean
+  private EmailSender emailSender;
+
+  private Post post;
+  private Comment comment;
+
+  @BeforeEach
+  void setUp() {
+    User author = new User();
+    author.setUsername("alice");
+    author.setEmail("alice@example.com");
+    author.setPassword("p");
+    author.setRole(Role.USER);
+    em.persist(author);
+    User reader = new User();
+    reader.setUsername("bob");
+    reader.setEmail("bob@example.com");
+    reader.setPassword("p");
+    reader.setRole(Role.USER);
+    em.persist(reader);
+    Category category = new Category();
+    category.setName("general");
+    category.setIcon("icon");
+    category.setDescription("d");
+    em.persist(category);
+    post = new Post();
+    post.setTitle("title");
+    post.setContent("content");
+    post.setAuthor(author);
+    post.setCategory(category);
+    em.persist(post);
+    comment = new Comment();
+    comment.setAuthor(author);
+    comment.setPost(post);
+    comment.setContent("first");
+    em.persist(comment);
+    post.setStatus(PostStatus.DELETED);
+    em.flush();
+    em.clear();
+  }
+
+  @Test
+  void commentingOnTombstoneIsNotFound() {
+    assertThrows(NotFoundException.class, () ->
+      commentService.addComment("bob", post.getId(), "hi")
+    );
+    assertThrows(NotFoundException.class, () ->
+      commentService.addReply("bob", comment.getId(), "hi")
+    );
+    assertEquals(1, commentRepository.count());
+    verifyNoInteractions(notificationService);
+  }
+
+  @Test
+  void reactingToTombstoneIsNotFound() {
+    assertThrows(NotFoundException.class, () ->
+      reactionService.reactToPost("bob", post.getId(), ReactionType.LIKE)
+    );
+    assertThrows(NotFoundException.class, () ->
+      reactionService.reactToComment("bob", comment.getId(), ReactionType.LIKE)
+    );
+    assertEquals(0, reactionRepository.count());
+    verifyNoInteractions(notificationService);
+  }
+}
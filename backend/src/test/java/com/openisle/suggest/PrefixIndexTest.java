@@ -0,0 +1,52 @@
+package com.openisle.suggest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PrefixIndexTest {
+
+  private static Suggestion user(long id, String name, long weight) {
+    return new Suggestion(SuggestKind.USER, id, name, null, weight);
+  }
+
+  private static List<Long> ids(List<Suggestion> suggestions) {
+    return suggestions.stream().map(Suggestion::id).toList();
+  }
+
+  @Test
+  void ranksExactMatchThenWeight() {
+    PrefixIndex index = PrefixIndex.build(
+      List.of(user(1, "alice", 5), user(2, "Alicia", 50), user(3, "ali", 0), user(4, "bob", 99))
+    );
+
+    assertEquals(List.of(3L, 2L, 1L), ids(index.top("ALI", 10)));
+    assertEquals(List.of(3L, 2L), ids(index.top("ali", 2)));
+    assertEquals(List.of(4L), ids(index.top("b", 10)));
+    assertTrue(index.top("carol", 10).isEmpty());
+    assertTrue(index.top(" ", 10).isEmpty());
+  }
+
+  @Test
+  void matchesPinyinAndInitials() {
+    PrefixIndex index = PrefixIndex.build(
+      List.of(user(1, "张三", 0), user(2, "开源社区", 0), user(3, "zhangwei", 0))
+    );
+
+    assertEquals(List.of(1L), ids(index.top("张", 10)));
+    assertEquals(List.of(1L, 3L), ids(index.top("zhang", 10)));
+    assertEquals(List.of(1L), ids(index.top("zhangs", 10)));
+    assertEquals(List.of(1L), ids(index.top("zs", 10)));
+    assertEquals(List.of(2L), ids(index.top("kaiyuan", 10)));
+    assertEquals(List.of(2L), ids(index.top("kysq", 10)));
+  }
+
+  @Test
+  void returnsEachEntryOnceWhenSeveralKeysMatch() {
+    // "z" 同时命中全拼 zhang 与首字母 zz
+    PrefixIndex index = PrefixIndex.build(List.of(user(1, "张征", 0)));
+
+    assertEquals(List.of(1L), ids(index.top("z", 10)));
+  }
+}
@@ -0,0 +1,97 @@
+package com.openisle.suggest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.openisle.model.Category;
+import com.openisle.repository.CategoryRepository;
+import com.openisle.repository.PostRepository;
+import com.openisle.repository.TagRepository;
+import com.openisle.repository.UserRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class TypeaheadServiceTest {
+
+  private UserRepository userRepository;
+  private TagRepository tagRepository;
+  private CategoryRepository categoryRepository;
+  private PostRepository postRepository;
+  private TypeaheadService service;
+
+  @BeforeEach
+  void setUp() {
+    userRepository = Mockito.mock(UserRepository.class);
+    tagRepository = Mockito.mock(TagRepository.class);
+    categoryRepository = Mockito.mock(CategoryRepository.class);
+    postRepository = Mockito.mock(PostRepository.class);
+    service = new TypeaheadService(
+      userRepository,
+      tagRepository,
+      categoryRepository,
+      postRepository
+    );
+  }
+
+  private static List<Object[]> rows(Object[]... rows) {
+    return List.of(rows);
+  }
+
+  @Test
+  void reloadIndexesDatabaseContents() {
+    Mockito.when(userRepository.findSuggestRows()).thenReturn(
+      rows(new Object[] { 1L, "alice", "a.png", 10 }, new Object[] { 2L, "alan", null, 30 })
+    );
+    Mockito.when(tagRepository.findApprovedSuggestRows()).thenReturn(
+      rows(new Object[] { 7L, "java", null }, new Object[] { 8L, "javascript", null })
+    );
+    Mockito.when(postRepository.countPostsGroupByTag()).thenReturn(rows(new Object[] { 8L, 5L }));
+    Category category = new Category();
+    category.setId(3L);
+    category.setName("技术");
+    Mockito.when(categoryRepository.findAll()).thenReturn(List.of(category));
+
+    service.reload();
+
+    List<Suggestion> users = service.suggest(SuggestKind.USER, "al", 10);
+    assertEquals(List.of(2L, 1L), users.stream().map(Suggestion::id).toList());
+    assertEquals("a.png", users.get(1).icon());
+    List<Suggestion> tags = service.suggest(SuggestKind.TAG, "jav", 10);
+    assertEquals(List.of(8L, 7L), tags.stream().map(Suggestion::id).toList());
+    assertEquals(3L, service.suggest(SuggestKind.CATEGORY, "jishu", 10).get(0).id());
+  }
+
+  @Test
+  void eventsApplyOnRefresh() {
+    service.onChange(SuggestChangedEvent.saved(SuggestKind.TAG, 1L, "spring", null, 4L));
+    assertTrue(service.suggest(SuggestKind.TAG, "spr", 10).isEmpty());
+
+    service.refresh();
+    assertEquals(1, service.suggest(SuggestKind.TAG, "spr", 10).size());
+
+    // 重命名时未携带权重，沿用已有值
+    service.onChange(SuggestChangedEvent.saved(SuggestKind.TAG, 1L, "spring-boot", null, null));
+    service.refresh();
+    Suggestion renamed = service.suggest(SuggestKind.TAG, "spr", 10).get(0);
+    assertEquals("spring-boot", renamed.name());
+    assertEquals(4L, renamed.weight());
+
+    service.onChange(SuggestChangedEvent.removed(SuggestKind.TAG, 1L));
+    service.refresh();
+    assertTrue(service.suggest(SuggestKind.TAG, "spr", 10).isEmpty());
+  }
+
+  @Test
+  void reloadDropsEntriesMissingFromDatabase() {
+    service.onChange(SuggestChangedEvent.saved(SuggestKind.USER, 9L, "ghost", null, 0L));
+    service.refresh();
+    Mockito.when(userRepository.findSuggestRows()).thenReturn(List.of());
+    Mockito.when(tagRepository.findApprovedSuggestRows()).thenReturn(List.of());
+    Mockito.when(postRepository.countPostsGroupByTag()).thenReturn(List.of());
+
+    service.reload();
+
+    assertTrue(service.suggest(SuggestKind.USER, "gh", 10).isEmpty());
+  }
+}
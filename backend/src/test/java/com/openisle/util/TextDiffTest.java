@@ -0,0 +1,67 @@
+package com.openisle.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class TextDiffTest {
+
+  private static final List<String[]> EDITS = List.of(
+    new String[] { "", "" },
+    new String[] { "", "first" },
+    new String[] { "only", "" },
+    new String[] { "a\nb\n", "a\nb" },
+    new String[] { "a\nb", "a\nb\n\n" },
+    new String[] { "x\r\ny\r\n", "x\r\nz\r\n" },
+    new String[] { "line\r", "line" },
+    // 像 diff 头和 hunk 头的正文行
+    new String[] { "--- a\n+++ b\nbody", "--- a\n+++ c\nbody\n@@ -1,2 +1,2 @@" },
+    new String[] { "- item\n+ item\n  indented", "+ item\n- item\n  indented\n" },
+    new String[] { "中文 😀\n第二行", "中文 😀😀\n第二行\n第三行" },
+    new String[] { "\n\n\n", "\n" }
+  );
+
+  @Test
+  void diffsRoundTripExactly() {
+    for (String[] edit : EDITS) {
+      String patch = TextDiff.diff(edit[0], edit[1], "old", "new").patch();
+      assertEquals(edit[1], TextDiff.apply(edit[0], patch), () -> "apply " + List.of(edit));
+      assertEquals(edit[0], TextDiff.restore(edit[1], patch), () -> "restore " + List.of(edit));
+    }
+  }
+
+  @Test
+  void countsChangedLines() {
+    TextDiff.Result result = TextDiff.diff("a\nb\nc\nd", "a\nB\nc\nd\ne\nf", "old", "new");
+
+    assertEquals(3, result.linesAdded());
+    assertEquals(1, result.linesRemoved());
+    assertTrue(result.patch().startsWith("--- old\n+++ new\n@@ "));
+  }
+
+  @Test
+  void unchangedTextHasEmptyDiff() {
+    TextDiff.Result result = TextDiff.diff("same\n", "same\n", "old", "new");
+
+    assertEquals("", result.patch());
+    assertEquals("same\n", TextDiff.apply("same\n", ""));
+  }
+
+  @Test
+  void rejectsPatchForOtherText() {
+    String patch = TextDiff.diff("a\nb\nc", "a\nx\nc", "old", "new").patch();
+
+    assertThrows(IllegalArgumentException.class, () -> TextDiff.apply("p\nq\nr", patch));
+  }
+
+  @Test
+  void deflateRoundTrips() {
+    String text = "重复的内容 repeated content\n".repeat(500);
+    byte[] deflated = TextDiff.deflate(text);
+
+    assertEquals(text, TextDiff.inflate(deflated));
+    assertTrue(deflated.length < text.length() / 20);
+    assertEquals("", TextDiff.inflate(TextDiff.deflate("")));
+  }
+}
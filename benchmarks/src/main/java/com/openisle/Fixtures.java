@@ -0,0 +1,86 @@
+package com.openisle;
+
+import com.openisle.model.Category;
+import com.openisle.model.Post;
+import com.openisle.model.Tag;
+import com.openisle.model.User;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/** Deterministic in-memory entities shared by the benchmarks. */
+public final class Fixtures {
+
+  private Fixtures() {}
+
+  public static User user(long id) {
+    User user = new User();
+    user.setId(id);
+    user.setUsername("user" + id);
+    user.setAvatar("https://cos.example.com/avatar/" + id + ".png");
+    return user;
+  }
+
+  /** {@code count} published posts with an author, a category and three tags each. */
+  public static List<Post> posts(int count) {
+    Category category = new Category();
+    category.setId(1L);
+    category.setName("技术");
+    category.setDescription("Programming and tools");
+    category.setIcon("code");
+    List<Tag> tags = new ArrayList<>();
+    for (long id = 1; id <= 10; id++) {
+      Tag tag = new Tag();
+      tag.setId(id);
+      tag.setName("tag" + id);
+      tag.setDescription("Tag number " + id);
+      tag.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+      tags.add(tag);
+    }
+    List<Post> posts = new ArrayList<>(count);
+    LocalDateTime base = LocalDateTime.of(2024, 6, 1, 12, 0);
+    for (int i = 0; i < count; i++) {
+      Post post = new Post();
+      post.setId((long) i + 1);
+      post.setTitle("Post " + i + " about Spring Boot performance");
+      post.setContent(markdown(i));
+      post.setCreatedAt(base.minusMinutes(i));
+      post.setLastReplyAt(base.minusMinutes(i / 2));
+      post.setAuthor(user(i % 50));
+      post.setCategory(category);
+      post.setTags(
+        new HashSet<>(List.of(tags.get(i % 10), tags.get((i + 3) % 10), tags.get((i + 7) % 10)))
+      );
+      post.setViews(i * 37L);
+      post.setCommentCount(i % 40);
+      post.setRssExcluded(false);
+      posts.add(post);
+    }
+    return posts;
+  }
+
+  /** A post body of a few kilobytes with headings, links, images, code, a table and mentions. */
+  public static String markdown(int seed) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 10; i++) {
+      sb
+        .append("## Section ")
+        .append(seed)
+        .append('.')
+        .append(i)
+        .append("\n\nSome **bold** text with a [link](/posts/")
+        .append(i)
+        .append(") and @[user")
+        .append(i)
+        .append("] 以及一些中文内容。\n\n![img](/images/")
+        .append(seed)
+        .append('-')
+        .append(i)
+        .append(".png)\n\n```java\nSystem.out.println(")
+        .append(i)
+        .append(");\n```\n\n| a | b |\n|---|---|\n| 1 | 2 |\n\n");
+    }
+    return sb.toString();
+  }
+}
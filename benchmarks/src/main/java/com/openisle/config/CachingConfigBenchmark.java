@@ -0,0 +1,90 @@
+package com.openisle.config;
+
+import com.openisle.Fixtures;
+import com.openisle.dto.AuthorDto;
+import com.openisle.dto.CategoryDto;
+import com.openisle.dto.PostSummaryDto;
+import com.openisle.dto.TagDto;
+import com.openisle.model.Post;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * The Redis cache value serializer from {@link CachingConfig#redisSerializer()} on a page of
+ * 20 post summaries, the shape stored in the post list cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachingConfigBenchmark {
+
+  private RedisSerializer<Object> serializer;
+  private List<PostSummaryDto> page;
+  private byte[] bytes;
+
+  @Setup
+  public void setup() {
+    serializer = new CachingConfig().redisSerializer();
+    page = new ArrayList<>();
+    for (Post post : Fixtures.posts(20)) {
+      PostSummaryDto dto = new PostSummaryDto();
+      dto.setId(post.getId());
+      dto.setTitle(post.getTitle());
+      dto.setContent(post.getContent());
+      dto.setCreatedAt(post.getCreatedAt());
+      dto.setLastReplyAt(post.getLastReplyAt());
+      AuthorDto author = new AuthorDto();
+      author.setId(post.getAuthor().getId());
+      author.setUsername(post.getAuthor().getUsername());
+      author.setAvatar(post.getAuthor().getAvatar());
+      dto.setAuthor(author);
+      CategoryDto category = new CategoryDto();
+      category.setId(post.getCategory().getId());
+      category.setName(post.getCategory().getName());
+      dto.setCategory(category);
+      List<TagDto> tags = new ArrayList<>();
+      post
+        .getTags()
+        .forEach(t -> {
+          TagDto tag = new TagDto();
+          tag.setId(t.getId());
+          tag.setName(t.getName());
+          tag.setCreatedAt(t.getCreatedAt());
+          tags.add(tag);
+        });
+      dto.setTags(tags);
+      dto.setParticipants(List.of(author));
+      dto.setReactions(List.of());
+      dto.setViews(post.getViews());
+      dto.setStatus(post.getStatus());
+      dto.setType(post.getType());
+      page.add(dto);
+    }
+    bytes = serializer.serialize(page);
+  }
+
+  @Benchmark
+  public byte[] serialize() {
+    return serializer.serialize(page);
+  }
+
+  @Benchmark
+  public Object deserialize() {
+    return serializer.deserialize(bytes);
+  }
+}
@@ -0,0 +1,45 @@
+package com.openisle.config;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** {@link ShardingStrategy#getShardInfo} for a rotating set of usernames and each algorithm. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShardingStrategyBenchmark {
+
+  @Param({ "JUMP", "RENDEZVOUS" })
+  private ShardAlgorithm algorithm;
+
+  private final String[] usernames = new String[1024];
+  private ShardingStrategy strategy;
+  private int next;
+
+  @Setup
+  public void setup() {
+    for (int i = 0; i < usernames.length; i++) {
+      usernames[i] = (i % 3 == 0 ? "用户" : "user_") + i;
+    }
+    strategy = new ShardingStrategy(16, algorithm);
+  }
+
+  @Benchmark
+  public ShardInfo shardInfo() {
+    next = (next + 1) & (usernames.length - 1);
+    return strategy.getShardInfo(usernames[next]);
+  }
+}
@@ -0,0 +1,106 @@
+package com.openisle.mapper;
+
+import static org.mockito.Mockito.*;
+
+import com.openisle.Fixtures;
+import com.openisle.dto.PostSummaryDto;
+import com.openisle.model.Post;
+import com.openisle.model.User;
+import com.openisle.repository.PollVoteRepository;
+import com.openisle.service.CommentService;
+import com.openisle.service.ContentProcessingService;
+import com.openisle.service.LevelService;
+import com.openisle.service.MedalService;
+import com.openisle.service.PostReadService;
+import com.openisle.service.PostService;
+import com.openisle.service.ReactionService;
+import com.openisle.service.SubscriptionService;
+import com.openisle.service.UserVisitService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.mockito.MockSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link PostMapper#toListDtos} over one page of posts with five participants each. The
+ * services behind the mapper are stub-only mocks, so the numbers cover the mapping itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PostMapperBenchmark {
+
+  @Param({ "20", "100" })
+  public int pageSize;
+
+  private List<Post> posts;
+  private PostMapper mapper;
+
+  @Setup
+  public void setup() {
+    posts = Fixtures.posts(pageSize);
+    Map<Long, List<User>> participants = new HashMap<>();
+    for (Post post : posts) {
+      List<User> users = new ArrayList<>();
+      for (long i = 0; i < 5; i++) {
+        users.add(Fixtures.user(post.getId() * 5 + i));
+      }
+      participants.put(post.getId(), users);
+    }
+    CommentService commentService = stub(CommentService.class);
+    when(commentService.getParticipantsForPosts(posts, 5)).thenReturn(participants);
+
+    TagMapper tagMapper = new TagMapper();
+    CategoryMapper categoryMapper = new CategoryMapper();
+    UserMapper userMapper = new UserMapper(
+      stub(SubscriptionService.class),
+      stub(PostService.class),
+      commentService,
+      stub(ReactionService.class),
+      stub(UserVisitService.class),
+      stub(PostReadService.class),
+      stub(LevelService.class),
+      stub(MedalService.class),
+      categoryMapper,
+      tagMapper,
+      new ContentProcessingService(100)
+    );
+    mapper = new PostMapper(
+      commentService,
+      stub(ReactionService.class),
+      stub(SubscriptionService.class),
+      stub(CommentMapper.class),
+      stub(ReactionMapper.class),
+      userMapper,
+      tagMapper,
+      categoryMapper,
+      stub(PollVoteRepository.class)
+    );
+  }
+
+  @Benchmark
+  public List<PostSummaryDto> toListDtos() {
+    return mapper.toListDtos(posts);
+  }
+
+  private static <T> T stub(Class<T> type) {
+    MockSettings settings = withSettings().stubOnly();
+    return mock(type, settings);
+  }
+}
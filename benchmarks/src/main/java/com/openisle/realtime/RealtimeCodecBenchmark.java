@@ -0,0 +1,100 @@
+package com.openisle.realtime;
+
+import com.openisle.config.RabbitMQConfig;
+import com.openisle.config.ShardAlgorithm;
+import com.openisle.config.ShardingStrategy;
+import com.openisle.dto.MessageDto;
+import com.openisle.dto.UserSummaryDto;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * Encoding and decoding a channel message for {@code recipients} members with
+ * {@link RealtimeMessageConverter}: the Smile envelope against the Map JSON payload it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RealtimeCodecBenchmark {
+
+  @Param({ "ENVELOPE", "LEGACY_JSON" })
+  private String format;
+
+  @Param({ "2", "50" })
+  private int recipients;
+
+  private final RealtimeMessageConverter converter = new RabbitMQConfig(
+    new ShardingStrategy(16, ShardAlgorithm.JUMP)
+  ).messageConverter();
+  private Object payload;
+  private Message encoded;
+
+  @Setup
+  public void setup() {
+    MessageDto message = new MessageDto();
+    message.setId(42L);
+    message.setContent("大家好，今晚八点开会");
+    message.setSender(sender());
+    message.setConversationId(7L);
+    message.setCreatedAt(LocalDateTime.of(2024, 5, 1, 9, 30, 15));
+    message.setReactions(List.of());
+    if ("ENVELOPE".equals(format)) {
+      List<RealtimeEvent.Recipient> list = new ArrayList<>();
+      for (long id = 2; id < recipients + 2; id++) {
+        list.add(new RealtimeEvent.Recipient(id, "user" + id, 3L, 1L));
+      }
+      payload = RealtimeEnvelope.of("alice", RealtimeEvent.ConversationMessage.of(message, list));
+    } else {
+      List<Map<String, Object>> participants = new ArrayList<>();
+      for (long id = 2; id < recipients + 2; id++) {
+        participants.add(
+          Map.of("userId", id, "username", "user" + id, "unreadCount", 3L, "channelUnread", 1L)
+        );
+      }
+      Map<String, Object> body = new HashMap<>();
+      body.put("message", message);
+      body.put("conversation", Map.of("id", 7L, "participants", participants));
+      body.put("senderId", 1L);
+      payload = Map.of("targetUsername", "alice", "payload", body);
+    }
+    encoded = converter.toMessage(payload, new MessageProperties());
+  }
+
+  @Benchmark
+  public Message encode() {
+    return converter.toMessage(payload, new MessageProperties());
+  }
+
+  @Benchmark
+  public Object decode() {
+    return converter.fromMessage(encoded);
+  }
+
+  private static UserSummaryDto sender() {
+    UserSummaryDto user = new UserSummaryDto();
+    user.setId(1L);
+    user.setUsername("alice");
+    user.setAvatar("https://cdn.example.com/avatars/alice.png");
+    return user;
+  }
+}
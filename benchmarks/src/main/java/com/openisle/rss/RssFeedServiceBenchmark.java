@@ -0,0 +1,91 @@
+package com.openisle.rss;
+
+import static org.mockito.Mockito.*;
+
+import com.openisle.Fixtures;
+import com.openisle.model.Post;
+import com.openisle.service.CommentService;
+import com.openisle.service.ContentProcessingService;
+import com.openisle.service.PostService;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RSS rendering in {@link RssFeedService}: sanitizing and absolutifying one rendered post,
+ * rebuilding the feed when every item is cached, and a cold build that renders every post's
+ * markdown. Posts and comments come from stub-only mocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RssFeedServiceBenchmark {
+
+  private static final String BASE = "https://www.open-isle.com";
+
+  private List<Post> posts;
+  private PostService postService;
+  private CommentService commentService;
+  private String html;
+  private RssFeedService warm;
+  private RssFeedService cold;
+
+  @Setup
+  public void setup() {
+    posts = Fixtures.posts(10);
+    postService = mock(PostService.class, withSettings().stubOnly());
+    when(postService.listLatestRssPosts(10)).thenReturn(posts);
+    commentService = mock(CommentService.class, withSettings().stubOnly());
+    html = new ContentProcessingService(100).process(posts.get(0).getContent()).html();
+    warm = newService();
+    warm.getFeed();
+  }
+
+  /** A new service and content cache, so the next build renders every post from scratch. */
+  @Setup(Level.Invocation)
+  public void resetCold() {
+    cold = newService();
+  }
+
+  @Benchmark
+  public String sanitize() {
+    return RssFeedService.absolutifyHtml(RssFeedService.sanitizeHtml(html), BASE);
+  }
+
+  @Benchmark
+  public RssFeedService.RssFeed rebuildCached() {
+    warm.onFeedChanged(new RssFeedChangedEvent(null, true));
+    return warm.getFeed();
+  }
+
+  @Benchmark
+  public RssFeedService.RssFeed buildCold() {
+    return cold.getFeed();
+  }
+
+  private RssFeedService newService() {
+    return new RssFeedService(
+      postService,
+      commentService,
+      new ContentProcessingService(100),
+      BASE,
+      10,
+      Duration.ofMinutes(10),
+      System::currentTimeMillis
+    );
+  }
+}
@@ -0,0 +1,65 @@
+package com.openisle.service;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Render path of {@link ContentProcessingService}: a cold render versus a cache hit, and the
+ * mention extraction used by {@link NotificationService#notifyMentions}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContentProcessingServiceBenchmark {
+
+  private String content;
+  private ContentProcessingService service;
+
+  @Setup
+  public void setup() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 50; i++) {
+      sb
+        .append("## Section ")
+        .append(i)
+        .append("\n\nSome **bold** text with a [link](https://example.com/")
+        .append(i)
+        .append(") and @[user")
+        .append(i)
+        .append("].\n\n![img](https://cos.example.com/")
+        .append(i)
+        .append(".png)\n\n| a | b |\n|---|---|\n| 1 | 2 |\n\n");
+    }
+    content = sb.toString();
+    service = new ContentProcessingService(100);
+    service.process(content);
+  }
+
+  @Benchmark
+  public ContentProcessingService.ProcessedContent render() {
+    return ContentProcessingService.compute(content);
+  }
+
+  @Benchmark
+  public ContentProcessingService.ProcessedContent cached() {
+    return service.process(content);
+  }
+
+  @Benchmark
+  public Set<String> mentions() {
+    return service.extractMentions(content);
+  }
+}
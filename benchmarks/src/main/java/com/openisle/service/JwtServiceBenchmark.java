@@ -0,0 +1,40 @@
+package com.openisle.service;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/** {@link JwtService#validateAndGetSubject}, which runs on every authenticated request. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+  private JwtService service;
+  private String token;
+
+  @Setup
+  public void setup() {
+    service = new JwtService();
+    ReflectionTestUtils.setField(service, "secret", "0123456789abcdef0123456789abcdef");
+    ReflectionTestUtils.setField(service, "expiration", 3_600_000L);
+    token = service.generateToken("alice");
+  }
+
+  @Benchmark
+  public String validate() {
+    return service.validateAndGetSubject(token);
+  }
+}
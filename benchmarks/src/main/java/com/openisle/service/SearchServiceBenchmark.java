@@ -0,0 +1,77 @@
+package com.openisle.service;
+
+import static org.mockito.Mockito.*;
+
+import com.openisle.Fixtures;
+import com.openisle.repository.CategoryRepository;
+import com.openisle.repository.CommentRepository;
+import com.openisle.repository.PostRepository;
+import com.openisle.repository.TagRepository;
+import com.openisle.repository.UserRepository;
+import com.openisle.search.OpenSearchProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Result decoration of the fallback search path: {@code highlightHtml} on a title and
+ * {@code extractSnippet} on a post body (plain text already cached, as for repeated hits).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchServiceBenchmark {
+
+  @Param({ "spring", "中文", "missing" })
+  public String keyword;
+
+  private String title;
+  private String content;
+  private SearchService service;
+
+  @Setup
+  public void setup() {
+    title = "Spring Boot <tips> & tricks: 中文 spring notes for SPRING users";
+    content = Fixtures.markdown(1);
+    service = new SearchService(
+      mock(UserRepository.class),
+      mock(PostRepository.class),
+      mock(CommentRepository.class),
+      mock(CategoryRepository.class),
+      mock(TagRepository.class),
+      Optional.empty(),
+      new OpenSearchProperties(),
+      new ContentProcessingService(100),
+      Optional.empty(),
+      mock(SearchResultCache.class),
+      new SimpleMeterRegistry()
+    );
+    ReflectionTestUtils.setField(service, "snippetLength", 120);
+    service.extractSnippet(content, keyword, false);
+  }
+
+  @Benchmark
+  public String highlight() {
+    return SearchService.highlightHtml(title, keyword);
+  }
+
+  @Benchmark
+  public String snippet() {
+    return service.extractSnippet(content, keyword, false);
+  }
+}
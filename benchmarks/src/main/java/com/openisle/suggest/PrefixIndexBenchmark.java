@@ -0,0 +1,63 @@
+package com.openisle.suggest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Top-10 prefix queries against {@link PrefixIndex} over 100k mixed Latin/Chinese names.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrefixIndexBenchmark {
+
+  private static final String HAN = "张王李赵刘陈杨黄周吴开源社区小明华强伟芳";
+
+  @Param({ "a", "ali", "zh", "zhang", "张" })
+  public String prefix;
+
+  private PrefixIndex index;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    List<Suggestion> suggestions = new ArrayList<>();
+    for (long id = 0; id < 100_000; id++) {
+      StringBuilder name = new StringBuilder();
+      if (id % 3 == 0) {
+        for (int i = 0; i < 2 + random.nextInt(3); i++) {
+          name.append(HAN.charAt(random.nextInt(HAN.length())));
+        }
+      } else {
+        for (int i = 0; i < 4 + random.nextInt(8); i++) {
+          name.append((char) ('a' + random.nextInt(26)));
+        }
+      }
+      suggestions.add(
+        new Suggestion(SuggestKind.USER, id, name.toString(), null, random.nextInt(1000))
+      );
+    }
+    index = PrefixIndex.build(suggestions);
+  }
+
+  @Benchmark
+  public List<Suggestion> top10() {
+    return index.top(prefix, 10);
+  }
+}
@@ -1,6 +1,7 @@
 import { navigateTo, useRuntimeConfig } from 'nuxt/app'
 import { reactive, ref } from 'vue'
 import { toast } from '~/composables/useToast'
+import { useWebSocket } from '~/composables/useWebSocket'
 import { authState, getToken } from '~/utils/auth'
 import { reactionEmojiMap } from '~/utils/reactions'
 
@@ -61,6 +62,26 @@ export async function fetchUnreadCount() {
   }
 }
 
+// 未读数由后端在通知创建、已读、删除后通过 websocket 推送，无需轮询
+export function subscribeUnreadCount() {
+  const token = getToken()
+  if (!token) return
+  const { subscribe, isConnected, connect } = useWebSocket()
+  if (!isConnected.value) {
+    connect(token)
+  }
+  subscribe('/user/queue/notification-unread', (message) => {
+    try {
+      const data = JSON.parse(message.body)
+      if (typeof data.count === 'number') {
+        notificationState.unreadCount = data.count
+      }
+    } catch (e) {
+      console.error('Failed to parse notification unread count:', e)
+    }
+  })
+}
+
 export async function markNotificationsRead(ids) {
   try {
     const config = useRuntimeConfig()
@@ -82,54 +103,22 @@ export async function markNotificationsRead(ids) {
   }
 }
 
-const MARK_ALL_FETCH_SIZE = 100
-const MARK_ALL_CHUNK_SIZE = 200
-const MARK_ALL_MAX_PAGES = 200
-
-async function fetchUnreadNotificationsPage(page, size) {
-  const config = useRuntimeConfig()
-  const API_BASE_URL = config.public.apiBaseUrl
-  const token = getToken()
-  if (!token) throw new Error('NO_TOKEN')
-
-  const res = await fetch(`${API_BASE_URL}/api/notifications/unread?page=${page}&size=${size}`, {
-    headers: {
-      Authorization: `Bearer ${token}`,
-    },
-  })
-
-  if (!res.ok) throw new Error('FETCH_UNREAD_FAILED')
-  const data = await res.json()
-  return Array.isArray(data) ? data : []
-}
-
-async function collectUnreadNotificationIds(excludedTypes = []) {
-  const excludedTypeSet = new Set(excludedTypes)
-  const ids = []
-
-  for (let page = 0; page < MARK_ALL_MAX_PAGES; page++) {
-    const pageData = await fetchUnreadNotificationsPage(page, MARK_ALL_FETCH_SIZE)
-    if (pageData.length === 0) break
-
-    for (const notification of pageData) {
-      if (!notification || excludedTypeSet.has(notification.type)) continue
-      if (typeof notification.id !== 'number') continue
-      ids.push(notification.id)
-    }
-
-    if (pageData.length < MARK_ALL_FETCH_SIZE) break
-  }
-
-  return [...new Set(ids)]
-}
+// 已读全部由后端移动水位线完成，注册请求除外
+async function markAllNotificationsRead() {
+  try {
+    const config = useRuntimeConfig()
+    const API_BASE_URL = config.public.apiBaseUrl
 
-async function markNotificationsReadInChunks(ids) {
-  for (let i = 0; i < ids.length; i += MARK_ALL_CHUNK_SIZE) {
-    const chunk = ids.slice(i, i + MARK_ALL_CHUNK_SIZE)
-    const ok = await markNotificationsRead(chunk)
-    if (!ok) return false
+    const token = getToken()
+    if (!token) return false
+    const res = await fetch(`${API_BASE_URL}/api/notifications/read-all`, {
+      method: 'POST',
+      headers: { Authorization: `Bearer ${token}` },
+    })
+    return res.ok
+  } catch (e) {
+    return false
   }
-  return true
 }
 
 export async function fetchNotificationPreferences() {
@@ -214,13 +203,10 @@ function createFetchNotifications() {
   const notifications = ref([])
   const isLoadingMessage = ref(false)
   const hasMore = ref(true)
+  // 下一页的游标，append 时从这里继续
+  let nextCursor = null
 
-  const fetchNotifications = async ({
-    page = 0,
-    size = 30,
-    unread = false,
-    append = false,
-  } = {}) => {
+  const fetchNotifications = async ({ size = 30, unread = false, append = false } = {}) => {
     const config = useRuntimeConfig()
     const API_BASE_URL = config.public.apiBaseUrl
     try {
@@ -229,16 +215,18 @@ function createFetchNotifications() {
         toast.error('请先登录')
         return
       }
-      if (!append) notifications.value = []
+      if (!append) {
+        notifications.value = []
+        nextCursor = null
+      }
+      const params = new URLSearchParams({ unread: String(unread), size: String(size) })
+      if (nextCursor) params.set('cursor', nextCursor)
       isLoadingMessage.value = true
-      const res = await fetch(
-        `${API_BASE_URL}/api/notifications${unread ? '/unread' : ''}?page=${page}&size=${size}`,
-        {
-          headers: {
-            Authorization: `Bearer ${token}`,
-          },
+      const res = await fetch(`${API_BASE_URL}/api/notifications/page?${params}`, {
+        headers: {
+          Authorization: `Bearer ${token}`,
         },
-      )
+      })
       isLoadingMessage.value = false
       if (!res.ok) {
         toast.error('获取通知失败')
@@ -247,7 +235,7 @@ function createFetchNotifications() {
       const data = await res.json()
       const arr = []
 
-      for (const n of data) {
+      for (const n of data.items) {
         if (n.type === 'COMMENT_REPLY') {
           arr.push({
             ...n,
@@ -417,7 +405,8 @@ function createFetchNotifications() {
 
       if (append) notifications.value.push(...arr)
       else notifications.value = arr
-      hasMore.value = data.length === size
+      nextCursor = data.nextCursor
+      hasMore.value = !!nextCursor
     } catch (e) {
       console.error(e)
       isLoadingMessage.value = false
@@ -434,13 +423,10 @@ function createFetchNotifications() {
     if (!ok) {
       n.read = false
       notificationState.unreadCount++
-    } else {
-      fetchUnreadCount()
     }
   }
 
   const markAllRead = async () => {
-    // 为了覆盖分页中的全部未读，先从后端分页拉取全部未读 ID（排除 REGISTER_REQUEST）。
     const localIdsToMark = notifications.value
       .filter((n) => n.type !== 'REGISTER_REQUEST' && !n.read)
       .map((n) => n.id)
@@ -451,11 +437,8 @@ function createFetchNotifications() {
     notificationState.unreadCount = notifications.value.filter((n) => !n.read).length
 
     try {
-      const idsToMark = await collectUnreadNotificationIds(['REGISTER_REQUEST'])
-      if (idsToMark.length > 0) {
-        const ok = await markNotificationsReadInChunks(idsToMark)
-        if (!ok) throw new Error('MARK_READ_FAILED')
-      }
+      const ok = await markAllNotificationsRead()
+      if (!ok) throw new Error('MARK_READ_FAILED')
 
       await fetchUnreadCount()
       if (authState.role === 'ADMIN') {
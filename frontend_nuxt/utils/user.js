@@ -27,9 +27,11 @@ export async function searchUsers(keyword) {
   const API_BASE_URL = config.public.apiBaseUrl
   try {
     const res = await fetch(
-      `${API_BASE_URL}/api/search/users?keyword=${encodeURIComponent(keyword)}`,
+      `${API_BASE_URL}/api/search/suggest?type=user&prefix=${encodeURIComponent(keyword)}`,
     )
-    return res.ok ? await res.json() : []
+    if (!res.ok) return []
+    const data = await res.json()
+    return data.map((s) => ({ id: s.id, username: s.name, avatar: s.icon }))
   } catch (e) {
     return []
   }
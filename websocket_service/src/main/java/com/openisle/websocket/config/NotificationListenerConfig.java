@@ -0,0 +1,86 @@
+package com.openisle.websocket.config;
+
+import com.openisle.websocket.listener.NotificationListener;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Consumes the notification queues with {@code rabbitmq.listener.consumers} independent listener
+ * containers. Every queue is assigned to exactly one container and every container runs a single
+ * consumer, so messages of one shard are handled in the order they were queued while different
+ * shards are pushed in parallel. {@code rabbitmq.listener.prefetch} bounds the unacked messages
+ * each consumer buffers.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationListenerConfig implements RabbitListenerConfigurer {
+
+    public static final String CONTAINER_ID_PREFIX = "notificationConsumer-";
+
+    private final NotificationListener notificationListener;
+
+    @Value("#{@notificationQueueNames}")
+    private String[] notificationQueueNames;
+
+    @Value("${rabbitmq.listener.consumers:4}")
+    private int consumers;
+
+    @Value("${rabbitmq.listener.prefetch:50}")
+    private int prefetch;
+
+    @Bean
+    public SimpleRabbitListenerContainerFactory shardListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        // 每个容器只有一个消费者：同一分片的消息严格按顺序处理
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        factory.setPrefetchCount(prefetch);
+        return factory;
+    }
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        registrar.setContainerFactoryBeanName("shardListenerContainerFactory");
+        List<List<String>> groups = assign(Arrays.asList(notificationQueueNames), consumers);
+        for (int i = 0; i < groups.size(); i++) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId(CONTAINER_ID_PREFIX + i);
+            endpoint.setQueueNames(groups.get(i).toArray(new String[0]));
+            endpoint.setMessageListener(notificationListener::onMessage);
+            registrar.registerEndpoint(endpoint);
+            log.info("Notification consumer {} (prefetch {}): {}", i, prefetch, groups.get(i));
+        }
+    }
+
+    /**
+     * Distributes the queues round-robin over at most {@code consumers} groups; each queue lands in
+     * exactly one group.
+     */
+    public static List<List<String>> assign(List<String> queues, int consumers) {
+        int groups = Math.max(1, Math.min(consumers, queues.size()));
+        List<List<String>> result = new ArrayList<>(groups);
+        for (int i = 0; i < groups; i++) {
+            result.add(new ArrayList<>());
+        }
+        for (int i = 0; i < queues.size(); i++) {
+            result.get(i % groups).add(queues.get(i));
+        }
+        return result;
+    }
+}
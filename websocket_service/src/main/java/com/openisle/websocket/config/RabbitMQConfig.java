@@ -1,21 +1,51 @@
 package com.openisle.websocket.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openisle.websocket.realtime.RealtimeMessageConverter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
+@Slf4j
 public class RabbitMQConfig {
 
+    public static final String EXCHANGE_NAME = "openisle-exchange";
+    // 与 backend 的 ShardingStrategy 保持一致
+    public static final String SHARD_QUEUE_PREFIX = "notifications-shard-";
+    public static final String SHARD_ROUTING_KEY_PREFIX = "notifications.shards.";
+    // 向后兼容的单队列与旧的十六进制首字符分片队列 (notifications-queue-0 .. f)
+    public static final String LEGACY_QUEUE_NAME = "notifications-queue";
+    public static final String LEGACY_SHARD_QUEUE_PREFIX = "notifications-queue-";
+    private static final int LEGACY_SHARD_COUNT = 16;
+
+    @Value("${rabbitmq.sharding.shard-count:16}")
+    private int shardCount;
+
+    @Value("${rabbitmq.sharding.legacy-drain:true}")
+    private boolean legacyDrain;
+
+    @Value("${rabbitmq.queue.durable:true}")
+    private boolean queueDurable;
+
     @Bean
-    public Jackson2JsonMessageConverter messageConverter() {
+    public RealtimeMessageConverter messageConverter() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
         objectMapper.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        return new Jackson2JsonMessageConverter(objectMapper);
+        return new RealtimeMessageConverter(new Jackson2JsonMessageConverter(objectMapper));
     }
 
     @Bean
@@ -24,4 +54,48 @@ public class RabbitMQConfig {
         template.setMessageConverter(messageConverter());
         return template;
     }
-}
\ No newline at end of file
+
+    /**
+     * 声明分片队列和绑定。websocket 服务先于 backend 启动，监听前队列必须已存在；
+     * 与 backend 的声明参数相同，重复声明是幂等的。
+     */
+    @Bean
+    public Declarables notificationDeclarables() {
+        TopicExchange exchange = new TopicExchange(EXCHANGE_NAME);
+        List<Declarable> declarables = new ArrayList<>();
+        declarables.add(exchange);
+        for (int i = 0; i < shardCount; i++) {
+            Queue queue = new Queue(SHARD_QUEUE_PREFIX + i, queueDurable);
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(exchange).with(SHARD_ROUTING_KEY_PREFIX + i));
+        }
+        declarables.add(new Queue(LEGACY_QUEUE_NAME, queueDurable));
+        if (legacyDrain) {
+            // 旧分片队列不再有新消息，只声明队列不绑定，消费完剩余消息即可删除
+            for (int i = 0; i < LEGACY_SHARD_COUNT; i++) {
+                declarables.add(new Queue(LEGACY_SHARD_QUEUE_PREFIX + Integer.toHexString(i), queueDurable));
+            }
+        }
+        return new Declarables(declarables);
+    }
+
+    /**
+     * NotificationListener 订阅的队列：所有分片队列、向后兼容的单队列，
+     * 以及迁移期间 (rabbitmq.sharding.legacy-drain=true) 的旧十六进制分片队列。
+     */
+    @Bean
+    public String[] notificationQueueNames() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            names.add(SHARD_QUEUE_PREFIX + i);
+        }
+        names.add(LEGACY_QUEUE_NAME);
+        if (legacyDrain) {
+            for (int i = 0; i < LEGACY_SHARD_COUNT; i++) {
+                names.add(LEGACY_SHARD_QUEUE_PREFIX + Integer.toHexString(i));
+            }
+        }
+        log.info("Notification listener queues (shardCount={}, legacyDrain={}): {}", shardCount, legacyDrain, names);
+        return names.toArray(new String[0]);
+    }
+}
@@ -1,55 +1,165 @@
 package com.openisle.websocket.listener;
 
+import com.openisle.websocket.config.RabbitMQConfig;
 import com.openisle.websocket.dto.MessageNotificationPayload;
+import com.openisle.websocket.realtime.RealtimeEnvelope;
+import com.openisle.websocket.realtime.RealtimeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
+/**
+ * Pushes realtime notifications consumed from RabbitMQ to websocket clients. The listener
+ * containers are registered by {@link com.openisle.websocket.config.NotificationListenerConfig}.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationListener {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+    private final MessageConverter messageConverter;
+
+    /** Time one in this many messages; every message is still counted. */
+    @Value("${rabbitmq.listener.timer-sample-rate:10}")
+    private int timerSampleRate = 10;
 
     /**
-     * Unified listener for all sharded queues and the backward-compatible legacy queue.
+     * Entry point for the listener containers: converts the AMQP message and dispatches it.
+     * Smile messages are {@link RealtimeEnvelope}s; JSON messages are legacy payloads.
+     */
+    public void onMessage(Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        // 与 @RabbitListener 一样按参数类型反序列化，忽略 backend 写入的 __TypeId__
+        properties.setInferredArgumentType(MessageNotificationPayload.class);
+        Object converted = messageConverter.fromMessage(message);
+        if (converted instanceof RealtimeEnvelope envelope) {
+            consume(properties.getConsumerQueue(), () -> dispatch(envelope));
+        } else {
+            receiveMessage((MessageNotificationPayload) converted, properties.getConsumerQueue());
+        }
+    }
+
+    /**
+     * Handles one legacy payload from a sharded queue, the backward-compatible legacy queue or,
+     * while draining, a legacy hex-sharded queue.
      *
      * @param payload The message payload.
-     * @param queueName The name of the queue the message was consumed from. This header is optional.
+     * @param queueName The name of the queue the message was consumed from, if known.
      */
-    @RabbitListener(
-            id = "shardedListenerContainer",
-            queues = {
-                "notifications-queue-0", "notifications-queue-1", "notifications-queue-2", "notifications-queue-3",
-                "notifications-queue-4", "notifications-queue-5", "notifications-queue-6", "notifications-queue-7",
-                "notifications-queue-8", "notifications-queue-9", "notifications-queue-a", "notifications-queue-b",
-                "notifications-queue-c", "notifications-queue-d", "notifications-queue-e", "notifications-queue-f",
-                "notifications-queue"
-            }
-    )
-    public void receiveMessage(MessageNotificationPayload payload, @Header("amqp_consumedQueue") @Nullable String queueName) {
-        if (queueName != null) {
-            String queueNamePrefix = "notifications-queue-";
-            if (queueName.startsWith(queueNamePrefix)) {
-                String shardIndexStr = queueName.substring(queueNamePrefix.length());
-                log.info("=== RabbitMQ Message Received from Shard {} ({}) ===", shardIndexStr, queueName);
+    public void receiveMessage(MessageNotificationPayload payload, @Nullable String queueName) {
+        consume(queueName, () -> dispatch(payload));
+    }
+
+    private void consume(@Nullable String queueName, Supplier<String> dispatch) {
+        String shard = shardTag(queueName);
+        log.debug("RabbitMQ message received from {} (shard {})", queueName, shard);
+        boolean timed = timerSampleRate <= 1 || ThreadLocalRandom.current().nextInt(timerSampleRate) == 0;
+        Timer.Sample sample = timed ? Timer.start(meterRegistry) : null;
+        String result = dispatch.get();
+        Counter.builder("notifications.consumed.messages")
+                .description("Realtime notifications consumed from RabbitMQ")
+                .tag("shard", shard)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+        if (sample != null) {
+            sample.stop(Timer.builder("notifications.consumed")
+                    .description("Sampled time to push one consumed notification to clients")
+                    .tag("shard", shard)
+                    .tag("result", result)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * The metric shard tag: the shard number, "legacy-&lt;hex&gt;" for a draining legacy shard,
+     * "legacy" for the single legacy queue.
+     */
+    static String shardTag(@Nullable String queueName) {
+        if (queueName == null) {
+            return "unknown";
+        }
+        if (queueName.startsWith(RabbitMQConfig.SHARD_QUEUE_PREFIX)) {
+            return queueName.substring(RabbitMQConfig.SHARD_QUEUE_PREFIX.length());
+        }
+        if (queueName.startsWith(RabbitMQConfig.LEGACY_SHARD_QUEUE_PREFIX)) {
+            return "legacy-" + queueName.substring(RabbitMQConfig.LEGACY_SHARD_QUEUE_PREFIX.length());
+        }
+        return "legacy";
+    }
+
+    /**
+     * Push one envelope to its websocket destinations, with the same STOMP payloads as the
+     * legacy format.
+     *
+     * @return the metric result tag: success, failure or unknown for an event type this
+     *         version does not know
+     */
+    private String dispatch(RealtimeEnvelope envelope) {
+        String username = envelope.username();
+        try {
+            if (envelope.event() instanceof RealtimeEvent.ConversationMessage message) {
+                Map<String, Object> messageDto = message.toMessageDto();
+                String conversationDestination = "/topic/conversation/" + message.conversationId();
+                messagingTemplate.convertAndSend(conversationDestination, messageDto);
+                log.debug("Message broadcasted to destination: {}", conversationDestination);
+                // 接收者列表已排除发送者
+                for (RealtimeEvent.Recipient recipient : message.recipients()) {
+                    String userDestination = "/topic/user/" + recipient.id() + "/messages";
+                    messagingTemplate.convertAndSend(userDestination, messageDto);
+                    if (recipient.unreadCount() != null) {
+                        messagingTemplate.convertAndSendToUser(recipient.username(), "/queue/unread-count", recipient.unreadCount());
+                    }
+                    if (recipient.channelUnread() != null) {
+                        messagingTemplate.convertAndSendToUser(recipient.username(), "/queue/channel-unread", recipient.channelUnread());
+                    }
+                }
+            } else if (envelope.event() instanceof RealtimeEvent.MessageReaction reaction) {
+                String conversationDestination = "/topic/conversation/" + reaction.conversationId();
+                messagingTemplate.convertAndSend(conversationDestination, reaction.toPayload());
+                log.debug("Message reaction broadcasted to destination: {}", conversationDestination);
+            } else if (envelope.event() instanceof RealtimeEvent.NotificationUnread unread) {
+                messagingTemplate.convertAndSendToUser(username, "/queue/notification-unread", unread.toPayload());
+                log.debug("Sent notification unread count to user {}", username);
             } else {
-                log.info("=== RabbitMQ Message Received from Legacy Queue ({}) ===", queueName);
+                log.warn("Skipping realtime event of unknown type (envelope version {})", envelope.version());
+                return "unknown";
             }
+        } catch (Exception e) {
+            log.error("Failed to process and send realtime event for user {}", username, e);
+            return "failure";
         }
+        return "success";
+    }
+
+    /**
+     * Push one legacy payload to its websocket destinations.
+     *
+     * @return the metric result tag: success or failure
+     */
+    private String dispatch(MessageNotificationPayload payload) {
         String username = payload.getTargetUsername();
         Object payloadObject = payload.getPayload();
-        log.info("Target username: {}", username);
-        log.info("Payload object type: {}", payloadObject != null ? payloadObject.getClass().getSimpleName() : "null");
-        log.info("Payload content: {}", payloadObject);
+        log.debug("Target username: {}", username);
+        log.debug("Payload object type: {}", payloadObject != null ? payloadObject.getClass().getSimpleName() : "null");
+        log.debug("Payload content: {}", payloadObject);
 
         try {
             if (payloadObject instanceof Map) {
@@ -61,11 +171,16 @@ public class NotificationListener {
                         Long conversationId = ((Number) conversationIdObj).longValue();
                         String conversationDestination = "/topic/conversation/" + conversationId;
                         messagingTemplate.convertAndSend(conversationDestination, payloadMap);
-                        log.info("Message reaction broadcasted to destination: {}", conversationDestination);
+                        log.debug("Message reaction broadcasted to destination: {}", conversationDestination);
                     } else {
                         log.warn("Missing or invalid conversationId for reaction payload: {}", payloadMap);
                     }
                 }
+                // 通知未读数变化，推送给目标用户
+                else if ("NOTIFICATION_UNREAD".equals(payloadMap.get("eventType"))) {
+                    messagingTemplate.convertAndSendToUser(username, "/queue/notification-unread", payloadMap);
+                    log.debug("Sent notification unread count to user {}", username);
+                }
                 // 处理包含完整对话信息的消息 - 完全复制之前的WebSocket发送逻辑
                 else if (payloadMap.containsKey("message") && payloadMap.containsKey("conversation") && payloadMap.containsKey("senderId")) {
                     Object messageObj = payloadMap.get("message");
@@ -77,7 +192,7 @@ public class NotificationListener {
                     // 1. 发送到conversation topic
                     String conversationDestination = "/topic/conversation/" + conversationId;
                     messagingTemplate.convertAndSend(conversationDestination, messageObj);
-                    log.info("Message broadcasted to destination: {}", conversationDestination);
+                    log.debug("Message broadcasted to destination: {}", conversationDestination);
 
                     // 2. 为所有参与者（除发送者外）发送到个人频道和未读数量
                     for (Map<String, Object> participant : participants) {
@@ -88,19 +203,19 @@ public class NotificationListener {
                             // 发送到用户个人消息频道
                             String userDestination = "/topic/user/" + participantUserId + "/messages";
                             messagingTemplate.convertAndSend(userDestination, messageObj);
-                            log.info("Message notification sent to destination: {}", userDestination);
+                            log.debug("Message notification sent to destination: {}", userDestination);
 
                             // 优先从 participant 中获取未读信息，兼容旧格式
                             Object unreadCount = participant.getOrDefault("unreadCount", payloadMap.get("unreadCount"));
                             if (unreadCount != null) {
                                 messagingTemplate.convertAndSendToUser(participantUsername, "/queue/unread-count", unreadCount);
-                                log.info("Sent unread count to user {} via /user/{}/queue/unread-count", participantUsername, participantUsername);
+                                log.debug("Sent unread count to user {} via /user/{}/queue/unread-count", participantUsername, participantUsername);
                             }
 
                             Object channelUnread = participant.getOrDefault("channelUnread", payloadMap.get("channelUnread"));
                             if (channelUnread != null) {
                                 messagingTemplate.convertAndSendToUser(participantUsername, "/queue/channel-unread", channelUnread);
-                                log.info("Sent channel-unread to {}", participantUsername);
+                                log.debug("Sent channel-unread to {}", participantUsername);
                             }
                         }
                     }
@@ -110,16 +225,18 @@ public class NotificationListener {
 
                     if (payloadMap.containsKey("unreadCount")) {
                         messagingTemplate.convertAndSendToUser(username, "/queue/unread-count", payloadMap.get("unreadCount"));
-                        log.info("Sent unread count to user {} via /user/{}/queue/unread-count", username, username);
+                        log.debug("Sent unread count to user {} via /user/{}/queue/unread-count", username, username);
                     }
                     if (payloadMap.containsKey("channelUnread")) {
                         messagingTemplate.convertAndSendToUser(username, "/queue/channel-unread", payloadMap.get("channelUnread"));
-                        log.info("Sent channel-unread to {}", username);
+                        log.debug("Sent channel-unread to {}", username);
                     }
                 }
             }
         } catch (Exception e) {
             log.error("Failed to process and send message for user {}", username, e);
+            return "failure";
         }
+        return "success";
     }
 }
@@ -0,0 +1,17 @@
+package com.openisle.websocket.realtime;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A realtime event published by the backend, decoded by {@link RealtimeMessageConverter}.
+ * Mirrors {@code com.openisle.realtime.RealtimeEnvelope} in the backend.
+ *
+ * @param version the backend's envelope version; unknown fields and event types are ignored
+ * @param username the shard key and, for per-user events, the recipient
+ * @param event the event, or null if this version does not know its type
+ */
+public record RealtimeEnvelope(
+        @JsonProperty("v") int version,
+        @JsonProperty("u") String username,
+        @JsonProperty("e") RealtimeEvent event) {
+}
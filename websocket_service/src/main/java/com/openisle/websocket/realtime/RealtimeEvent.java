@@ -0,0 +1,147 @@
+package com.openisle.websocket.realtime;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed payloads of {@link RealtimeEnvelope}, mirroring {@code com.openisle.realtime.RealtimeEvent}
+ * in the backend. The {@code to*} methods expand the short fields back into the STOMP payloads
+ * the frontend consumes, so clients see the same JSON as before the envelope.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "t")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = RealtimeEvent.ConversationMessage.class, name = "m"),
+        @JsonSubTypes.Type(value = RealtimeEvent.MessageReaction.class, name = "r"),
+        @JsonSubTypes.Type(value = RealtimeEvent.NotificationUnread.class, name = "n"),
+})
+public sealed interface RealtimeEvent {
+
+    record UserRef(
+            @JsonProperty("i") Long id,
+            @JsonProperty("n") String username,
+            @JsonProperty("a") String avatar,
+            @JsonProperty("b") boolean bot) {
+
+        Map<String, Object> toDto() {
+            Map<String, Object> dto = new LinkedHashMap<>();
+            dto.put("id", id);
+            dto.put("username", username);
+            dto.put("avatar", avatar);
+            dto.put("bot", bot);
+            return dto;
+        }
+    }
+
+    record ReactionRef(
+            @JsonProperty("i") Long id,
+            @JsonProperty("k") String type,
+            @JsonProperty("u") String username,
+            @JsonProperty("w") int reward) {
+
+        /** The backend's ReactionDto for a reaction on message {@code messageId}. */
+        Map<String, Object> toDto(Long messageId) {
+            Map<String, Object> dto = new LinkedHashMap<>();
+            dto.put("id", id);
+            dto.put("type", type);
+            dto.put("user", username);
+            dto.put("postId", null);
+            dto.put("commentId", null);
+            dto.put("messageId", messageId);
+            dto.put("reward", reward);
+            return dto;
+        }
+    }
+
+    record Reply(
+            @JsonProperty("i") Long id,
+            @JsonProperty("b") String content,
+            @JsonProperty("s") UserRef sender) {
+    }
+
+    record Recipient(
+            @JsonProperty("i") Long id,
+            @JsonProperty("n") String username,
+            @JsonProperty("u") Long unreadCount,
+            @JsonProperty("cu") Long channelUnread) {
+    }
+
+    /**
+     * A new message; pushed to the conversation topic and to every recipient.
+     * {@code createdAt} stays the ISO string the backend wrote.
+     */
+    record ConversationMessage(
+            @JsonProperty("c") Long conversationId,
+            @JsonProperty("i") Long messageId,
+            @JsonProperty("b") String content,
+            @JsonProperty("at") String createdAt,
+            @JsonProperty("s") UserRef sender,
+            @JsonProperty("rp") Reply replyTo,
+            @JsonProperty("rx") List<ReactionRef> reactions,
+            @JsonProperty("p") List<Recipient> recipients) implements RealtimeEvent {
+
+        /** The backend's MessageDto. */
+        public Map<String, Object> toMessageDto() {
+            Map<String, Object> dto = message(messageId, content, sender, conversationId, createdAt);
+            if (replyTo != null) {
+                dto.put("replyTo", message(replyTo.id(), replyTo.content(), replyTo.sender(), null, null));
+            }
+            List<Map<String, Object>> reactionDtos = new ArrayList<>();
+            if (reactions != null) {
+                for (ReactionRef reaction : reactions) {
+                    reactionDtos.add(reaction.toDto(messageId));
+                }
+            }
+            dto.put("reactions", reactionDtos);
+            return dto;
+        }
+
+        private static Map<String, Object> message(
+                Long id, String content, UserRef sender, Long conversationId, String createdAt) {
+            Map<String, Object> dto = new LinkedHashMap<>();
+            dto.put("id", id);
+            dto.put("content", content);
+            dto.put("sender", sender == null ? null : sender.toDto());
+            dto.put("conversationId", conversationId);
+            dto.put("createdAt", createdAt);
+            dto.put("replyTo", null);
+            dto.put("reactions", null);
+            return dto;
+        }
+    }
+
+    record MessageReaction(
+            @JsonProperty("c") Long conversationId,
+            @JsonProperty("i") Long messageId,
+            @JsonProperty("a") boolean added,
+            @JsonProperty("rx") ReactionRef reaction) implements RealtimeEvent {
+
+        public Map<String, Object> toPayload() {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("eventType", "MESSAGE_REACTION");
+            payload.put("conversationId", conversationId);
+            payload.put("messageId", messageId);
+            payload.put("action", added ? "ADDED" : "REMOVED");
+            payload.put("reaction", reaction == null ? null : reaction.toDto(messageId));
+            return payload;
+        }
+    }
+
+    record NotificationUnread(
+            @JsonProperty("n") long count,
+            @JsonProperty("bt") Map<String, Long> byType) implements RealtimeEvent {
+
+        public Map<String, Object> toPayload() {
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("eventType", "NOTIFICATION_UNREAD");
+            payload.put("count", count);
+            payload.put("byType", byType);
+            return payload;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.openisle.websocket.realtime;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.IOException;
+
+/**
+ * Decodes Smile messages as {@link RealtimeEnvelope}s and everything else with the JSON
+ * converter, so the Map JSON payloads published before the envelope still work during a
+ * rollout. Sending is JSON only; this service does not publish envelopes.
+ */
+public class RealtimeMessageConverter implements MessageConverter {
+
+    public static final String CONTENT_TYPE_SMILE = "application/x-jackson-smile";
+
+    private final ObjectMapper smile = SmileMapper.builder()
+            // 新版本 backend 可以加字段或事件类型，旧的 websocket 服务忽略即可
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .disable(DeserializationFeature.FAIL_ON_INVALID_SUBTYPE)
+            .build();
+    private final Jackson2JsonMessageConverter json;
+
+    public RealtimeMessageConverter(Jackson2JsonMessageConverter json) {
+        this.json = json;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        return json.toMessage(object, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        if (!CONTENT_TYPE_SMILE.equals(message.getMessageProperties().getContentType())) {
+            return json.fromMessage(message);
+        }
+        try {
+            return smile.readValue(message.getBody(), RealtimeEnvelope.class);
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to decode realtime envelope", e);
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.openisle.websocket.security;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -13,6 +15,8 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.List;
 
 @Configuration
@@ -23,6 +27,9 @@ public class SecurityConfig {
     @Value("${app.website-url}")
     private String websiteUrl;
 
+    @Value("${app.metrics.token:}")
+    private String metricsToken;
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -63,6 +70,10 @@ public class SecurityConfig {
                 .csrf().disable()
                 .cors(Customizer.withDefaults())
                 .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        // 其余 actuator 端点（指标）需带上配置的 token，未配置时一律拒绝
+                        .requestMatchers("/actuator/**").access((authentication, context) ->
+                                new AuthorizationDecision(hasMetricsToken(context.getRequest())))
                         .requestMatchers("/**").permitAll() // Permit all HTTP requests
                 )
                 .sessionManagement(session -> session
@@ -70,4 +81,14 @@ public class SecurityConfig {
                 );
         return http.build();
     }
+
+    private boolean hasMetricsToken(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (metricsToken.isEmpty() || header == null || !header.startsWith("Bearer ")) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                metricsToken.getBytes(StandardCharsets.UTF_8),
+                header.substring(7).getBytes(StandardCharsets.UTF_8));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.openisle.websocket.listener;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.openisle.websocket.config.RabbitMQConfig;
+import com.openisle.websocket.dto.MessageNotificationPayload;
+import com.openisle.websocket.realtime.RealtimeEnvelope;
+import com.openisle.websocket.realtime.RealtimeMessageConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The Smile envelope and the legacy Map JSON must produce the same STOMP pushes, so clients do
+ * not notice which format the backend published.
+ */
+class NotificationListenerFormatTest {
+
+    private static final String QUEUE = RabbitMQConfig.SHARD_QUEUE_PREFIX + "3";
+
+    private final RealtimeMessageConverter converter = new RabbitMQConfig().messageConverter();
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper smile = new SmileMapper();
+    private SimpMessagingTemplate template;
+    private NotificationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        template = mock(SimpMessagingTemplate.class);
+        listener = new NotificationListener(template, new SimpleMeterRegistry(), converter);
+    }
+
+    @Test
+    void envelopeMessagePushesTheLegacyPayloads() throws Exception {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("t", "m");
+        event.put("c", 7);
+        event.put("i", 42);
+        event.put("b", "hello");
+        event.put("at", "2024-05-01T09:30:15");
+        event.put("s", Map.of("i", 1, "n", "alice", "a", "a.png", "b", false));
+        event.put("rp", Map.of("i", 41, "b", "hi", "s", Map.of("i", 2, "n", "bob", "a", "b.png", "b", false)));
+        event.put("rx", List.of(Map.of("i", 5, "k", "LIKE", "u", "bob", "w", 0)));
+        event.put("p", List.of(Map.of("i", 2, "n", "bob", "u", 3, "cu", 1)));
+
+        listener.onMessage(smile(Map.of("v", 1, "u", "alice", "e", event)));
+
+        JsonNode legacyMessage = json.readTree(
+                """
+                {"id":42,"content":"hello","sender":{"id":1,"username":"alice","avatar":"a.png","bot":false},
+                 "conversationId":7,"createdAt":"2024-05-01T09:30:15",
+                 "replyTo":{"id":41,"content":"hi","sender":{"id":2,"username":"bob","avatar":"b.png","bot":false},
+                            "conversationId":null,"createdAt":null,"replyTo":null,"reactions":null},
+                 "reactions":[{"id":5,"type":"LIKE","user":"bob","postId":null,"commentId":null,"messageId":42,"reward":0}]}
+                """);
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(template).convertAndSend(eq("/topic/conversation/7"), captor.capture());
+        assertEquals(tree(legacyMessage), tree(captor.getValue()));
+        verify(template).convertAndSend("/topic/user/2/messages", captor.getValue());
+        verify(template).convertAndSendToUser("bob", "/queue/unread-count", 3L);
+        verify(template).convertAndSendToUser("bob", "/queue/channel-unread", 1L);
+        verifyNoMoreInteractions(template);
+    }
+
+    @Test
+    void envelopeAndLegacyReactionPushTheSamePayload() throws Exception {
+        Map<String, Object> event = Map.of(
+                "t", "r", "c", 7, "i", 42, "a", true, "rx", Map.of("i", 5, "k", "LIKE", "u", "bob", "w", 0));
+        listener.onMessage(smile(Map.of("v", 1, "u", "bob", "e", event)));
+
+        Map<String, Object> reaction = new HashMap<>();
+        reaction.put("id", 5);
+        reaction.put("type", "LIKE");
+        reaction.put("user", "bob");
+        reaction.put("postId", null);
+        reaction.put("commentId", null);
+        reaction.put("messageId", 42);
+        reaction.put("reward", 0);
+        Map<String, Object> payload = Map.of(
+                "eventType", "MESSAGE_REACTION",
+                "conversationId", 7,
+                "messageId", 42,
+                "action", "ADDED",
+                "reaction", reaction);
+        listener.onMessage(legacy("bob", payload));
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(template, times(2)).convertAndSend(eq("/topic/conversation/7"), captor.capture());
+        assertEquals(tree(captor.getAllValues().get(1)), tree(captor.getAllValues().get(0)));
+    }
+
+    @Test
+    void envelopeUnreadCountGoesToTheEnvelopeUser() throws Exception {
+        Map<String, Object> event = Map.of("t", "n", "n", 4, "bt", Map.of("MENTION", 4));
+        listener.onMessage(smile(Map.of("v", 1, "u", "carol", "e", event)));
+
+        verify(template).convertAndSendToUser(
+                "carol",
+                "/queue/notification-unread",
+                Map.of("eventType", "NOTIFICATION_UNREAD", "count", 4L, "byType", Map.of("MENTION", 4L)));
+    }
+
+    @Test
+    void unknownFieldsAndEventTypesAreIgnored() throws Exception {
+        Message message = smile(Map.of("v", 2, "u", "carol", "x", 1, "e", Map.of("t", "future", "z", 1)));
+
+        RealtimeEnvelope envelope = (RealtimeEnvelope) converter.fromMessage(message);
+        assertEquals(2, envelope.version());
+        assertNull(envelope.event());
+
+        listener.onMessage(message);
+        verifyNoInteractions(template);
+    }
+
+    private Message smile(Map<String, Object> envelope) throws Exception {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(RealtimeMessageConverter.CONTENT_TYPE_SMILE);
+        properties.setConsumerQueue(QUEUE);
+        return new Message(smile.writeValueAsBytes(envelope), properties);
+    }
+
+    private Message legacy(String username, Map<String, Object> payload) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue(QUEUE);
+        return converter.toMessage(new MessageNotificationPayload(username, payload), properties);
+    }
+
+    /** Compare pushes the way clients see them: as JSON, ignoring key order. */
+    private JsonNode tree(Object payload) throws Exception {
+        return json.readTree(json.writeValueAsString(payload));
+    }
+}
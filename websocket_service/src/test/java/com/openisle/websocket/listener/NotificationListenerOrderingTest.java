@@ -0,0 +1,131 @@
+package com.openisle.websocket.listener;
+
+import com.openisle.websocket.config.NotificationListenerConfig;
+import com.openisle.websocket.config.RabbitMQConfig;
+import com.openisle.websocket.dto.MessageNotificationPayload;
+import com.openisle.websocket.realtime.RealtimeMessageConverter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Replays sharded notifications through {@link NotificationListener} without a broker. Each
+ * simulated consumer owns the queues {@link NotificationListenerConfig#assign} gives it and drains
+ * them one message at a time, like a single-consumer listener container.
+ */
+class NotificationListenerOrderingTest {
+
+    private static final int SHARDS = 16;
+    private static final int USERS = 64;
+    private static final int MESSAGES_PER_USER = 20;
+
+    private final RealtimeMessageConverter converter = new RabbitMQConfig().messageConverter();
+
+    @Test
+    void assignsEveryQueueToExactlyOneConsumer() {
+        List<String> queues = queueNames();
+        List<List<String>> groups = NotificationListenerConfig.assign(queues, 5);
+        assertEquals(5, groups.size());
+        Set<String> seen = new HashSet<>();
+        groups.forEach(group -> group.forEach(queue -> assertTrue(seen.add(queue))));
+        assertEquals(new HashSet<>(queues), seen);
+        assertEquals(SHARDS, NotificationListenerConfig.assign(queues, 64).size());
+        assertEquals(1, NotificationListenerConfig.assign(queues, 0).size());
+    }
+
+    @Test
+    void keepsPerUserOrderWhileThroughputScalesWithConsumers() throws Exception {
+        long single = replay(1);
+        long parallel = replay(4);
+        assertTrue(parallel * 2 < single, "1 consumer: " + single + "ms, 4 consumers: " + parallel + "ms");
+    }
+
+    /** Replays every message with {@code consumers} consumers and returns the elapsed millis. */
+    private long replay(int consumers) throws Exception {
+        Map<String, List<Integer>> delivered = new ConcurrentHashMap<>();
+        SimpMessagingTemplate template = mock(SimpMessagingTemplate.class);
+        doAnswer(invocation -> {
+            Map<?, ?> payload = invocation.getArgument(2);
+            delivered.computeIfAbsent(invocation.getArgument(0), k -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(((Number) payload.get("count")).intValue());
+            // 模拟一次推送的耗时
+            Thread.sleep(1);
+            return null;
+        }).when(template).convertAndSendToUser(anyString(), eq("/queue/notification-unread"), any(Object.class));
+        NotificationListener listener = new NotificationListener(template, new SimpleMeterRegistry(), converter);
+
+        Map<String, ArrayDeque<Message>> queues = new HashMap<>();
+        queueNames().forEach(name -> queues.put(name, new ArrayDeque<>()));
+        for (int seq = 0; seq < MESSAGES_PER_USER; seq++) {
+            for (int user = 0; user < USERS; user++) {
+                String queue = RabbitMQConfig.SHARD_QUEUE_PREFIX + (user % SHARDS);
+                queues.get(queue).add(message("user" + user, seq, queue));
+            }
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        for (List<String> group : NotificationListenerConfig.assign(queueNames(), consumers)) {
+            threads.add(new Thread(() -> drain(listener, group, queues)));
+        }
+        long start = System.nanoTime();
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(USERS, delivered.size());
+        List<Integer> expected = new ArrayList<>();
+        for (int seq = 0; seq < MESSAGES_PER_USER; seq++) {
+            expected.add(seq);
+        }
+        delivered.forEach((user, seqs) -> assertEquals(expected, seqs, user));
+        return elapsed;
+    }
+
+    /** One consumer: round-robins over its own queues until they are empty. */
+    private static void drain(NotificationListener listener, List<String> group, Map<String, ArrayDeque<Message>> queues) {
+        boolean any = true;
+        while (any) {
+            any = false;
+            for (String queue : group) {
+                Message message = queues.get(queue).poll();
+                if (message != null) {
+                    listener.onMessage(message);
+                    any = true;
+                }
+            }
+        }
+    }
+
+    private Message message(String username, int seq, String queue) {
+        MessageProperties properties = new MessageProperties();
+        properties.setConsumerQueue(queue);
+        Map<String, Object> payload = Map.of("eventType", "NOTIFICATION_UNREAD", "count", seq);
+        return converter.toMessage(new MessageNotificationPayload(username, payload), properties);
+    }
+
+    private static List<String> queueNames() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            names.add(RabbitMQConfig.SHARD_QUEUE_PREFIX + i);
+        }
+        return names;
+    }
+}